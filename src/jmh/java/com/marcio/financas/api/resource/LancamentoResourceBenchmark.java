@@ -0,0 +1,50 @@
+package com.marcio.financas.api.resource;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcio.financas.api.dto.LancamentoDTO;
+import com.marcio.financas.model.entity.Lancamento;
+
+/**
+ * Fica no pacote do resource para alcançar o {@code converter}, que não é público.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LancamentoResourceBenchmark {
+	
+	private LancamentoDTO dto;
+	
+	@Setup
+	public void preparar() {
+		this.dto = LancamentoDTO.builder()
+				.descricao("Conta de luz")
+				.ano(2020)
+				.mes(3)
+				.valor(BigDecimal.valueOf(15990, 2))
+				.usuario(1l)
+				.tipo("DESPESA")
+				.status("PENDENTE")
+				.build();
+	}
+	
+	@Benchmark
+	public Lancamento converter() {
+		return LancamentoResource.converter(this.dto, 1l);
+	}
+}
@@ -0,0 +1,80 @@
+package com.marcio.financas.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.UsuarioService;
+
+/**
+ * Sobe a aplicação contra o H2 do perfil de teste e grava
+ * {@code usuarios * lancamentosPorUsuario} lançamentos pelo próprio serviço,
+ * para que o livro de saldos e o resumo mensal também fiquem populados.
+ */
+@State(Scope.Benchmark)
+public class AplicacaoSemeada {
+	
+	@Param({ "50" })
+	public int usuarios;
+	
+	@Param({ "1000" })
+	public int lancamentosPorUsuario;
+	
+	ConfigurableApplicationContext contexto;
+	
+	LancamentoService lancamentoService;
+	
+	List<Long> idsUsuarios;
+	
+	@Setup(Level.Trial)
+	public void iniciar() {
+		System.setProperty("spring.devtools.restart.enabled", "false");
+		this.contexto = new SpringApplicationBuilder(FinancasApplication.class)
+				.web(WebApplicationType.NONE)
+				.profiles("test")
+				.properties("logging.level.root=WARN")
+				.run();
+		
+		this.lancamentoService = this.contexto.getBean(LancamentoService.class);
+		UsuarioService usuarioService = this.contexto.getBean(UsuarioService.class);
+		
+		Random aleatorio = new Random(42);
+		this.idsUsuarios = new ArrayList<>(this.usuarios);
+		for (int u = 0; u < this.usuarios; u++) {
+			Usuario usuario = usuarioService.salvar(Usuario.builder()
+					.nome("usuario " + u)
+					.email("usuario" + u + "@benchmark.com")
+					.senha("123")
+					.build());
+			this.idsUsuarios.add(usuario.getId());
+			
+			List<Lancamento> lancamentos = GeradorLancamentos.gerar(usuario, this.lancamentosPorUsuario, aleatorio);
+			for (int inicio = 0; inicio < lancamentos.size(); inicio += LancamentoService.TAMANHO_LOTE_MAXIMO) {
+				this.lancamentoService.salvarLote(lancamentos.subList(inicio, Math.min(inicio + LancamentoService.TAMANHO_LOTE_MAXIMO, lancamentos.size())));
+			}
+		}
+	}
+	
+	@TearDown(Level.Trial)
+	public void encerrar() {
+		this.contexto.close();
+	}
+	
+	Long usuarioAleatorio(Random aleatorio) {
+		return this.idsUsuarios.get(aleatorio.nextInt(this.idsUsuarios.size()));
+	}
+}
@@ -0,0 +1,47 @@
+package com.marcio.financas.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+/**
+ * Gera lançamentos com a distribuição aproximada da produção: poucas
+ * descrições recorrentes, três anos de histórico e mais despesas que receitas.
+ */
+final class GeradorLancamentos {
+	
+	private static final String[] DESCRICOES = {
+		"Aluguel", "Conta de luz", "Conta de água", "Internet", "Mercado", "Farmácia",
+		"Combustível", "Academia", "Restaurante", "Salário", "Freelance", "Cartão de crédito"
+	};
+	
+	private GeradorLancamentos() {
+	}
+	
+	static List<Lancamento> gerar(Usuario usuario, int quantidade, Random aleatorio) {
+		List<Lancamento> lancamentos = new ArrayList<>(quantidade);
+		for (int i = 0; i < quantidade; i++) {
+			String descricao = DESCRICOES[aleatorio.nextInt(DESCRICOES.length)];
+			boolean receita = descricao.equals("Salário") || descricao.equals("Freelance");
+			
+			lancamentos.add(Lancamento.builder()
+					.usuario(usuario)
+					.descricao(descricao + " " + (i % 97))
+					.ano(2018 + aleatorio.nextInt(3))
+					.mes(1 + aleatorio.nextInt(12))
+					.valor(BigDecimal.valueOf(1000 + aleatorio.nextInt(500000), 2))
+					.tipo(receita ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+					.status(StatusLancamento.values()[aleatorio.nextInt(StatusLancamento.values().length)])
+					.dataCadastro(LocalDate.of(2020, 1, 1))
+					.build());
+		}
+		return lancamentos;
+	}
+}
@@ -0,0 +1,63 @@
+package com.marcio.financas.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.service.ResultadoItemLote;
+
+/**
+ * Compara gravar {@code tamanho} lançamentos com uma chamada de
+ * {@code salvar} para cada um contra uma única chamada de {@code salvarLote},
+ * na base já semeada.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GravacaoLoteBenchmark {
+	
+	@Param({ "10", "100", "1000" })
+	public int tamanho;
+	
+	private final Random aleatorio = new Random(11);
+	
+	private List<Lancamento> lancamentos;
+	
+	// lançamentos novos a cada chamada, já que os gravados recebem id
+	@Setup(Level.Invocation)
+	public void gerar(AplicacaoSemeada aplicacao) {
+		Usuario usuario = Usuario.builder().id(aplicacao.usuarioAleatorio(this.aleatorio)).build();
+		this.lancamentos = GeradorLancamentos.gerar(usuario, this.tamanho, this.aleatorio);
+	}
+	
+	@Benchmark
+	public void salvarUmAUm(AplicacaoSemeada aplicacao, Blackhole buraco) {
+		for (Lancamento lancamento : this.lancamentos) {
+			buraco.consume(aplicacao.lancamentoService.salvar(lancamento));
+		}
+	}
+	
+	@Benchmark
+	public List<ResultadoItemLote> salvarLote(AplicacaoSemeada aplicacao) {
+		return aplicacao.lancamentoService.salvarLote(this.lancamentos);
+	}
+}
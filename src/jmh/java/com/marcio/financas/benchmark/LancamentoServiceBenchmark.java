@@ -0,0 +1,55 @@
+package com.marcio.financas.benchmark;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.Pagina;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoServiceBenchmark {
+	
+	private final Random aleatorio = new Random(7);
+	
+	@Benchmark
+	public BigDecimal obterSaldoPorUsuario(AplicacaoSemeada aplicacao) {
+		return aplicacao.lancamentoService.obterSaldoPorUsuario(aplicacao.usuarioAleatorio(this.aleatorio));
+	}
+	
+	@Benchmark
+	public List<Lancamento> buscarPorExemplo(AplicacaoSemeada aplicacao) {
+		return aplicacao.lancamentoService.buscar(this.filtro(aplicacao));
+	}
+	
+	@Benchmark
+	public Pagina<LancamentoListagem> buscarPagina(AplicacaoSemeada aplicacao) {
+		return aplicacao.lancamentoService.buscarPagina(this.filtro(aplicacao), null, 50);
+	}
+	
+	private Lancamento filtro(AplicacaoSemeada aplicacao) {
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(aplicacao.usuarioAleatorio(this.aleatorio)).build());
+		filtro.setDescricao("conta");
+		filtro.setAno(2019);
+		return filtro;
+	}
+}
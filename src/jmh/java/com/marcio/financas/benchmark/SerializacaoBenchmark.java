@@ -0,0 +1,74 @@
+package com.marcio.financas.benchmark;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcio.financas.api.dto.LancamentoListagemSerializer;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializacaoBenchmark {
+	
+	@Param({ "50", "1000" })
+	public int tamanho;
+	
+	private ObjectMapper mapper;
+	
+	private List<Lancamento> lancamentos;
+	
+	private List<LancamentoListagem> listagem;
+	
+	@Setup
+	public void preparar() {
+		// mesma configuração base que o Spring Boot aplica ao ObjectMapper da aplicação
+		this.mapper = Jackson2ObjectMapperBuilder.json()
+				.serializerByType(LancamentoListagem.class, new LancamentoListagemSerializer())
+				.build();
+		
+		Usuario usuario = Usuario.builder().id(1l).nome("usuario").email("usuario@benchmark.com").senha("123").build();
+		this.lancamentos = GeradorLancamentos.gerar(usuario, this.tamanho, new Random(3));
+		
+		long id = 1;
+		for (Lancamento lancamento : this.lancamentos) {
+			lancamento.setId(id++);
+		}
+		
+		this.listagem = this.lancamentos.stream()
+				.map((l) -> new LancamentoListagem(l.getId(), l.getDescricao(), l.getMes(), l.getAno(), l.getValor(), l.getTipo(), l.getStatus(), l.getVersao()))
+				.collect(Collectors.toList());
+	}
+	
+	@Benchmark
+	public byte[] serializarLancamentos() throws JsonProcessingException {
+		return this.mapper.writeValueAsBytes(this.lancamentos);
+	}
+	
+	@Benchmark
+	public byte[] serializarListagem() throws JsonProcessingException {
+		return this.mapper.writeValueAsBytes(this.listagem);
+	}
+}
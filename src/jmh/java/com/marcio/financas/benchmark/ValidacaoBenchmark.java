@@ -0,0 +1,61 @@
+package com.marcio.financas.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.service.impl.LancamentoServiceImpl;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoBenchmark {
+	
+	private LancamentoServiceImpl service;
+	
+	private Lancamento valido;
+	
+	private Lancamento invalido;
+	
+	@Setup
+	public void preparar() {
+		// validar não usa nenhuma das dependências
+		this.service = new LancamentoServiceImpl(null, null, null, null, null, null, null);
+		
+		Usuario usuario = Usuario.builder().id(1l).build();
+		this.valido = GeradorLancamentos.gerar(usuario, 1, new Random(1)).get(0);
+		this.invalido = GeradorLancamentos.gerar(usuario, 1, new Random(1)).get(0);
+		this.invalido.setTipo(null);
+	}
+	
+	@Benchmark
+	public void validarValido() {
+		this.service.validar(this.valido);
+	}
+	
+	@Benchmark
+	public void validarInvalido(Blackhole blackhole) {
+		try {
+			this.service.validar(this.invalido);
+		} catch (RegraNegocioException e) {
+			blackhole.consume(e);
+		}
+	}
+}
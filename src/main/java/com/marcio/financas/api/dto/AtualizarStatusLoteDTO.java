@@ -0,0 +1,23 @@
+package com.marcio.financas.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtualizarStatusLoteDTO {
+	
+	private String status;
+	
+	private List<Long> ids;
+	
+	private Integer ano;
+	
+	private Integer mes;
+}
@@ -0,0 +1,19 @@
+package com.marcio.financas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class AutenticacaoDTO {
+	
+	private Long id;
+	
+	private String nome;
+	
+	private String email;
+	
+	private String token;
+}
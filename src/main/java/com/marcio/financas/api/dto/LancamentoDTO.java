@@ -24,4 +24,6 @@ public class LancamentoDTO {
 	private String tipo;
 	
 	private String status;
+	
+	private Long versao;
 }
@@ -0,0 +1,56 @@
+package com.marcio.financas.api.dto;
+
+import java.io.IOException;
+
+import org.springframework.boot.jackson.JsonComponent;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+/**
+ * Escreve cada item da listagem campo a campo, sem introspecção, omitindo os
+ * campos nulos.
+ */
+@JsonComponent
+public class LancamentoListagemSerializer extends JsonSerializer<LancamentoListagem> {
+
+	@Override
+	public void serialize(LancamentoListagem lancamento, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+		gerador.writeStartObject();
+		if (lancamento.getId() != null) {
+			gerador.writeNumberField("id", lancamento.getId());
+		}
+		
+		if (lancamento.getDescricao() != null) {
+			gerador.writeStringField("descricao", lancamento.getDescricao());
+		}
+		
+		if (lancamento.getMes() != null) {
+			gerador.writeNumberField("mes", lancamento.getMes());
+		}
+		
+		if (lancamento.getAno() != null) {
+			gerador.writeNumberField("ano", lancamento.getAno());
+		}
+		
+		if (lancamento.getValor() != null) {
+			gerador.writeNumberField("valor", lancamento.getValor());
+		}
+		
+		if (lancamento.getTipo() != null) {
+			gerador.writeStringField("tipo", lancamento.getTipo().name());
+		}
+		
+		if (lancamento.getStatus() != null) {
+			gerador.writeStringField("status", lancamento.getStatus().name());
+		}
+		
+		if (lancamento.getVersao() != null) {
+			gerador.writeNumberField("versao", lancamento.getVersao());
+		}
+		
+		gerador.writeEndObject();
+	}
+}
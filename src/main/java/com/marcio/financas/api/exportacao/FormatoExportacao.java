@@ -0,0 +1,113 @@
+package com.marcio.financas.api.exportacao;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.marcio.financas.model.entity.Lancamento;
+
+public enum FormatoExportacao {
+	
+	NDJSON("application/x-ndjson") {
+		@Override
+		public EscritorLancamentos criarEscritor(Writer saida) throws IOException {
+			JsonGenerator gerador = JSON.createGenerator(saida);
+			gerador.setRootValueSeparator(new SerializedString("\n"));
+			
+			return new EscritorLancamentos() {
+				@Override
+				public void escrever(Lancamento lancamento) throws IOException {
+					gerador.writeStartObject();
+					gerador.writeNumberField("id", lancamento.getId());
+					gerador.writeStringField("descricao", lancamento.getDescricao());
+					gerador.writeNumberField("mes", lancamento.getMes());
+					gerador.writeNumberField("ano", lancamento.getAno());
+					gerador.writeNumberField("valor", lancamento.getValor());
+					gerador.writeStringField("tipo", nome(lancamento.getTipo()));
+					gerador.writeStringField("status", nome(lancamento.getStatus()));
+					gerador.writeStringField("dataCadastro", lancamento.getDataCadastro() != null ? lancamento.getDataCadastro().toString() : null);
+					gerador.writeEndObject();
+				}
+				
+				@Override
+				public void finalizar() throws IOException {
+					gerador.writeRaw('\n');
+					gerador.flush();
+				}
+			};
+		}
+	},
+	
+	CSV("text/csv") {
+		@Override
+		public EscritorLancamentos criarEscritor(Writer saida) throws IOException {
+			saida.write("id,descricao,mes,ano,valor,tipo,status,dataCadastro\n");
+			
+			return new EscritorLancamentos() {
+				@Override
+				public void escrever(Lancamento lancamento) throws IOException {
+					saida.write(String.valueOf(lancamento.getId()));
+					saida.write(',');
+					saida.write(escapar(lancamento.getDescricao()));
+					saida.write(',');
+					saida.write(String.valueOf(lancamento.getMes()));
+					saida.write(',');
+					saida.write(String.valueOf(lancamento.getAno()));
+					saida.write(',');
+					saida.write(lancamento.getValor().toPlainString());
+					saida.write(',');
+					saida.write(nome(lancamento.getTipo()));
+					saida.write(',');
+					saida.write(nome(lancamento.getStatus()));
+					saida.write(',');
+					saida.write(lancamento.getDataCadastro() != null ? lancamento.getDataCadastro().toString() : "");
+					saida.write('\n');
+				}
+				
+				@Override
+				public void finalizar() throws IOException {
+					saida.flush();
+				}
+			};
+		}
+	};
+	
+	private static final JsonFactory JSON = new JsonFactory();
+	
+	private final String contentType;
+	
+	FormatoExportacao(String contentType) {
+		this.contentType = contentType;
+	}
+	
+	public String getContentType() {
+		return this.contentType;
+	}
+	
+	public abstract EscritorLancamentos criarEscritor(Writer saida) throws IOException;
+	
+	public interface EscritorLancamentos {
+		
+		void escrever(Lancamento lancamento) throws IOException;
+		
+		void finalizar() throws IOException;
+	}
+	
+	private static String nome(Enum<?> valor) {
+		return valor != null ? valor.name() : "";
+	}
+	
+	private static String escapar(String valor) {
+		if (valor == null) {
+			return "";
+		}
+		
+		if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+			return valor;
+		}
+		
+		return '"' + valor.replace("\"", "\"\"") + '"';
+	}
+}
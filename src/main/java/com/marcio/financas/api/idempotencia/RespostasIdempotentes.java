@@ -0,0 +1,159 @@
+package com.marcio.financas.api.idempotencia;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcio.financas.model.entity.ChaveIdempotencia;
+import com.marcio.financas.model.entity.ChaveIdempotenciaId;
+import com.marcio.financas.model.repository.ChaveIdempotenciaRepository;
+
+/**
+ * Respostas de criações feitas com {@value #CABECALHO}, por usuário. A chave é
+ * gravada na mesma transação da criação, então uma repetição nunca encontra o
+ * lançamento gravado sem a resposta. Repetições recentes são atendidas pelo
+ * cache local, sem ir ao banco; as demais, pela tabela chave_idempotencia.
+ * Respostas de erro não são guardadas: a repetição é avaliada de novo.
+ */
+@Component
+public class RespostasIdempotentes {
+	
+	public static final String CABECALHO = "Idempotency-Key";
+	
+	public static final String CABECALHO_REPETICAO = "Idempotent-Replayed";
+	
+	private static final int TAMANHO_MAXIMO_CHAVE = 255;
+	
+	private final ChaveIdempotenciaRepository repository;
+	
+	private final TransactionTemplate transacao;
+	
+	private final ObjectMapper mapper;
+	
+	private final Cache<ChaveIdempotenciaId, ChaveIdempotencia> cache;
+	
+	public RespostasIdempotentes(ChaveIdempotenciaRepository repository, PlatformTransactionManager transactionManager, ObjectProvider<ObjectMapper> mapper,
+			@Value("${financas.idempotencia.validade:PT24H}") Duration validade,
+			@Value("${financas.idempotencia.tamanho-cache:100000}") long tamanhoCache) {
+		this.repository = repository;
+		this.transacao = new TransactionTemplate(transactionManager);
+		// o mesmo mapeamento das respostas HTTP, para a repetição sair idêntica
+		this.mapper = mapper.getIfAvailable(ObjectMapper::new);
+		this.cache = Caffeine.newBuilder()
+				.maximumSize(tamanhoCache)
+				.expireAfterWrite(validade)
+				.build();
+	}
+	
+	/**
+	 * Executa a criação uma única vez por chave. Sem chave, apenas executa.
+	 */
+	public ResponseEntity executar(Long usuarioId, String chave, Object requisicao, Supplier<ResponseEntity> criacao) {
+		if (chave == null) {
+			return criacao.get();
+		}
+		
+		if (chave.isEmpty() || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+			return ResponseEntity.badRequest().body(CABECALHO + " deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres");
+		}
+		
+		ChaveIdempotenciaId id = new ChaveIdempotenciaId(usuarioId, chave);
+		String impressao = this.impressao(requisicao);
+		
+		ChaveIdempotencia registrada = this.buscar(id);
+		if (registrada != null) {
+			return this.repetir(registrada, impressao);
+		}
+		
+		ChaveIdempotencia[] gravada = new ChaveIdempotencia[1];
+		ResponseEntity resposta;
+		try {
+			resposta = this.transacao.execute((status) -> {
+				ResponseEntity criada = criacao.get();
+				if (!criada.getStatusCode().is2xxSuccessful()) {
+					status.setRollbackOnly();
+					return criada;
+				}
+				
+				gravada[0] = ChaveIdempotencia.builder()
+						.usuarioId(usuarioId)
+						.chave(chave)
+						.impressao(impressao)
+						.status(criada.getStatusCodeValue())
+						.resposta(this.serializar(criada.getBody()))
+						.dataCriacao(LocalDateTime.now())
+						.build();
+				this.repository.saveAndFlush(gravada[0]);
+				return criada;
+			});
+		} catch (DataIntegrityViolationException e) {
+			// outra tentativa com a mesma chave gravou primeiro; a desta foi desfeita
+			ChaveIdempotencia vencedora = this.buscar(id);
+			if (vencedora == null) {
+				throw e;
+			}
+			return this.repetir(vencedora, impressao);
+		}
+		
+		if (gravada[0] != null) {
+			this.cache.put(id, gravada[0]);
+		}
+		return resposta;
+	}
+	
+	private ChaveIdempotencia buscar(ChaveIdempotenciaId id) {
+		ChaveIdempotencia registrada = this.cache.getIfPresent(id);
+		if (registrada == null) {
+			registrada = this.repository.findById(id).orElse(null);
+			if (registrada != null) {
+				this.cache.put(id, registrada);
+			}
+		}
+		return registrada;
+	}
+	
+	private ResponseEntity repetir(ChaveIdempotencia registrada, String impressao) {
+		if (!registrada.getImpressao().equals(impressao)) {
+			return ResponseEntity.unprocessableEntity().body(CABECALHO + " já utilizada em outra requisição");
+		}
+		
+		return ResponseEntity.status(registrada.getStatus())
+				.contentType(MediaType.APPLICATION_JSON)
+				.header(CABECALHO_REPETICAO, "true")
+				.body(registrada.getResposta());
+	}
+	
+	String impressao(Object requisicao) {
+		try {
+			byte[] hash = MessageDigest.getInstance("SHA-256").digest(this.serializar(requisicao).getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+	
+	private String serializar(Object valor) {
+		try {
+			return this.mapper.writeValueAsString(valor);
+		} catch (JsonProcessingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
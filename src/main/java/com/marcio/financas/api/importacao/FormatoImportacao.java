@@ -0,0 +1,32 @@
+package com.marcio.financas.api.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+
+public enum FormatoImportacao {
+	
+	CSV {
+		@Override
+		public LeitorExtrato criarLeitor(BufferedReader entrada) {
+			return new LeitorCsv(entrada);
+		}
+	},
+	
+	OFX {
+		@Override
+		public LeitorExtrato criarLeitor(BufferedReader entrada) {
+			return new LeitorOfx(entrada);
+		}
+	};
+	
+	public abstract LeitorExtrato criarLeitor(BufferedReader entrada);
+	
+	public interface LeitorExtrato {
+		
+		/**
+		 * Próximo item do extrato, ou null no fim da entrada. Só o item
+		 * corrente fica em memória.
+		 */
+		ItemExtrato proximo() throws IOException;
+	}
+}
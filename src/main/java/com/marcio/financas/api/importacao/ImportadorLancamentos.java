@@ -0,0 +1,117 @@
+package com.marcio.financas.api.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import com.marcio.financas.api.importacao.FormatoImportacao.LeitorExtrato;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResultadoItemLote;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Importa um extrato à medida que ele é lido: no máximo um lote de
+ * {@link LancamentoService#TAMANHO_LOTE_MAXIMO} lançamentos fica em memória,
+ * e cada lote é validado e gravado pelo {@link LancamentoService#salvarLote},
+ * numa transação própria. Valores negativos viram despesas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ImportadorLancamentos {
+	
+	public static final int MAXIMO_ERROS = 100;
+	
+	private static final int TAMANHO_DESCRICAO = 255;
+	
+	private final LancamentoService service;
+	
+	public ResultadoImportacao importar(Long usuarioId, FormatoImportacao formato, BufferedReader entrada) throws IOException {
+		long inicio = System.nanoTime();
+		LeitorExtrato leitor = formato.criarLeitor(entrada);
+		Contagem contagem = new Contagem();
+		
+		List<Lancamento> lote = new ArrayList<>(LancamentoService.TAMANHO_LOTE_MAXIMO);
+		int[] linhasDoLote = new int[LancamentoService.TAMANHO_LOTE_MAXIMO];
+		
+		ItemExtrato item;
+		while ((item = leitor.proximo()) != null) {
+			contagem.linhas++;
+			if (item.getErro() != null) {
+				contagem.rejeitar(item.getLinha(), item.getErro());
+				continue;
+			}
+			
+			linhasDoLote[lote.size()] = item.getLinha();
+			lote.add(converter(item, usuarioId));
+			if (lote.size() == LancamentoService.TAMANHO_LOTE_MAXIMO) {
+				this.gravar(lote, linhasDoLote, contagem);
+			}
+		}
+		
+		if (!lote.isEmpty()) {
+			this.gravar(lote, linhasDoLote, contagem);
+		}
+		
+		ResultadoImportacao resultado = contagem.resultado(System.nanoTime() - inicio);
+		log.info("Importação {} do usuário {}: {} linhas, {} importadas, {} linhas/s",
+				formato, usuarioId, resultado.getLinhas(), resultado.getImportados(), resultado.getLinhasPorSegundo());
+		return resultado;
+	}
+	
+	private void gravar(List<Lancamento> lote, int[] linhasDoLote, Contagem contagem) {
+		for (ResultadoItemLote resultado : this.service.salvarLote(lote)) {
+			if (resultado.getErro() != null) {
+				contagem.rejeitar(linhasDoLote[resultado.getIndice()], resultado.getErro());
+			} else {
+				contagem.importados++;
+			}
+		}
+		lote.clear();
+	}
+	
+	private static Lancamento converter(ItemExtrato item, Long usuarioId) {
+		Lancamento lancamento = new Lancamento();
+		lancamento.setDescricao(item.getDescricao() != null && item.getDescricao().length() > TAMANHO_DESCRICAO
+				? item.getDescricao().substring(0, TAMANHO_DESCRICAO) : item.getDescricao());
+		lancamento.setMes(item.getData().getMonthValue());
+		lancamento.setAno(item.getData().getYear());
+		lancamento.setValor(item.getValor().abs());
+		lancamento.setTipo(item.getValor().signum() < 0 ? TipoLancamento.DESPESA : TipoLancamento.RECEITA);
+		lancamento.setUsuario(Usuario.builder().id(usuarioId).build());
+		return lancamento;
+	}
+	
+	private static class Contagem {
+		
+		private long linhas;
+		
+		private long importados;
+		
+		private long rejeitados;
+		
+		private final List<ResultadoImportacao.ErroLinha> erros = new ArrayList<>();
+		
+		void rejeitar(int linha, String erro) {
+			this.rejeitados++;
+			if (this.erros.size() < MAXIMO_ERROS) {
+				this.erros.add(new ResultadoImportacao.ErroLinha(linha, erro));
+			}
+		}
+		
+		ResultadoImportacao resultado(long duracaoNanos) {
+			long linhasPorSegundo = duracaoNanos > 0 ? this.linhas * TimeUnit.SECONDS.toNanos(1) / duracaoNanos : this.linhas;
+			return new ResultadoImportacao(this.linhas, this.importados, this.rejeitados, this.erros,
+					TimeUnit.NANOSECONDS.toMillis(duracaoNanos), linhasPorSegundo);
+		}
+	}
+}
@@ -0,0 +1,29 @@
+package com.marcio.financas.api.importacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/*
+ * Uma transação do extrato; o valor vem com sinal, negativo para saídas.
+ */
+@Data
+@AllArgsConstructor
+public class ItemExtrato {
+	
+	private int linha;
+	
+	private LocalDate data;
+	
+	private String descricao;
+	
+	private BigDecimal valor;
+	
+	private String erro;
+	
+	static ItemExtrato falha(int linha, String erro) {
+		return new ItemExtrato(linha, null, null, null, erro);
+	}
+}
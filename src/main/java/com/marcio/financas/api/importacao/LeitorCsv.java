@@ -0,0 +1,204 @@
+package com.marcio.financas.api.importacao;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.marcio.financas.api.importacao.FormatoImportacao.LeitorExtrato;
+
+/**
+ * Extrato em CSV, uma transação por linha, separado por ponto e vírgula ou
+ * vírgula conforme a primeira linha. Se a primeira linha não tem nenhuma data
+ * ela é o cabeçalho e indica as colunas de data, descrição e valor; sem
+ * cabeçalho as colunas são essas, nessa ordem.
+ */
+class LeitorCsv implements LeitorExtrato {
+	
+	// limite de uma linha: um arquivo sem quebras não faz a linha crescer sem fim
+	static final int TAMANHO_MAXIMO = 4096;
+	
+	private static final List<DateTimeFormatter> FORMATOS_DATA = Arrays.asList(
+			DateTimeFormatter.ofPattern("dd/MM/uuuu"), DateTimeFormatter.ISO_LOCAL_DATE);
+	
+	private final BufferedReader entrada;
+	
+	private int linha;
+	
+	private boolean iniciado;
+	
+	private char separador;
+	
+	private int colunaData = 0;
+	
+	private int colunaDescricao = 1;
+	
+	private int colunaValor = 2;
+	
+	private boolean truncada;
+	
+	LeitorCsv(BufferedReader entrada) {
+		this.entrada = entrada;
+	}
+	
+	@Override
+	public ItemExtrato proximo() throws IOException {
+		String texto;
+		while ((texto = this.lerLinha()) != null) {
+			this.linha++;
+			if (this.truncada) {
+				return ItemExtrato.falha(this.linha, "Linha com mais de " + TAMANHO_MAXIMO + " caracteres");
+			}
+			
+			if (texto.trim().isEmpty()) {
+				continue;
+			}
+			
+			if (!this.iniciado) {
+				this.iniciado = true;
+				this.separador = texto.indexOf(';') >= 0 ? ';' : ',';
+				
+				List<String> campos = this.dividir(texto);
+				if (campos.stream().noneMatch((campo) -> data(campo) != null)) {
+					this.mapearColunas(campos);
+					continue;
+				}
+				return this.item(campos);
+			}
+			
+			return this.item(this.dividir(texto));
+		}
+		return null;
+	}
+	
+	/*
+	 * Como o readLine, termina em \n, \r ou \r\n; o que passar de
+	 * TAMANHO_MAXIMO é lido e descartado.
+	 */
+	private String lerLinha() throws IOException {
+		StringBuilder texto = new StringBuilder();
+		this.truncada = false;
+		
+		int c = this.entrada.read();
+		if (c == -1) {
+			return null;
+		}
+		
+		while (c != -1 && c != '\n' && c != '\r') {
+			if (texto.length() < TAMANHO_MAXIMO) {
+				texto.append((char) c);
+			} else {
+				this.truncada = true;
+			}
+			c = this.entrada.read();
+		}
+		
+		if (c == '\r') {
+			this.entrada.mark(1);
+			if (this.entrada.read() != '\n') {
+				this.entrada.reset();
+			}
+		}
+		return texto.toString();
+	}
+	
+	private ItemExtrato item(List<String> campos) {
+		if (campos.size() <= Math.max(this.colunaData, Math.max(this.colunaDescricao, this.colunaValor))) {
+			return ItemExtrato.falha(this.linha, "Linha com menos colunas que o esperado");
+		}
+		
+		LocalDate data = data(campos.get(this.colunaData));
+		if (data == null) {
+			return ItemExtrato.falha(this.linha, "Data inválida: " + campos.get(this.colunaData));
+		}
+		
+		BigDecimal valor = valor(campos.get(this.colunaValor));
+		if (valor == null) {
+			return ItemExtrato.falha(this.linha, "Valor inválido: " + campos.get(this.colunaValor));
+		}
+		
+		// "1,234" ou "1.234" pode ser milhar ou decimal; na dúvida a linha é recusada
+		if (valor.scale() > 2) {
+			return ItemExtrato.falha(this.linha, "Valor com mais de duas casas decimais: " + campos.get(this.colunaValor));
+		}
+		
+		return new ItemExtrato(this.linha, data, campos.get(this.colunaDescricao).trim(), valor, null);
+	}
+	
+	private void mapearColunas(List<String> cabecalho) {
+		for (int i = 0; i < cabecalho.size(); i++) {
+			String nome = Normalizer.normalize(cabecalho.get(i), Normalizer.Form.NFD).replaceAll("\\p{M}", "").trim().toLowerCase();
+			if (nome.contains("data")) {
+				this.colunaData = i;
+			} else if (nome.contains("descri") || nome.contains("historico") || nome.contains("memo")) {
+				this.colunaDescricao = i;
+			} else if (nome.contains("valor")) {
+				this.colunaValor = i;
+			}
+		}
+	}
+	
+	/*
+	 * Campos entre aspas podem conter o separador; aspas dobradas são uma aspa.
+	 */
+	private List<String> dividir(String texto) {
+		List<String> campos = new ArrayList<>();
+		StringBuilder campo = new StringBuilder();
+		boolean entreAspas = false;
+		
+		for (int i = 0; i < texto.length(); i++) {
+			char c = texto.charAt(i);
+			if (c == '"') {
+				if (entreAspas && i + 1 < texto.length() && texto.charAt(i + 1) == '"') {
+					campo.append('"');
+					i++;
+				} else {
+					entreAspas = !entreAspas;
+				}
+			} else if (c == this.separador && !entreAspas) {
+				campos.add(campo.toString());
+				campo.setLength(0);
+			} else {
+				campo.append(c);
+			}
+		}
+		
+		campos.add(campo.toString());
+		return campos;
+	}
+	
+	static LocalDate data(String texto) {
+		for (DateTimeFormatter formato : FORMATOS_DATA) {
+			try {
+				return LocalDate.parse(texto.trim(), formato);
+			} catch (DateTimeParseException e) {
+				// tenta o próximo formato
+			}
+		}
+		return null;
+	}
+	
+	/**
+	 * Aceita "1.234,56" e "1,234.56": o último separador é o decimal.
+	 */
+	static BigDecimal valor(String texto) {
+		String limpo = texto.replace("R$", "").replace(" ", "").replace("\u00a0", "");
+		if (limpo.lastIndexOf(',') > limpo.lastIndexOf('.')) {
+			limpo = limpo.replace(".", "").replace(',', '.');
+		} else {
+			limpo = limpo.replace(",", "");
+		}
+		
+		try {
+			return new BigDecimal(limpo);
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.marcio.financas.api.importacao;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.marcio.financas.api.importacao.FormatoImportacao.LeitorExtrato;
+
+/**
+ * Extrato em OFX, SGML (1.x, sem fechamento das tags de valor) ou XML (2.x).
+ * A entrada é lida caractere a caractere e só os campos da transação corrente
+ * ficam em memória; o cabeçalho e os demais blocos são ignorados.
+ */
+class LeitorOfx implements LeitorExtrato {
+	
+	// limite de tag e de valor: um arquivo malformado não faz o campo crescer sem fim
+	private static final int TAMANHO_MAXIMO = 1024;
+	
+	private static final int NENHUM = -2;
+	
+	private final Reader entrada;
+	
+	private int linha = 1;
+	
+	private int devolvido = NENHUM;
+	
+	LeitorOfx(Reader entrada) {
+		this.entrada = entrada;
+	}
+	
+	@Override
+	public ItemExtrato proximo() throws IOException {
+		Map<String, String> campos = null;
+		int linhaTransacao = 0;
+		
+		String tag;
+		while ((tag = this.proximaTag()) != null) {
+			if (tag.equals("STMTTRN")) {
+				campos = new HashMap<>();
+				linhaTransacao = this.linha;
+			} else if (tag.equals("/STMTTRN")) {
+				if (campos != null) {
+					return item(linhaTransacao, campos);
+				}
+			} else if (campos != null && !tag.startsWith("/")) {
+				campos.put(tag, this.valor());
+			}
+		}
+		return null;
+	}
+	
+	private static ItemExtrato item(int linha, Map<String, String> campos) {
+		String dataPostagem = campos.getOrDefault("DTPOSTED", "");
+		LocalDate data;
+		try {
+			data = LocalDate.parse(dataPostagem.length() >= 8 ? dataPostagem.substring(0, 8) : dataPostagem, DateTimeFormatter.BASIC_ISO_DATE);
+		} catch (DateTimeParseException e) {
+			return ItemExtrato.falha(linha, "Data inválida: " + dataPostagem);
+		}
+		
+		BigDecimal valor = campos.containsKey("TRNAMT") ? LeitorCsv.valor(campos.get("TRNAMT")) : null;
+		if (valor == null) {
+			return ItemExtrato.falha(linha, "Valor inválido: " + campos.getOrDefault("TRNAMT", ""));
+		}
+		
+		String descricao = campos.containsKey("MEMO") && !campos.get("MEMO").isEmpty() ? campos.get("MEMO") : campos.get("NAME");
+		return new ItemExtrato(linha, data, descricao, valor, null);
+	}
+	
+	/*
+	 * Nome da próxima tag, em maiúsculas e com a barra se for de fechamento;
+	 * o texto fora de tags até ela é descartado.
+	 */
+	private String proximaTag() throws IOException {
+		int c;
+		while ((c = this.ler()) != -1 && c != '<') {
+			// fora de tag
+		}
+		if (c == -1) {
+			return null;
+		}
+		
+		StringBuilder tag = new StringBuilder();
+		while ((c = this.ler()) != -1 && c != '>') {
+			if (tag.length() < TAMANHO_MAXIMO) {
+				tag.append((char) c);
+			}
+		}
+		return tag.toString().trim().toUpperCase();
+	}
+	
+	/*
+	 * Valor da tag recém-lida: vai até a próxima tag ou o fim da linha.
+	 */
+	private String valor() throws IOException {
+		StringBuilder valor = new StringBuilder();
+		int c;
+		while ((c = this.ler()) != -1 && c != '\n') {
+			if (c == '<') {
+				this.devolvido = c;
+				break;
+			}
+			if (valor.length() < TAMANHO_MAXIMO) {
+				valor.append((char) c);
+			}
+		}
+		return valor.toString().trim().replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+	}
+	
+	private int ler() throws IOException {
+		if (this.devolvido != NENHUM) {
+			int c = this.devolvido;
+			this.devolvido = NENHUM;
+			return c;
+		}
+		
+		int c = this.entrada.read();
+		if (c == '\n') {
+			this.linha++;
+		}
+		return c;
+	}
+}
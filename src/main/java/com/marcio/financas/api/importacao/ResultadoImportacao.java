@@ -0,0 +1,33 @@
+package com.marcio.financas.api.importacao;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResultadoImportacao {
+	
+	private long linhas;
+	
+	private long importados;
+	
+	private long rejeitados;
+	
+	// só as primeiras ImportadorLancamentos.MAXIMO_ERROS
+	private List<ErroLinha> erros;
+	
+	private long duracaoMs;
+	
+	private long linhasPorSegundo;
+	
+	@Data
+	@AllArgsConstructor
+	public static class ErroLinha {
+		
+		private int linha;
+		
+		private String erro;
+	}
+}
@@ -0,0 +1,54 @@
+package com.marcio.financas.api.resource;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.marcio.financas.api.seguranca.TokenFiltro;
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.service.AnaliseLancamentoService;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Soma, média e maiores lançamentos do usuário num intervalo de meses
+ * ("yyyy-MM"), opcionalmente filtrados por tipo e status.
+ */
+@RestController
+@RequestMapping("/api/lancamentos/analise")
+@RequiredArgsConstructor
+public class AnaliseResource {
+	
+	private final AnaliseLancamentoService service;
+	
+	@GetMapping
+	public ResponseEntity analisar(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestParam(value = "de", required = false) String de,
+			@RequestParam(value = "ate", required = false) String ate,
+			@RequestParam(value = "tipo", required = false) String tipo,
+			@RequestParam(value = "status", required = false) String status,
+			@RequestParam(value = "maiores", defaultValue = "10") Integer maiores) {
+		try {
+			return ResponseEntity.ok(this.service.analisar(usuarioId,
+					de != null ? YearMonth.parse(de) : null,
+					ate != null ? YearMonth.parse(ate) : null,
+					tipo != null ? TipoLancamento.valueOf(tipo) : null,
+					status != null ? StatusLancamento.valueOf(status) : null,
+					maiores));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (DateTimeParseException e) {
+			return ResponseEntity.badRequest().body("Período inválido, use o formato yyyy-MM");
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Tipo ou status inválido");
+		}
+	}
+}
@@ -0,0 +1,18 @@
+package com.marcio.financas.api.resource;
+
+import java.util.Arrays;
+
+/**
+ * ETags fracas a partir da versão do usuário: o mesmo conteúdo lógico,
+ * não necessariamente os mesmos bytes. Os parâmetros da consulta entram no
+ * hash para que páginas e filtros diferentes não compartilhem a etiqueta.
+ */
+final class ETags {
+	
+	private ETags() {
+	}
+	
+	static String fraca(long versao, Object... parametros) {
+		return "W/\"" + versao + "-" + Integer.toHexString(Arrays.hashCode(parametros)) + "\"";
+	}
+}
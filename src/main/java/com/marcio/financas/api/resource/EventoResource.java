@@ -0,0 +1,37 @@
+package com.marcio.financas.api.resource;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.marcio.financas.api.seguranca.TokenFiltro;
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.service.EventoLancamentoService;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Leitura incremental das mudanças nos lançamentos do usuário: o cliente
+ * guarda o proximoCursor e o envia como "apos" na leitura seguinte.
+ */
+@RestController
+@RequestMapping("/api/lancamentos/eventos")
+@RequiredArgsConstructor
+public class EventoResource {
+	
+	private final EventoLancamentoService service;
+	
+	@GetMapping
+	public ResponseEntity buscar(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestParam(value = "apos", defaultValue = "0") Long apos,
+			@RequestParam(value = "tamanho", defaultValue = "500") Integer tamanho) {
+		try {
+			return ResponseEntity.ok(this.service.buscarApos(usuarioId, apos, tamanho));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+}
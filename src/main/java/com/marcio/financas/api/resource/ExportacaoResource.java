@@ -0,0 +1,71 @@
+package com.marcio.financas.api.resource;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.marcio.financas.api.exportacao.FormatoExportacao;
+import com.marcio.financas.api.exportacao.FormatoExportacao.EscritorLancamentos;
+import com.marcio.financas.api.seguranca.TokenFiltro;
+import com.marcio.financas.service.LancamentoService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/lancamentos/exportacao")
+@RequiredArgsConstructor
+public class ExportacaoResource {
+	
+	private final LancamentoService service;
+	
+	@GetMapping
+	public ResponseEntity exportar(
+			@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestParam(value = "formato", defaultValue = "ndjson") String formato) {
+		
+		FormatoExportacao formatoExportacao;
+		try {
+			formatoExportacao = FormatoExportacao.valueOf(formato.toUpperCase());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Formato inválido");
+		}
+		
+		StreamingResponseBody corpo = (saida) -> {
+			Writer writer = new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8));
+			EscritorLancamentos escritor = formatoExportacao.criarEscritor(writer);
+			
+			try {
+				this.service.exportar(usuarioId, (lancamento) -> {
+					try {
+						escritor.escrever(lancamento);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				});
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			
+			escritor.finalizar();
+		};
+		
+		String arquivo = "lancamentos." + formatoExportacao.name().toLowerCase();
+		return ResponseEntity.ok()
+				.contentType(MediaType.parseMediaType(formatoExportacao.getContentType() + ";charset=UTF-8"))
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + arquivo + "\"")
+				.body(corpo);
+	}
+}
@@ -0,0 +1,56 @@
+package com.marcio.financas.api.resource;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.marcio.financas.api.importacao.FormatoImportacao;
+import com.marcio.financas.api.importacao.ImportadorLancamentos;
+import com.marcio.financas.api.seguranca.TokenFiltro;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Importação de extratos: o arquivo vai no corpo da requisição, sem
+ * multipart, e é lido direto do stream.
+ */
+@RestController
+@RequestMapping("/api/lancamentos/importacao")
+@RequiredArgsConstructor
+public class ImportacaoResource {
+	
+	private static final int TAMANHO_BUFFER = 64 * 1024;
+	
+	private final ImportadorLancamentos importador;
+	
+	@PostMapping
+	public ResponseEntity importar(
+			@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestParam(value = "formato", defaultValue = "csv") String formato,
+			HttpServletRequest request) throws IOException {
+		
+		FormatoImportacao formatoImportacao;
+		Charset charset;
+		try {
+			formatoImportacao = FormatoImportacao.valueOf(formato.toUpperCase());
+			charset = request.getCharacterEncoding() != null ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Formato ou charset inválido");
+		}
+		
+		try (BufferedReader entrada = new BufferedReader(new InputStreamReader(request.getInputStream(), charset), TAMANHO_BUFFER)) {
+			return ResponseEntity.ok(this.importador.importar(usuarioId, formatoImportacao, entrada));
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package com.marcio.financas.api.resource;
+
+import java.net.URI;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.marcio.financas.api.dto.LancamentoDTO;
+import com.marcio.financas.api.seguranca.TokenFiltro;
+import com.marcio.financas.exceptions.FilaCheiaException;
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.ingestao.FilaIngestao;
+import com.marcio.financas.ingestao.SituacaoIngestao;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/lancamentos/ingestao")
+@ConditionalOnProperty(name = "financas.ingestao.habilitada", havingValue = "true")
+@RequiredArgsConstructor
+public class IngestaoResource {
+	
+	private final FilaIngestao fila;
+	
+	@PostMapping
+	public ResponseEntity enfileirar(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId, @RequestBody LancamentoDTO dto) {
+		try {
+			SituacaoIngestao situacao = this.fila.enfileirar(LancamentoResource.converter(dto, usuarioId));
+			return ResponseEntity.accepted()
+					.location(URI.create("/api/lancamentos/ingestao/" + situacao.getProtocolo()))
+					.body(situacao);
+		} catch (FilaCheiaException e) {
+			return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1").body(e.getMessage());
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Tipo ou status inválido");
+		}
+	}
+	
+	@GetMapping("{protocolo}")
+	public ResponseEntity situacao(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId, @PathVariable("protocolo") String protocolo) {
+		return this.fila.obterSituacao(protocolo, usuarioId)
+				.map((situacao) -> new ResponseEntity(situacao, HttpStatus.OK))
+				.orElseGet(() -> new ResponseEntity("Protocolo não encontrado", HttpStatus.BAD_REQUEST));
+	}
+}
@@ -1,30 +1,43 @@
 package com.marcio.financas.api.resource;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import com.marcio.financas.api.dto.AtualizarStatusDTO;
+import com.marcio.financas.api.dto.AtualizarStatusLoteDTO;
 import com.marcio.financas.api.dto.LancamentoDTO;
+import com.marcio.financas.api.idempotencia.RespostasIdempotentes;
+import com.marcio.financas.api.seguranca.TokenFiltro;
+import com.marcio.financas.exceptions.ConflitoVersaoException;
 import com.marcio.financas.exceptions.RegraNegocioException;
 import com.marcio.financas.model.entity.Lancamento;
 import com.marcio.financas.model.entity.Usuario;
 import com.marcio.financas.model.enums.StatusLancamento;
 import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.Pagina;
 import com.marcio.financas.service.LancamentoService;
-import com.marcio.financas.service.UsuarioService;
+import com.marcio.financas.service.ResultadoItemLote;
 
 import lombok.RequiredArgsConstructor;
 
@@ -35,28 +48,72 @@ public class LancamentoResource {
 	
 	private final LancamentoService service;
 	
-	private final UsuarioService serviceUsuario;
-	
+	private final RespostasIdempotentes idempotencia;
 	
 	@PostMapping
-	public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
-		try {
-			Lancamento lancamento = converter(dto);
-			Lancamento lancamentoSalvo = this.service.salvar(lancamento);
-			return new ResponseEntity(lancamentoSalvo, HttpStatus.CREATED);
-		} catch (RegraNegocioException e) {
-			return ResponseEntity.badRequest().body(e.getMessage());
+	public ResponseEntity salvar(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestHeader(value = RespostasIdempotentes.CABECALHO, required = false) String chave, @RequestBody LancamentoDTO dto) {
+		return this.idempotencia.executar(usuarioId, chave, dto, () -> {
+			try {
+				Lancamento lancamento = converter(dto, usuarioId);
+				Lancamento lancamentoSalvo = this.service.salvar(lancamento);
+				return new ResponseEntity(lancamentoSalvo, HttpStatus.CREATED);
+			} catch (RegraNegocioException e) {
+				return ResponseEntity.badRequest().body(e.getMessage());
+			}
+		});
+	}
+	
+	@PostMapping("/lote")
+	public ResponseEntity salvarLote(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestHeader(value = RespostasIdempotentes.CABECALHO, required = false) String chave, @RequestBody List<LancamentoDTO> dtos) {
+		if (dtos.size() > LancamentoService.TAMANHO_LOTE_MAXIMO) {
+			return ResponseEntity.badRequest().body("O lote deve ter no máximo " + LancamentoService.TAMANHO_LOTE_MAXIMO + " lançamentos");
 		}
+		
+		return this.idempotencia.executar(usuarioId, chave, dtos, () -> this.gravarLote(usuarioId, dtos));
+	}
+	
+	private ResponseEntity gravarLote(Long usuarioId, List<LancamentoDTO> dtos) {
+		ResultadoItemLote[] resultados = new ResultadoItemLote[dtos.size()];
+		List<Lancamento> lancamentos = new ArrayList<>(dtos.size());
+		List<Integer> indices = new ArrayList<>(dtos.size());
+		
+		for (int i = 0; i < dtos.size(); i++) {
+			try {
+				Lancamento lancamento = converter(dtos.get(i), usuarioId);
+				lancamento.setId(null);
+				lancamentos.add(lancamento);
+				indices.add(i);
+			} catch (RegraNegocioException e) {
+				resultados[i] = ResultadoItemLote.falha(i, e.getMessage());
+			} catch (IllegalArgumentException e) {
+				resultados[i] = ResultadoItemLote.falha(i, "Tipo ou status inválido");
+			}
+		}
+		
+		for (ResultadoItemLote resultado : this.service.salvarLote(lancamentos)) {
+			int indice = indices.get(resultado.getIndice());
+			resultado.setIndice(indice);
+			resultados[indice] = resultado;
+		}
+		
+		return ResponseEntity.ok(resultados);
 	}
 	
 	@PutMapping("{id}")
-	public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
-		return this.service.obterPorId(id).map((entity) -> {
+	public ResponseEntity atualizar(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
+		return obterDoUsuario(id, usuarioId).map((entity) -> {
 			try {
-				Lancamento lancamento = converter(dto);
+				Lancamento lancamento = converter(dto, usuarioId);
 				lancamento.setId(entity.getId());
-				this.service.atualizar(lancamento);
-				return new ResponseEntity(lancamento, HttpStatus.OK);
+				// sem versão no corpo, a edição vale sobre a versão que acabou de ser lida
+				lancamento.setVersao(dto.getVersao() != null ? dto.getVersao() : entity.getVersao());
+				Lancamento lancamentoAtualizado = this.service.atualizar(lancamento);
+				return new ResponseEntity(lancamentoAtualizado, HttpStatus.OK);
+			} catch (OptimisticLockingFailureException e) {
+				return new ResponseEntity("O lançamento foi alterado por outra requisição", HttpStatus.CONFLICT);
 			} catch (RegraNegocioException e) {
 				return ResponseEntity.badRequest().body(e.getMessage());
 			}
@@ -64,9 +121,29 @@ public class LancamentoResource {
 		}).orElseGet(() -> new ResponseEntity("Lancamento não encontrado", HttpStatus.BAD_REQUEST));
 	}
 	
+	/*
+	 * Atualização parcial: só os campos informados, num único UPDATE condicionado
+	 * ao dono e à versão. Conflitos de versão respondem 409.
+	 */
+	@PatchMapping("{id}")
+	public ResponseEntity atualizarParcial(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
+		try {
+			Lancamento alteracoes = converter(dto, usuarioId);
+			return ResponseEntity.ok(this.service.atualizarParcial(id, usuarioId, dto.getVersao(), alteracoes));
+		} catch (ConflitoVersaoException e) {
+			return new ResponseEntity(e.getMessage(), HttpStatus.CONFLICT);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Tipo ou status inválido");
+		}
+	}
+	
 	@PutMapping("{id}/atualizar-status")
-	public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizarStatusDTO dto) {
-		return this.service.obterPorId(id).map((entity) -> {
+	public ResponseEntity atualizarStatus(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@PathVariable("id") Long id, @RequestBody AtualizarStatusDTO dto) {
+		return obterDoUsuario(id, usuarioId).map((entity) -> {
 			try {
 				StatusLancamento status = StatusLancamento.valueOf(dto.getStatus());
 				
@@ -85,10 +162,26 @@ public class LancamentoResource {
 		}).orElseGet(() -> new ResponseEntity("Lancamento não encontrado", HttpStatus.BAD_REQUEST));
 	}
 	
+	@PutMapping("/atualizar-status")
+	public ResponseEntity atualizarStatusEmLote(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId, @RequestBody AtualizarStatusLoteDTO dto) {
+		if (dto.getStatus() == null) {
+			return ResponseEntity.badRequest().body("Status inválido");
+		}
+		
+		try {
+			StatusLancamento status = StatusLancamento.valueOf(dto.getStatus());
+			int atualizados = this.service.atualizarStatusEmLote(usuarioId, dto.getIds(), dto.getAno(), dto.getMes(), status);
+			return ResponseEntity.ok(Collections.singletonMap("atualizados", atualizados));
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body("Status inválido");
+		}
+	}
 	
 	@DeleteMapping("{id}")
-	public ResponseEntity deletar(@PathVariable("id") Long id) {
-		return this.service.obterPorId(id).map((entity) -> {
+	public ResponseEntity deletar(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId, @PathVariable("id") Long id) {
+		return obterDoUsuario(id, usuarioId).map((entity) -> {
 			try {
 				this.service.deletar(entity);
 				return new ResponseEntity(HttpStatus.NO_CONTENT);
@@ -104,25 +197,37 @@ public class LancamentoResource {
 			@RequestParam(value = "descricao", required = false) String descricao,
 			@RequestParam(value = "mes", required = false) Integer mes,
 			@RequestParam(value = "ano", required = false) Integer ano,
-			@RequestParam("usuario") Long usuarioId
+			@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestParam(value = "cursor", required = false) String cursor,
+			@RequestParam(value = "tamanho", defaultValue = "" + LancamentoService.TAMANHO_PAGINA_PADRAO) Integer tamanho,
+			WebRequest request
 			) {
+		// a versão é lida antes da consulta: uma escrita entre as duas só invalida a etiqueta antes da hora
+		String etag = ETags.fraca(this.service.obterVersao(usuarioId), usuarioId, descricao, mes, ano, cursor, tamanho);
+		if (request.checkNotModified(etag)) {
+			return null;
+		}
+		
 		Lancamento lancamentoFiltro = new Lancamento();
 		lancamentoFiltro.setDescricao(descricao);
 		lancamentoFiltro.setMes(mes);
 		lancamentoFiltro.setAno(ano);
+		lancamentoFiltro.setUsuario(Usuario.builder().id(usuarioId).build());
 		
-		Optional<Usuario> usuario = this.serviceUsuario.obterUsuario(usuarioId);
-		if (!usuario.isPresent()) {
-			return ResponseEntity.badRequest().body("Usuário não encontrado");
-		} else {
-			lancamentoFiltro.setUsuario(usuario.get());
+		try {
+			Pagina<LancamentoListagem> pagina = this.service.buscarPagina(lancamentoFiltro, cursor, tamanho);
+			return ResponseEntity.ok(pagina);
+		} catch (RegraNegocioException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
 		}
-		
-		List<Lancamento> lancamentos = this.service.buscar(lancamentoFiltro);
-		return ResponseEntity.ok(lancamentos);
 	}
 	
-	private Lancamento converter(LancamentoDTO dto) {
+	private Optional<Lancamento> obterDoUsuario(Long id, Long usuarioId) {
+		// lançamentos de outro usuário são tratados como inexistentes
+		return this.service.obterParaAlteracao(id, usuarioId);
+	}
+	
+	static Lancamento converter(LancamentoDTO dto, Long usuarioId) {
 		Lancamento lancamento = new Lancamento();
 		lancamento.setId(dto.getId());
 		lancamento.setDescricao(dto.getDescricao());
@@ -138,11 +243,12 @@ public class LancamentoResource {
 			lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
 		}
 		
+		if (dto.getUsuario() != null && !dto.getUsuario().equals(usuarioId)) {
+			throw new RegraNegocioException("Usuário informado difere do usuário autenticado");
+		}
 		
-		Usuario usuario = this.serviceUsuario.obterUsuario(dto.getUsuario())
-				.orElseThrow( () -> new RegraNegocioException("Usuário não encontrado para o ID informado"));
-		
-		lancamento.setUsuario(usuario);
+		// o token já garante o usuário, não há por que buscá-lo no banco
+		lancamento.setUsuario(Usuario.builder().id(usuarioId).build());
 		
 		return lancamento;
 	}
@@ -0,0 +1,66 @@
+package com.marcio.financas.api.resource;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.marcio.financas.api.seguranca.TokenFiltro;
+import com.marcio.financas.eventos.NotificacoesAoVivo;
+import com.marcio.financas.service.TokenService;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Saldo e lançamentos do usuário em tempo real, no lugar de consultar o saldo
+ * periodicamente. Eventos "lancamento" trazem a mudança e "saldo" o saldo
+ * resultante; o id de cada evento é a versão a informar em Last-Event-ID.
+ *
+ * O EventSource do navegador não envia Authorization: o cliente pede com o
+ * Bearer um token de notificações em POST /token e abre o fluxo com
+ * ?token=... . Esse token vale um minuto, só para abrir a conexão; quando a
+ * reconexão automática é recusada com 401, o cliente pede outro token e abre
+ * um novo EventSource com ?ultimoEvento= igual ao último id recebido.
+ */
+@RestController
+@RequestMapping(NotificacaoResource.CAMINHO)
+@RequiredArgsConstructor
+public class NotificacaoResource {
+	
+	public static final String CAMINHO = "/api/lancamentos/notificacoes";
+	
+	private final NotificacoesAoVivo notificacoes;
+	
+	private final TokenService tokenService;
+	
+	@PostMapping("/token")
+	public ResponseEntity<String> gerarToken(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId) {
+		return ResponseEntity.ok(this.tokenService.gerarTokenNotificacoes(usuarioId));
+	}
+	
+	@GetMapping(produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public ResponseEntity<SseEmitter> conectar(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId,
+			@RequestHeader(value = "Last-Event-ID", required = false) String ultimoEvento,
+			@RequestParam(value = "ultimoEvento", required = false) String ultimoEventoNaUrl) {
+		String ultimo = ultimoEvento != null ? ultimoEvento : ultimoEventoNaUrl;
+		Long ultimaVersao;
+		try {
+			ultimaVersao = ultimo != null ? Long.valueOf(ultimo) : null;
+		} catch (NumberFormatException e) {
+			ultimaVersao = null;
+		}
+		
+		return this.notificacoes.conectar(usuarioId, ultimaVersao)
+				.map(ResponseEntity::ok)
+				// sem corpo: o tipo de retorno é o do fluxo de eventos
+				.orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "30").build());
+	}
+}
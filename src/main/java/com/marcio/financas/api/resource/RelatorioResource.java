@@ -0,0 +1,43 @@
+package com.marcio.financas.api.resource;
+
+import java.net.URI;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.marcio.financas.relatorio.RelatoriosPlataforma;
+import com.marcio.financas.relatorio.SituacaoRelatorio;
+
+import lombok.RequiredArgsConstructor;
+
+/*
+ * Relatórios administrativos: o POST inicia e responde com o protocolo, o
+ * GET acompanha o progresso e traz o resultado ao concluir.
+ */
+@RestController
+@RequestMapping("/api/admin/relatorios")
+@RequiredArgsConstructor
+public class RelatorioResource {
+	
+	private final RelatoriosPlataforma relatorios;
+	
+	@PostMapping
+	public ResponseEntity iniciar() {
+		SituacaoRelatorio situacao = this.relatorios.iniciar();
+		return ResponseEntity.accepted()
+				.location(URI.create("/api/admin/relatorios/" + situacao.getProtocolo()))
+				.body(situacao);
+	}
+	
+	@GetMapping("{protocolo}")
+	public ResponseEntity situacao(@PathVariable("protocolo") String protocolo) {
+		return this.relatorios.obterSituacao(protocolo)
+				.map((situacao) -> new ResponseEntity(situacao, HttpStatus.OK))
+				.orElseGet(() -> new ResponseEntity("Protocolo não encontrado", HttpStatus.BAD_REQUEST));
+	}
+}
@@ -8,14 +8,21 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import com.marcio.financas.api.dto.AutenticacaoDTO;
 import com.marcio.financas.api.dto.UsuarioDTO;
+import com.marcio.financas.api.seguranca.TokenFiltro;
 import com.marcio.financas.exceptions.RegraNegocioException;
 import com.marcio.financas.model.entity.Usuario;
 import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResumoMensalService;
+import com.marcio.financas.service.TokenService;
 import com.marcio.financas.service.UsuarioService;
 
 @RestController
@@ -26,9 +33,16 @@ public class UsuarioResource {
 	
 	private LancamentoService lancamentoService;
 	
-	public UsuarioResource(UsuarioService service, LancamentoService lancamentoService) {
+	private TokenService tokenService;
+	
+	private ResumoMensalService resumoService;
+	
+	public UsuarioResource(UsuarioService service, LancamentoService lancamentoService, TokenService tokenService,
+			ResumoMensalService resumoService) {
 		this.service = service;
 		this.lancamentoService = lancamentoService;
+		this.tokenService = tokenService;
+		this.resumoService = resumoService;
 	}
 	
 	@PostMapping
@@ -47,21 +61,51 @@ public class UsuarioResource {
 	public ResponseEntity autenticar(@RequestBody UsuarioDTO dto) {
 		try {
 			Usuario usuario = this.service.autenticar(dto.getEmail(), dto.getSenha());
-			return ResponseEntity.ok(usuario);
+			AutenticacaoDTO autenticacao = AutenticacaoDTO.builder()
+					.id(usuario.getId())
+					.nome(usuario.getNome())
+					.email(usuario.getEmail())
+					.token(this.tokenService.gerarToken(usuario))
+					.build();
+			return ResponseEntity.ok(autenticacao);
 		} catch (Exception e) {
 			return ResponseEntity.badRequest().body(e.getMessage());
 		}
 	}
 	
 	@GetMapping("{id}/saldo")
-	public ResponseEntity saldo(@PathVariable("id") Long id ) {
+	public ResponseEntity saldo(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId, @PathVariable("id") Long id, WebRequest request) {
+		if (!id.equals(usuarioId)) {
+			return new ResponseEntity("Acesso negado", HttpStatus.FORBIDDEN);
+		}
+		
 		Optional<Usuario> usuario = this.service.obterUsuario(id);
 		
 		if (!usuario.isPresent()) {
 			throw new RegraNegocioException("Usuário não encontrado");
 		}
 		
+		if (request.checkNotModified(ETags.fraca(this.lancamentoService.obterVersao(id), id))) {
+			return null;
+		}
+		
 		BigDecimal saldo = this.lancamentoService.obterSaldoPorUsuario(id);
 		return ResponseEntity.ok(saldo);
 	}
+	
+	@GetMapping("{id}/resumo")
+	public ResponseEntity resumo(@RequestAttribute(TokenFiltro.USUARIO) Long usuarioId, @PathVariable("id") Long id,
+			@RequestParam("ano") Integer ano) {
+		if (!id.equals(usuarioId)) {
+			return new ResponseEntity("Acesso negado", HttpStatus.FORBIDDEN);
+		}
+		
+		Optional<Usuario> usuario = this.service.obterUsuario(id);
+		
+		if (!usuario.isPresent()) {
+			return ResponseEntity.badRequest().body("Usuário não encontrado");
+		}
+		
+		return ResponseEntity.ok(this.resumoService.obterResumo(id, ano));
+	}
 }
@@ -0,0 +1,43 @@
+package com.marcio.financas.api.seguranca;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Exige o cabeçalho {@value #CABECALHO} com a chave de financas.admin.chave.
+ * Sem chave configurada as rotas administrativas ficam fechadas.
+ */
+public class ChaveAdministrativaFiltro extends OncePerRequestFilter {
+	
+	public static final String CABECALHO = "X-Chave-Admin";
+	
+	private final byte[] chave;
+	
+	public ChaveAdministrativaFiltro(String chave) {
+		this.chave = chave != null ? chave.getBytes(StandardCharsets.UTF_8) : new byte[0];
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String enviada = request.getHeader(CABECALHO);
+		
+		// comparação em tempo constante, para a resposta não revelar quanto da chave confere
+		if (this.chave.length == 0 || enviada == null || !MessageDigest.isEqual(this.chave, enviada.getBytes(StandardCharsets.UTF_8))) {
+			response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+			response.setContentType("text/plain;charset=UTF-8");
+			response.getWriter().write("Chave administrativa inválida ou ausente");
+			return;
+		}
+		
+		chain.doFilter(request, response);
+	}
+}
@@ -0,0 +1,28 @@
+package com.marcio.financas.api.seguranca;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.marcio.financas.api.resource.NotificacaoResource;
+import com.marcio.financas.service.TokenService;
+
+@Configuration
+public class SegurancaConfig {
+	
+	@Bean
+	public FilterRegistrationBean<TokenFiltro> tokenFiltro(TokenService tokenService) {
+		FilterRegistrationBean<TokenFiltro> registro = new FilterRegistrationBean<>(new TokenFiltro(tokenService, NotificacaoResource.CAMINHO,
+				"/api/usuarios", "/api/usuarios/autenticar"));
+		registro.addUrlPatterns("/api/lancamentos/*", "/api/usuarios/*");
+		return registro;
+	}
+	
+	@Bean
+	public FilterRegistrationBean<ChaveAdministrativaFiltro> chaveAdministrativaFiltro(@Value("${financas.admin.chave:}") String chave) {
+		FilterRegistrationBean<ChaveAdministrativaFiltro> registro = new FilterRegistrationBean<>(new ChaveAdministrativaFiltro(chave));
+		registro.addUrlPatterns("/api/admin/*");
+		return registro;
+	}
+}
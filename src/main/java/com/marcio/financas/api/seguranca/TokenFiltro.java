@@ -0,0 +1,82 @@
+package com.marcio.financas.api.seguranca;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.marcio.financas.service.TokenService;
+
+/**
+ * Exige um token {@code Authorization: Bearer} válido e publica o id do
+ * usuário no atributo {@link #USUARIO} da requisição. No caminho de
+ * notificações aceita também o token de notificações no parâmetro
+ * {@link #PARAMETRO_TOKEN}, já que o EventSource não envia cabeçalhos.
+ * Os caminhos públicos, como cadastro e autenticação, passam sem token.
+ */
+public class TokenFiltro extends OncePerRequestFilter {
+	
+	public static final String USUARIO = "financas.usuarioAutenticado";
+	
+	public static final String PARAMETRO_TOKEN = "token";
+	
+	private static final String PREFIXO = "Bearer ";
+	
+	private final TokenService tokenService;
+	
+	private final String caminhoNotificacoes;
+	
+	private final Set<String> caminhosPublicos;
+	
+	public TokenFiltro(TokenService tokenService, String caminhoNotificacoes, String... caminhosPublicos) {
+		this.tokenService = tokenService;
+		this.caminhoNotificacoes = caminhoNotificacoes;
+		this.caminhosPublicos = new HashSet<>(Arrays.asList(caminhosPublicos));
+	}
+	
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return this.caminhosPublicos.contains(caminho(request));
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String cabecalho = request.getHeader(HttpHeaders.AUTHORIZATION);
+		
+		Optional<Long> usuario = cabecalho != null && cabecalho.startsWith(PREFIXO)
+				? this.tokenService.validarToken(cabecalho.substring(PREFIXO.length()).trim())
+				: Optional.empty();
+		
+		if (!usuario.isPresent() && cabecalho == null && this.noCaminhoNotificacoes(request)) {
+			usuario = this.tokenService.validarTokenNotificacoes(request.getParameter(PARAMETRO_TOKEN));
+		}
+		
+		if (!usuario.isPresent()) {
+			response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+			response.setContentType("text/plain;charset=UTF-8");
+			response.getWriter().write("Token inválido ou ausente");
+			return;
+		}
+		
+		request.setAttribute(USUARIO, usuario.get());
+		chain.doFilter(request, response);
+	}
+	
+	private boolean noCaminhoNotificacoes(HttpServletRequest request) {
+		return "GET".equals(request.getMethod()) && caminho(request).equals(this.caminhoNotificacoes);
+	}
+	
+	private static String caminho(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+}
@@ -0,0 +1,493 @@
+package com.marcio.financas.arquivo;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.CursorLancamento;
+import com.marcio.financas.shard.DiretorioShards;
+import com.marcio.financas.shard.ShardContexto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Arquivo dos anos encerrados: um {@link SegmentoArquivo} por usuário e ano,
+ * em financas.arquivo.diretorio/{usuario}/{ano}.seg. O diretório deve ser
+ * compartilhado entre os nós. Sem diretório configurado o arquivo fica
+ * desabilitado e as consultas seguem apenas na tabela.
+ */
+@Slf4j
+@Component
+public class ArquivoLancamentos {
+	
+	private static final String EXTENSAO = ".seg";
+	
+	private static final String PENDENTE = ".pendente";
+	
+	private static final Comparator<LancamentoListagem> ORDEM_LISTAGEM = Comparator.comparing(LancamentoListagem::getAno)
+			.thenComparing(LancamentoListagem::getMes)
+			.thenComparing(LancamentoListagem::getId)
+			.reversed();
+	
+	private final Path diretorio;
+	
+	private final ObjectProvider<DiretorioShards> shards;
+	
+	// segmentos mapeados, revalidados pelo inode e pela data de modificação; o limite
+	// respeita o número de mapeamentos por processo (vm.max_map_count)
+	private final Cache<Path, Aberto> abertos;
+	
+	public ArquivoLancamentos(@Value("${financas.arquivo.diretorio:}") String diretorio, ObjectProvider<DiretorioShards> shards,
+			@Value("${financas.arquivo.segmentos-abertos:10000}") long segmentosAbertos) {
+		this.diretorio = diretorio.isEmpty() ? null : Paths.get(diretorio).toAbsolutePath();
+		this.shards = shards;
+		this.abertos = Caffeine.newBuilder().maximumSize(segmentosAbertos).build();
+	}
+	
+	public boolean isHabilitado() {
+		return this.diretorio != null;
+	}
+	
+	/**
+	 * Mesmo critério do Example de LancamentoServiceImpl.buscar: campos nulos são
+	 * ignorados e a descrição é procurada por trecho, sem diferenciar caixa.
+	 */
+	public List<Lancamento> buscar(Lancamento filtro) {
+		if (filtro.getUsuario() == null || filtro.getUsuario().getId() == null) {
+			return Collections.emptyList();
+		}
+		
+		List<Lancamento> encontrados = new ArrayList<>();
+		for (SegmentoArquivo segmento : this.segmentos(filtro.getUsuario().getId())) {
+			if (filtro.getAno() != null && filtro.getAno() != segmento.getAno()) {
+				continue;
+			}
+			
+			boolean[] descricoes = filtro.getDescricao() != null ? segmento.descricoesContendo(filtro.getDescricao()) : null;
+			for (int linha = 0; linha < segmento.getLinhas(); linha++) {
+				if (descricoes != null && !contem(descricoes, segmento.posicaoDescricao(linha))) {
+					continue;
+				}
+				
+				Lancamento lancamento = segmento.lancamento(linha);
+				if (atende(filtro, lancamento)) {
+					encontrados.add(lancamento);
+				}
+			}
+		}
+		return encontrados;
+	}
+	
+	/**
+	 * Página na ordem (ano, mes, id) decrescente, com os filtros de
+	 * LancamentoRepositoryImpl.buscarPagina.
+	 */
+	public List<LancamentoListagem> buscarPagina(Lancamento filtro, CursorLancamento apos, int limite) {
+		List<SegmentoArquivo> segmentos = this.segmentos(filtro.getUsuario().getId());
+		Collections.reverse(segmentos);
+		
+		String descricao = filtro.getDescricao() != null && !filtro.getDescricao().isEmpty() ? filtro.getDescricao() : null;
+		List<LancamentoListagem> encontrados = new ArrayList<>();
+		for (SegmentoArquivo segmento : segmentos) {
+			if ((filtro.getAno() != null && filtro.getAno() != segmento.getAno()) || (apos != null && segmento.getAno() > apos.getAno())) {
+				continue;
+			}
+			
+			boolean[] descricoes = descricao != null ? segmento.descricoesContendo(descricao) : null;
+			for (int linha = segmento.getLinhas() - 1; linha >= 0 && encontrados.size() < limite; linha--) {
+				if ((filtro.getMes() != null && filtro.getMes() != segmento.mes(linha))
+						|| (descricoes != null && !contem(descricoes, segmento.posicaoDescricao(linha)))
+						|| (apos != null && !antes(segmento, linha, apos))) {
+					continue;
+				}
+				encontrados.add(segmento.listagem(linha));
+			}
+			
+			if (encontrados.size() >= limite) {
+				break;
+			}
+		}
+		return encontrados;
+	}
+	
+	/**
+	 * Junta duas páginas na ordem da listagem, mantendo no máximo o limite.
+	 */
+	public static List<LancamentoListagem> mesclar(List<LancamentoListagem> tabela, List<LancamentoListagem> arquivo, int limite) {
+		if (arquivo.isEmpty()) {
+			return tabela;
+		}
+		
+		List<LancamentoListagem> todos = new ArrayList<>(tabela.size() + arquivo.size());
+		todos.addAll(tabela);
+		todos.addAll(arquivo);
+		todos.sort(ORDEM_LISTAGEM);
+		return todos.size() > limite ? new ArrayList<>(todos.subList(0, limite)) : todos;
+	}
+	
+	/**
+	 * Lançamentos arquivados do usuário na ordem (ano, mes, id).
+	 */
+	public Iterator<Lancamento> percorrer(Long usuarioId) {
+		Iterator<SegmentoArquivo> segmentos = this.segmentos(usuarioId).iterator();
+		return new Iterator<Lancamento>() {
+			
+			private SegmentoArquivo atual;
+			
+			private int linha;
+			
+			@Override
+			public boolean hasNext() {
+				while ((this.atual == null || this.linha >= this.atual.getLinhas()) && segmentos.hasNext()) {
+					this.atual = segmentos.next();
+					this.linha = 0;
+				}
+				return this.atual != null && this.linha < this.atual.getLinhas();
+			}
+			
+			@Override
+			public Lancamento next() {
+				if (!this.hasNext()) {
+					throw new NoSuchElementException();
+				}
+				return this.atual.lancamento(this.linha++);
+			}
+		};
+	}
+	
+	public List<Lancamento> lancamentos(Long usuarioId, int ano) {
+		return this.segmento(this.caminho(usuarioId, ano))
+				.map((segmento) -> {
+					List<Lancamento> lancamentos = new ArrayList<>(segmento.getLinhas());
+					for (int linha = 0; linha < segmento.getLinhas(); linha++) {
+						lancamentos.add(segmento.lancamento(linha));
+					}
+					return lancamentos;
+				})
+				.orElseGet(ArrayList::new);
+	}
+	
+	/**
+	 * Receita e despesa arquivadas do usuário, nessa ordem.
+	 */
+	public BigDecimal[] totais(Long usuarioId) {
+		BigDecimal[] totais = { BigDecimal.ZERO, BigDecimal.ZERO };
+		for (SegmentoArquivo segmento : this.segmentos(usuarioId)) {
+			totais[0] = totais[0].add(segmento.getReceita());
+			totais[1] = totais[1].add(segmento.getDespesa());
+		}
+		return totais;
+	}
+	
+	/**
+	 * Receita e despesa arquivadas, por usuário, dos usuários do shard corrente.
+	 */
+	public Map<Long, BigDecimal[]> totaisDoShard() {
+		Map<Long, BigDecimal[]> totais = new HashMap<>();
+		this.usuariosDoShard().forEach((usuarioId) -> totais.put(usuarioId, this.totais(usuarioId)));
+		return totais;
+	}
+	
+	public Optional<TotalMensal> totalMensal(Long usuarioId, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status) {
+		return this.segmento(this.caminho(usuarioId, ano))
+				.flatMap((segmento) -> totaisMensais(segmento).stream()
+						.filter((total) -> total.getMes().equals(mes) && total.getTipo() == tipo && total.getStatus() == status)
+						.findFirst());
+	}
+	
+	/**
+	 * Totais por mês, tipo e status dos usuários do shard corrente.
+	 */
+	public List<TotalMensal> totaisMensaisDoShard() {
+		List<TotalMensal> totais = new ArrayList<>();
+		for (Long usuarioId : this.usuariosDoShard()) {
+			this.segmentos(usuarioId).forEach((segmento) -> totais.addAll(totaisMensais(segmento)));
+		}
+		return totais;
+	}
+	
+	/**
+	 * Grava o segmento do ano como pendente: ele só passa a valer em
+	 * {@link #confirmar}, depois que a remoção das linhas da tabela for
+	 * confirmada pelo banco.
+	 */
+	public void preparar(Long usuarioId, int ano, List<Lancamento> lancamentos) {
+		Path pendente = this.pendente(usuarioId, ano);
+		try {
+			Files.createDirectories(pendente.getParent());
+			try {
+				SegmentoArquivo.gravar(pendente, usuarioId, ano, lancamentos);
+			} catch (IOException | RuntimeException e) {
+				// um segmento gravado pela metade não pode chegar à recuperação
+				Files.deleteIfExists(pendente);
+				throw e;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public boolean possui(Long usuarioId, int ano) {
+		return this.segmento(this.caminho(usuarioId, ano)).isPresent();
+	}
+	
+	/**
+	 * Anos arquivados do usuário que contêm algum dos ids.
+	 */
+	public Set<Integer> anosComIds(Long usuarioId, Collection<Long> ids) {
+		Set<Long> procurados = new HashSet<>(ids);
+		Set<Integer> anos = new HashSet<>();
+		for (SegmentoArquivo segmento : this.segmentos(usuarioId)) {
+			for (int linha = 0; linha < segmento.getLinhas(); linha++) {
+				if (procurados.contains(segmento.id(linha))) {
+					anos.add(segmento.getAno());
+					break;
+				}
+			}
+		}
+		return anos;
+	}
+	
+	/**
+	 * Tira de vista o segmento de um ano que volta para a tabela. Ele fica
+	 * pendente e é decidido como os do arquivamento, por {@link #resolver}:
+	 * descartado se as linhas chegaram à tabela, confirmado de novo se não.
+	 */
+	public void ocultar(Long usuarioId, int ano) {
+		try {
+			Files.move(this.caminho(usuarioId, ano), this.pendente(usuarioId, ano), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	public void confirmar(Long usuarioId, int ano) {
+		try {
+			Files.move(this.pendente(usuarioId, ano), this.caminho(usuarioId, ano), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	/**
+	 * Decide um segmento pendente pelo estado da tabela: se alguma das suas
+	 * linhas ainda está lá, a remoção não foi confirmada e o segmento é
+	 * descartado; senão ele passa a valer. Devolve se passou a valer.
+	 */
+	public boolean resolver(Long usuarioId, int ano, Predicate<List<Long>> algumNaTabela) {
+		return this.resolver(this.pendente(usuarioId, ano), algumNaTabela);
+	}
+	
+	/**
+	 * Anos com segmento pendente, por usuário do shard corrente. Quem os
+	 * resolve deve segurar a linha do saldo do usuário: sem ela, a remoção de
+	 * outro nó ainda não confirmada faria o segmento ser descartado.
+	 */
+	public Map<Long, List<Integer>> pendentes() {
+		Map<Long, List<Integer>> pendentes = new LinkedHashMap<>();
+		for (Long usuarioId : this.usuariosDoShard()) {
+			for (Path pendente : this.listar(usuarioId, EXTENSAO + PENDENTE)) {
+				String nome = pendente.getFileName().toString();
+				pendentes.computeIfAbsent(usuarioId, (id) -> new ArrayList<>())
+						.add(Integer.valueOf(nome.substring(0, nome.length() - (EXTENSAO + PENDENTE).length())));
+			}
+		}
+		return pendentes;
+	}
+	
+	private boolean resolver(Path pendente, Predicate<List<Long>> algumNaTabela) {
+		try {
+			SegmentoArquivo segmento = SegmentoArquivo.abrir(pendente);
+			List<Long> ids = new ArrayList<>(segmento.getLinhas());
+			for (int linha = 0; linha < segmento.getLinhas(); linha++) {
+				ids.add(segmento.id(linha));
+			}
+			
+			if (algumNaTabela.test(ids)) {
+				Files.delete(pendente);
+				log.warn("Segmento pendente {} descartado: as linhas continuam na tabela", pendente);
+				return false;
+			} else {
+				Path definitivo = pendente.resolveSibling(pendente.getFileName().toString().replace(PENDENTE, ""));
+				Files.move(pendente, definitivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+				log.info("Segmento pendente {} confirmado", pendente);
+				return true;
+			}
+		} catch (NoSuchFileException e) {
+			// já resolvido
+			return false;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private List<SegmentoArquivo> segmentos(Long usuarioId) {
+		if (this.diretorio == null) {
+			return new ArrayList<>();
+		}
+		
+		List<SegmentoArquivo> segmentos = new ArrayList<>();
+		for (Path arquivo : this.listar(usuarioId, EXTENSAO)) {
+			this.segmento(arquivo).ifPresent(segmentos::add);
+		}
+		segmentos.sort(Comparator.comparing(SegmentoArquivo::getAno));
+		return segmentos;
+	}
+	
+	private Optional<SegmentoArquivo> segmento(Path arquivo) {
+		if (this.diretorio == null) {
+			return Optional.empty();
+		}
+		
+		try {
+			BasicFileAttributes atributos = Files.readAttributes(arquivo, BasicFileAttributes.class);
+			Aberto aberto = this.abertos.getIfPresent(arquivo);
+			if (aberto == null || !aberto.corresponde(atributos)) {
+				aberto = new Aberto(SegmentoArquivo.abrir(arquivo), atributos);
+				this.abertos.put(arquivo, aberto);
+			}
+			return Optional.of(aberto.segmento);
+		} catch (NoSuchFileException e) {
+			this.abertos.invalidate(arquivo);
+			return Optional.empty();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private List<Path> listar(Long usuarioId, String extensao) {
+		Path doUsuario = this.diretorio.resolve(String.valueOf(usuarioId));
+		if (!Files.isDirectory(doUsuario)) {
+			return Collections.emptyList();
+		}
+		
+		try (Stream<Path> arquivos = Files.list(doUsuario)) {
+			return arquivos.filter((arquivo) -> arquivo.getFileName().toString().endsWith(extensao)).collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private List<Long> usuariosDoShard() {
+		if (this.diretorio == null || !Files.isDirectory(this.diretorio)) {
+			return Collections.emptyList();
+		}
+		
+		DiretorioShards diretorioShards = this.shards.getIfAvailable();
+		try (Stream<Path> usuarios = Files.list(this.diretorio)) {
+			return usuarios.map((usuario) -> usuario.getFileName().toString())
+					.filter((nome) -> nome.chars().allMatch(Character::isDigit))
+					.map(Long::valueOf)
+					.filter((usuarioId) -> diretorioShards == null || diretorioShards.shardDe(usuarioId) == ShardContexto.atual())
+					.collect(Collectors.toList());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private Path caminho(Long usuarioId, int ano) {
+		return this.diretorio.resolve(String.valueOf(usuarioId)).resolve(ano + EXTENSAO);
+	}
+	
+	private Path pendente(Long usuarioId, int ano) {
+		return this.diretorio.resolve(String.valueOf(usuarioId)).resolve(ano + EXTENSAO + PENDENTE);
+	}
+	
+	private static List<TotalMensal> totaisMensais(SegmentoArquivo segmento) {
+		Map<List<Object>, TotalMensal> totais = new HashMap<>();
+		for (int linha = 0; linha < segmento.getLinhas(); linha++) {
+			BigDecimal valor = segmento.valor(linha);
+			if (segmento.tipo(linha) == null || segmento.status(linha) == null || valor == null) {
+				continue;
+			}
+			
+			int mes = segmento.mes(linha);
+			TipoLancamento tipo = segmento.tipo(linha);
+			StatusLancamento status = segmento.status(linha);
+			TotalMensal total = totais.computeIfAbsent(Arrays.asList(mes, tipo, status),
+					(chave) -> new TotalMensal(segmento.getUsuarioId(), segmento.getAno(), mes, tipo, status, BigDecimal.ZERO, 0l));
+			total.setTotal(total.getTotal().add(valor));
+			total.setQuantidade(total.getQuantidade() + 1);
+		}
+		return new ArrayList<>(totais.values());
+	}
+	
+	private static boolean contem(boolean[] descricoes, int posicao) {
+		return posicao >= 0 && descricoes[posicao];
+	}
+	
+	private static boolean antes(SegmentoArquivo segmento, int linha, CursorLancamento apos) {
+		if (segmento.getAno() != apos.getAno()) {
+			return segmento.getAno() < apos.getAno();
+		}
+		if (segmento.mes(linha) != apos.getMes()) {
+			return segmento.mes(linha) < apos.getMes();
+		}
+		return segmento.id(linha) < apos.getId();
+	}
+	
+	private static boolean atende(Lancamento filtro, Lancamento lancamento) {
+		return (filtro.getId() == null || filtro.getId().equals(lancamento.getId()))
+				&& (filtro.getMes() == null || filtro.getMes().equals(lancamento.getMes()))
+				&& (filtro.getValor() == null || (lancamento.getValor() != null && filtro.getValor().compareTo(lancamento.getValor()) == 0))
+				&& (filtro.getDataCadastro() == null || filtro.getDataCadastro().equals(lancamento.getDataCadastro()))
+				&& (filtro.getTipo() == null || filtro.getTipo() == lancamento.getTipo())
+				&& (filtro.getStatus() == null || filtro.getStatus() == lancamento.getStatus())
+				&& Objects.equals(filtro.getUsuario().getId(), lancamento.getUsuario().getId());
+	}
+	
+	private static class Aberto {
+		
+		private final SegmentoArquivo segmento;
+		
+		private final Object chave;
+		
+		private final long modificado;
+		
+		Aberto(SegmentoArquivo segmento, BasicFileAttributes atributos) {
+			this.segmento = segmento;
+			this.chave = atributos.fileKey();
+			this.modificado = atributos.lastModifiedTime().toMillis();
+		}
+		
+		// um segmento substituído é outro arquivo, com outro inode
+		boolean corresponde(BasicFileAttributes atributos) {
+			return Objects.equals(this.chave, atributos.fileKey()) && this.modificado == atributos.lastModifiedTime().toMillis();
+		}
+	}
+}
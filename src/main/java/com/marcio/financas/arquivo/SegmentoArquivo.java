@@ -0,0 +1,279 @@
+package com.marcio.financas.arquivo;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+/**
+ * Lançamentos de um usuário num ano encerrado, gravados por coluna e lidos
+ * por mapeamento de memória. Layout, big-endian:
+ * <pre>
+ * cabeçalho   "LSG2", usuario long, ano int, linhas int, receita long, despesa long
+ * dicionário  quantidade int, e por descrição: tamanho int + bytes UTF-8
+ * colunas     id long[], valor long[] (centavos), descricao int[] (posição no dicionário),
+ *             data int[] (dia desde 1970), mes/tipo/status byte[] (mes 4 bits, tipo 2, status 2),
+ *             versao long[]
+ * </pre>
+ * As linhas seguem a ordem (mes, id). Receita e despesa são os totais em
+ * centavos, para o saldo não precisar percorrer o segmento. Segmentos "LSG1",
+ * gravados antes da coluna de versão, são lidos com versão 0.
+ */
+final class SegmentoArquivo {
+	
+	private static final int MAGICO = 0x4C534732;
+	
+	private static final int MAGICO_SEM_VERSAO = 0x4C534731;
+	
+	private static final int TAMANHO_CABECALHO = 4 + 8 + 4 + 4 + 8 + 8;
+	
+	private static final int NULO = -1;
+	
+	private static final long VALOR_NULO = Long.MIN_VALUE;
+	
+	private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+	
+	private static final StatusLancamento[] STATUS = StatusLancamento.values();
+	
+	static final Comparator<Lancamento> ORDEM = Comparator.comparing(Lancamento::getMes).thenComparing(Lancamento::getId);
+	
+	// só leituras absolutas: o buffer é compartilhado entre threads
+	private final ByteBuffer dados;
+	
+	private final long usuarioId;
+	
+	private final int ano;
+	
+	private final int linhas;
+	
+	private final long receita;
+	
+	private final long despesa;
+	
+	private final String[] dicionario;
+	
+	private final int colunaId;
+	
+	private final int colunaValor;
+	
+	private final int colunaDescricao;
+	
+	private final int colunaData;
+	
+	private final int colunaEmpacotada;
+	
+	private final int colunaVersao;
+	
+	private SegmentoArquivo(ByteBuffer dados) {
+		if (dados.getInt(0) != MAGICO && dados.getInt(0) != MAGICO_SEM_VERSAO) {
+			throw new IllegalStateException("Segmento de arquivo inválido");
+		}
+		
+		this.dados = dados;
+		this.usuarioId = dados.getLong(4);
+		this.ano = dados.getInt(12);
+		this.linhas = dados.getInt(16);
+		this.receita = dados.getLong(20);
+		this.despesa = dados.getLong(28);
+		
+		int posicao = TAMANHO_CABECALHO;
+		this.dicionario = new String[dados.getInt(posicao)];
+		posicao += 4;
+		for (int i = 0; i < this.dicionario.length; i++) {
+			byte[] texto = new byte[dados.getInt(posicao)];
+			posicao += 4;
+			for (int j = 0; j < texto.length; j++) {
+				texto[j] = dados.get(posicao + j);
+			}
+			this.dicionario[i] = new String(texto, StandardCharsets.UTF_8);
+			posicao += texto.length;
+		}
+		
+		this.colunaId = posicao;
+		this.colunaValor = this.colunaId + 8 * this.linhas;
+		this.colunaDescricao = this.colunaValor + 8 * this.linhas;
+		this.colunaData = this.colunaDescricao + 4 * this.linhas;
+		this.colunaEmpacotada = this.colunaData + 4 * this.linhas;
+		this.colunaVersao = dados.getInt(0) == MAGICO ? this.colunaEmpacotada + this.linhas : NULO;
+	}
+	
+	static SegmentoArquivo abrir(Path arquivo) throws IOException {
+		// o mapeamento continua válido depois que o canal é fechado
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+			MappedByteBuffer dados = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+			return new SegmentoArquivo(dados);
+		}
+	}
+	
+	/**
+	 * Grava e sincroniza o segmento. Valores com mais de duas casas decimais
+	 * não cabem em centavos e fazem a gravação falhar.
+	 */
+	static void gravar(Path arquivo, Long usuarioId, int ano, List<Lancamento> lancamentos) throws IOException {
+		List<Lancamento> ordenados = new ArrayList<>(lancamentos);
+		ordenados.sort(ORDEM);
+		
+		Map<String, Integer> posicoes = new LinkedHashMap<>();
+		int tamanhoDicionario = 4;
+		long receita = 0;
+		long despesa = 0;
+		long[] valores = new long[ordenados.size()];
+		for (int i = 0; i < ordenados.size(); i++) {
+			Lancamento lancamento = ordenados.get(i);
+			String descricao = lancamento.getDescricao();
+			if (descricao != null && !posicoes.containsKey(descricao)) {
+				posicoes.put(descricao, posicoes.size());
+				tamanhoDicionario += 4 + descricao.getBytes(StandardCharsets.UTF_8).length;
+			}
+			
+			valores[i] = lancamento.getValor() != null ? lancamento.getValor().movePointRight(2).longValueExact() : VALOR_NULO;
+			if (lancamento.getValor() != null && lancamento.getTipo() == TipoLancamento.RECEITA) {
+				receita += valores[i];
+			} else if (lancamento.getValor() != null && lancamento.getTipo() == TipoLancamento.DESPESA) {
+				despesa += valores[i];
+			}
+		}
+		
+		ByteBuffer dados = ByteBuffer.allocate(TAMANHO_CABECALHO + tamanhoDicionario + (8 + 8 + 4 + 4 + 1 + 8) * ordenados.size());
+		dados.putInt(MAGICO).putLong(usuarioId).putInt(ano).putInt(ordenados.size()).putLong(receita).putLong(despesa);
+		
+		dados.putInt(posicoes.size());
+		for (String descricao : posicoes.keySet()) {
+			byte[] texto = descricao.getBytes(StandardCharsets.UTF_8);
+			dados.putInt(texto.length).put(texto);
+		}
+		
+		ordenados.forEach((lancamento) -> dados.putLong(lancamento.getId()));
+		for (long valor : valores) {
+			dados.putLong(valor);
+		}
+		ordenados.forEach((lancamento) -> dados.putInt(lancamento.getDescricao() != null ? posicoes.get(lancamento.getDescricao()) : NULO));
+		ordenados.forEach((lancamento) -> dados.putInt(lancamento.getDataCadastro() != null ? (int) lancamento.getDataCadastro().toEpochDay() : NULO));
+		ordenados.forEach((lancamento) -> dados.put(empacotar(lancamento)));
+		ordenados.forEach((lancamento) -> dados.putLong(lancamento.getVersao() != null ? lancamento.getVersao() : 0));
+		dados.flip();
+		
+		try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			while (dados.hasRemaining()) {
+				canal.write(dados);
+			}
+			canal.force(true);
+		}
+	}
+	
+	private static byte empacotar(Lancamento lancamento) {
+		int tipo = lancamento.getTipo() != null ? lancamento.getTipo().ordinal() + 1 : 0;
+		int status = lancamento.getStatus() != null ? lancamento.getStatus().ordinal() + 1 : 0;
+		return (byte) (lancamento.getMes() | tipo << 4 | status << 6);
+	}
+	
+	long getUsuarioId() {
+		return this.usuarioId;
+	}
+	
+	int getAno() {
+		return this.ano;
+	}
+	
+	int getLinhas() {
+		return this.linhas;
+	}
+	
+	BigDecimal getReceita() {
+		return BigDecimal.valueOf(this.receita, 2);
+	}
+	
+	BigDecimal getDespesa() {
+		return BigDecimal.valueOf(this.despesa, 2);
+	}
+	
+	/**
+	 * Posições do dicionário cuja descrição contém o termo, sem diferenciar
+	 * caixa. O filtro por descrição testa cada descrição distinta uma única vez.
+	 */
+	boolean[] descricoesContendo(String termo) {
+		String procurado = termo.toLowerCase();
+		boolean[] contem = new boolean[this.dicionario.length];
+		for (int i = 0; i < this.dicionario.length; i++) {
+			contem[i] = this.dicionario[i].toLowerCase().contains(procurado);
+		}
+		return contem;
+	}
+	
+	long id(int linha) {
+		return this.dados.getLong(this.colunaId + 8 * linha);
+	}
+	
+	int posicaoDescricao(int linha) {
+		return this.dados.getInt(this.colunaDescricao + 4 * linha);
+	}
+	
+	String descricao(int linha) {
+		int posicao = this.posicaoDescricao(linha);
+		return posicao != NULO ? this.dicionario[posicao] : null;
+	}
+	
+	BigDecimal valor(int linha) {
+		long centavos = this.dados.getLong(this.colunaValor + 8 * linha);
+		return centavos != VALOR_NULO ? BigDecimal.valueOf(centavos, 2) : null;
+	}
+	
+	LocalDate dataCadastro(int linha) {
+		int dia = this.dados.getInt(this.colunaData + 4 * linha);
+		return dia != NULO ? LocalDate.ofEpochDay(dia) : null;
+	}
+	
+	int mes(int linha) {
+		return this.dados.get(this.colunaEmpacotada + linha) & 0x0F;
+	}
+	
+	TipoLancamento tipo(int linha) {
+		int tipo = (this.dados.get(this.colunaEmpacotada + linha) >> 4) & 0x03;
+		return tipo != 0 ? TIPOS[tipo - 1] : null;
+	}
+	
+	StatusLancamento status(int linha) {
+		int status = (this.dados.get(this.colunaEmpacotada + linha) >> 6) & 0x03;
+		return status != 0 ? STATUS[status - 1] : null;
+	}
+	
+	long versao(int linha) {
+		return this.colunaVersao != NULO ? this.dados.getLong(this.colunaVersao + 8 * linha) : 0;
+	}
+	
+	Lancamento lancamento(int linha) {
+		return Lancamento.builder()
+				.id(this.id(linha))
+				.descricao(this.descricao(linha))
+				.mes(this.mes(linha))
+				.ano(this.ano)
+				.usuario(Usuario.builder().id(this.usuarioId).build())
+				.valor(this.valor(linha))
+				.dataCadastro(this.dataCadastro(linha))
+				.tipo(this.tipo(linha))
+				.status(this.status(linha))
+				.versao(this.versao(linha))
+				.build();
+	}
+	
+	LancamentoListagem listagem(int linha) {
+		return new LancamentoListagem(this.id(linha), this.descricao(linha), this.mes(linha), this.ano,
+				this.valor(linha), this.tipo(linha), this.status(linha), this.versao(linha));
+	}
+}
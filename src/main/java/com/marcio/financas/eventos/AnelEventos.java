@@ -0,0 +1,80 @@
+package com.marcio.financas.eventos;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+
+/**
+ * Buffer circular de um produtor e vários consumidores, no estilo do
+ * Disruptor: as posições são alocadas uma única vez e cada consumidor só
+ * guarda a sequência até onde leu, sem travas nem nós de fila por evento.
+ * O produtor não sobrescreve uma posição que algum consumidor ainda não leu.
+ */
+class AnelEventos {
+	
+	private final EventoLancamento[] posicoes;
+	
+	private final int mascara;
+	
+	private final AtomicLong publicado = new AtomicLong(-1);
+	
+	private final AtomicLong[] lidos;
+	
+	AnelEventos(int capacidade, int consumidores) {
+		if (Integer.bitCount(capacidade) != 1) {
+			throw new IllegalArgumentException("A capacidade do anel deve ser potência de 2");
+		}
+		this.posicoes = new EventoLancamento[capacidade];
+		this.mascara = capacidade - 1;
+		this.lidos = new AtomicLong[consumidores];
+		for (int i = 0; i < consumidores; i++) {
+			this.lidos[i] = new AtomicLong(-1);
+		}
+	}
+	
+	/**
+	 * Publica o evento se houver posição livre. Só pode ser chamado por uma
+	 * thread de cada vez.
+	 */
+	boolean publicar(EventoLancamento evento) {
+		long proximo = this.publicado.get() + 1;
+		if (proximo - this.menorLido() > this.posicoes.length) {
+			return false;
+		}
+		
+		this.posicoes[(int) (proximo & this.mascara)] = evento;
+		// lazySet publica a posição escrita acima antes da nova sequência
+		this.publicado.lazySet(proximo);
+		return true;
+	}
+	
+	/**
+	 * Entrega ao consumidor tudo o que foi publicado desde a sua última leitura.
+	 * Cada consumidor deve ser lido sempre pela mesma thread.
+	 */
+	int consumir(int consumidor, Consumer<EventoLancamento> acao) {
+		AtomicLong lido = this.lidos[consumidor];
+		long inicio = lido.get();
+		long fim = this.publicado.get();
+		
+		for (long sequencia = inicio + 1; sequencia <= fim; sequencia++) {
+			acao.accept(this.posicoes[(int) (sequencia & this.mascara)]);
+		}
+		
+		lido.lazySet(fim);
+		return (int) (fim - inicio);
+	}
+	
+	int ocupacao() {
+		return (int) (this.publicado.get() - this.menorLido());
+	}
+	
+	private long menorLido() {
+		long menor = Long.MAX_VALUE;
+		for (AtomicLong lido : this.lidos) {
+			menor = Math.min(menor, lido.get());
+		}
+		return menor == Long.MAX_VALUE ? this.publicado.get() : menor;
+	}
+}
@@ -0,0 +1,14 @@
+package com.marcio.financas.eventos;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+
+/**
+ * Consumidor dos eventos de lançamento deste nó. Cada consumidor tem a sua
+ * thread e a sua posição no anel, então um consumidor lento só atrasa a si
+ * mesmo, até ocupar o anel inteiro. O evento é compartilhado entre os
+ * consumidores e não deve ser alterado.
+ */
+public interface ConsumidorEventos {
+	
+	void receber(EventoLancamento evento);
+}
@@ -0,0 +1,221 @@
+package com.marcio.financas.eventos;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.repository.EventoLancamentoRepository;
+import com.marcio.financas.shard.ExecutorShards;
+import com.marcio.financas.shard.ShardContexto;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lê a tabela evento_lancamento de cada shard e entrega os eventos aos
+ * {@link ConsumidorEventos} deste nó pelo {@link AnelEventos}. Como a tabela
+ * é a fonte, todos os nós veem as escritas de todos, e um nó que sobe começa
+ * do último evento gravado. Sem consumidores registrados nada é lido.
+ * Cada shard tem a sua thread de leitura, fora do pool do
+ * {@link ExecutorShards}, para que relatórios e jobs administrativos não
+ * atrasem a entrega.
+ */
+@Slf4j
+@Component
+public class DespachanteEventos {
+	
+	private static final int LIMITE_LACUNAS = 1000;
+	
+	private final EventoLancamentoRepository repository;
+	
+	private final ExecutorShards shards;
+	
+	private final List<ConsumidorEventos> consumidores;
+	
+	private final AnelEventos anel;
+	
+	private final long intervalo;
+	
+	private final long esperaLacuna;
+	
+	private final Map<Integer, Posicao> posicoes = new ConcurrentHashMap<>();
+	
+	private final List<Thread> threads = new ArrayList<>();
+	
+	private volatile boolean ativo = true;
+	
+	public DespachanteEventos(EventoLancamentoRepository repository, ExecutorShards shards, List<ConsumidorEventos> consumidores,
+			@Value("${financas.eventos.capacidade-anel:4096}") int capacidade,
+			@Value("${financas.eventos.intervalo-leitura:PT0.2S}") Duration intervalo,
+			@Value("${financas.eventos.espera-lacuna:PT2M}") Duration esperaLacuna) {
+		this.repository = repository;
+		this.shards = shards;
+		this.consumidores = consumidores;
+		this.anel = new AnelEventos(capacidade, consumidores.size());
+		this.intervalo = intervalo.toNanos();
+		this.esperaLacuna = esperaLacuna.toNanos();
+		
+		Metrics.gauge("financas.eventos.anel", this.anel, AnelEventos::ocupacao);
+	}
+	
+	@PostConstruct
+	public void iniciar() {
+		if (this.consumidores.isEmpty()) {
+			return;
+		}
+		
+		for (Integer shard : this.shards.getShards()) {
+			this.threads.add(new Thread(() -> this.ler(shard), "eventos-leitor-" + shard));
+		}
+		for (int i = 0; i < this.consumidores.size(); i++) {
+			int consumidor = i;
+			this.threads.add(new Thread(() -> this.despachar(consumidor), "eventos-" + this.consumidores.get(i).getClass().getSimpleName()));
+		}
+		
+		for (Thread thread : this.threads) {
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+	
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		this.ativo = false;
+		for (Thread thread : this.threads) {
+			thread.join(TimeUnit.SECONDS.toMillis(5));
+		}
+	}
+	
+	private void ler(int shard) {
+		while (this.ativo) {
+			boolean cheio = false;
+			try {
+				List<EventoLancamento> novos = ShardContexto.executar(shard, this::lerShard);
+				cheio = novos.size() >= 500;
+				// o anel tem um único produtor por vez
+				synchronized (this.anel) {
+					for (EventoLancamento evento : novos) {
+						while (!this.anel.publicar(evento) && this.ativo) {
+							// anel cheio: aguarda o consumidor mais lento
+							LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+						}
+					}
+				}
+			} catch (RuntimeException e) {
+				log.warn("Falha ao ler eventos de lançamento: {}", e.getMessage());
+			}
+			
+			if (!cheio) {
+				LockSupport.parkNanos(this.intervalo);
+			}
+		}
+	}
+	
+	/*
+	 * Os ids vêm de uma sequência e são reservados antes do commit, então um id
+	 * menor pode aparecer depois de um maior. A leitura não espera as lacunas:
+	 * os ids que faltam são consultados de novo a cada leitura, por até
+	 * esperaLacuna, e entregues quando a transação que os reservou fizer commit.
+	 * Para um mesmo usuário a ordem se mantém, porque a linha do saldo serializa
+	 * as escritas dele: um evento só fica visível depois dos que têm
+	 * versaoUsuario menor.
+	 *
+	 * Uma transação que demore mais que esperaLacuna entre reservar o id e fazer
+	 * commit, ou ids além de LIMITE_LACUNAS pendentes, não são entregues ao
+	 * vivo; quem consome deve se reposicionar pela tabela com a versaoUsuario,
+	 * como NotificacoesAoVivo faz na reconexão.
+	 */
+	List<EventoLancamento> lerShard() {
+		Posicao posicao = this.posicoes.computeIfAbsent(ShardContexto.atual(),
+				(shard) -> new Posicao(this.repository.maiorId().orElse(null)));
+		
+		List<EventoLancamento> prontos = new ArrayList<>();
+		long agora = System.nanoTime();
+		if (!posicao.lacunas.isEmpty()) {
+			for (EventoLancamento atrasado : this.repository.findAllById(posicao.lacunas.keySet())) {
+				posicao.lacunas.remove(atrasado.getId());
+				prontos.add(atrasado);
+			}
+			
+			int expiradas = 0;
+			for (Iterator<Long> desde = posicao.lacunas.values().iterator(); desde.hasNext();) {
+				if (agora - desde.next() < this.esperaLacuna) {
+					break;
+				}
+				desde.remove();
+				expiradas++;
+			}
+			if (expiradas > 0) {
+				log.warn("{} ids de eventos sem commit após {} s tratados como transações desfeitas",
+						expiradas, TimeUnit.NANOSECONDS.toSeconds(this.esperaLacuna));
+			}
+		}
+		
+		List<EventoLancamento> lidos = posicao.ultimo == null
+				? this.repository.findTop500ByIdGreaterThanOrderById(Long.MIN_VALUE)
+				: this.repository.findTop500ByIdGreaterThanOrderById(posicao.ultimo);
+		
+		for (EventoLancamento evento : lidos) {
+			if (posicao.ultimo != null) {
+				for (long faltante = Math.max(posicao.ultimo + 1, evento.getId() - LIMITE_LACUNAS); faltante < evento.getId(); faltante++) {
+					posicao.lacunas.put(faltante, agora);
+				}
+			}
+			posicao.ultimo = evento.getId();
+			prontos.add(evento);
+		}
+		
+		// as lacunas mais antigas saem primeiro
+		for (Iterator<Long> excedente = posicao.lacunas.keySet().iterator(); posicao.lacunas.size() > LIMITE_LACUNAS;) {
+			log.warn("Lacuna no id de evento {} descartada: mais de {} pendentes", excedente.next(), LIMITE_LACUNAS);
+			excedente.remove();
+		}
+		return prontos;
+	}
+	
+	private void despachar(int consumidor) {
+		ConsumidorEventos destino = this.consumidores.get(consumidor);
+		long espera = TimeUnit.MICROSECONDS.toNanos(100);
+		
+		while (this.ativo) {
+			int entregues = this.anel.consumir(consumidor, (evento) -> {
+				try {
+					destino.receber(evento);
+				} catch (RuntimeException e) {
+					log.error("Falha ao entregar o evento {} a {}", evento.getId(), destino.getClass().getSimpleName(), e);
+				}
+			});
+			
+			// ocioso, a espera cresce até 10 ms; qualquer entrega a zera
+			espera = entregues > 0 ? TimeUnit.MICROSECONDS.toNanos(100) : Math.min(espera * 2, TimeUnit.MILLISECONDS.toNanos(10));
+			if (entregues == 0) {
+				LockSupport.parkNanos(espera);
+			}
+		}
+	}
+	
+	private static class Posicao {
+		
+		private Long ultimo;
+		
+		// id faltante -> quando a lacuna foi vista, na ordem em que apareceram
+		private final Map<Long, Long> lacunas = new LinkedHashMap<>();
+		
+		Posicao(Long ultimo) {
+			this.ultimo = ultimo;
+		}
+	}
+}
@@ -0,0 +1,310 @@
+package com.marcio.financas.eventos;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.projection.Pagina;
+import com.marcio.financas.service.EventoLancamentoService;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.shard.DiretorioShards;
+import com.marcio.financas.shard.ShardContexto;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Conexões Server-Sent Events abertas neste nó. Cada conexão recebe os
+ * eventos de lançamento do seu usuário e, depois de cada rajada, o saldo
+ * atualizado. O despachante só enfileira no buffer da conexão; o envio
+ * acontece num pool próprio, então um cliente lento não atrasa os demais.
+ * Buffer cheio encerra a conexão: o cliente reconecta com Last-Event-ID e o
+ * que faltou é relido da tabela de eventos.
+ *
+ * O id SSE é sempre a versão do último evento de lançamento entregue, também
+ * no evento de saldo: o saldo lido do banco pode estar à frente do que o
+ * despachante já entregou, e a reconexão não pode pular esses eventos.
+ */
+@Slf4j
+@Component
+public class NotificacoesAoVivo implements ConsumidorEventos {
+	
+	// páginas relidas numa reconexão; além disso o cliente deve recarregar tudo
+	private static final int PAGINAS_REPETICAO = 10;
+	
+	private final LancamentoService lancamentoService;
+	
+	private final EventoLancamentoService eventoService;
+	
+	private final ObjectProvider<DiretorioShards> diretorio;
+	
+	private final int maximoConexoes;
+	
+	private final int tamanhoBuffer;
+	
+	private final long duracao;
+	
+	private final Map<Long, Set<Conexao>> conexoes = new ConcurrentHashMap<>();
+	
+	private final AtomicInteger abertas = new AtomicInteger();
+	
+	private final ExecutorService envio;
+	
+	private final ScheduledExecutorService batimentos;
+	
+	public NotificacoesAoVivo(LancamentoService lancamentoService, EventoLancamentoService eventoService, ObjectProvider<DiretorioShards> diretorio,
+			@Value("${financas.notificacoes.maximo-conexoes:10000}") int maximoConexoes,
+			@Value("${financas.notificacoes.tamanho-buffer:256}") int tamanhoBuffer,
+			@Value("${financas.notificacoes.duracao:PT30M}") Duration duracao,
+			@Value("${financas.notificacoes.batimento:PT15S}") Duration batimento,
+			@Value("${financas.notificacoes.threads-envio:8}") int threadsEnvio) {
+		this.lancamentoService = lancamentoService;
+		this.eventoService = eventoService;
+		this.diretorio = diretorio;
+		this.maximoConexoes = maximoConexoes;
+		this.tamanhoBuffer = tamanhoBuffer;
+		this.duracao = duracao.toMillis();
+		this.envio = Executors.newFixedThreadPool(threadsEnvio, (tarefa) -> {
+			Thread thread = new Thread(tarefa, "notificacoes-envio");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.batimentos = Executors.newSingleThreadScheduledExecutor((tarefa) -> {
+			Thread thread = new Thread(tarefa, "notificacoes-batimento");
+			thread.setDaemon(true);
+			return thread;
+		});
+		this.batimentos.scheduleWithFixedDelay(this::bater, batimento.toMillis(), batimento.toMillis(), TimeUnit.MILLISECONDS);
+		
+		Metrics.gauge("financas.notificacoes.conexoes", this.abertas);
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		this.batimentos.shutdownNow();
+		this.conexoes.values().forEach((doUsuario) -> doUsuario.forEach(Conexao::encerrar));
+		this.envio.shutdownNow();
+	}
+	
+	/**
+	 * Abre uma conexão do usuário. Com a última versão recebida, o que veio
+	 * depois dela é reenviado antes dos eventos novos; sem ela, a conexão
+	 * começa pelo saldo atual. Vazio quando o nó já está no limite de conexões.
+	 */
+	public Optional<SseEmitter> conectar(Long usuarioId, Long ultimaVersao) {
+		if (this.abertas.incrementAndGet() > this.maximoConexoes) {
+			this.abertas.decrementAndGet();
+			return Optional.empty();
+		}
+		
+		Conexao conexao = new Conexao(usuarioId, ultimaVersao);
+		conexao.emissor.onCompletion(() -> this.remover(conexao));
+		conexao.emissor.onTimeout(conexao::encerrar);
+		conexao.emissor.onError((erro) -> conexao.encerrar());
+		
+		// registrada antes da leitura inicial: o que chegar nesse meio tempo fica no buffer
+		this.conexoes.computeIfAbsent(usuarioId, (chave) -> ConcurrentHashMap.newKeySet()).add(conexao);
+		this.agendar(conexao);
+		return Optional.of(conexao.emissor);
+	}
+	
+	@Override
+	public void receber(EventoLancamento evento) {
+		Set<Conexao> doUsuario = this.conexoes.get(evento.getUsuarioId());
+		if (doUsuario == null) {
+			return;
+		}
+		
+		for (Conexao conexao : doUsuario) {
+			if (conexao.pendentes.offer(evento)) {
+				this.agendar(conexao);
+			} else {
+				log.debug("Buffer da conexão do usuário {} cheio, encerrando", evento.getUsuarioId());
+				conexao.encerrar();
+			}
+		}
+	}
+	
+	private void bater() {
+		for (Set<Conexao> doUsuario : this.conexoes.values()) {
+			for (Conexao conexao : doUsuario) {
+				conexao.batimento = true;
+				this.agendar(conexao);
+			}
+		}
+	}
+	
+	private void agendar(Conexao conexao) {
+		if (conexao.agendada.compareAndSet(false, true)) {
+			this.envio.execute(() -> this.enviar(conexao));
+		}
+	}
+	
+	/*
+	 * Uma única tarefa por conexão de cada vez: a ordem dos envios é a ordem do
+	 * buffer. Só são descartados os eventos já entregues, pela reconexão ou
+	 * pelo próprio buffer.
+	 */
+	private void enviar(Conexao conexao) {
+		try {
+			do {
+				if (conexao.versaoEntregue == null) {
+					this.iniciar(conexao);
+				}
+				
+				List<EventoLancamento> rajada = new ArrayList<>();
+				conexao.pendentes.drainTo(rajada);
+				boolean enviou = false;
+				for (EventoLancamento evento : rajada) {
+					if (conexao.naoEntregue(evento)) {
+						conexao.entregar(evento);
+						enviou = true;
+					}
+				}
+				
+				if (enviou) {
+					this.enviarSaldo(conexao);
+				} else if (conexao.batimento) {
+					conexao.emissor.send(SseEmitter.event().comment("batimento"));
+				}
+				conexao.batimento = false;
+				
+				conexao.agendada.set(false);
+			} while (!conexao.pendentes.isEmpty() && conexao.agendada.compareAndSet(false, true));
+		} catch (IOException | IllegalStateException e) {
+			// cliente desconectado ou emissor já concluído
+			conexao.encerrar();
+		} catch (RuntimeException e) {
+			log.warn("Falha ao notificar o usuário {}: {}", conexao.usuarioId, e.getMessage());
+			conexao.encerrar();
+		}
+	}
+	
+	private void iniciar(Conexao conexao) throws IOException {
+		if (conexao.repetirApos == null) {
+			// sem Last-Event-ID o cliente carrega os lançamentos ao conectar: o que já
+			// está na versão atual não é repetido
+			conexao.marcarEntregue(this.noShard(conexao.usuarioId, () -> this.lancamentoService.obterVersao(conexao.usuarioId)));
+		} else {
+			conexao.marcarEntregue(conexao.repetirApos);
+			long versao = conexao.repetirApos;
+			for (int pagina = 0; pagina < PAGINAS_REPETICAO; pagina++) {
+				long apos = versao;
+				Pagina<EventoLancamento> eventos = this.noShard(conexao.usuarioId,
+						() -> this.eventoService.buscarApos(conexao.usuarioId, apos, EventoLancamentoService.TAMANHO_PAGINA_MAXIMO));
+				for (EventoLancamento evento : eventos.getItens()) {
+					conexao.entregar(evento);
+				}
+				versao = Long.parseLong(eventos.getProximoCursor());
+				if (eventos.getItens().isEmpty()) {
+					break;
+				}
+			}
+		}
+		this.enviarSaldo(conexao);
+	}
+	
+	private void enviarSaldo(Conexao conexao) throws IOException {
+		// a versão antes do saldo: uma escrita entre as duas leituras só reenvia o saldo depois
+		long versao = this.noShard(conexao.usuarioId, () -> this.lancamentoService.obterVersao(conexao.usuarioId));
+		BigDecimal saldo = this.noShard(conexao.usuarioId, () -> this.lancamentoService.obterSaldoPorUsuario(conexao.usuarioId));
+		
+		Map<String, Object> corpo = new LinkedHashMap<>();
+		corpo.put("saldo", saldo);
+		corpo.put("versao", versao);
+		conexao.enviar("saldo", conexao.versaoEntregue, corpo);
+	}
+	
+	private <T> T noShard(Long usuarioId, Supplier<T> acao) {
+		DiretorioShards shards = this.diretorio.getIfAvailable();
+		return ShardContexto.executar(shards != null ? shards.shardDe(usuarioId) : ShardContexto.DIRETORIO, acao);
+	}
+	
+	private void remover(Conexao conexao) {
+		Set<Conexao> doUsuario = this.conexoes.get(conexao.usuarioId);
+		if (doUsuario != null && doUsuario.remove(conexao)) {
+			this.abertas.decrementAndGet();
+			this.conexoes.computeIfPresent(conexao.usuarioId, (chave, restantes) -> restantes.isEmpty() ? null : restantes);
+		}
+	}
+	
+	private class Conexao {
+		
+		private final Long usuarioId;
+		
+		private final Long repetirApos;
+		
+		private final SseEmitter emissor = new SseEmitter(NotificacoesAoVivo.this.duracao);
+		
+		private final BlockingQueue<EventoLancamento> pendentes = new ArrayBlockingQueue<>(NotificacoesAoVivo.this.tamanhoBuffer);
+		
+		private final AtomicBoolean agendada = new AtomicBoolean();
+		
+		private volatile boolean batimento;
+		
+		// último evento entregue, só lido e escrito pela tarefa de envio da conexão;
+		// uma escrita em lote gera vários eventos com a mesma versão, separados pelo id
+		private Long versaoEntregue;
+		
+		private long idEntregue;
+		
+		Conexao(Long usuarioId, Long repetirApos) {
+			this.usuarioId = usuarioId;
+			this.repetirApos = repetirApos;
+		}
+		
+		boolean naoEntregue(EventoLancamento evento) {
+			return evento.getVersaoUsuario() > this.versaoEntregue
+					|| evento.getVersaoUsuario().equals(this.versaoEntregue) && evento.getId() > this.idEntregue;
+		}
+		
+		void entregar(EventoLancamento evento) throws IOException {
+			this.enviar("lancamento", evento.getVersaoUsuario(), evento);
+			this.versaoEntregue = evento.getVersaoUsuario();
+			this.idEntregue = evento.getId();
+		}
+		
+		// a versão inteira já está com o cliente
+		void marcarEntregue(long versao) {
+			this.versaoEntregue = versao;
+			this.idEntregue = Long.MAX_VALUE;
+		}
+		
+		void enviar(String nome, long versao, Object dados) throws IOException {
+			this.emissor.send(SseEmitter.event().name(nome).id(String.valueOf(versao)).data(dados));
+		}
+		
+		void encerrar() {
+			NotificacoesAoVivo.this.remover(this);
+			try {
+				this.emissor.complete();
+			} catch (IllegalStateException e) {
+				// já concluído
+			}
+		}
+	}
+}
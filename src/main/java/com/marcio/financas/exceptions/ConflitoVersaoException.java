@@ -0,0 +1,10 @@
+package com.marcio.financas.exceptions;
+
+public class ConflitoVersaoException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public ConflitoVersaoException(String msg) {
+		super(msg);
+	}
+}
@@ -0,0 +1,10 @@
+package com.marcio.financas.exceptions;
+
+public class FilaCheiaException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	public FilaCheiaException(String msg) {
+		super(msg);
+	}
+}
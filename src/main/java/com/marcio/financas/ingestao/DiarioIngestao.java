@@ -0,0 +1,239 @@
+package com.marcio.financas.ingestao;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcio.financas.ingestao.SituacaoIngestao.Estado;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Arquivo só de acréscimo, uma linha JSON por registro. As chamadas de
+ * {@link #registrar} entram numa fila e uma única thread as grava em grupo,
+ * com um force por grupo: o registro está em disco quando o método retorna.
+ * Passado o tamanho de compactação, a mesma thread reescreve o diário só com
+ * os pedidos que ainda não têm encerramento.
+ */
+@Slf4j
+class DiarioIngestao implements Closeable {
+	
+	private final Path arquivo;
+	
+	private final long tamanhoCompactacao;
+	
+	private final ObjectMapper mapper = new ObjectMapper();
+	
+	private final BlockingQueue<Escrita> escritas = new LinkedBlockingQueue<>();
+	
+	// pedidos sem encerramento, na ordem do diário; só a thread de escrita altera depois de iniciar
+	private final Map<String, RegistroDiario> abertos = new LinkedHashMap<>();
+	
+	private volatile boolean ativo = true;
+	
+	private FileChannel canal;
+	
+	private Thread escritor;
+	
+	DiarioIngestao(Path arquivo, long tamanhoCompactacao) {
+		this.arquivo = arquivo.toAbsolutePath();
+		this.tamanhoCompactacao = tamanhoCompactacao;
+		try {
+			Files.createDirectories(this.arquivo.getParent());
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		this.abrir();
+	}
+	
+	List<RegistroDiario> ler() {
+		List<RegistroDiario> registros = new ArrayList<>();
+		try (BufferedReader leitor = Files.newBufferedReader(this.arquivo, StandardCharsets.UTF_8)) {
+			String linha;
+			while ((linha = leitor.readLine()) != null) {
+				try {
+					registros.add(this.mapper.readValue(linha, RegistroDiario.class));
+				} catch (JsonProcessingException e) {
+					// só a última linha pode estar incompleta, interrompida por uma queda
+					log.warn("Linha inválida ignorada no diário de ingestão {}", this.arquivo);
+				}
+			}
+		} catch (NoSuchFileException e) {
+			return registros;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return registros;
+	}
+	
+	void iniciar() {
+		this.escritor = new Thread(this::escrever, "ingestao-diario");
+		this.escritor.setDaemon(true);
+		this.escritor.start();
+	}
+	
+	/**
+	 * Entrega os registros à thread de escrita e espera o force do grupo em
+	 * que eles entraram.
+	 */
+	void registrar(Collection<RegistroDiario> registros) {
+		if (registros.isEmpty()) {
+			return;
+		}
+		
+		Escrita escrita = new Escrita(new ArrayList<>(registros));
+		this.escritas.add(escrita);
+		// a thread de escrita pode já ter feito a última leitura da fila
+		if (!this.ativo && this.escritas.remove(escrita)) {
+			throw new IllegalStateException("Diário de ingestão encerrado");
+		}
+		try {
+			escrita.gravada.join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+		}
+	}
+	
+	/**
+	 * Substitui o diário por um que contém apenas os registros informados, que
+	 * passam a ser os pedidos abertos. Fora da thread de escrita, só antes de
+	 * {@link #iniciar}.
+	 */
+	void reescrever(Collection<RegistroDiario> registros) {
+		List<RegistroDiario> pedidos = new ArrayList<>(registros);
+		this.abertos.clear();
+		pedidos.forEach((pedido) -> this.abertos.put(pedido.getProtocolo(), pedido));
+		
+		Path temporario = this.arquivo.resolveSibling(this.arquivo.getFileName() + ".tmp");
+		try {
+			Files.write(temporario, this.serializar(pedidos), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+					StandardOpenOption.WRITE, StandardOpenOption.SYNC);
+			this.canal.close();
+			Files.move(temporario, this.arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			this.abrir();
+		}
+	}
+	
+	@Override
+	public void close() {
+		this.ativo = false;
+		try {
+			if (this.escritor != null) {
+				this.escritor.join(TimeUnit.SECONDS.toMillis(30));
+			}
+			this.canal.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private void escrever() {
+		List<Escrita> grupo = new ArrayList<>();
+		while (this.ativo || !this.escritas.isEmpty()) {
+			try {
+				Escrita primeira = this.escritas.poll(100, TimeUnit.MILLISECONDS);
+				if (primeira == null) {
+					continue;
+				}
+				
+				// tudo o que chegou enquanto o force anterior rodava entra no mesmo grupo
+				grupo.add(primeira);
+				this.escritas.drainTo(grupo);
+				this.gravar(grupo);
+				grupo.clear();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		
+		// quem chegou depois do encerramento não fica esperando
+		this.escritas.drainTo(grupo);
+		grupo.forEach((escrita) -> escrita.gravada.completeExceptionally(new IllegalStateException("Diário de ingestão encerrado")));
+	}
+	
+	private void gravar(List<Escrita> grupo) {
+		List<RegistroDiario> registros = new ArrayList<>();
+		grupo.forEach((escrita) -> registros.addAll(escrita.registros));
+		
+		try {
+			ByteBuffer buffer = ByteBuffer.wrap(this.serializar(registros));
+			while (buffer.hasRemaining()) {
+				this.canal.write(buffer);
+			}
+			this.canal.force(false);
+		} catch (IOException e) {
+			grupo.forEach((escrita) -> escrita.gravada.completeExceptionally(new UncheckedIOException(e)));
+			return;
+		}
+		
+		for (RegistroDiario registro : registros) {
+			if (registro.getEstado() == Estado.PENDENTE) {
+				this.abertos.put(registro.getProtocolo(), registro);
+			} else {
+				this.abertos.remove(registro.getProtocolo());
+			}
+		}
+		grupo.forEach((escrita) -> escrita.gravada.complete(null));
+		
+		try {
+			if (this.canal.size() > this.tamanhoCompactacao) {
+				this.reescrever(this.abertos.values());
+			}
+		} catch (IOException | UncheckedIOException e) {
+			// o diário só cresce até a próxima compactação
+			log.warn("Falha ao compactar o diário de ingestão {}", this.arquivo, e);
+		}
+	}
+	
+	private void abrir() {
+		try {
+			this.canal = FileChannel.open(this.arquivo, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+	
+	private byte[] serializar(Collection<RegistroDiario> registros) throws JsonProcessingException {
+		StringBuilder linhas = new StringBuilder(registros.size() * 160);
+		for (RegistroDiario registro : registros) {
+			linhas.append(this.mapper.writeValueAsString(registro)).append('\n');
+		}
+		return linhas.toString().getBytes(StandardCharsets.UTF_8);
+	}
+	
+	@RequiredArgsConstructor
+	private static class Escrita {
+		
+		private final List<RegistroDiario> registros;
+		
+		private final CompletableFuture<Void> gravada = new CompletableFuture<>();
+	}
+}
@@ -0,0 +1,321 @@
+package com.marcio.financas.ingestao;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcio.financas.exceptions.FilaCheiaException;
+import com.marcio.financas.ingestao.SituacaoIngestao.Estado;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResultadoItemLote;
+import com.marcio.financas.shard.DiretorioShards;
+import com.marcio.financas.shard.ShardContexto;
+
+import io.micrometer.core.instrument.Metrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ingestão assíncrona de lançamentos, ativada por financas.ingestao.habilitada.
+ * A requisição só valida, registra o pedido no diário e o enfileira; uma única
+ * thread grava a fila em lotes pelo {@link LancamentoService#salvarLote}, uma
+ * transação por lote. Um lote que falha fora do banco continua com a thread
+ * e é repetido; pedidos do diário sem encerramento são regravados na subida,
+ * então a entrega é de pelo menos uma vez.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "financas.ingestao.habilitada", havingValue = "true")
+public class FilaIngestao {
+	
+	private static final Duration RETENCAO_SITUACAO = Duration.ofHours(1);
+	
+	private static final long ESPERA_MAXIMA_RETENTATIVA = TimeUnit.SECONDS.toMillis(30);
+	
+	// acima disso o diário é reescrito só com os pedidos sem encerramento
+	private static final long TAMANHO_COMPACTACAO = 16 * 1024 * 1024;
+	
+	private final LancamentoService service;
+	
+	private final ObjectProvider<DiretorioShards> diretorio;
+	
+	private final DiarioIngestao diario;
+	
+	private final BlockingQueue<RegistroDiario> fila;
+	
+	// vagas da fila reservadas antes do diário, para que o offer depois dele não falhe
+	private final Semaphore vagas;
+	
+	private final int tamanhoLote;
+	
+	private final long esperaLote;
+	
+	private final Cache<String, SituacaoIngestao> situacoes = Caffeine.newBuilder()
+			.maximumSize(1_000_000)
+			.expireAfterWrite(RETENCAO_SITUACAO)
+			.build();
+	
+	private final List<RegistroDiario> recuperados;
+	
+	// encerramentos de pedidos já gravados no banco que ainda não entraram no diário
+	private final List<RegistroDiario> encerramentos = new ArrayList<>();
+	
+	private volatile boolean ativa = true;
+	
+	private Thread gravador;
+	
+	public FilaIngestao(LancamentoService service, ObjectProvider<DiretorioShards> diretorio,
+			@Value("${financas.ingestao.diario:ingestao/diario.jsonl}") String diario,
+			@Value("${financas.ingestao.capacidade:10000}") int capacidade,
+			@Value("${financas.ingestao.tamanho-lote:500}") int tamanhoLote,
+			@Value("${financas.ingestao.espera-lote:PT0.02S}") Duration esperaLote) {
+		this.service = service;
+		this.diretorio = diretorio;
+		this.diario = new DiarioIngestao(Paths.get(diario), TAMANHO_COMPACTACAO);
+		this.fila = new ArrayBlockingQueue<>(capacidade);
+		this.vagas = new Semaphore(capacidade);
+		this.tamanhoLote = Math.min(tamanhoLote, LancamentoService.TAMANHO_LOTE_MAXIMO);
+		this.esperaLote = esperaLote.toNanos();
+		this.recuperados = this.recuperar();
+		this.diario.iniciar();
+		
+		Metrics.gauge("financas.ingestao.fila", this.fila, Collection::size);
+	}
+	
+	@PostConstruct
+	public void iniciar() {
+		this.gravador = new Thread(this::gravar, "ingestao-gravador");
+		this.gravador.setDaemon(true);
+		this.gravador.start();
+	}
+	
+	@PreDestroy
+	public void encerrar() throws InterruptedException {
+		this.ativa = false;
+		if (this.gravador != null) {
+			this.gravador.join(TimeUnit.SECONDS.toMillis(30));
+		}
+		this.diario.close();
+	}
+	
+	/**
+	 * Valida e enfileira o lançamento, devolvendo o protocolo para consulta.
+	 * Quando o método retorna o pedido já está no diário.
+	 */
+	public SituacaoIngestao enfileirar(Lancamento lancamento) {
+		this.service.validar(lancamento);
+		
+		RegistroDiario pedido = RegistroDiario.pedido(UUID.randomUUID().toString(), lancamento);
+		SituacaoIngestao situacao = SituacaoIngestao.de(pedido);
+		
+		if (!this.vagas.tryAcquire()) {
+			throw new FilaCheiaException("Fila de ingestão cheia, tente novamente em instantes");
+		}
+		try {
+			this.diario.registrar(Collections.singletonList(pedido));
+		} catch (RuntimeException e) {
+			this.vagas.release();
+			throw e;
+		}
+		// o encerramento só pode chegar ao diário depois do pedido, que já está lá
+		this.situacoes.put(pedido.getProtocolo(), situacao);
+		this.fila.offer(pedido);
+		
+		return situacao;
+	}
+	
+	public Optional<SituacaoIngestao> obterSituacao(String protocolo, Long usuarioId) {
+		return Optional.ofNullable(this.situacoes.getIfPresent(protocolo))
+				.filter((situacao) -> situacao.getUsuario().equals(usuarioId));
+	}
+	
+	/*
+	 * Relê o diário: pedidos sem encerramento voltam a ser gravados antes da
+	 * fila, e o diário é reescrito apenas com eles.
+	 */
+	private List<RegistroDiario> recuperar() {
+		Map<String, RegistroDiario> pendentes = new LinkedHashMap<>();
+		for (RegistroDiario registro : this.diario.ler()) {
+			if (registro.getEstado() == Estado.PENDENTE) {
+				pendentes.put(registro.getProtocolo(), registro);
+			} else {
+				pendentes.remove(registro.getProtocolo());
+			}
+			this.situacoes.put(registro.getProtocolo(), SituacaoIngestao.de(registro));
+		}
+		
+		this.diario.reescrever(pendentes.values());
+		if (!pendentes.isEmpty()) {
+			log.info("{} pedidos de ingestão recuperados do diário", pendentes.size());
+		}
+		return new ArrayList<>(pendentes.values());
+	}
+	
+	private void gravar() {
+		try {
+			for (int inicio = 0; inicio < this.recuperados.size() && this.ativa; inicio += this.tamanhoLote) {
+				this.gravarAteEncerrar(new ArrayList<>(this.recuperados.subList(inicio, Math.min(inicio + this.tamanhoLote, this.recuperados.size()))));
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		this.recuperados.clear();
+		
+		List<RegistroDiario> lote = new ArrayList<>(this.tamanhoLote);
+		while (this.ativa || !this.fila.isEmpty()) {
+			try {
+				RegistroDiario primeiro = this.fila.poll(100, TimeUnit.MILLISECONDS);
+				if (primeiro == null) {
+					continue;
+				}
+				
+				// group commit: espera um pouco pelos próximos pedidos para dividir a transação
+				lote.add(primeiro);
+				long limite = System.nanoTime() + this.esperaLote;
+				while (lote.size() < this.tamanhoLote) {
+					this.fila.drainTo(lote, this.tamanhoLote - lote.size());
+					long restante = limite - System.nanoTime();
+					if (lote.size() >= this.tamanhoLote || restante <= 0) {
+						break;
+					}
+					RegistroDiario proximo = this.fila.poll(restante, TimeUnit.NANOSECONDS);
+					if (proximo == null) {
+						break;
+					}
+					lote.add(proximo);
+				}
+				this.vagas.release(lote.size());
+				
+				this.gravarAteEncerrar(lote);
+				lote.clear();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+	}
+	
+	/*
+	 * Falhas fora do banco (diário, diretório de shards) não descartam o lote:
+	 * os pedidos ainda sem encerramento ficam nele e a gravação é repetida com
+	 * espera crescente. No encerramento eles seguem pendentes no diário.
+	 */
+	private void gravarAteEncerrar(List<RegistroDiario> lote) throws InterruptedException {
+		long espera = 100;
+		while (true) {
+			try {
+				this.gravarLote(lote);
+				return;
+			} catch (RuntimeException e) {
+				if (!this.ativa) {
+					log.error("Falha ao gravar lote de ingestão no encerramento, {} pedidos ficam no diário", lote.size(), e);
+					return;
+				}
+				log.error("Falha ao gravar lote de ingestão, nova tentativa em {} ms", espera, e);
+				Thread.sleep(espera);
+				espera = Math.min(espera * 2, ESPERA_MAXIMA_RETENTATIVA);
+			}
+		}
+	}
+	
+	private void gravarLote(List<RegistroDiario> lote) {
+		Map<Integer, List<RegistroDiario>> porShard = new LinkedHashMap<>();
+		DiretorioShards shards = this.diretorio.getIfAvailable();
+		for (RegistroDiario pedido : lote) {
+			int shard = shards != null ? shards.shardDe(pedido.getUsuario()) : ShardContexto.DIRETORIO;
+			porShard.computeIfAbsent(shard, (chave) -> new ArrayList<>()).add(pedido);
+		}
+		
+		// um shard gravado sai do lote, para que a repetição não o grave de novo
+		porShard.forEach((shard, pedidos) -> {
+			this.encerramentos.addAll(ShardContexto.executar(shard, () -> this.salvar(pedidos)));
+			lote.removeAll(new HashSet<>(pedidos));
+		});
+		
+		this.diario.registrar(this.encerramentos);
+		this.encerramentos.forEach((registro) -> this.situacoes.put(registro.getProtocolo(), SituacaoIngestao.de(registro)));
+		this.encerramentos.clear();
+	}
+	
+	private List<RegistroDiario> salvar(List<RegistroDiario> pedidos) {
+		try {
+			return this.comRetentativas(() -> this.salvarLote(pedidos));
+		} catch (DataIntegrityViolationException e) {
+			// um pedido recusado pelo banco derruba o lote inteiro: regrava um a um para isolá-lo
+			List<RegistroDiario> encerrados = new ArrayList<>(pedidos.size());
+			for (RegistroDiario pedido : pedidos) {
+				try {
+					encerrados.addAll(this.comRetentativas(() -> this.salvarLote(Collections.singletonList(pedido))));
+				} catch (DataIntegrityViolationException erro) {
+					encerrados.add(pedido.rejeitado("Lançamento recusado pelo banco de dados"));
+				}
+			}
+			return encerrados;
+		}
+	}
+	
+	private List<RegistroDiario> salvarLote(List<RegistroDiario> pedidos) {
+		List<Lancamento> lancamentos = new ArrayList<>(pedidos.size());
+		pedidos.forEach((pedido) -> lancamentos.add(pedido.lancamento()));
+		
+		List<RegistroDiario> encerrados = new ArrayList<>(pedidos.size());
+		for (ResultadoItemLote resultado : this.service.salvarLote(lancamentos)) {
+			RegistroDiario pedido = pedidos.get(resultado.getIndice());
+			encerrados.add(resultado.getErro() == null ? pedido.gravado(resultado.getId()) : pedido.rejeitado(resultado.getErro()));
+		}
+		return encerrados;
+	}
+	
+	/*
+	 * Falhas de infraestrutura (banco fora, pool esgotado) são repetidas com
+	 * espera crescente enquanto a fila estiver ativa; no encerramento os pedidos
+	 * ficam pendentes no diário.
+	 */
+	private List<RegistroDiario> comRetentativas(Supplier<List<RegistroDiario>> gravacao) {
+		long espera = 100;
+		while (true) {
+			try {
+				return gravacao.get();
+			} catch (DataIntegrityViolationException e) {
+				throw e;
+			} catch (RuntimeException e) {
+				if (!this.ativa) {
+					return Collections.emptyList();
+				}
+				log.warn("Falha ao gravar lote de ingestão, nova tentativa em {} ms: {}", espera, e.getMessage());
+				try {
+					Thread.sleep(espera);
+				} catch (InterruptedException interrupcao) {
+					Thread.currentThread().interrupt();
+					return Collections.emptyList();
+				}
+				espera = Math.min(espera * 2, ESPERA_MAXIMA_RETENTATIVA);
+			}
+		}
+	}
+}
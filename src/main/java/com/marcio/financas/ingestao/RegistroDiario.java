@@ -0,0 +1,81 @@
+package com.marcio.financas.ingestao;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.marcio.financas.ingestao.SituacaoIngestao.Estado;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Linha do diário de ingestão. Um pedido entra como PENDENTE, com os campos do
+ * lançamento, e é encerrado por uma linha GRAVADO ou REJEITADO do mesmo
+ * protocolo.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+class RegistroDiario {
+	
+	private String protocolo;
+	
+	private Estado estado;
+	
+	private Long usuario;
+	
+	private String descricao;
+	
+	private Integer mes;
+	
+	private Integer ano;
+	
+	private BigDecimal valor;
+	
+	private TipoLancamento tipo;
+	
+	private Long lancamento;
+	
+	private String erro;
+	
+	static RegistroDiario pedido(String protocolo, Lancamento lancamento) {
+		return RegistroDiario.builder()
+				.protocolo(protocolo)
+				.estado(Estado.PENDENTE)
+				.usuario(lancamento.getUsuario().getId())
+				.descricao(lancamento.getDescricao())
+				.mes(lancamento.getMes())
+				.ano(lancamento.getAno())
+				.valor(lancamento.getValor())
+				.tipo(lancamento.getTipo())
+				.build();
+	}
+	
+	Lancamento lancamento() {
+		return Lancamento.builder()
+				.usuario(Usuario.builder().id(this.usuario).build())
+				.descricao(this.descricao)
+				.mes(this.mes)
+				.ano(this.ano)
+				.valor(this.valor)
+				.tipo(this.tipo)
+				.build();
+	}
+	
+	// o encerramento leva só o necessário para a consulta do protocolo
+	RegistroDiario gravado(Long id) {
+		return RegistroDiario.builder().protocolo(this.protocolo).estado(Estado.GRAVADO).usuario(this.usuario).lancamento(id).build();
+	}
+	
+	RegistroDiario rejeitado(String erro) {
+		return RegistroDiario.builder().protocolo(this.protocolo).estado(Estado.REJEITADO).usuario(this.usuario).erro(erro).build();
+	}
+}
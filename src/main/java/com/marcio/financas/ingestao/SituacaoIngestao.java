@@ -0,0 +1,31 @@
+package com.marcio.financas.ingestao;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+public class SituacaoIngestao {
+	
+	public enum Estado { PENDENTE, GRAVADO, REJEITADO }
+	
+	private String protocolo;
+	
+	private Estado estado;
+	
+	@JsonIgnore
+	private Long usuario;
+	
+	private Long lancamento;
+	
+	private String erro;
+	
+	static SituacaoIngestao de(RegistroDiario registro) {
+		return new SituacaoIngestao(registro.getProtocolo(), registro.getEstado(), registro.getUsuario(), registro.getLancamento(), registro.getErro());
+	}
+}
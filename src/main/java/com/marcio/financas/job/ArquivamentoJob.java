@@ -0,0 +1,145 @@
+package com.marcio.financas.job;
+
+import java.time.Year;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.service.IndiceDescricaoService;
+import com.marcio.financas.service.SaldoUsuarioService;
+import com.marcio.financas.shard.ExecutorShards;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Move os anos encerrados de cada usuário da tabela para o arquivo. Os anos
+ * abertos (o corrente e os anteriores até financas.arquivo.anos-abertos)
+ * ficam na tabela; lançamentos incluídos depois num ano arquivado são
+ * juntados ao segmento na execução seguinte.
+ *
+ * O job roda em todos os nós sobre o mesmo diretório. Todo segmento pendente,
+ * inclusive o que este nó acabou de preparar, é decidido com a linha do saldo
+ * do usuário travada: a remoção de outro nó já terminou e a tabela diz se ela
+ * foi confirmada.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "financas.arquivo.diretorio")
+public class ArquivamentoJob {
+	
+	// parâmetros de um IN por comando
+	private static final int TAMANHO_BLOCO = 1000;
+	
+	private final LancamentoRepository repository;
+	
+	private final ArquivoLancamentos arquivo;
+	
+	private final SaldoUsuarioService saldoService;
+	
+	private final IndiceDescricaoService indiceDescricao;
+	
+	private final ExecutorShards shards;
+	
+	private final TransactionTemplate transacao;
+	
+	private final int anosAbertos;
+	
+	public ArquivamentoJob(LancamentoRepository repository, ArquivoLancamentos arquivo, SaldoUsuarioService saldoService,
+			IndiceDescricaoService indiceDescricao, ExecutorShards shards, PlatformTransactionManager transactionManager,
+			@Value("${financas.arquivo.anos-abertos:2}") int anosAbertos) {
+		this.repository = repository;
+		this.arquivo = arquivo;
+		this.saldoService = saldoService;
+		this.indiceDescricao = indiceDescricao;
+		this.shards = shards;
+		this.transacao = new TransactionTemplate(transactionManager);
+		this.anosAbertos = anosAbertos;
+	}
+	
+	@Scheduled(cron = "${financas.arquivo.cron:0 30 2 1 * *}")
+	public void executar() {
+		int limite = Year.now().getValue() - this.anosAbertos + 1;
+		int arquivados = this.shards.emTodos(() -> this.arquivarShard(limite)).stream().mapToInt(Integer::intValue).sum();
+		log.info("{} lançamentos de anos anteriores a {} arquivados", arquivados, limite);
+	}
+	
+	int arquivarShard(int limite) {
+		this.arquivo.pendentes().forEach((usuarioId, anos) -> anos.forEach((ano) -> this.resolver(usuarioId, ano)));
+		
+		int arquivados = 0;
+		for (Object[] periodo : this.repository.periodosAnterioresA(limite)) {
+			Long usuarioId = (Long) periodo[0];
+			int ano = (Integer) periodo[1];
+			try {
+				arquivados += this.arquivar(usuarioId, ano);
+			} catch (RuntimeException e) {
+				// o segmento só vale se a remoção chegou ao banco
+				log.error("Falha ao arquivar o ano {} do usuário {}", ano, usuarioId, e);
+				this.resolver(usuarioId, ano);
+			}
+		}
+		return arquivados;
+	}
+	
+	private int arquivar(Long usuarioId, int ano) {
+		int arquivados = this.transacao.execute((status) -> {
+			// o livro de saldos é travado primeiro, na mesma ordem das escritas; a
+			// versão nova invalida índices de descrição e ETags em todos os nós
+			this.saldoService.registrarAlteracao(usuarioId);
+			this.indiceDescricao.registrarAlteracao(usuarioId);
+			
+			// o pendente de outro nó entra no segmento antes que o preparar o sobrescreva
+			this.arquivo.resolver(usuarioId, ano, this.repository::algumPorIds);
+			
+			List<Lancamento> lancamentos = this.repository.travarPorUsuarioEAno(usuarioId, ano);
+			if (lancamentos.isEmpty()) {
+				return 0;
+			}
+			
+			List<Lancamento> segmento = new ArrayList<>(this.arquivo.lancamentos(usuarioId, ano));
+			segmento.addAll(lancamentos);
+			this.arquivo.preparar(usuarioId, ano, segmento);
+			
+			List<Long> ids = lancamentos.stream().map(Lancamento::getId).collect(Collectors.toList());
+			for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO) {
+				this.repository.apagarPorIds(ids.subList(inicio, Math.min(inicio + TAMANHO_BLOCO, ids.size())));
+			}
+			return lancamentos.size();
+		});
+		
+		if (arquivados > 0) {
+			this.resolver(usuarioId, ano);
+		}
+		return arquivados;
+	}
+	
+	private void resolver(Long usuarioId, int ano) {
+		boolean confirmado = this.transacao.execute((status) -> {
+			this.saldoService.registrarAlteracao(usuarioId);
+			return this.arquivo.resolver(usuarioId, ano, this.repository::algumPorIds);
+		});
+		
+		if (confirmado) {
+			this.publicar(usuarioId);
+		}
+	}
+	
+	/*
+	 * Entre o commit da remoção e a confirmação do segmento, uma leitura não vê
+	 * o ano nem na tabela nem no arquivo e pode ser guardada (ETag, análise) sob
+	 * a versão nova. Outra versão, já com o segmento visível, invalida essa leitura.
+	 */
+	private void publicar(Long usuarioId) {
+		this.saldoService.registrarAlteracao(usuarioId);
+	}
+}
@@ -0,0 +1,42 @@
+package com.marcio.financas.job;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.marcio.financas.model.repository.EventoLancamentoRepository;
+import com.marcio.financas.shard.ExecutorShards;
+
+import lombok.extern.slf4j.Slf4j;
+
+/*
+ * Consumidores parados por mais que a retenção precisam refazer a leitura
+ * completa, como faziam antes dos eventos.
+ */
+@Slf4j
+@Component
+public class ExpiracaoEventosJob {
+	
+	private final EventoLancamentoRepository repository;
+	
+	private final ExecutorShards shards;
+	
+	private final Duration retencao;
+	
+	public ExpiracaoEventosJob(EventoLancamentoRepository repository, ExecutorShards shards,
+			@Value("${financas.eventos.retencao:P7D}") Duration retencao) {
+		this.repository = repository;
+		this.shards = shards;
+		this.retencao = retencao;
+	}
+	
+	@Scheduled(cron = "${financas.eventos.expiracao-cron:0 45 3 * * *}")
+	public void executar() {
+		LocalDateTime limite = LocalDateTime.now().minus(this.retencao);
+		int apagados = this.shards.emTodos(() -> this.repository.apagarAnterioresA(limite)).stream().mapToInt(Integer::intValue).sum();
+		log.info("{} eventos de lançamento expirados apagados", apagados);
+	}
+}
@@ -0,0 +1,38 @@
+package com.marcio.financas.job;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.marcio.financas.model.repository.ChaveIdempotenciaRepository;
+import com.marcio.financas.shard.ExecutorShards;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class ExpiracaoIdempotenciaJob {
+	
+	private final ChaveIdempotenciaRepository repository;
+	
+	private final ExecutorShards shards;
+	
+	private final Duration validade;
+	
+	public ExpiracaoIdempotenciaJob(ChaveIdempotenciaRepository repository, ExecutorShards shards,
+			@Value("${financas.idempotencia.validade:PT24H}") Duration validade) {
+		this.repository = repository;
+		this.shards = shards;
+		this.validade = validade;
+	}
+	
+	@Scheduled(cron = "${financas.idempotencia.expiracao-cron:0 15 * * * *}")
+	public void executar() {
+		LocalDateTime limite = LocalDateTime.now().minus(this.validade);
+		int apagadas = this.shards.emTodos(() -> this.repository.apagarAnterioresA(limite)).stream().mapToInt(Integer::intValue).sum();
+		log.info("{} chaves de idempotência expiradas apagadas", apagadas);
+	}
+}
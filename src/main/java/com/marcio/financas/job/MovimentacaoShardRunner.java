@@ -0,0 +1,37 @@
+package com.marcio.financas.job;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.marcio.financas.shard.RebalanceadorShards;
+
+/**
+ * Move um usuário de shard na subida da aplicação:
+ * {@code --financas.shards.mover=<usuario>:<shard destino>}.
+ */
+@Component
+@ConditionalOnProperty(name = "financas.shards.mover")
+public class MovimentacaoShardRunner implements ApplicationRunner {
+	
+	private final RebalanceadorShards rebalanceador;
+	
+	private final String movimentacao;
+	
+	public MovimentacaoShardRunner(RebalanceadorShards rebalanceador, @Value("${financas.shards.mover}") String movimentacao) {
+		this.rebalanceador = rebalanceador;
+		this.movimentacao = movimentacao;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		String[] partes = this.movimentacao.split(":");
+		if (partes.length != 2) {
+			throw new IllegalArgumentException("Use financas.shards.mover=<usuario>:<shard destino>");
+		}
+		
+		this.rebalanceador.mover(Long.valueOf(partes[0].trim()), Integer.parseInt(partes[1].trim()));
+	}
+}
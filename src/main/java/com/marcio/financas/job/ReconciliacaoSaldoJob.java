@@ -0,0 +1,39 @@
+package com.marcio.financas.job;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.marcio.financas.service.DivergenciaSaldo;
+import com.marcio.financas.service.SaldoUsuarioService;
+import com.marcio.financas.shard.ExecutorShards;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconciliacaoSaldoJob {
+	
+	private final SaldoUsuarioService service;
+	
+	private final ExecutorShards shards;
+	
+	@Scheduled(cron = "${financas.saldo.reconciliacao-cron:0 0 3 * * *}")
+	public void executar() {
+		List<DivergenciaSaldo> divergencias = this.shards.emTodos(this.service::reconciliar).stream()
+				.flatMap(List::stream)
+				.collect(Collectors.toList());
+		
+		if (divergencias.isEmpty()) {
+			log.info("Reconciliação de saldos concluída sem divergências");
+			return;
+		}
+		
+		divergencias.forEach((d) -> log.warn("Saldo divergente corrigido para o usuário {}: receita {} -> {}, despesa {} -> {}",
+				d.getUsuarioId(), d.getReceitaRegistrada(), d.getReceitaCalculada(), d.getDespesaRegistrada(), d.getDespesaCalculada()));
+	}
+}
@@ -0,0 +1,33 @@
+package com.marcio.financas.job;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.marcio.financas.service.ResumoMensalService;
+import com.marcio.financas.shard.ExecutorShards;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reconstrói o resumo_mensal a partir dos lançamentos na subida da aplicação.
+ * Usado em cargas retroativas: {@code --financas.resumo.reconstruir=true}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "financas.resumo.reconstruir", havingValue = "true")
+public class ReconstrucaoResumoRunner implements ApplicationRunner {
+	
+	private final ResumoMensalService service;
+	
+	private final ExecutorShards shards;
+
+	@Override
+	public void run(ApplicationArguments args) {
+		int linhas = this.shards.emTodos(this.service::reconstruir).stream().mapToInt(Integer::intValue).sum();
+		log.info("Resumo mensal reconstruído com {} linhas", linhas);
+	}
+}
@@ -0,0 +1,96 @@
+package com.marcio.financas.metricas;
+
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+
+/**
+ * Conta consultas, carregamentos de entidades e flushes de uma sessão do
+ * Hibernate. Com o open-in-view padrão do Spring Boot cada requisição usa uma
+ * única sessão, então os valores registrados equivalem a "por requisição".
+ * <p>
+ * O Hibernate cria uma instância por sessão (hibernate.session.events.auto),
+ * sem acesso ao contexto do Spring, por isso o registro global do Micrometer.
+ */
+public class EstatisticasSessao extends BaseSessionEventListener {
+	
+	private static final long serialVersionUID = 1L;
+	
+	private static final ThreadLocal<EstatisticasSessao> ATUAL = new ThreadLocal<>();
+	
+	private final transient EstatisticasSessao anterior;
+	
+	private int consultas;
+	
+	private int carregamentos;
+	
+	private int flushes;
+	
+	public EstatisticasSessao() {
+		this.anterior = ATUAL.get();
+		ATUAL.set(this);
+	}
+	
+	@Override
+	public void jdbcExecuteStatementEnd() {
+		this.consultas++;
+	}
+	
+	@Override
+	public void jdbcExecuteBatchEnd() {
+		this.consultas++;
+	}
+	
+	@Override
+	public void flushEnd(int numberOfEntities, int numberOfCollections) {
+		this.flushes++;
+	}
+	
+	@Override
+	public void end() {
+		if (ATUAL.get() == this) {
+			if (this.anterior != null) {
+				ATUAL.set(this.anterior);
+			} else {
+				ATUAL.remove();
+			}
+		}
+		
+		registrar("financas.sessao.consultas", this.consultas);
+		registrar("financas.sessao.carregamentos", this.carregamentos);
+		registrar("financas.sessao.flushes", this.flushes);
+	}
+	
+	private static void registrar(String nome, int valor) {
+		DistributionSummary.builder(nome).register(Metrics.globalRegistry).record(valor);
+	}
+	
+	/**
+	 * Soma os carregamentos de entidades na sessão aberta na thread corrente.
+	 */
+	public static class Integracao implements Integrator {
+
+		@Override
+		public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+			PostLoadEventListener contador = (evento) -> {
+				EstatisticasSessao estatisticas = ATUAL.get();
+				if (estatisticas != null) {
+					estatisticas.carregamentos++;
+				}
+			};
+			serviceRegistry.getService(EventListenerRegistry.class).appendListeners(EventType.POST_LOAD, contador);
+		}
+
+		@Override
+		public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+		}
+	}
+}
@@ -0,0 +1,110 @@
+package com.marcio.financas.metricas;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import com.marcio.financas.exceptions.ConflitoVersaoException;
+import com.marcio.financas.exceptions.ErroAutenticacaoException;
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.model.repository.LancamentoRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Cronometra os endpoints e as consultas dos repositórios. Os percentis e
+ * histogramas são ligados em application.properties pelo prefixo "financas".
+ */
+@Aspect
+@Component
+public class MetricasAspect {
+	
+	public static final String TIMER_ENDPOINT = "financas.endpoint";
+	
+	public static final String TIMER_CONSULTA = "financas.consulta";
+	
+	static final String RESULTADO_OK = "ok";
+	
+	// os resources tratam as exceções de negócio e respondem 400, então o
+	// resultado é anotado na requisição quando a exceção deixa o serviço
+	private static final String EXCECAO = MetricasAspect.class.getName() + ".excecao";
+	
+	private final MeterRegistry registry;
+	
+	@Autowired
+	public MetricasAspect(ObjectProvider<MeterRegistry> registry) {
+		// contextos parciais (testes de fatia) não configuram o Micrometer
+		this(registry.getIfAvailable(() -> Metrics.globalRegistry));
+	}
+	
+	public MetricasAspect(MeterRegistry registry) {
+		this.registry = registry;
+	}
+	
+	@Around("within(com.marcio.financas.api.resource.LancamentoResource) || within(com.marcio.financas.api.resource.UsuarioResource)"
+			+ " || within(com.marcio.financas.api.resource.IngestaoResource) || within(com.marcio.financas.api.resource.EventoResource)"
+			+ " || within(com.marcio.financas.api.resource.AnaliseResource) || within(com.marcio.financas.api.resource.RelatorioResource)"
+			+ " || within(com.marcio.financas.api.resource.ImportacaoResource)")
+	public Object medirEndpoint(ProceedingJoinPoint ponto) throws Throwable {
+		String endpoint = ClassUtils.getUserClass(ponto.getTarget()).getSimpleName() + "." + ponto.getSignature().getName();
+		return this.medir(ponto, TIMER_ENDPOINT, "endpoint", endpoint, true);
+	}
+	
+	@Around("target(com.marcio.financas.model.repository.LancamentoRepository) || target(com.marcio.financas.model.repository.UsuarioRepository)")
+	public Object medirConsulta(ProceedingJoinPoint ponto) throws Throwable {
+		// o alvo é o proxy do Spring Data; métodos herdados como findById são atribuídos ao repositório concreto
+		String repositorio = ponto.getTarget() instanceof LancamentoRepository ? "LancamentoRepository" : "UsuarioRepository";
+		return this.medir(ponto, TIMER_CONSULTA, "consulta", repositorio + "." + ponto.getSignature().getName(), false);
+	}
+	
+	@AfterThrowing(pointcut = "execution(* com.marcio.financas.service..*.*(..))", throwing = "excecao")
+	public void anotarExcecao(Throwable excecao) {
+		RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+		if (requisicao != null && requisicao.getAttribute(EXCECAO, RequestAttributes.SCOPE_REQUEST) == null) {
+			requisicao.setAttribute(EXCECAO, resultado(excecao), RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+	
+	private Object medir(ProceedingJoinPoint ponto, String nome, String tag, String valor, boolean consultarRequisicao) throws Throwable {
+		Timer.Sample amostra = Timer.start(this.registry);
+		String resultado = RESULTADO_OK;
+		try {
+			return ponto.proceed();
+		} catch (Throwable e) {
+			resultado = resultado(e);
+			throw e;
+		} finally {
+			if (consultarRequisicao && RESULTADO_OK.equals(resultado)) {
+				resultado = resultadoDaRequisicao();
+			}
+			
+			amostra.stop(Timer.builder(nome)
+					.tag(tag, valor)
+					.tag("resultado", resultado)
+					.register(this.registry));
+		}
+	}
+	
+	private static String resultadoDaRequisicao() {
+		RequestAttributes requisicao = RequestContextHolder.getRequestAttributes();
+		Object excecao = requisicao != null ? requisicao.getAttribute(EXCECAO, RequestAttributes.SCOPE_REQUEST) : null;
+		return excecao != null ? (String) excecao : RESULTADO_OK;
+	}
+	
+	private static String resultado(Throwable excecao) {
+		if (excecao instanceof RegraNegocioException || excecao instanceof ErroAutenticacaoException
+				|| excecao instanceof ConflitoVersaoException) {
+			return excecao.getClass().getSimpleName();
+		}
+		return "erro";
+	}
+}
@@ -0,0 +1,23 @@
+package com.marcio.financas.metricas;
+
+import java.util.Collections;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricasConfig {
+	
+	@Bean
+	public HibernatePropertiesCustomizer estatisticasSessao() {
+		return (propriedades) -> {
+			propriedades.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, EstatisticasSessao.class.getName());
+			propriedades.put("hibernate.integrator_provider",
+					(IntegratorProvider) () -> Collections.<Integrator>singletonList(new EstatisticasSessao.Integracao()));
+		};
+	}
+}
@@ -0,0 +1,45 @@
+package com.marcio.financas.model.entity;
+
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resposta de uma criação feita com Idempotency-Key. A chave primária é o
+ * que impede, entre nós diferentes, duas tentativas de gravarem a mesma chave.
+ */
+@Entity
+@Table(name = "chave_idempotencia", schema = "financas")
+@IdClass(ChaveIdempotenciaId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveIdempotencia {
+	
+	@Id
+	@Column(name = "id_usuario")
+	private Long usuarioId;
+	
+	@Id
+	private String chave;
+	
+	// hash do corpo da requisição original
+	private String impressao;
+	
+	private Integer status;
+	
+	@Column(length = 1_048_576)
+	private String resposta;
+	
+	private LocalDateTime dataCriacao;
+}
@@ -0,0 +1,19 @@
+package com.marcio.financas.model.entity;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveIdempotenciaId implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+
+	private Long usuarioId;
+	
+	private String chave;
+}
@@ -0,0 +1,80 @@
+package com.marcio.financas.model.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoEvento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Mudança de um lançamento, gravada na mesma transação da escrita (outbox).
+ * Leva o estado resultante, não a diferença; exclusões levam só o id.
+ * A versaoUsuario é a versão do saldo do usuário após a escrita: a linha do
+ * saldo fica travada até o commit, então ela cresce na ordem dos commits e
+ * serve de posição para quem consome os eventos do usuário.
+ */
+@Entity
+@Table(name = "evento_lancamento", schema = "financas",
+		indexes = @Index(name = "idx_evento_lancamento_usuario_versao", columnList = "id_usuario, versaoUsuario"))
+@JsonInclude(Include.NON_NULL)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventoLancamento {
+	
+	// sem blocos por nó: um bloco reservado e usado depois ficaria para trás de ids já despachados;
+	// os lotes reservam os seus ids de uma vez em EventoLancamentoRepository.inserirLote
+	@Id
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_lancamento_seq")
+	@SequenceGenerator(name = "evento_lancamento_seq", schema = "financas", sequenceName = "evento_lancamento_id_seq", allocationSize = 1)
+	private Long id;
+	
+	@Column(name = "id_usuario")
+	private Long usuarioId;
+	
+	private Long versaoUsuario;
+	
+	@Enumerated(value = EnumType.STRING)
+	private TipoEvento tipo;
+	
+	@Column(name = "id_lancamento")
+	private Long lancamentoId;
+	
+	private String descricao;
+	
+	private Integer ano;
+	
+	private Integer mes;
+	
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipoLancamento;
+	
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+	
+	private BigDecimal valor;
+	
+	private Long versao;
+	
+	private LocalDateTime dataCriacao;
+}
@@ -0,0 +1,51 @@
+package com.marcio.financas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Table;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "resumo_mensal", schema = "financas")
+@IdClass(ResumoMensalId.class)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensal {
+	
+	@Id
+	@Column(name = "id_usuario")
+	private Long usuarioId;
+	
+	@Id
+	private Integer ano;
+	
+	@Id
+	private Integer mes;
+	
+	@Id
+	@Enumerated(value = EnumType.STRING)
+	private TipoLancamento tipo;
+	
+	@Id
+	@Enumerated(value = EnumType.STRING)
+	private StatusLancamento status;
+	
+	private BigDecimal total;
+	
+	private Long quantidade;
+}
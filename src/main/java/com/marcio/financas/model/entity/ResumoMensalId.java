@@ -0,0 +1,28 @@
+package com.marcio.financas.model.entity;
+
+import java.io.Serializable;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResumoMensalId implements Serializable {
+	
+	private static final long serialVersionUID = 1L;
+
+	private Long usuarioId;
+	
+	private Integer ano;
+	
+	private Integer mes;
+	
+	private TipoLancamento tipo;
+	
+	private StatusLancamento status;
+}
@@ -0,0 +1,36 @@
+package com.marcio.financas.model.entity;
+
+import java.math.BigDecimal;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "saldo_usuario", schema = "financas")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoUsuario {
+	
+	@Id
+	@Column(name = "id_usuario")
+	private Long usuarioId;
+	
+	private BigDecimal receita;
+	
+	private BigDecimal despesa;
+	
+	private Long versao;
+	
+	public BigDecimal getSaldo() {
+		return this.receita.subtract(this.despesa);
+	}
+}
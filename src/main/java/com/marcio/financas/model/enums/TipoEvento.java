@@ -0,0 +1,8 @@
+package com.marcio.financas.model.enums;
+
+public enum TipoEvento {
+	INCLUSAO,
+	ALTERACAO,
+	EXCLUSAO,
+	ALTERACAO_STATUS_PERIODO
+}
@@ -0,0 +1,62 @@
+package com.marcio.financas.model.projection;
+
+import java.math.BigDecimal;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Fotografia dos campos de um lançamento que alimentam as estruturas derivadas
+ * (saldo, resumos, índices). É comparada antes e depois de cada escrita; a
+ * versão diz a qual escrita a fotografia corresponde.
+ */
+@Data
+@AllArgsConstructor
+public class LancamentoEstado {
+	
+	private Long id;
+	
+	private Long usuarioId;
+	
+	private String descricao;
+	
+	private Integer ano;
+	
+	private Integer mes;
+	
+	private TipoLancamento tipo;
+	
+	private StatusLancamento status;
+	
+	private BigDecimal valor;
+	
+	private Long versao;
+	
+	public static LancamentoEstado de(Lancamento lancamento) {
+		if (lancamento == null) {
+			return null;
+		}
+		
+		Long usuarioId = lancamento.getUsuario() != null ? lancamento.getUsuario().getId() : null;
+		return new LancamentoEstado(lancamento.getId(), usuarioId, lancamento.getDescricao(), lancamento.getAno(),
+				lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor(), lancamento.getVersao());
+	}
+	
+	/**
+	 * Estado resultante de aplicar as alterações não nulas, na versão seguinte.
+	 */
+	public LancamentoEstado com(Lancamento alteracoes) {
+		return new LancamentoEstado(this.id, this.usuarioId,
+				alteracoes.getDescricao() != null ? alteracoes.getDescricao() : this.descricao,
+				alteracoes.getAno() != null ? alteracoes.getAno() : this.ano,
+				alteracoes.getMes() != null ? alteracoes.getMes() : this.mes,
+				alteracoes.getTipo() != null ? alteracoes.getTipo() : this.tipo,
+				alteracoes.getStatus() != null ? alteracoes.getStatus() : this.status,
+				alteracoes.getValor() != null ? alteracoes.getValor() : this.valor,
+				this.versao + 1);
+	}
+}
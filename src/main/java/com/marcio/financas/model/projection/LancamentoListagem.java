@@ -0,0 +1,34 @@
+package com.marcio.financas.model.projection;
+
+import java.math.BigDecimal;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Somente as colunas que a tela de listagem usa. A consulta que a preenche não
+ * faz junção com {@code usuario}. A versão é a que o PATCH espera receber.
+ */
+@Data
+@AllArgsConstructor
+public class LancamentoListagem {
+	
+	private Long id;
+	
+	private String descricao;
+	
+	private Integer mes;
+	
+	private Integer ano;
+	
+	private BigDecimal valor;
+	
+	private TipoLancamento tipo;
+	
+	private StatusLancamento status;
+	
+	private Long versao;
+}
@@ -0,0 +1,15 @@
+package com.marcio.financas.model.projection;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class Pagina<T> {
+	
+	private List<T> itens;
+	
+	private String proximoCursor;
+}
@@ -0,0 +1,20 @@
+package com.marcio.financas.model.projection;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResultadoAnalise {
+	
+	private long quantidade;
+	
+	private BigDecimal total;
+	
+	private BigDecimal media;
+	
+	private List<LancamentoListagem> maiores;
+}
@@ -0,0 +1,19 @@
+package com.marcio.financas.model.projection;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ResumoMes {
+	
+	private Integer mes;
+	
+	private Map<TipoLancamento, Map<StatusLancamento, BigDecimal>> totais;
+}
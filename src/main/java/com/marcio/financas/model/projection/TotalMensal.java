@@ -0,0 +1,28 @@
+package com.marcio.financas.model.projection;
+
+import java.math.BigDecimal;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TotalMensal {
+	
+	private Long usuarioId;
+	
+	private Integer ano;
+	
+	private Integer mes;
+	
+	private TipoLancamento tipo;
+	
+	private StatusLancamento status;
+	
+	private BigDecimal total;
+	
+	private Long quantidade;
+}
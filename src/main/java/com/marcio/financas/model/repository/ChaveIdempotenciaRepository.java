@@ -0,0 +1,20 @@
+package com.marcio.financas.model.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcio.financas.model.entity.ChaveIdempotencia;
+import com.marcio.financas.model.entity.ChaveIdempotenciaId;
+
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, ChaveIdempotenciaId> {
+	
+	@Transactional
+	@Modifying
+	@Query(value = " DELETE FROM ChaveIdempotencia c WHERE c.dataCriacao < :limite")
+	int apagarAnterioresA(@Param("limite") LocalDateTime limite);
+}
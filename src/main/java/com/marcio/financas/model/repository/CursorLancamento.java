@@ -0,0 +1,47 @@
+package com.marcio.financas.model.repository;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Posição de uma página na ordenação (ano, mes, id) decrescente. Trafega como
+ * um token opaco para que o cliente não dependa do formato interno.
+ */
+@Data
+@AllArgsConstructor
+public class CursorLancamento {
+	
+	private Integer ano;
+	
+	private Integer mes;
+	
+	private Long id;
+	
+	public static CursorLancamento de(LancamentoListagem lancamento) {
+		return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+	}
+	
+	public String codificar() {
+		String valor = this.ano + ":" + this.mes + ":" + this.id;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static CursorLancamento decodificar(String token) {
+		if (token == null || token.isEmpty()) {
+			return null;
+		}
+		
+		try {
+			String[] partes = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split(":");
+			return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			throw new RegraNegocioException("Cursor inválido");
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package com.marcio.financas.model.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+
+public interface EventoLancamentoRepository extends JpaRepository<EventoLancamento, Long>, EventoLancamentoRepositoryCustom {
+	
+	List<EventoLancamento> findTop500ByIdGreaterThanOrderById(Long id);
+	
+	@Query(value = " SELECT MAX(e.id) FROM EventoLancamento e")
+	Optional<Long> maiorId();
+	
+	@Query(value = " SELECT e FROM EventoLancamento e WHERE e.usuarioId = :usuarioId AND e.versaoUsuario > :versao ORDER BY e.versaoUsuario, e.id")
+	List<EventoLancamento> buscarApos(@Param("usuarioId") Long usuarioId, @Param("versao") Long versao, Pageable pagina);
+	
+	@Query(value = " SELECT e FROM EventoLancamento e WHERE e.usuarioId = :usuarioId AND e.versaoUsuario = :versao ORDER BY e.id")
+	List<EventoLancamento> buscarDaVersao(@Param("usuarioId") Long usuarioId, @Param("versao") Long versao);
+	
+	@Transactional
+	@Modifying
+	@Query(value = " DELETE FROM EventoLancamento e WHERE e.dataCriacao < :limite")
+	int apagarAnterioresA(@Param("limite") LocalDateTime limite);
+}
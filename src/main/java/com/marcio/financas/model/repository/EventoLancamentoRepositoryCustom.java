@@ -0,0 +1,14 @@
+package com.marcio.financas.model.repository;
+
+import java.util.List;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+
+public interface EventoLancamentoRepositoryCustom {
+	
+	/**
+	 * Reserva os ids de todos os eventos numa única consulta à sequência e os
+	 * insere num único batch JDBC, preenchendo o id de cada um.
+	 */
+	void inserirLote(List<EventoLancamento> eventos);
+}
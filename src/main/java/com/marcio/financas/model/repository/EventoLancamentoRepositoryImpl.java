@@ -0,0 +1,68 @@
+package com.marcio.financas.model.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+
+public class EventoLancamentoRepositoryImpl implements EventoLancamentoRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public void inserirLote(List<EventoLancamento> eventos) {
+		if (eventos.isEmpty()) {
+			return;
+		}
+		
+		this.entityManager.unwrap(Session.class).doWork((conexao) -> {
+			List<Long> ids = new ArrayList<>(eventos.size());
+			try (PreparedStatement reserva = conexao.prepareStatement(
+					"SELECT nextval('financas.evento_lancamento_id_seq') FROM generate_series(1, ?)")) {
+				reserva.setInt(1, eventos.size());
+				try (ResultSet resultado = reserva.executeQuery()) {
+					while (resultado.next()) {
+						ids.add(resultado.getLong(1));
+					}
+				}
+			}
+			// os eventos saem na ordem em que foram montados
+			Collections.sort(ids);
+			
+			try (PreparedStatement insercao = conexao.prepareStatement("INSERT INTO financas.evento_lancamento"
+					+ " (id, id_usuario, versao_usuario, tipo, id_lancamento, descricao, ano, mes, tipo_lancamento, status, valor, versao, data_criacao)"
+					+ " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+				for (int i = 0; i < eventos.size(); i++) {
+					EventoLancamento evento = eventos.get(i);
+					evento.setId(ids.get(i));
+					insercao.setLong(1, evento.getId());
+					insercao.setObject(2, evento.getUsuarioId(), Types.BIGINT);
+					insercao.setObject(3, evento.getVersaoUsuario(), Types.BIGINT);
+					insercao.setString(4, evento.getTipo() != null ? evento.getTipo().name() : null);
+					insercao.setObject(5, evento.getLancamentoId(), Types.BIGINT);
+					insercao.setString(6, evento.getDescricao());
+					insercao.setObject(7, evento.getAno(), Types.INTEGER);
+					insercao.setObject(8, evento.getMes(), Types.INTEGER);
+					insercao.setString(9, evento.getTipoLancamento() != null ? evento.getTipoLancamento().name() : null);
+					insercao.setString(10, evento.getStatus() != null ? evento.getStatus().name() : null);
+					insercao.setBigDecimal(11, evento.getValor());
+					insercao.setObject(12, evento.getVersao(), Types.BIGINT);
+					insercao.setTimestamp(13, evento.getDataCriacao() != null ? Timestamp.valueOf(evento.getDataCriacao()) : null);
+					insercao.addBatch();
+				}
+				insercao.executeBatch();
+			}
+		});
+	}
+}
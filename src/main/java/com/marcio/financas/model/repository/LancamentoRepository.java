@@ -1,16 +1,113 @@
 package com.marcio.financas.model.repository;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
 import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.TotalMensal;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, LancamentoRepositoryCustom {
 	
 	@Query(value=" SELECT SUM(l.valor) FROM Lancamento l JOIN l.usuario u WHERE u.id = :usuarioId AND l.tipo = :tipo GROUP BY u")
 	BigDecimal saldoPorUsuarioETipoLancamento(@Param("usuarioId") Long usuarioId, @Param("tipo") TipoLancamento tipo);
+	
+	@Query(value=" SELECT l.usuario.id, l.tipo, SUM(l.valor) FROM Lancamento l GROUP BY l.usuario.id, l.tipo")
+	List<Object[]> saldosPorUsuarioETipoLancamento();
+	
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+		@QueryHint(name = "org.hibernate.readOnly", value = "true"),
+		@QueryHint(name = "org.hibernate.cacheable", value = "false")
+	})
+	@Query(value=" SELECT l FROM Lancamento l WHERE l.usuario.id = :usuarioId ORDER BY l.ano, l.mes, l.id")
+	Stream<Lancamento> streamPorUsuario(@Param("usuarioId") Long usuarioId);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value=" UPDATE Lancamento l SET l.status = :novoStatus, l.versao = l.versao + 1 WHERE l.usuario.id = :usuarioId AND l.id IN :ids AND l.status = :statusAtual")
+	int atualizarStatusPorIds(@Param("usuarioId") Long usuarioId, @Param("ids") List<Long> ids,
+			@Param("statusAtual") StatusLancamento statusAtual, @Param("novoStatus") StatusLancamento novoStatus);
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value=" UPDATE Lancamento l SET l.status = :novoStatus, l.versao = l.versao + 1 WHERE l.usuario.id = :usuarioId AND l.ano = :ano AND l.mes = :mes AND l.status = :statusAtual")
+	int atualizarStatusPorPeriodo(@Param("usuarioId") Long usuarioId, @Param("ano") Integer ano, @Param("mes") Integer mes,
+			@Param("statusAtual") StatusLancamento statusAtual, @Param("novoStatus") StatusLancamento novoStatus);
+	
+	@Query(value=" SELECT new com.marcio.financas.model.projection.LancamentoEstado(l.id, l.usuario.id, l.descricao, l.ano, l.mes, l.tipo, l.status, l.valor, l.versao) FROM Lancamento l WHERE l.usuario.id = :usuarioId")
+	List<LancamentoEstado> estadosPorUsuario(@Param("usuarioId") Long usuarioId);
+	
+	/*
+	 * Lê o estado gravado no banco sem forçar o flush de uma entidade gerenciada
+	 * que já tenha sido alterada em memória.
+	 */
+	@QueryHints(@QueryHint(name = "org.hibernate.flushMode", value = "COMMIT"))
+	@Query(value=" SELECT new com.marcio.financas.model.projection.LancamentoEstado(l.id, l.usuario.id, l.descricao, l.ano, l.mes, l.tipo, l.status, l.valor, l.versao) FROM Lancamento l WHERE l.id = :id")
+	Optional<LancamentoEstado> obterEstadoPersistido(@Param("id") Long id);
+	
+	@Query(value=" SELECT new com.marcio.financas.model.projection.TotalMensal(l.usuario.id, l.ano, l.mes, l.tipo, l.status, SUM(l.valor), COUNT(l)) FROM Lancamento l "
+			+ " WHERE l.usuario.id = :usuarioId AND l.id IN :ids AND l.status = :status AND l.tipo IS NOT NULL AND l.valor IS NOT NULL "
+			+ " GROUP BY l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+	List<TotalMensal> totaisPorIds(@Param("usuarioId") Long usuarioId, @Param("ids") List<Long> ids, @Param("status") StatusLancamento status);
+	
+	@Query(value=" SELECT new com.marcio.financas.model.projection.TotalMensal(l.usuario.id, l.ano, l.mes, l.tipo, l.status, SUM(l.valor), COUNT(l)) FROM Lancamento l "
+			+ " WHERE l.usuario.id = :usuarioId AND l.ano = :ano AND l.mes = :mes AND l.status = :status AND l.tipo IS NOT NULL AND l.valor IS NOT NULL "
+			+ " GROUP BY l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+	List<TotalMensal> totaisPorPeriodo(@Param("usuarioId") Long usuarioId, @Param("ano") Integer ano, @Param("mes") Integer mes, @Param("status") StatusLancamento status);
+	
+	@Query(value=" SELECT new com.marcio.financas.model.projection.TotalMensal(l.usuario.id, l.ano, l.mes, l.tipo, l.status, SUM(l.valor), COUNT(l)) FROM Lancamento l "
+			+ " WHERE l.usuario.id = :usuarioId AND l.ano = :ano AND l.mes = :mes AND l.tipo = :tipo AND l.status = :status AND l.valor IS NOT NULL "
+			+ " GROUP BY l.usuario.id, l.ano, l.mes, l.tipo, l.status")
+	Optional<TotalMensal> totalMensal(@Param("usuarioId") Long usuarioId, @Param("ano") Integer ano, @Param("mes") Integer mes,
+			@Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status);
+	
+	@Query(value=" SELECT MIN(l.id) FROM Lancamento l")
+	Long menorId();
+	
+	@Query(value=" SELECT MAX(l.id) FROM Lancamento l")
+	Long maiorId();
+	
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.fetchSize", value = "500"),
+		@QueryHint(name = "org.hibernate.readOnly", value = "true")
+	})
+	@Query(value=" SELECT l.usuario.id, l.ano, l.mes, l.tipo, l.valor FROM Lancamento l WHERE l.id >= :inicio AND l.id < :fim")
+	List<Object[]> valoresPorFaixaDeIds(@Param("inicio") Long inicio, @Param("fim") Long fim);
+	
+	@Query(value=" SELECT DISTINCT l.usuario.id, l.ano FROM Lancamento l WHERE l.ano < :ano ORDER BY l.usuario.id, l.ano")
+	List<Object[]> periodosAnterioresA(@Param("ano") Integer ano);
+	
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query(value=" SELECT l FROM Lancamento l WHERE l.usuario.id = :usuarioId AND l.ano = :ano ORDER BY l.mes, l.id")
+	List<Lancamento> travarPorUsuarioEAno(@Param("usuarioId") Long usuarioId, @Param("ano") Integer ano);
+	
+	@Query(value=" SELECT COUNT(l) FROM Lancamento l WHERE l.id IN :ids")
+	long contarPorIds(@Param("ids") List<Long> ids);
+	
+	default boolean algumPorIds(List<Long> ids) {
+		// parâmetros de um IN por comando
+		for (int inicio = 0; inicio < ids.size(); inicio += 1000) {
+			if (this.contarPorIds(ids.subList(inicio, Math.min(inicio + 1000, ids.size()))) > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+	
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query(value=" DELETE FROM Lancamento l WHERE l.id IN :ids")
+	int apagarPorIds(@Param("ids") List<Long> ids);
 }
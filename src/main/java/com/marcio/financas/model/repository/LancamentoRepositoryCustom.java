@@ -0,0 +1,27 @@
+package com.marcio.financas.model.repository;
+
+import java.util.List;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+public interface LancamentoRepositoryCustom {
+	
+	List<LancamentoListagem> buscarPagina(Lancamento filtro, CursorLancamento apos, int limite);
+	
+	List<LancamentoListagem> buscarListagemPorIds(List<Long> ids);
+	
+	void desanexar(Lancamento lancamento);
+	
+	/**
+	 * Grava só os campos não nulos de {@code alteracoes} num único UPDATE,
+	 * condicionado ao dono e à versão. Devolve 0 se a versão já mudou.
+	 */
+	int atualizarParcial(Long id, Long usuarioId, Long versao, Lancamento alteracoes);
+	
+	/**
+	 * Insere lançamentos vindos do arquivo com os ids que já tinham, num
+	 * único batch JDBC.
+	 */
+	void restaurar(List<Lancamento> lancamentos);
+}
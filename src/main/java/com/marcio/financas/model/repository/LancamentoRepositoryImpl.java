@@ -0,0 +1,145 @@
+package com.marcio.financas.model.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CompoundSelection;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+
+import org.hibernate.Session;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+public class LancamentoRepositoryImpl implements LancamentoRepositoryCustom {
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Override
+	public List<LancamentoListagem> buscarPagina(Lancamento filtro, CursorLancamento apos, int limite) {
+		CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoListagem> query = cb.createQuery(LancamentoListagem.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		
+		List<Predicate> filtros = filtrar(cb, root, filtro);
+		
+		if (apos != null) {
+			filtros.add(cb.or(
+					cb.lessThan(root.get("ano"), apos.getAno()),
+					cb.and(cb.equal(root.get("ano"), apos.getAno()), cb.lessThan(root.get("mes"), apos.getMes())),
+					cb.and(cb.equal(root.get("ano"), apos.getAno()), cb.equal(root.get("mes"), apos.getMes()), cb.lessThan(root.get("id"), apos.getId()))));
+		}
+		
+		query.select(listagem(cb, root))
+			.where(filtros.toArray(new Predicate[0]))
+			.orderBy(cb.desc(root.get("ano")), cb.desc(root.get("mes")), cb.desc(root.get("id")));
+		
+		return this.entityManager.createQuery(query).setMaxResults(limite).getResultList();
+	}
+	
+	@Override
+	public List<LancamentoListagem> buscarListagemPorIds(List<Long> ids) {
+		if (ids.isEmpty()) {
+			return new ArrayList<>();
+		}
+		
+		CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+		CriteriaQuery<LancamentoListagem> query = cb.createQuery(LancamentoListagem.class);
+		Root<Lancamento> root = query.from(Lancamento.class);
+		query.select(listagem(cb, root)).where(root.get("id").in(ids));
+		
+		return this.entityManager.createQuery(query).getResultList();
+	}
+	
+	@Override
+	public void desanexar(Lancamento lancamento) {
+		this.entityManager.detach(lancamento);
+	}
+	
+	@Override
+	public int atualizarParcial(Long id, Long usuarioId, Long versao, Lancamento alteracoes) {
+		CriteriaBuilder cb = this.entityManager.getCriteriaBuilder();
+		CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+		Root<Lancamento> root = update.from(Lancamento.class);
+		
+		alterar(update, "descricao", alteracoes.getDescricao());
+		alterar(update, "mes", alteracoes.getMes());
+		alterar(update, "ano", alteracoes.getAno());
+		alterar(update, "valor", alteracoes.getValor());
+		alterar(update, "tipo", alteracoes.getTipo());
+		alterar(update, "status", alteracoes.getStatus());
+		
+		// atualizações em massa não passam pelo controle de versão do Hibernate
+		update.set(root.<Long>get("versao"), cb.sum(root.<Long>get("versao"), 1l))
+			.where(cb.equal(root.get("id"), id),
+					cb.equal(root.get("usuario").get("id"), usuarioId),
+					cb.equal(root.get("versao"), versao));
+		
+		return this.entityManager.createQuery(update).executeUpdate();
+	}
+	
+	@Override
+	public void restaurar(List<Lancamento> lancamentos) {
+		this.entityManager.unwrap(Session.class).doWork((conexao) -> {
+			try (PreparedStatement insercao = conexao.prepareStatement("INSERT INTO financas.lancamento"
+					+ " (id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status, versao) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)")) {
+				for (Lancamento lancamento : lancamentos) {
+					insercao.setLong(1, lancamento.getId());
+					insercao.setString(2, lancamento.getDescricao());
+					insercao.setObject(3, lancamento.getMes(), Types.INTEGER);
+					insercao.setObject(4, lancamento.getAno(), Types.INTEGER);
+					insercao.setLong(5, lancamento.getUsuario().getId());
+					insercao.setBigDecimal(6, lancamento.getValor());
+					insercao.setTimestamp(7, lancamento.getDataCadastro() != null ? Timestamp.valueOf(lancamento.getDataCadastro().atStartOfDay()) : null);
+					insercao.setString(8, lancamento.getTipo() != null ? lancamento.getTipo().name() : null);
+					insercao.setString(9, lancamento.getStatus() != null ? lancamento.getStatus().name() : null);
+					insercao.setLong(10, lancamento.getVersao() != null ? lancamento.getVersao() : 0);
+					insercao.addBatch();
+				}
+				insercao.executeBatch();
+			}
+		});
+	}
+	
+	private static void alterar(CriteriaUpdate<Lancamento> update, String campo, Object valor) {
+		if (valor != null) {
+			update.set(campo, valor);
+		}
+	}
+	
+	private static CompoundSelection<LancamentoListagem> listagem(CriteriaBuilder cb, Root<Lancamento> root) {
+		return cb.construct(LancamentoListagem.class, root.get("id"), root.get("descricao"), root.get("mes"),
+				root.get("ano"), root.get("valor"), root.get("tipo"), root.get("status"), root.get("versao"));
+	}
+	
+	private static List<Predicate> filtrar(CriteriaBuilder cb, Root<Lancamento> root, Lancamento filtro) {
+		List<Predicate> filtros = new ArrayList<>();
+		filtros.add(cb.equal(root.get("usuario").get("id"), filtro.getUsuario().getId()));
+		
+		if (filtro.getAno() != null) {
+			filtros.add(cb.equal(root.get("ano"), filtro.getAno()));
+		}
+		
+		if (filtro.getMes() != null) {
+			filtros.add(cb.equal(root.get("mes"), filtro.getMes()));
+		}
+		
+		if (filtro.getDescricao() != null && !filtro.getDescricao().isEmpty()) {
+			String termo = filtro.getDescricao().toLowerCase()
+					.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+			filtros.add(cb.like(cb.lower(root.get("descricao")), "%" + termo + "%", '\\'));
+		}
+		
+		return filtros;
+	}
+}
@@ -0,0 +1,45 @@
+package com.marcio.financas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.marcio.financas.model.entity.ResumoMensal;
+import com.marcio.financas.model.entity.ResumoMensalId;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, ResumoMensalId> {
+	
+	List<ResumoMensal> findByUsuarioIdAndAnoOrderByMes(Long usuarioId, Integer ano);
+	
+	@Modifying
+	@Query(value = " UPDATE ResumoMensal r SET r.total = r.total + :valor, r.quantidade = r.quantidade + :quantidade "
+			+ " WHERE r.usuarioId = :usuarioId AND r.ano = :ano AND r.mes = :mes AND r.tipo = :tipo AND r.status = :status")
+	int movimentar(@Param("usuarioId") Long usuarioId, @Param("ano") Integer ano, @Param("mes") Integer mes,
+			@Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status,
+			@Param("valor") BigDecimal valor, @Param("quantidade") Long quantidade);
+	
+	// devolve 0 quando outra transação já criou a linha, em vez de violar a chave
+	@Modifying
+	@Query(nativeQuery = true, value = " INSERT INTO financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade) "
+			+ " VALUES (:usuarioId, :ano, :mes, :tipo, :status, :valor, :quantidade) ON CONFLICT DO NOTHING")
+	int inserirSeAusente(@Param("usuarioId") Long usuarioId, @Param("ano") Integer ano, @Param("mes") Integer mes,
+			@Param("tipo") String tipo, @Param("status") String status,
+			@Param("valor") BigDecimal valor, @Param("quantidade") Long quantidade);
+	
+	@Modifying
+	@Query(value = " DELETE FROM ResumoMensal r")
+	int apagarTodos();
+	
+	@Modifying
+	@Query(nativeQuery = true, value = " INSERT INTO financas.resumo_mensal (id_usuario, ano, mes, tipo, status, total, quantidade) "
+			+ " SELECT l.id_usuario, l.ano, l.mes, l.tipo, l.status, SUM(l.valor), COUNT(*) FROM financas.lancamento l "
+			+ " WHERE l.tipo IS NOT NULL AND l.status IS NOT NULL AND l.valor IS NOT NULL "
+			+ " GROUP BY l.id_usuario, l.ano, l.mes, l.tipo, l.status")
+	int inserirAPartirDosLancamentos();
+}
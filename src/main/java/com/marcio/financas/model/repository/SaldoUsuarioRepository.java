@@ -0,0 +1,32 @@
+package com.marcio.financas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.marcio.financas.model.entity.SaldoUsuario;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long> {
+	
+	@Modifying
+	@Query(value = " UPDATE SaldoUsuario s SET s.receita = s.receita + :receita, s.despesa = s.despesa + :despesa, s.versao = s.versao + 1 WHERE s.usuarioId = :usuarioId")
+	int movimentar(@Param("usuarioId") Long usuarioId, @Param("receita") BigDecimal receita, @Param("despesa") BigDecimal despesa);
+	
+	@Modifying
+	@Query(value = " UPDATE SaldoUsuario s SET s.receita = :receita, s.despesa = :despesa, s.versao = s.versao + 1 WHERE s.usuarioId = :usuarioId AND s.versao = :versao")
+	int corrigir(@Param("usuarioId") Long usuarioId, @Param("receita") BigDecimal receita, @Param("despesa") BigDecimal despesa, @Param("versao") Long versao);
+	
+	// devolve 0 quando outra transação já criou a linha, em vez de violar a chave
+	@Modifying
+	@Query(nativeQuery = true, value = " INSERT INTO financas.saldo_usuario (id_usuario, receita, despesa, versao) "
+			+ " VALUES (:usuarioId, :receita, :despesa, 1) ON CONFLICT DO NOTHING")
+	int inserirSeAusente(@Param("usuarioId") Long usuarioId, @Param("receita") BigDecimal receita, @Param("despesa") BigDecimal despesa);
+	
+	// escalar, lido do banco mesmo que o saldo esteja no contexto de persistência
+	@Query(value = " SELECT s.versao FROM SaldoUsuario s WHERE s.usuarioId = :usuarioId")
+	Optional<Long> versao(@Param("usuarioId") Long usuarioId);
+}
@@ -2,6 +2,7 @@ package com.marcio.financas.model.repository;
 
 import java.util.Optional;
 
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.marcio.financas.model.entity.Usuario;
@@ -10,5 +11,6 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 	
 	boolean existsByEmail(String email);
 	
+	@Cacheable(cacheNames = "usuariosPorEmail", key = "#p0", unless = "#result == null")
 	Optional<Usuario> findByEmail(String email);
 }
@@ -0,0 +1,114 @@
+package com.marcio.financas.relatorio;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.TotalMensal;
+
+/**
+ * Receita e despesa em centavos, por mês (ano * 12 + mes - 1) e por usuário,
+ * de uma parte dos lançamentos. Acumuladores de partes diferentes são somados
+ * com {@link #mesclar} em qualquer ordem.
+ */
+class AcumuladorRelatorio {
+	
+	private static final int RECEITA = 0;
+	
+	private static final int DESPESA = 1;
+	
+	private final Map<Integer, long[]> meses = new HashMap<>();
+	
+	private final Map<Long, long[]> usuarios = new HashMap<>();
+	
+	private long lancamentos;
+	
+	void adicionar(Long usuarioId, Integer ano, Integer mes, TipoLancamento tipo, BigDecimal valor) {
+		this.lancamentos++;
+		if (tipo == null || valor == null) {
+			return;
+		}
+		
+		long centavos = centavos(valor);
+		if (ano != null && mes != null) {
+			this.meses.computeIfAbsent(ano * 12 + mes - 1, (periodo) -> new long[2])[coluna(tipo)] += centavos;
+		}
+		if (usuarioId != null) {
+			this.usuarios.computeIfAbsent(usuarioId, (id) -> new long[2])[coluna(tipo)] += centavos;
+		}
+	}
+	
+	/**
+	 * Soma os anos arquivados: os meses pelos totais mensais dos segmentos e os
+	 * usuários pela receita e despesa de cada um, nessa ordem.
+	 */
+	void adicionarArquivados(List<TotalMensal> totaisMensais, Map<Long, BigDecimal[]> totaisUsuarios) {
+		for (TotalMensal total : totaisMensais) {
+			this.lancamentos += total.getQuantidade();
+			if (total.getTipo() != null && total.getTotal() != null) {
+				this.meses.computeIfAbsent(total.getAno() * 12 + total.getMes() - 1, (periodo) -> new long[2])[coluna(total.getTipo())]
+						+= centavos(total.getTotal());
+			}
+		}
+		
+		totaisUsuarios.forEach((usuarioId, totais) -> {
+			long[] usuario = this.usuarios.computeIfAbsent(usuarioId, (id) -> new long[2]);
+			usuario[RECEITA] += centavos(totais[RECEITA]);
+			usuario[DESPESA] += centavos(totais[DESPESA]);
+		});
+	}
+	
+	AcumuladorRelatorio mesclar(AcumuladorRelatorio outro) {
+		this.lancamentos += outro.lancamentos;
+		outro.meses.forEach((periodo, valores) -> somar(this.meses.computeIfAbsent(periodo, (p) -> new long[2]), valores));
+		outro.usuarios.forEach((usuarioId, valores) -> somar(this.usuarios.computeIfAbsent(usuarioId, (id) -> new long[2]), valores));
+		return this;
+	}
+	
+	RelatorioPlataforma relatorio(int limiteUsuarios) {
+		List<RelatorioPlataforma.Mes> meses = this.meses.entrySet().stream()
+				.sorted(Map.Entry.comparingByKey())
+				.map((mes) -> new RelatorioPlataforma.Mes(mes.getKey() / 12, mes.getKey() % 12 + 1,
+						BigDecimal.valueOf(mes.getValue()[RECEITA], 2), BigDecimal.valueOf(mes.getValue()[DESPESA], 2)))
+				.collect(Collectors.toList());
+		
+		List<RelatorioPlataforma.ValorUsuario> maioresDespesas = this.usuarios.entrySet().stream()
+				.filter((usuario) -> usuario.getValue()[DESPESA] > 0)
+				.sorted(Comparator.comparingLong((Map.Entry<Long, long[]> usuario) -> usuario.getValue()[DESPESA]).reversed())
+				.limit(limiteUsuarios)
+				.map((usuario) -> new RelatorioPlataforma.ValorUsuario(usuario.getKey(), BigDecimal.valueOf(usuario.getValue()[DESPESA], 2)))
+				.collect(Collectors.toList());
+		
+		long usuariosComSaldoNegativo = this.usuarios.values().stream().filter((valores) -> saldo(valores) < 0).count();
+		List<RelatorioPlataforma.ValorUsuario> saldosNegativos = this.usuarios.entrySet().stream()
+				.filter((usuario) -> saldo(usuario.getValue()) < 0)
+				.sorted(Comparator.comparingLong((Map.Entry<Long, long[]> usuario) -> saldo(usuario.getValue())))
+				.limit(limiteUsuarios)
+				.map((usuario) -> new RelatorioPlataforma.ValorUsuario(usuario.getKey(), BigDecimal.valueOf(saldo(usuario.getValue()), 2)))
+				.collect(Collectors.toList());
+		
+		return new RelatorioPlataforma(this.lancamentos, meses, maioresDespesas, usuariosComSaldoNegativo, saldosNegativos);
+	}
+	
+	private static int coluna(TipoLancamento tipo) {
+		return tipo == TipoLancamento.RECEITA ? RECEITA : DESPESA;
+	}
+	
+	private static long centavos(BigDecimal valor) {
+		return valor.setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact();
+	}
+	
+	private static long saldo(long[] valores) {
+		return valores[RECEITA] - valores[DESPESA];
+	}
+	
+	private static void somar(long[] destino, long[] origem) {
+		destino[RECEITA] += origem[RECEITA];
+		destino[DESPESA] += origem[DESPESA];
+	}
+}
@@ -0,0 +1,45 @@
+package com.marcio.financas.relatorio;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class RelatorioPlataforma {
+	
+	private long lancamentos;
+	
+	private List<Mes> meses;
+	
+	private List<ValorUsuario> maioresDespesas;
+	
+	private long usuariosComSaldoNegativo;
+	
+	// os mais negativos primeiro
+	private List<ValorUsuario> saldosNegativos;
+	
+	@Data
+	@AllArgsConstructor
+	public static class Mes {
+		
+		private Integer ano;
+		
+		private Integer mes;
+		
+		private BigDecimal receita;
+		
+		private BigDecimal despesa;
+	}
+	
+	@Data
+	@AllArgsConstructor
+	public static class ValorUsuario {
+		
+		private Long usuarioId;
+		
+		private BigDecimal valor;
+	}
+}
@@ -0,0 +1,233 @@
+package com.marcio.financas.relatorio;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.relatorio.SituacaoRelatorio.Estado;
+import com.marcio.financas.shard.ExecutorShards;
+import com.marcio.financas.shard.ShardContexto;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relatórios que atravessam todos os usuários, executados fora da requisição.
+ * Em cada shard a tabela é lida em faixas de id, divididas entre as threads
+ * de um {@link ForkJoinPool}; cada faixa vira um {@link AcumuladorRelatorio}
+ * e eles são mesclados na volta. Lançamentos gravados depois de lida a faixa
+ * de ids do shard ficam para o próximo relatório.
+ */
+@Slf4j
+@Component
+public class RelatoriosPlataforma {
+	
+	private static final Duration RETENCAO_SITUACAO = Duration.ofHours(6);
+	
+	private final LancamentoRepository repository;
+	
+	private final ArquivoLancamentos arquivo;
+	
+	private final ExecutorShards shards;
+	
+	private final long tamanhoFaixa;
+	
+	private final int limiteUsuarios;
+	
+	// as folhas bloqueiam no banco: o paralelismo não deve passar do pool de conexões
+	private final ForkJoinPool pool;
+	
+	private final ExecutorService coordenador = Executors.newSingleThreadExecutor((tarefa) -> {
+		Thread thread = new Thread(tarefa, "relatorio-coordenador");
+		thread.setDaemon(true);
+		return thread;
+	});
+	
+	private final Cache<String, Execucao> execucoes = Caffeine.newBuilder()
+			.maximumSize(100)
+			.expireAfterWrite(RETENCAO_SITUACAO)
+			.build();
+	
+	private Execucao emAndamento;
+	
+	public RelatoriosPlataforma(LancamentoRepository repository, ArquivoLancamentos arquivo, ExecutorShards shards,
+			@Value("${financas.relatorio.tamanho-faixa:50000}") long tamanhoFaixa,
+			@Value("${financas.relatorio.paralelismo:4}") int paralelismo,
+			@Value("${financas.relatorio.limite-usuarios:100}") int limiteUsuarios) {
+		this.repository = repository;
+		this.arquivo = arquivo;
+		this.shards = shards;
+		this.tamanhoFaixa = tamanhoFaixa;
+		this.limiteUsuarios = limiteUsuarios;
+		this.pool = new ForkJoinPool(paralelismo);
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		this.coordenador.shutdownNow();
+		this.pool.shutdownNow();
+	}
+	
+	/**
+	 * Inicia um relatório e devolve o protocolo para consulta. Com um relatório
+	 * em andamento devolve a situação dele em vez de começar outro.
+	 */
+	public synchronized SituacaoRelatorio iniciar() {
+		if (this.emAndamento != null && this.emAndamento.estado == Estado.PROCESSANDO) {
+			return this.emAndamento.situacao();
+		}
+		
+		Execucao execucao = new Execucao(UUID.randomUUID().toString());
+		this.execucoes.put(execucao.protocolo, execucao);
+		this.emAndamento = execucao;
+		this.coordenador.execute(() -> this.executar(execucao));
+		return execucao.situacao();
+	}
+	
+	public Optional<SituacaoRelatorio> obterSituacao(String protocolo) {
+		return Optional.ofNullable(this.execucoes.getIfPresent(protocolo)).map(Execucao::situacao);
+	}
+	
+	private void executar(Execucao execucao) {
+		try {
+			Map<Integer, long[]> faixas = new HashMap<>();
+			this.shards.emTodos(() -> {
+				Long menor = this.repository.menorId();
+				Long maior = this.repository.maiorId();
+				return menor != null ? new long[] { ShardContexto.atual(), menor, maior } : null;
+			}).stream().filter(Objects::nonNull).forEach((faixa) -> faixas.put((int) faixa[0], faixa));
+			
+			execucao.faixas.set(faixas.values().stream().mapToLong((faixa) -> this.quantidadeDeFaixas(faixa[1], faixa[2])).sum());
+			
+			AcumuladorRelatorio total = this.shards.emTodos(() -> this.acumularShard(faixas.get(ShardContexto.atual()), execucao)).stream()
+					.reduce(AcumuladorRelatorio::mesclar)
+					.orElseGet(AcumuladorRelatorio::new);
+			
+			execucao.concluir(total.relatorio(this.limiteUsuarios));
+		} catch (RuntimeException e) {
+			log.error("Falha no relatório {}", execucao.protocolo, e);
+			execucao.falhar(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+		}
+	}
+	
+	private AcumuladorRelatorio acumularShard(long[] faixa, Execucao execucao) {
+		AcumuladorRelatorio acumulador = faixa != null
+				? this.pool.invoke(new Faixas((int) faixa[0], faixa[1], 0, this.quantidadeDeFaixas(faixa[1], faixa[2]), execucao))
+				: new AcumuladorRelatorio();
+		
+		if (this.arquivo.isHabilitado()) {
+			acumulador.adicionarArquivados(this.arquivo.totaisMensaisDoShard(), this.arquivo.totaisDoShard());
+		}
+		return acumulador;
+	}
+	
+	private long quantidadeDeFaixas(long menor, long maior) {
+		return (maior - menor) / this.tamanhoFaixa + 1;
+	}
+	
+	/*
+	 * Faixas [primeira, ultima) de tamanhoFaixa ids a partir de inicio; divide
+	 * ao meio até restar uma, que é lida do banco.
+	 */
+	private class Faixas extends RecursiveTask<AcumuladorRelatorio> {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int shard;
+		
+		private final long inicio;
+		
+		private final long primeira;
+		
+		private final long ultima;
+		
+		private final Execucao execucao;
+		
+		Faixas(int shard, long inicio, long primeira, long ultima, Execucao execucao) {
+			this.shard = shard;
+			this.inicio = inicio;
+			this.primeira = primeira;
+			this.ultima = ultima;
+			this.execucao = execucao;
+		}
+		
+		@Override
+		protected AcumuladorRelatorio compute() {
+			if (this.ultima - this.primeira > 1) {
+				long meio = this.primeira + (this.ultima - this.primeira) / 2;
+				Faixas esquerda = new Faixas(this.shard, this.inicio, this.primeira, meio, this.execucao);
+				esquerda.fork();
+				AcumuladorRelatorio direita = new Faixas(this.shard, this.inicio, meio, this.ultima, this.execucao).compute();
+				return direita.mesclar(esquerda.join());
+			}
+			
+			long de = this.inicio + this.primeira * RelatoriosPlataforma.this.tamanhoFaixa;
+			List<Object[]> linhas = ShardContexto.executar(this.shard,
+					() -> RelatoriosPlataforma.this.repository.valoresPorFaixaDeIds(de, de + RelatoriosPlataforma.this.tamanhoFaixa));
+			
+			AcumuladorRelatorio acumulador = new AcumuladorRelatorio();
+			for (Object[] linha : linhas) {
+				acumulador.adicionar((Long) linha[0], (Integer) linha[1], (Integer) linha[2], (TipoLancamento) linha[3], (BigDecimal) linha[4]);
+			}
+			
+			this.execucao.faixasProcessadas.incrementAndGet();
+			this.execucao.lancamentosProcessados.addAndGet(linhas.size());
+			return acumulador;
+		}
+	}
+	
+	private static class Execucao {
+		
+		private final String protocolo;
+		
+		private final AtomicLong faixas = new AtomicLong();
+		
+		private final AtomicLong faixasProcessadas = new AtomicLong();
+		
+		private final AtomicLong lancamentosProcessados = new AtomicLong();
+		
+		private volatile Estado estado = Estado.PROCESSANDO;
+		
+		private volatile RelatorioPlataforma resultado;
+		
+		private volatile String erro;
+		
+		Execucao(String protocolo) {
+			this.protocolo = protocolo;
+		}
+		
+		void concluir(RelatorioPlataforma resultado) {
+			this.resultado = resultado;
+			this.estado = Estado.CONCLUIDO;
+		}
+		
+		void falhar(String erro) {
+			this.erro = erro;
+			this.estado = Estado.FALHOU;
+		}
+		
+		SituacaoRelatorio situacao() {
+			return new SituacaoRelatorio(this.protocolo, this.estado, this.faixas.get(), this.faixasProcessadas.get(),
+					this.lancamentosProcessados.get(), this.resultado, this.erro);
+		}
+	}
+}
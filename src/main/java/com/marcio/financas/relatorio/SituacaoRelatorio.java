@@ -0,0 +1,29 @@
+package com.marcio.financas.relatorio;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+public class SituacaoRelatorio {
+	
+	public enum Estado { PROCESSANDO, CONCLUIDO, FALHOU }
+	
+	private String protocolo;
+	
+	private Estado estado;
+	
+	private long faixas;
+	
+	private long faixasProcessadas;
+	
+	private long lancamentosProcessados;
+	
+	private RelatorioPlataforma resultado;
+	
+	private String erro;
+}
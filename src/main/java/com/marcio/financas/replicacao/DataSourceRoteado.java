@@ -0,0 +1,59 @@
+package com.marcio.financas.replicacao;
+
+import java.io.Closeable;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Envia as transações somente leitura para a réplica e todo o resto para a
+ * primária. Precisa ficar atrás de um LazyConnectionDataSourceProxy: o
+ * JpaTransactionManager pede a conexão antes de publicar o readOnly da
+ * transação, e o proxy adia a escolha até o primeiro comando.
+ */
+public class DataSourceRoteado extends AbstractRoutingDataSource implements Closeable {
+	
+	public static final String PRIMARIA = "primaria";
+	
+	public static final String REPLICA = "replica";
+	
+	private final HikariDataSource primaria;
+	
+	private final HikariDataSource replica;
+	
+	public DataSourceRoteado(HikariDataSource primaria, HikariDataSource replica) {
+		this.primaria = primaria;
+		this.replica = replica;
+		
+		Map<Object, Object> destinos = new HashMap<>();
+		destinos.put(PRIMARIA, primaria);
+		destinos.put(REPLICA, replica);
+		this.setTargetDataSources(destinos);
+		this.setDefaultTargetDataSource(primaria);
+		this.afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if (!TransactionSynchronizationManager.isActualTransactionActive()) {
+			return PRIMARIA;
+		}
+		
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			LeituraPropria.registrarEscrita();
+			return PRIMARIA;
+		}
+		
+		return LeituraPropria.escreveu() ? PRIMARIA : REPLICA;
+	}
+
+	@Override
+	public void close() {
+		this.replica.close();
+		this.primaria.close();
+	}
+}
@@ -0,0 +1,26 @@
+package com.marcio.financas.replicacao;
+
+/**
+ * Marca a thread que já escreveu na primária. A partir daí as transações
+ * somente leitura da mesma requisição também vão para a primária, para que a
+ * própria escrita seja vista mesmo com a réplica atrasada.
+ */
+public final class LeituraPropria {
+	
+	private static final ThreadLocal<Boolean> ESCREVEU = new ThreadLocal<>();
+	
+	private LeituraPropria() {
+	}
+	
+	static void registrarEscrita() {
+		ESCREVEU.set(Boolean.TRUE);
+	}
+	
+	public static boolean escreveu() {
+		return ESCREVEU.get() != null;
+	}
+	
+	public static void limpar() {
+		ESCREVEU.remove();
+	}
+}
@@ -0,0 +1,27 @@
+package com.marcio.financas.replicacao;
+
+import java.io.IOException;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Restringe a leitura da própria escrita à requisição que escreveu.
+ */
+public class LeituraPropriaFiltro extends OncePerRequestFilter {
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		LeituraPropria.limpar();
+		try {
+			chain.doFilter(request, response);
+		} finally {
+			LeituraPropria.limpar();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+package com.marcio.financas.replicacao;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Ativado quando financas.datasource.replica.url é informado. Sem a
+ * propriedade a aplicação continua com o único spring.datasource. Não se
+ * combina com os shards (financas.shards.urls), que têm o próprio roteamento.
+ */
+@Configuration
+@ConditionalOnExpression("'${financas.datasource.replica.url:}' != '' and '${financas.shards.urls:}' == ''")
+public class ReplicacaoConfig {
+	
+	/*
+	 * Os pools não são beans: o Spring Boot inicializaria cada DataSource
+	 * exposto e esbarraria no próprio roteador ainda em criação.
+	 */
+	@Bean(destroyMethod = "close")
+	@Primary
+	public DataSource dataSource(DataSourceProperties propriedades, Environment ambiente,
+			@Value("${financas.datasource.replica.url}") String urlReplica) {
+		Binder binder = Binder.get(ambiente);
+		
+		HikariDataSource primaria = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+		primaria.setPoolName("primaria");
+		binder.bind("spring.datasource.hikari", Bindable.ofInstance(primaria));
+		
+		// usuário, senha e driver da primária valem para a réplica, salvo se sobrescritos
+		HikariDataSource replica = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).url(urlReplica).build();
+		replica.setPoolName("replica");
+		replica.setReadOnly(true);
+		binder.bind("financas.datasource.replica", Bindable.ofInstance(replica));
+		
+		DataSourceRoteado roteado = new DataSourceRoteado(primaria, replica);
+		return new LazyConnectionDataSourceProxy(roteado) {
+			
+			public void close() {
+				roteado.close();
+			}
+		};
+	}
+	
+	/*
+	 * Com o open-in-view a sessão vive a requisição inteira; sem liberar a
+	 * conexão ao fim de cada transação a primeira escolha valeria para todas.
+	 */
+	@Bean
+	public HibernatePropertiesCustomizer liberarConexaoAposTransacao() {
+		return (propriedades) -> propriedades.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+	}
+	
+	@Bean
+	public FilterRegistrationBean<LeituraPropriaFiltro> leituraPropriaFiltro() {
+		FilterRegistrationBean<LeituraPropriaFiltro> registro = new FilterRegistrationBean<>(new LeituraPropriaFiltro());
+		registro.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registro;
+	}
+}
@@ -0,0 +1,22 @@
+package com.marcio.financas.service;
+
+import java.time.YearMonth;
+import java.util.Collection;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.ResultadoAnalise;
+
+public interface AnaliseLancamentoService {
+	
+	int MAIORES_MAXIMO = 100;
+	
+	ResultadoAnalise analisar(Long usuarioId, YearMonth de, YearMonth ate, TipoLancamento tipo, StatusLancamento status, int maiores);
+	
+	void registrar(LancamentoEstado anterior, LancamentoEstado atual);
+	
+	void registrarInclusoes(Collection<LancamentoEstado> incluidos);
+	
+	void registrarAlteracao(Long usuarioId);
+}
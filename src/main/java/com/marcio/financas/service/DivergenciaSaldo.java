@@ -0,0 +1,21 @@
+package com.marcio.financas.service;
+
+import java.math.BigDecimal;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class DivergenciaSaldo {
+	
+	private Long usuarioId;
+	
+	private BigDecimal receitaRegistrada;
+	
+	private BigDecimal despesaRegistrada;
+	
+	private BigDecimal receitaCalculada;
+	
+	private BigDecimal despesaCalculada;
+}
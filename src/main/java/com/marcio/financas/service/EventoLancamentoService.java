@@ -0,0 +1,26 @@
+package com.marcio.financas.service;
+
+import java.util.Collection;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.Pagina;
+import com.marcio.financas.model.projection.TotalMensal;
+
+public interface EventoLancamentoService {
+	
+	int TAMANHO_PAGINA_MAXIMO = 1000;
+	
+	void registrar(LancamentoEstado anterior, LancamentoEstado atual);
+	
+	void registrarInclusoes(Collection<LancamentoEstado> incluidos);
+	
+	void registrarTransicao(Collection<TotalMensal> totais, StatusLancamento novoStatus);
+	
+	/**
+	 * Eventos do usuário posteriores à versão informada, sem partir as escritas
+	 * entre páginas. O cursor da página é a versão a informar na próxima leitura.
+	 */
+	Pagina<EventoLancamento> buscarApos(Long usuarioId, long versao, int tamanho);
+}
@@ -0,0 +1,20 @@
+package com.marcio.financas.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.repository.CursorLancamento;
+
+public interface IndiceDescricaoService {
+	
+	boolean isHabilitado();
+	
+	List<Long> buscar(Long usuarioId, String termo, Integer ano, Integer mes, CursorLancamento apos, int limite);
+	
+	void registrar(LancamentoEstado anterior, LancamentoEstado atual);
+	
+	void registrarInclusoes(Collection<LancamentoEstado> incluidos);
+	
+	void registrarAlteracao(Long usuarioId);
+}
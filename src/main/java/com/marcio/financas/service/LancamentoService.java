@@ -3,25 +3,62 @@ package com.marcio.financas.service;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import com.marcio.financas.model.entity.Lancamento;
 import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.Pagina;
 
 public interface LancamentoService {
 	
+	int TAMANHO_PAGINA_PADRAO = 50;
+	
+	int TAMANHO_PAGINA_MAXIMO = 200;
+	
+	int TAMANHO_LOTE_MAXIMO = 1000;
+	
 	Lancamento salvar(Lancamento lancamento);
 	
+	List<ResultadoItemLote> salvarLote(List<Lancamento> lancamentos);
+	
 	Lancamento atualizar(Lancamento lancamento);
 	
+	/**
+	 * Aplica os campos não nulos de {@code alteracoes} ao lançamento do usuário
+	 * se ele ainda estiver na {@code versao} informada; caso contrário lança
+	 * {@link com.marcio.financas.exceptions.ConflitoVersaoException}.
+	 */
+	LancamentoEstado atualizarParcial(Long id, Long usuarioId, Long versao, Lancamento alteracoes);
+	
 	void deletar(Lancamento lancamento);
 	
 	List<Lancamento> buscar(Lancamento lancamento);
 	
+	Pagina<LancamentoListagem> buscarPagina(Lancamento filtro, String cursor, int tamanho);
+	
 	void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 	
+	int atualizarStatusEmLote(Long usuarioId, List<Long> ids, Integer ano, Integer mes, StatusLancamento status);
+	
 	Optional<Lancamento> obterPorId(Long id);
 	
+	/**
+	 * Lançamento do usuário que vai ser alterado. Se ele está num ano
+	 * arquivado, o ano volta para a tabela antes.
+	 */
+	Optional<Lancamento> obterParaAlteracao(Long id, Long usuarioId);
+	
 	BigDecimal obterSaldoPorUsuario(Long usuarioId);
 	
+	/**
+	 * Contador do usuário incrementado por toda escrita nos seus lançamentos.
+	 * Enquanto não muda, listagens e saldo do usuário também não mudam.
+	 */
+	long obterVersao(Long usuarioId);
+	
 	void validar(Lancamento lancamento);
+	
+	void exportar(Long usuarioId, Consumer<Lancamento> consumidor);
 }
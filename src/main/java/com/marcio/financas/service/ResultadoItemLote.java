@@ -0,0 +1,27 @@
+package com.marcio.financas.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+@JsonInclude(Include.NON_NULL)
+public class ResultadoItemLote {
+	
+	private int indice;
+	
+	private Long id;
+	
+	private String erro;
+	
+	public static ResultadoItemLote sucesso(int indice, Long id) {
+		return new ResultadoItemLote(indice, id, null);
+	}
+	
+	public static ResultadoItemLote falha(int indice, String erro) {
+		return new ResultadoItemLote(indice, null, erro);
+	}
+}
@@ -0,0 +1,22 @@
+package com.marcio.financas.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.ResumoMes;
+import com.marcio.financas.model.projection.TotalMensal;
+
+public interface ResumoMensalService {
+	
+	void registrar(LancamentoEstado anterior, LancamentoEstado atual);
+	
+	void registrarInclusoes(Collection<LancamentoEstado> incluidos);
+	
+	void registrarTransicao(Collection<TotalMensal> totais, StatusLancamento novoStatus);
+	
+	List<ResumoMes> obterResumo(Long usuarioId, Integer ano);
+	
+	int reconstruir();
+}
@@ -0,0 +1,29 @@
+package com.marcio.financas.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import com.marcio.financas.model.projection.LancamentoEstado;
+
+public interface SaldoUsuarioService {
+	
+	void registrar(LancamentoEstado anterior, LancamentoEstado atual);
+	
+	void registrarInclusoes(Collection<LancamentoEstado> incluidos);
+	
+	void registrarAlteracao(Long usuarioId);
+	
+	/**
+	 * Como {@link #registrarAlteracao}, mas numa transação própria: serve a
+	 * quem precisa invalidar leituras depois que a sua transação terminou.
+	 */
+	void publicarAlteracao(Long usuarioId);
+	
+	Optional<BigDecimal> obterSaldo(Long usuarioId);
+	
+	long obterVersao(Long usuarioId);
+	
+	List<DivergenciaSaldo> reconciliar();
+}
@@ -0,0 +1,20 @@
+package com.marcio.financas.service;
+
+import java.util.Optional;
+
+import com.marcio.financas.model.entity.Usuario;
+
+public interface TokenService {
+	
+	String gerarToken(Usuario usuario);
+	
+	Optional<Long> validarToken(String token);
+	
+	/**
+	 * Token de um minuto que só vale na URL do fluxo de notificações, para
+	 * clientes que não enviam cabeçalhos, como o EventSource do navegador.
+	 */
+	String gerarTokenNotificacoes(Long usuarioId);
+	
+	Optional<Long> validarTokenNotificacoes(String token);
+}
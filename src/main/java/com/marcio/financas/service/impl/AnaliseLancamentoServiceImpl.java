@@ -0,0 +1,151 @@
+package com.marcio.financas.service.impl;
+
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.ResultadoAnalise;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.service.AnaliseLancamentoService;
+import com.marcio.financas.service.SaldoUsuarioService;
+
+/**
+ * Mantém em memória um {@link AnaliseLancamentosUsuario} por usuário ativo,
+ * com a mesma regra de versão do {@link IndiceDescricaoServiceImpl}: escritas
+ * deste nó são aplicadas às colunas e avançam a versão; escritas de outro nó
+ * forçam a recarga na próxima análise.
+ */
+@Service
+public class AnaliseLancamentoServiceImpl implements AnaliseLancamentoService {
+	
+	private final LancamentoRepository repository;
+	
+	private final SaldoUsuarioService saldoService;
+	
+	private final ArquivoLancamentos arquivo;
+	
+	private final Map<Long, AnaliseLancamentosUsuario> analises;
+	
+	public AnaliseLancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoService, ArquivoLancamentos arquivo,
+			@Value("${financas.analise.max-usuarios:1000}") int maxUsuarios) {
+		this.repository = repository;
+		this.saldoService = saldoService;
+		this.arquivo = arquivo;
+		this.analises = Collections.synchronizedMap(new LinkedHashMap<Long, AnaliseLancamentosUsuario>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+			
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, AnaliseLancamentosUsuario> eldest) {
+				return size() > maxUsuarios;
+			}
+		});
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public ResultadoAnalise analisar(Long usuarioId, YearMonth de, YearMonth ate, TipoLancamento tipo, StatusLancamento status, int maiores) {
+		if (maiores < 0 || maiores > MAIORES_MAXIMO) {
+			throw new RegraNegocioException("Informe entre 0 e " + MAIORES_MAXIMO + " maiores lançamentos");
+		}
+		
+		if (de != null && ate != null && de.isAfter(ate)) {
+			throw new RegraNegocioException("O período inicial deve ser anterior ao final");
+		}
+		
+		return this.obterAnalise(usuarioId).analisar(
+				de != null ? AnaliseLancamentosUsuario.periodo(de.getYear(), de.getMonthValue()) : Integer.MIN_VALUE,
+				ate != null ? AnaliseLancamentosUsuario.periodo(ate.getYear(), ate.getMonthValue()) : Integer.MAX_VALUE,
+				tipo != null ? (byte) tipo.ordinal() : AnaliseLancamentosUsuario.QUALQUER,
+				status != null ? (byte) status.ordinal() : AnaliseLancamentosUsuario.QUALQUER,
+				maiores);
+	}
+	
+	@Override
+	public void registrar(LancamentoEstado anterior, LancamentoEstado atual) {
+		Transacoes.aposCommit(() -> {
+			Long usuarioAnterior = anterior != null ? anterior.getUsuarioId() : null;
+			Long usuarioAtual = atual != null ? atual.getUsuarioId() : null;
+			
+			if (usuarioAnterior != null) {
+				this.aplicar(usuarioAnterior, (analise) -> analise.remover(anterior.getId()), !usuarioAnterior.equals(usuarioAtual));
+			}
+			
+			if (usuarioAtual != null) {
+				this.aplicar(usuarioAtual, (analise) -> analise.incluir(atual), true);
+			}
+		});
+	}
+	
+	@Override
+	public void registrarInclusoes(Collection<LancamentoEstado> incluidos) {
+		Transacoes.aposCommit(() -> {
+			Map<Long, AnaliseLancamentosUsuario> tocadas = new HashMap<>();
+			for (LancamentoEstado estado : incluidos) {
+				if (estado.getUsuarioId() != null) {
+					AnaliseLancamentosUsuario analise = tocadas.computeIfAbsent(estado.getUsuarioId(), this.analises::get);
+					if (analise != null) {
+						analise.incluir(estado);
+					}
+				}
+			}
+			tocadas.values().stream().filter(Objects::nonNull).forEach(AnaliseLancamentosUsuario::incrementarVersao);
+		});
+	}
+	
+	@Override
+	public void registrarAlteracao(Long usuarioId) {
+		// alterações em massa não dizem quais linhas mudaram: as colunas são recarregadas
+		Transacoes.aposCommit(() -> this.analises.remove(usuarioId));
+	}
+	
+	private void aplicar(Long usuarioId, Consumer<AnaliseLancamentosUsuario> alteracao, boolean avancarVersao) {
+		AnaliseLancamentosUsuario analise = this.analises.get(usuarioId);
+		if (analise == null) {
+			return;
+		}
+		
+		alteracao.accept(analise);
+		if (avancarVersao) {
+			analise.incrementarVersao();
+		}
+	}
+	
+	private AnaliseLancamentosUsuario obterAnalise(Long usuarioId) {
+		long versao = this.saldoService.obterVersao(usuarioId);
+		
+		AnaliseLancamentosUsuario analise = this.analises.get(usuarioId);
+		if (analise != null && analise.getVersao() == versao) {
+			return analise;
+		}
+		
+		analise = new AnaliseLancamentosUsuario(versao);
+		for (LancamentoEstado estado : this.repository.estadosPorUsuario(usuarioId)) {
+			analise.incluir(estado);
+		}
+		
+		if (this.arquivo.isHabilitado()) {
+			for (Iterator<Lancamento> arquivados = this.arquivo.percorrer(usuarioId); arquivados.hasNext();) {
+				analise.incluir(LancamentoEstado.de(arquivados.next()));
+			}
+		}
+		
+		this.analises.put(usuarioId, analise);
+		return analise;
+	}
+}
@@ -0,0 +1,200 @@
+package com.marcio.financas.service.impl;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.ResultadoAnalise;
+
+/**
+ * Lançamentos de um único usuário em colunas de tipos primitivos: o período
+ * (ano * 12 + mes - 1) em int, tipo e status pelo ordinal em byte, o valor em
+ * centavos e a descrição pela posição num dicionário. A varredura de
+ * {@link #analisar} não cria objetos; só o resultado é convertido.
+ */
+public class AnaliseLancamentosUsuario {
+	
+	public static final byte QUALQUER = -1;
+	
+	private static final byte NULO = -1;
+	
+	private static final long VALOR_NULO = Long.MIN_VALUE;
+	
+	private static final int SEM_PERIODO = Integer.MIN_VALUE;
+	
+	private static final TipoLancamento[] TIPOS = TipoLancamento.values();
+	
+	private static final StatusLancamento[] STATUS = StatusLancamento.values();
+	
+	private long[] ids = new long[16];
+	
+	private int[] periodos = new int[16];
+	
+	private byte[] tipos = new byte[16];
+	
+	private byte[] status = new byte[16];
+	
+	private long[] centavos = new long[16];
+	
+	private int[] descricoes = new int[16];
+	
+	private long[] versoes = new long[16];
+	
+	private int linhas;
+	
+	// linhas removidas deixam a posição para a última, então a posição de um id muda
+	private final Map<Long, Integer> posicoes = new HashMap<>();
+	
+	private final List<String> dicionario = new ArrayList<>();
+	
+	private final Map<String, Integer> posicoesDicionario = new HashMap<>();
+	
+	private long versao;
+	
+	public AnaliseLancamentosUsuario(long versao) {
+		this.versao = versao;
+	}
+	
+	public synchronized long getVersao() {
+		return this.versao;
+	}
+	
+	public synchronized void incrementarVersao() {
+		this.versao++;
+	}
+	
+	public synchronized void incluir(LancamentoEstado estado) {
+		Integer posicao = this.posicoes.get(estado.getId());
+		if (posicao == null) {
+			if (this.linhas == this.ids.length) {
+				this.crescer();
+			}
+			posicao = this.linhas++;
+			this.posicoes.put(estado.getId(), posicao);
+		}
+		
+		this.ids[posicao] = estado.getId();
+		this.periodos[posicao] = estado.getAno() != null && estado.getMes() != null ? periodo(estado.getAno(), estado.getMes()) : SEM_PERIODO;
+		this.tipos[posicao] = estado.getTipo() != null ? (byte) estado.getTipo().ordinal() : NULO;
+		this.status[posicao] = estado.getStatus() != null ? (byte) estado.getStatus().ordinal() : NULO;
+		this.centavos[posicao] = estado.getValor() != null ? estado.getValor().setScale(2, RoundingMode.HALF_EVEN).unscaledValue().longValueExact() : VALOR_NULO;
+		this.descricoes[posicao] = this.internar(estado.getDescricao());
+		this.versoes[posicao] = estado.getVersao() != null ? estado.getVersao() : VALOR_NULO;
+	}
+	
+	public synchronized void remover(Long id) {
+		Integer posicao = this.posicoes.remove(id);
+		if (posicao == null) {
+			return;
+		}
+		
+		int ultima = --this.linhas;
+		if (posicao != ultima) {
+			this.ids[posicao] = this.ids[ultima];
+			this.periodos[posicao] = this.periodos[ultima];
+			this.tipos[posicao] = this.tipos[ultima];
+			this.status[posicao] = this.status[ultima];
+			this.centavos[posicao] = this.centavos[ultima];
+			this.descricoes[posicao] = this.descricoes[ultima];
+			this.versoes[posicao] = this.versoes[ultima];
+			this.posicoes.put(this.ids[posicao], posicao);
+		}
+	}
+	
+	/**
+	 * Soma, média e os maiores valores dos lançamentos entre os dois períodos,
+	 * inclusive. Tipo e status {@link #QUALQUER} não filtram.
+	 */
+	public synchronized ResultadoAnalise analisar(int periodoInicial, int periodoFinal, byte tipo, byte status, int maiores) {
+		long total = 0;
+		int quantidade = 0;
+		
+		// posições dos maiores valores, em ordem decrescente
+		int[] topo = new int[maiores];
+		int ocupados = 0;
+		
+		for (int linha = 0; linha < this.linhas; linha++) {
+			long valor = this.centavos[linha];
+			if (valor == VALOR_NULO
+					|| this.periodos[linha] < periodoInicial || this.periodos[linha] > periodoFinal
+					|| (tipo != QUALQUER && this.tipos[linha] != tipo)
+					|| (status != QUALQUER && this.status[linha] != status)) {
+				continue;
+			}
+			
+			total += valor;
+			quantidade++;
+			
+			if (maiores > 0 && (ocupados < maiores || valor > this.centavos[topo[ocupados - 1]])) {
+				int i = ocupados < maiores ? ocupados++ : ocupados - 1;
+				while (i > 0 && this.centavos[topo[i - 1]] < valor) {
+					topo[i] = topo[i - 1];
+					i--;
+				}
+				topo[i] = linha;
+			}
+		}
+		
+		List<LancamentoListagem> listagem = new ArrayList<>(ocupados);
+		for (int i = 0; i < ocupados; i++) {
+			listagem.add(this.listagem(topo[i]));
+		}
+		
+		BigDecimal soma = BigDecimal.valueOf(total, 2);
+		BigDecimal media = quantidade > 0 ? soma.divide(BigDecimal.valueOf(quantidade), 2, RoundingMode.HALF_EVEN) : BigDecimal.ZERO;
+		return new ResultadoAnalise(quantidade, soma, media, listagem);
+	}
+	
+	public synchronized int tamanho() {
+		return this.linhas;
+	}
+	
+	public static int periodo(Integer ano, Integer mes) {
+		return ano * 12 + mes - 1;
+	}
+	
+	private LancamentoListagem listagem(int linha) {
+		int periodo = this.periodos[linha];
+		return new LancamentoListagem(this.ids[linha],
+				this.descricoes[linha] != NULO ? this.dicionario.get(this.descricoes[linha]) : null,
+				periodo != SEM_PERIODO ? periodo % 12 + 1 : null,
+				periodo != SEM_PERIODO ? periodo / 12 : null,
+				this.centavos[linha] != VALOR_NULO ? BigDecimal.valueOf(this.centavos[linha], 2) : null,
+				this.tipos[linha] != NULO ? TIPOS[this.tipos[linha]] : null,
+				this.status[linha] != NULO ? STATUS[this.status[linha]] : null,
+				this.versoes[linha] != VALOR_NULO ? this.versoes[linha] : null);
+	}
+	
+	private int internar(String descricao) {
+		if (descricao == null) {
+			return NULO;
+		}
+		
+		Integer posicao = this.posicoesDicionario.get(descricao);
+		if (posicao == null) {
+			posicao = this.dicionario.size();
+			this.dicionario.add(descricao);
+			this.posicoesDicionario.put(descricao, posicao);
+		}
+		return posicao;
+	}
+	
+	private void crescer() {
+		int capacidade = this.ids.length * 2;
+		this.ids = Arrays.copyOf(this.ids, capacidade);
+		this.periodos = Arrays.copyOf(this.periodos, capacidade);
+		this.tipos = Arrays.copyOf(this.tipos, capacidade);
+		this.status = Arrays.copyOf(this.status, capacidade);
+		this.centavos = Arrays.copyOf(this.centavos, capacidade);
+		this.descricoes = Arrays.copyOf(this.descricoes, capacidade);
+		this.versoes = Arrays.copyOf(this.versoes, capacidade);
+	}
+}
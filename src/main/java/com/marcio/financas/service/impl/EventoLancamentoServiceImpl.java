@@ -0,0 +1,156 @@
+package com.marcio.financas.service.impl;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoEvento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.Pagina;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.EventoLancamentoRepository;
+import com.marcio.financas.model.repository.SaldoUsuarioRepository;
+import com.marcio.financas.service.EventoLancamentoService;
+
+/*
+ * Deve ser chamado depois do SaldoUsuarioService na mesma transação: é a
+ * movimentação do saldo que trava a linha e incrementa a versão do usuário.
+ */
+@Service
+public class EventoLancamentoServiceImpl implements EventoLancamentoService {
+	
+	private final EventoLancamentoRepository repository;
+	
+	private final SaldoUsuarioRepository saldoRepository;
+	
+	public EventoLancamentoServiceImpl(EventoLancamentoRepository repository, SaldoUsuarioRepository saldoRepository) {
+		this.repository = repository;
+		this.saldoRepository = saldoRepository;
+	}
+	
+	@Override
+	@Transactional
+	public void registrar(LancamentoEstado anterior, LancamentoEstado atual) {
+		if (anterior == null && atual == null) {
+			return;
+		}
+		
+		EventoLancamento evento;
+		if (atual == null) {
+			evento = EventoLancamento.builder()
+					.usuarioId(anterior.getUsuarioId())
+					.tipo(TipoEvento.EXCLUSAO)
+					.lancamentoId(anterior.getId())
+					.build();
+		} else {
+			evento = de(atual, anterior == null ? TipoEvento.INCLUSAO : TipoEvento.ALTERACAO);
+		}
+		
+		evento.setVersaoUsuario(this.versaoDoUsuario(evento.getUsuarioId()));
+		evento.setDataCriacao(LocalDateTime.now());
+		this.repository.save(evento);
+	}
+	
+	@Override
+	@Transactional
+	public void registrarInclusoes(Collection<LancamentoEstado> incluidos) {
+		List<EventoLancamento> eventos = new ArrayList<>(incluidos.size());
+		Map<Long, Long> versoes = new HashMap<>();
+		LocalDateTime agora = LocalDateTime.now();
+		
+		for (LancamentoEstado estado : incluidos) {
+			EventoLancamento evento = de(estado, TipoEvento.INCLUSAO);
+			evento.setVersaoUsuario(versoes.computeIfAbsent(estado.getUsuarioId(), this::versaoDoUsuario));
+			evento.setDataCriacao(agora);
+			eventos.add(evento);
+		}
+		
+		this.repository.inserirLote(eventos);
+	}
+	
+	@Override
+	@Transactional
+	public void registrarTransicao(Collection<TotalMensal> totais, StatusLancamento novoStatus) {
+		// o UPDATE em lote não devolve as linhas: o evento diz quais meses mudaram
+		Set<List<Object>> periodos = new LinkedHashSet<>();
+		for (TotalMensal total : totais) {
+			periodos.add(Arrays.asList(total.getUsuarioId(), total.getAno(), total.getMes()));
+		}
+		
+		List<EventoLancamento> eventos = new ArrayList<>(periodos.size());
+		Map<Long, Long> versoes = new HashMap<>();
+		LocalDateTime agora = LocalDateTime.now();
+		
+		for (List<Object> periodo : periodos) {
+			Long usuarioId = (Long) periodo.get(0);
+			eventos.add(EventoLancamento.builder()
+					.usuarioId(usuarioId)
+					.versaoUsuario(versoes.computeIfAbsent(usuarioId, this::versaoDoUsuario))
+					.tipo(TipoEvento.ALTERACAO_STATUS_PERIODO)
+					.ano((Integer) periodo.get(1))
+					.mes((Integer) periodo.get(2))
+					.status(novoStatus)
+					.dataCriacao(agora)
+					.build());
+		}
+		
+		this.repository.inserirLote(eventos);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Pagina<EventoLancamento> buscarApos(Long usuarioId, long versao, int tamanho) {
+		if (tamanho < 1 || tamanho > TAMANHO_PAGINA_MAXIMO) {
+			throw new RegraNegocioException("O tamanho da página deve estar entre 1 e " + TAMANHO_PAGINA_MAXIMO);
+		}
+		
+		List<EventoLancamento> eventos = new ArrayList<>(this.repository.buscarApos(usuarioId, versao, PageRequest.of(0, tamanho + 1)));
+		if (eventos.isEmpty()) {
+			return new Pagina<>(eventos, String.valueOf(versao));
+		}
+		
+		if (eventos.size() > tamanho) {
+			// a última versão pode ter ficado pela metade: sai inteira na próxima página
+			Long ultima = eventos.get(tamanho).getVersaoUsuario();
+			eventos.removeIf((evento) -> evento.getVersaoUsuario().equals(ultima));
+			if (eventos.isEmpty()) {
+				// uma única escrita maior que a página
+				eventos = this.repository.buscarDaVersao(usuarioId, ultima);
+			}
+		}
+		
+		return new Pagina<>(eventos, String.valueOf(eventos.get(eventos.size() - 1).getVersaoUsuario()));
+	}
+	
+	private long versaoDoUsuario(Long usuarioId) {
+		return this.saldoRepository.versao(usuarioId).orElse(0l);
+	}
+	
+	private static EventoLancamento de(LancamentoEstado estado, TipoEvento tipo) {
+		return EventoLancamento.builder()
+				.usuarioId(estado.getUsuarioId())
+				.tipo(tipo)
+				.lancamentoId(estado.getId())
+				.descricao(estado.getDescricao())
+				.ano(estado.getAno())
+				.mes(estado.getMes())
+				.tipoLancamento(estado.getTipo())
+				.status(estado.getStatus())
+				.valor(estado.getValor())
+				.versao(estado.getVersao())
+				.build();
+	}
+}
@@ -0,0 +1,130 @@
+package com.marcio.financas.service.impl;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.repository.CursorLancamento;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.service.IndiceDescricaoService;
+import com.marcio.financas.service.SaldoUsuarioService;
+
+/**
+ * Mantém em memória um {@link IndiceDescricaoUsuario} por usuário ativo. Cada
+ * índice guarda a versão do livro de saldos em que foi montado; escritas deste
+ * nó avançam a versão junto com o livro e, se outro nó escreveu, a diferença de
+ * versão força a remontagem na próxima busca.
+ */
+@Service
+public class IndiceDescricaoServiceImpl implements IndiceDescricaoService {
+	
+	private final LancamentoRepository repository;
+	
+	private final SaldoUsuarioService saldoService;
+	
+	private final boolean habilitado;
+	
+	private final Map<Long, IndiceDescricaoUsuario> indices;
+	
+	public IndiceDescricaoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoService,
+			@Value("${financas.busca.indice.habilitado:true}") boolean habilitado,
+			@Value("${financas.busca.indice.max-usuarios:1000}") int maxUsuarios) {
+		this.repository = repository;
+		this.saldoService = saldoService;
+		this.habilitado = habilitado;
+		this.indices = Collections.synchronizedMap(new LinkedHashMap<Long, IndiceDescricaoUsuario>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, IndiceDescricaoUsuario> eldest) {
+				return size() > maxUsuarios;
+			}
+		});
+	}
+
+	@Override
+	public boolean isHabilitado() {
+		return this.habilitado;
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Long> buscar(Long usuarioId, String termo, Integer ano, Integer mes, CursorLancamento apos, int limite) {
+		return this.obterIndice(usuarioId).buscar(termo, ano, mes, apos, limite);
+	}
+
+	@Override
+	public void registrar(LancamentoEstado anterior, LancamentoEstado atual) {
+		Transacoes.aposCommit(() -> {
+			Long usuarioAnterior = anterior != null ? anterior.getUsuarioId() : null;
+			Long usuarioAtual = atual != null ? atual.getUsuarioId() : null;
+			
+			if (usuarioAnterior != null) {
+				this.aplicar(usuarioAnterior, (indice) -> indice.remover(anterior.getId()), !usuarioAnterior.equals(usuarioAtual));
+			}
+			
+			if (usuarioAtual != null) {
+				this.aplicar(usuarioAtual, (indice) -> indice.incluir(atual), true);
+			}
+		});
+	}
+
+	@Override
+	public void registrarInclusoes(Collection<LancamentoEstado> incluidos) {
+		Transacoes.aposCommit(() -> {
+			Map<Long, IndiceDescricaoUsuario> tocados = new HashMap<>();
+			for (LancamentoEstado estado : incluidos) {
+				if (estado.getUsuarioId() != null) {
+					IndiceDescricaoUsuario indice = tocados.computeIfAbsent(estado.getUsuarioId(), this.indices::get);
+					if (indice != null) {
+						indice.incluir(estado);
+					}
+				}
+			}
+			tocados.values().stream().filter(Objects::nonNull).forEach(IndiceDescricaoUsuario::incrementarVersao);
+		});
+	}
+
+	@Override
+	public void registrarAlteracao(Long usuarioId) {
+		Transacoes.aposCommit(() -> this.aplicar(usuarioId, (indice) -> { }, true));
+	}
+	
+	private void aplicar(Long usuarioId, Consumer<IndiceDescricaoUsuario> alteracao, boolean avancarVersao) {
+		IndiceDescricaoUsuario indice = this.indices.get(usuarioId);
+		if (indice == null) {
+			return;
+		}
+		
+		alteracao.accept(indice);
+		if (avancarVersao) {
+			indice.incrementarVersao();
+		}
+	}
+	
+	private IndiceDescricaoUsuario obterIndice(Long usuarioId) {
+		long versao = this.saldoService.obterVersao(usuarioId);
+		
+		IndiceDescricaoUsuario indice = this.indices.get(usuarioId);
+		if (indice != null && indice.getVersao() == versao) {
+			return indice;
+		}
+		
+		indice = new IndiceDescricaoUsuario(versao);
+		for (LancamentoEstado estado : this.repository.estadosPorUsuario(usuarioId)) {
+			indice.incluir(estado);
+		}
+		this.indices.put(usuarioId, indice);
+		return indice;
+	}
+}
@@ -0,0 +1,154 @@
+package com.marcio.financas.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.repository.CursorLancamento;
+
+/**
+ * Índice invertido de trigramas das descrições de um único usuário. A busca
+ * parte da menor lista de ocorrências entre os trigramas do termo e confirma
+ * cada candidato com {@code contains}, o que reproduz exatamente o antigo
+ * {@code lower(descricao) like '%termo%'}.
+ */
+public class IndiceDescricaoUsuario {
+	
+	private static final Comparator<Entrada> ORDEM = Comparator.comparingInt((Entrada e) -> e.ano)
+			.thenComparingInt((e) -> e.mes)
+			.thenComparingLong((e) -> e.id)
+			.reversed();
+	
+	private final Map<Long, Entrada> entradas = new HashMap<>();
+	
+	private final Map<Long, Set<Long>> ocorrencias = new HashMap<>();
+	
+	private long versao;
+	
+	public IndiceDescricaoUsuario(long versao) {
+		this.versao = versao;
+	}
+	
+	public synchronized long getVersao() {
+		return this.versao;
+	}
+	
+	public synchronized void incrementarVersao() {
+		this.versao++;
+	}
+	
+	public synchronized void incluir(LancamentoEstado estado) {
+		this.remover(estado.getId());
+		
+		Entrada entrada = new Entrada(estado.getId(), estado.getAno(), estado.getMes(), normalizar(estado.getDescricao()));
+		this.entradas.put(entrada.id, entrada);
+		
+		for (Long trigrama : trigramas(entrada.descricao)) {
+			this.ocorrencias.computeIfAbsent(trigrama, (t) -> new HashSet<>()).add(entrada.id);
+		}
+	}
+	
+	public synchronized void remover(Long id) {
+		Entrada entrada = this.entradas.remove(id);
+		if (entrada == null) {
+			return;
+		}
+		
+		for (Long trigrama : trigramas(entrada.descricao)) {
+			Set<Long> ids = this.ocorrencias.get(trigrama);
+			if (ids != null && ids.remove(id) && ids.isEmpty()) {
+				this.ocorrencias.remove(trigrama);
+			}
+		}
+	}
+	
+	public synchronized List<Long> buscar(String termo, Integer ano, Integer mes, CursorLancamento apos, int limite) {
+		String termoNormalizado = normalizar(termo);
+		
+		Collection<Long> candidatos = null;
+		if (termoNormalizado.length() < 3) {
+			candidatos = this.entradas.keySet();
+		} else {
+			for (Long trigrama : trigramas(termoNormalizado)) {
+				Set<Long> ids = this.ocorrencias.get(trigrama);
+				if (ids == null) {
+					return Collections.emptyList();
+				}
+				if (candidatos == null || ids.size() < candidatos.size()) {
+					candidatos = ids;
+				}
+			}
+		}
+		
+		List<Entrada> encontradas = new ArrayList<>();
+		for (Long id : candidatos) {
+			Entrada entrada = this.entradas.get(id);
+			if ((ano == null || entrada.ano == ano)
+					&& (mes == null || entrada.mes == mes)
+					&& (apos == null || entrada.antesDe(apos))
+					&& entrada.descricao.contains(termoNormalizado)) {
+				encontradas.add(entrada);
+			}
+		}
+		
+		encontradas.sort(ORDEM);
+		
+		List<Long> ids = new ArrayList<>(Math.min(limite, encontradas.size()));
+		for (int i = 0; i < encontradas.size() && i < limite; i++) {
+			ids.add(encontradas.get(i).id);
+		}
+		return ids;
+	}
+	
+	public synchronized int tamanho() {
+		return this.entradas.size();
+	}
+	
+	private static String normalizar(String texto) {
+		return texto == null ? "" : texto.toLowerCase(Locale.ROOT);
+	}
+	
+	private static Set<Long> trigramas(String texto) {
+		Set<Long> trigramas = new HashSet<>();
+		for (int i = 0; i + 3 <= texto.length(); i++) {
+			trigramas.add(((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2));
+		}
+		return trigramas;
+	}
+	
+	private static class Entrada {
+		
+		final long id;
+		
+		final int ano;
+		
+		final int mes;
+		
+		final String descricao;
+		
+		Entrada(long id, int ano, int mes, String descricao) {
+			this.id = id;
+			this.ano = ano;
+			this.mes = mes;
+			this.descricao = descricao;
+		}
+		
+		boolean antesDe(CursorLancamento cursor) {
+			if (this.ano != cursor.getAno()) {
+				return this.ano < cursor.getAno();
+			}
+			if (this.mes != cursor.getMes()) {
+				return this.mes < cursor.getMes();
+			}
+			return this.id < cursor.getId();
+		}
+	}
+}
@@ -1,9 +1,17 @@
 package com.marcio.financas.service.impl;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
@@ -11,20 +19,60 @@ import org.springframework.data.domain.ExampleMatcher.StringMatcher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.exceptions.ConflitoVersaoException;
 import com.marcio.financas.exceptions.RegraNegocioException;
 import com.marcio.financas.model.entity.Lancamento;
 import com.marcio.financas.model.enums.StatusLancamento;
 import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.Pagina;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.CursorLancamento;
 import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.service.AnaliseLancamentoService;
+import com.marcio.financas.service.EventoLancamentoService;
+import com.marcio.financas.service.IndiceDescricaoService;
 import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResultadoItemLote;
+import com.marcio.financas.service.ResumoMensalService;
+import com.marcio.financas.service.SaldoUsuarioService;
 
 @Service
 public class LancamentoServiceImpl implements LancamentoService {
+	
+	// deve acompanhar spring.jpa.properties.hibernate.jdbc.batch_size
+	private static final int TAMANHO_LOTE_JDBC = 50;
+	
+	private static final Comparator<Lancamento> ORDEM_EXPORTACAO = Comparator.comparing(Lancamento::getAno)
+			.thenComparing(Lancamento::getMes)
+			.thenComparing(Lancamento::getId);
 
 	private LancamentoRepository repository;
 	
-	public LancamentoServiceImpl(LancamentoRepository repository) {
+	private SaldoUsuarioService saldoService;
+	
+	private IndiceDescricaoService indiceDescricao;
+	
+	private ResumoMensalService resumoService;
+	
+	private EventoLancamentoService eventoService;
+	
+	private ArquivoLancamentos arquivo;
+	
+	private AnaliseLancamentoService analiseService;
+	
+	public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoService,
+			IndiceDescricaoService indiceDescricao, ResumoMensalService resumoService, EventoLancamentoService eventoService,
+			ArquivoLancamentos arquivo, AnaliseLancamentoService analiseService) {
 		this.repository = repository;
+		this.saldoService = saldoService;
+		this.indiceDescricao = indiceDescricao;
+		this.resumoService = resumoService;
+		this.eventoService = eventoService;
+		this.arquivo = arquivo;
+		this.analiseService = analiseService;
 	}
 	
 	@Override
@@ -32,7 +80,54 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento salvar(Lancamento lancamento) {
 		this.validar(lancamento);
 		lancamento.setStatus(StatusLancamento.PENDENTE);;
-		return this.repository.save(lancamento);
+		Lancamento lancamentoSalvo = this.repository.save(lancamento);
+		this.registrarMudanca(null, LancamentoEstado.de(lancamentoSalvo));
+		return lancamentoSalvo;
+	}
+
+	@Override
+	@Transactional
+	public List<ResultadoItemLote> salvarLote(List<Lancamento> lancamentos) {
+		if (lancamentos.size() > TAMANHO_LOTE_MAXIMO) {
+			throw new RegraNegocioException("O lote deve ter no máximo " + TAMANHO_LOTE_MAXIMO + " lançamentos");
+		}
+		
+		List<ResultadoItemLote> resultados = new ArrayList<>(lancamentos.size());
+		List<Lancamento> validos = new ArrayList<>(lancamentos.size());
+		
+		for (int i = 0; i < lancamentos.size(); i++) {
+			Lancamento lancamento = lancamentos.get(i);
+			try {
+				this.validar(lancamento);
+				lancamento.setStatus(StatusLancamento.PENDENTE);
+				validos.add(lancamento);
+				resultados.add(ResultadoItemLote.sucesso(i, null));
+			} catch (RegraNegocioException e) {
+				resultados.add(ResultadoItemLote.falha(i, e.getMessage()));
+			}
+		}
+		
+		List<LancamentoEstado> incluidos = new ArrayList<>(validos.size());
+		for (int inicio = 0; inicio < validos.size(); inicio += TAMANHO_LOTE_JDBC) {
+			List<Lancamento> bloco = validos.subList(inicio, Math.min(inicio + TAMANHO_LOTE_JDBC, validos.size()));
+			this.repository.saveAll(bloco);
+			this.repository.flush();
+			
+			for (Lancamento lancamento : bloco) {
+				incluidos.add(LancamentoEstado.de(lancamento));
+				this.repository.desanexar(lancamento);
+			}
+		}
+		
+		int posicao = 0;
+		for (ResultadoItemLote resultado : resultados) {
+			if (resultado.getErro() == null) {
+				resultado.setId(validos.get(posicao++).getId());
+			}
+		}
+		
+		this.registrarInclusoes(incluidos);
+		return resultados;
 	}
 
 	@Override
@@ -40,14 +135,43 @@ public class LancamentoServiceImpl implements LancamentoService {
 	public Lancamento atualizar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
 		this.validar(lancamento);
-		return this.repository.save(lancamento);
+		LancamentoEstado anterior = this.repository.obterEstadoPersistido(lancamento.getId()).orElse(null);
+		Lancamento lancamentoAtualizado = this.repository.save(lancamento);
+		this.registrarMudanca(anterior, LancamentoEstado.de(lancamento));
+		return lancamentoAtualizado;
+	}
+
+	@Override
+	@Transactional
+	public LancamentoEstado atualizarParcial(Long id, Long usuarioId, Long versao, Lancamento alteracoes) {
+		if (versao == null) {
+			throw new RegraNegocioException("Informe a versão do lançamento");
+		}
+		
+		this.validarAlteracoes(alteracoes);
+		this.restaurarArquivados(usuarioId, Collections.singletonList(id));
+		
+		LancamentoEstado anterior = this.repository.obterEstadoPersistido(id)
+				.filter((estado) -> estado.getUsuarioId().equals(usuarioId))
+				.orElseThrow(() -> new RegraNegocioException("Lancamento não encontrado"));
+		
+		// a versão lida garante que o estado anterior é o que o UPDATE substitui
+		if (!versao.equals(anterior.getVersao()) || this.repository.atualizarParcial(id, usuarioId, versao, alteracoes) == 0) {
+			throw new ConflitoVersaoException("O lançamento foi alterado por outra requisição");
+		}
+		
+		LancamentoEstado atual = anterior.com(alteracoes);
+		this.registrarMudanca(anterior, atual);
+		return atual;
 	}
 
 	@Override
 	@Transactional
 	public void deletar(Lancamento lancamento) {
 		Objects.requireNonNull(lancamento.getId());
+		LancamentoEstado anterior = this.repository.obterEstadoPersistido(lancamento.getId()).orElse(null);
 		this.repository.delete(lancamento);
+		this.registrarMudanca(anterior, null);
 	}
 
 	@Override
@@ -58,7 +182,57 @@ public class LancamentoServiceImpl implements LancamentoService {
 					.withIgnoreCase()
 					.withStringMatcher(StringMatcher.CONTAINING));
 		
-		return this.repository.findAll(example);
+		List<Lancamento> lancamentos = this.repository.findAll(example);
+		if (this.arquivo.isHabilitado()) {
+			// os anos arquivados já não estão na tabela
+			lancamentos = new ArrayList<>(lancamentos);
+			lancamentos.addAll(this.arquivo.buscar(lancamento));
+		}
+		return lancamentos;
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public Pagina<LancamentoListagem> buscarPagina(Lancamento filtro, String cursor, int tamanho) {
+		if (tamanho < 1 || tamanho > TAMANHO_PAGINA_MAXIMO) {
+			throw new RegraNegocioException("Informe um tamanho de página entre 1 e " + TAMANHO_PAGINA_MAXIMO);
+		}
+		
+		CursorLancamento apos = CursorLancamento.decodificar(cursor);
+		
+		// um item a mais indica se existe próxima página sem precisar de um COUNT
+		List<LancamentoListagem> itens;
+		if (filtro.getDescricao() != null && !filtro.getDescricao().isEmpty() && this.indiceDescricao.isHabilitado()) {
+			List<Long> ids = this.indiceDescricao.buscar(filtro.getUsuario().getId(), filtro.getDescricao(), filtro.getAno(), filtro.getMes(), apos, tamanho + 1);
+			itens = this.carregarNaOrdem(ids);
+		} else {
+			itens = this.repository.buscarPagina(filtro, apos, tamanho + 1);
+		}
+		
+		if (this.arquivo.isHabilitado()) {
+			itens = ArquivoLancamentos.mesclar(itens, this.arquivo.buscarPagina(filtro, apos, tamanho + 1), tamanho + 1);
+		}
+		
+		if (itens.size() <= tamanho) {
+			return new Pagina<>(itens, null);
+		}
+		
+		List<LancamentoListagem> pagina = itens.subList(0, tamanho);
+		return new Pagina<>(pagina, CursorLancamento.de(pagina.get(tamanho - 1)).codificar());
+	}
+
+	private List<LancamentoListagem> carregarNaOrdem(List<Long> ids) {
+		Map<Long, LancamentoListagem> porId = new HashMap<>();
+		this.repository.buscarListagemPorIds(ids).forEach((lancamento) -> porId.put(lancamento.getId(), lancamento));
+		
+		List<LancamentoListagem> lancamentos = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			LancamentoListagem lancamento = porId.get(id);
+			if (lancamento != null) {
+				lancamentos.add(lancamento);
+			}
+		}
+		return lancamentos;
 	}
 
 	@Override
@@ -68,6 +242,44 @@ public class LancamentoServiceImpl implements LancamentoService {
 		this.atualizar(lancamento);
 	}
 	
+	@Override
+	@Transactional
+	public int atualizarStatusEmLote(Long usuarioId, List<Long> ids, Integer ano, Integer mes, StatusLancamento status) {
+		if (usuarioId == null) {
+			throw new RegraNegocioException("Informe um usuário");
+		}
+		
+		if (status != StatusLancamento.EFETIVADO && status != StatusLancamento.CANCELADO) {
+			throw new RegraNegocioException("Lançamentos pendentes só podem ser efetivados ou cancelados");
+		}
+		
+		// os totais que mudam de status são lidos antes do UPDATE, que não devolve as linhas alteradas
+		int atualizados;
+		List<TotalMensal> totais;
+		if (ids != null && !ids.isEmpty()) {
+			if (ids.size() > TAMANHO_LOTE_MAXIMO) {
+				throw new RegraNegocioException("Informe no máximo " + TAMANHO_LOTE_MAXIMO + " lançamentos");
+			}
+			this.restaurarArquivados(usuarioId, ids);
+			totais = this.repository.totaisPorIds(usuarioId, ids, StatusLancamento.PENDENTE);
+			atualizados = this.repository.atualizarStatusPorIds(usuarioId, ids, StatusLancamento.PENDENTE, status);
+		} else if (ano != null && mes != null) {
+			if (this.arquivo.isHabilitado() && this.arquivo.possui(usuarioId, ano)) {
+				this.restaurarAno(usuarioId, ano);
+			}
+			totais = this.repository.totaisPorPeriodo(usuarioId, ano, mes, StatusLancamento.PENDENTE);
+			atualizados = this.repository.atualizarStatusPorPeriodo(usuarioId, ano, mes, StatusLancamento.PENDENTE, status);
+		} else {
+			throw new RegraNegocioException("Informe os lançamentos ou o mês e o ano");
+		}
+		
+		if (atualizados > 0) {
+			this.registrarAlteracaoEmLote(usuarioId, totais, status);
+		}
+		
+		return atualizados;
+	}
+	
 	public void validar(Lancamento lancamento) {
 		if (lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
 			throw new RegraNegocioException("Informe uma descrição válida");
@@ -94,13 +306,118 @@ public class LancamentoServiceImpl implements LancamentoService {
 		}
 	}
 
+	/*
+	 * Mesmas regras de validar, aplicadas apenas aos campos informados.
+	 */
+	private void validarAlteracoes(Lancamento alteracoes) {
+		if (alteracoes.getDescricao() != null && alteracoes.getDescricao().trim().equals("")) {
+			throw new RegraNegocioException("Informe uma descrição válida");
+		}
+		
+		if (alteracoes.getMes() != null && (alteracoes.getMes() < 1 || alteracoes.getMes() > 12)) {
+			throw new RegraNegocioException("Informe um mês válido");
+		}
+		
+		if (alteracoes.getAno() != null && alteracoes.getAno().toString().length() != 4) {
+			throw new RegraNegocioException("Informe um ano válido");
+		}
+		
+		if (alteracoes.getValor() != null && alteracoes.getValor().compareTo(BigDecimal.ZERO) < 1) {
+			throw new RegraNegocioException("Informe um valor válido");
+		}
+	}
+
 	@Override
 	public Optional<Lancamento> obterPorId(Long id) {
 		return this.repository.findById(id);
 	}
 
 	@Override
+	@Transactional
+	public Optional<Lancamento> obterParaAlteracao(Long id, Long usuarioId) {
+		this.restaurarArquivados(usuarioId, Collections.singletonList(id));
+		return this.repository.findById(id).filter((lancamento) -> usuarioId.equals(lancamento.getUsuario().getId()));
+	}
+	
+	/*
+	 * O arquivo é só leitura: escritas em anos arquivados devolvem antes o ano
+	 * inteiro à tabela, e o arquivamento seguinte o leva de volta.
+	 */
+	private void restaurarArquivados(Long usuarioId, List<Long> ids) {
+		if (!this.arquivo.isHabilitado() || this.repository.contarPorIds(ids) == ids.size()) {
+			return;
+		}
+		this.arquivo.anosComIds(usuarioId, ids).forEach((ano) -> this.restaurarAno(usuarioId, ano));
+	}
+	
+	private void restaurarAno(Long usuarioId, int ano) {
+		// o livro de saldos travado primeiro serializa a restauração com o arquivamento do usuário
+		this.saldoService.registrarAlteracao(usuarioId);
+		this.indiceDescricao.registrarAlteracao(usuarioId);
+		this.analiseService.registrarAlteracao(usuarioId);
+		
+		// pendência deixada por um arquivamento ou uma restauração que não chegou ao fim
+		this.arquivo.resolver(usuarioId, ano, this.repository::algumPorIds);
+		List<Lancamento> lancamentos = this.arquivo.lancamentos(usuarioId, ano);
+		if (lancamentos.isEmpty()) {
+			return;
+		}
+		
+		this.repository.restaurar(lancamentos);
+		
+		// o segmento sai de vista junto com o commit: confirmado, as linhas estão na tabela e ele é
+		// descartado; senão ele volta a valer. Uma queda no meio é resolvida pelo estado da tabela
+		Transacoes.antesDoCommit(
+				() -> this.arquivo.ocultar(usuarioId, ano),
+				() -> this.arquivo.resolver(usuarioId, ano, (ids) -> true),
+				() -> {
+					this.arquivo.resolver(usuarioId, ano, (ids) -> false);
+					// leituras feitas sem o segmento ficaram sob a versão que o rollback manteve
+					this.saldoService.publicarAlteracao(usuarioId);
+				});
+	}
+
+	@Override
+	@Transactional(readOnly = true)
 	public BigDecimal obterSaldoPorUsuario(Long usuarioId) {
+		return this.saldoService.obterSaldo(usuarioId).orElseGet(() -> this.calcularSaldo(usuarioId));
+	}
+	
+	@Override
+	public long obterVersao(Long usuarioId) {
+		// o livro de saldos já é movimentado por toda escrita: a versão dele serve ao usuário
+		return this.saldoService.obterVersao(usuarioId);
+	}
+	
+	@Override
+	@Transactional(readOnly = true)
+	public void exportar(Long usuarioId, Consumer<Lancamento> consumidor) {
+		Iterator<Lancamento> arquivados = this.arquivo.isHabilitado() ? this.arquivo.percorrer(usuarioId) : Collections.<Lancamento>emptyIterator();
+		Lancamento[] proximoArquivado = { arquivados.hasNext() ? arquivados.next() : null };
+		
+		try (Stream<Lancamento> lancamentos = this.repository.streamPorUsuario(usuarioId)) {
+			lancamentos.forEach((lancamento) -> {
+				// as duas fontes vêm na ordem (ano, mes, id): intercala os arquivados que vêm antes
+				while (proximoArquivado[0] != null && ORDEM_EXPORTACAO.compare(proximoArquivado[0], lancamento) < 0) {
+					consumidor.accept(proximoArquivado[0]);
+					proximoArquivado[0] = arquivados.hasNext() ? arquivados.next() : null;
+				}
+				consumidor.accept(lancamento);
+				this.repository.desanexar(lancamento);
+			});
+		}
+		
+		while (proximoArquivado[0] != null) {
+			consumidor.accept(proximoArquivado[0]);
+			proximoArquivado[0] = arquivados.hasNext() ? arquivados.next() : null;
+		}
+	}
+	
+	/*
+	 * Usado apenas enquanto o usuário ainda não tem linha no livro de saldos,
+	 * o que acontece até a sua primeira escrita ou até a próxima reconciliação.
+	 */
+	private BigDecimal calcularSaldo(Long usuarioId) {
 		BigDecimal receita = this.repository.saldoPorUsuarioETipoLancamento(usuarioId, TipoLancamento.RECEITA);
 		BigDecimal despesa = this.repository.saldoPorUsuarioETipoLancamento(usuarioId, TipoLancamento.DESPESA);
 
@@ -112,7 +429,37 @@ public class LancamentoServiceImpl implements LancamentoService {
 			despesa = BigDecimal.ZERO;
 		}
 		
+		if (this.arquivo.isHabilitado()) {
+			BigDecimal[] arquivados = this.arquivo.totais(usuarioId);
+			receita = receita.add(arquivados[0]);
+			despesa = despesa.add(arquivados[1]);
+		}
+		
 		return receita.subtract(despesa);
 	}
+	
+	private void registrarMudanca(LancamentoEstado anterior, LancamentoEstado atual) {
+		this.saldoService.registrar(anterior, atual);
+		this.indiceDescricao.registrar(anterior, atual);
+		this.resumoService.registrar(anterior, atual);
+		this.eventoService.registrar(anterior, atual);
+		this.analiseService.registrar(anterior, atual);
+	}
+	
+	private void registrarInclusoes(List<LancamentoEstado> incluidos) {
+		this.saldoService.registrarInclusoes(incluidos);
+		this.indiceDescricao.registrarInclusoes(incluidos);
+		this.resumoService.registrarInclusoes(incluidos);
+		this.eventoService.registrarInclusoes(incluidos);
+		this.analiseService.registrarInclusoes(incluidos);
+	}
+	
+	private void registrarAlteracaoEmLote(Long usuarioId, List<TotalMensal> totais, StatusLancamento status) {
+		this.saldoService.registrarAlteracao(usuarioId);
+		this.indiceDescricao.registrarAlteracao(usuarioId);
+		this.resumoService.registrarTransicao(totais, status);
+		this.eventoService.registrarTransicao(totais, status);
+		this.analiseService.registrarAlteracao(usuarioId);
+	}
 
 }
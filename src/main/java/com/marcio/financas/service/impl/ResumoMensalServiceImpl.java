@@ -0,0 +1,181 @@
+package com.marcio.financas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.model.entity.ResumoMensal;
+import com.marcio.financas.model.entity.ResumoMensalId;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.ResumoMes;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.model.repository.ResumoMensalRepository;
+import com.marcio.financas.service.ResumoMensalService;
+
+@Service
+public class ResumoMensalServiceImpl implements ResumoMensalService {
+	
+	private ResumoMensalRepository repository;
+	
+	private LancamentoRepository lancamentoRepository;
+	
+	private ArquivoLancamentos arquivo;
+	
+	public ResumoMensalServiceImpl(ResumoMensalRepository repository, LancamentoRepository lancamentoRepository, ArquivoLancamentos arquivo) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.arquivo = arquivo;
+	}
+
+	@Override
+	@Transactional
+	public void registrar(LancamentoEstado anterior, LancamentoEstado atual) {
+		Map<ResumoMensalId, Movimento> movimentos = new LinkedHashMap<>();
+		acumular(movimentos, anterior, -1);
+		acumular(movimentos, atual, 1);
+		this.aplicar(movimentos);
+	}
+
+	@Override
+	@Transactional
+	public void registrarInclusoes(Collection<LancamentoEstado> incluidos) {
+		Map<ResumoMensalId, Movimento> movimentos = new LinkedHashMap<>();
+		incluidos.forEach((estado) -> acumular(movimentos, estado, 1));
+		this.aplicar(movimentos);
+	}
+
+	@Override
+	@Transactional
+	public void registrarTransicao(Collection<TotalMensal> totais, StatusLancamento novoStatus) {
+		Map<ResumoMensalId, Movimento> movimentos = new LinkedHashMap<>();
+		for (TotalMensal total : totais) {
+			if (total.getStatus() != novoStatus) {
+				acumular(movimentos, new ResumoMensalId(total.getUsuarioId(), total.getAno(), total.getMes(), total.getTipo(), total.getStatus()),
+						total.getTotal().negate(), -total.getQuantidade());
+				acumular(movimentos, new ResumoMensalId(total.getUsuarioId(), total.getAno(), total.getMes(), total.getTipo(), novoStatus),
+						total.getTotal(), total.getQuantidade());
+			}
+		}
+		this.aplicar(movimentos);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<ResumoMes> obterResumo(Long usuarioId, Integer ano) {
+		List<ResumoMes> meses = new ArrayList<>(12);
+		for (int mes = 1; mes <= 12; mes++) {
+			Map<TipoLancamento, Map<StatusLancamento, BigDecimal>> totais = new EnumMap<>(TipoLancamento.class);
+			for (TipoLancamento tipo : TipoLancamento.values()) {
+				Map<StatusLancamento, BigDecimal> porStatus = new EnumMap<>(StatusLancamento.class);
+				for (StatusLancamento status : StatusLancamento.values()) {
+					porStatus.put(status, BigDecimal.ZERO);
+				}
+				totais.put(tipo, porStatus);
+			}
+			meses.add(new ResumoMes(mes, totais));
+		}
+		
+		for (ResumoMensal resumo : this.repository.findByUsuarioIdAndAnoOrderByMes(usuarioId, ano)) {
+			if (resumo.getMes() >= 1 && resumo.getMes() <= 12) {
+				meses.get(resumo.getMes() - 1).getTotais().get(resumo.getTipo()).put(resumo.getStatus(), resumo.getTotal());
+			}
+		}
+		
+		return meses;
+	}
+
+	@Override
+	@Transactional
+	public int reconstruir() {
+		this.repository.apagarTodos();
+		int inseridos = this.repository.inserirAPartirDosLancamentos();
+		
+		if (this.arquivo.isHabilitado()) {
+			// um mês pode ter parte das linhas arquivada e parte ainda na tabela
+			for (TotalMensal total : this.arquivo.totaisMensaisDoShard()) {
+				ResumoMensalId chave = new ResumoMensalId(total.getUsuarioId(), total.getAno(), total.getMes(), total.getTipo(), total.getStatus());
+				if (this.movimentarOuInserir(chave, total.getTotal(), total.getQuantidade(), total.getTotal(), total.getQuantidade())) {
+					inseridos++;
+				}
+			}
+		}
+		return inseridos;
+	}
+	
+	private void aplicar(Map<ResumoMensalId, Movimento> movimentos) {
+		movimentos.forEach((chave, movimento) -> {
+			if (movimento.valor.signum() == 0 && movimento.quantidade == 0) {
+				return;
+			}
+			
+			if (this.movimentar(chave, movimento.valor, movimento.quantidade)) {
+				return;
+			}
+			
+			// primeira movimentação do mês: a linha nasce a partir dos lançamentos já gravados
+			TotalMensal total = this.lancamentoRepository.totalMensal(chave.getUsuarioId(), chave.getAno(), chave.getMes(), chave.getTipo(), chave.getStatus())
+					.orElse(null);
+			TotalMensal arquivado = this.arquivo.isHabilitado()
+					? this.arquivo.totalMensal(chave.getUsuarioId(), chave.getAno(), chave.getMes(), chave.getTipo(), chave.getStatus()).orElse(null)
+					: null;
+			this.movimentarOuInserir(chave, movimento.valor, movimento.quantidade, somar(total, arquivado),
+					(total != null ? total.getQuantidade() : 0l) + (arquivado != null ? arquivado.getQuantidade() : 0l));
+		});
+	}
+	
+	private boolean movimentar(ResumoMensalId chave, BigDecimal valor, long quantidade) {
+		return this.repository.movimentar(chave.getUsuarioId(), chave.getAno(), chave.getMes(),
+				chave.getTipo(), chave.getStatus(), valor, quantidade) > 0;
+	}
+	
+	/*
+	 * Cria a linha com os totais iniciais, devolvendo true, ou movimenta a que
+	 * outra transação criou nesse meio tempo sem enxergar este movimento.
+	 */
+	private boolean movimentarOuInserir(ResumoMensalId chave, BigDecimal valor, long quantidade, BigDecimal totalInicial, long quantidadeInicial) {
+		if (this.repository.inserirSeAusente(chave.getUsuarioId(), chave.getAno(), chave.getMes(),
+				chave.getTipo().name(), chave.getStatus().name(), totalInicial, quantidadeInicial) > 0) {
+			return true;
+		}
+		this.movimentar(chave, valor, quantidade);
+		return false;
+	}
+	
+	private static BigDecimal somar(TotalMensal total, TotalMensal arquivado) {
+		BigDecimal soma = total != null ? total.getTotal() : BigDecimal.ZERO;
+		return arquivado != null ? soma.add(arquivado.getTotal()) : soma;
+	}
+	
+	private static void acumular(Map<ResumoMensalId, Movimento> movimentos, LancamentoEstado estado, int sinal) {
+		if (estado == null || estado.getUsuarioId() == null || estado.getTipo() == null || estado.getStatus() == null || estado.getValor() == null) {
+			return;
+		}
+		
+		ResumoMensalId chave = new ResumoMensalId(estado.getUsuarioId(), estado.getAno(), estado.getMes(), estado.getTipo(), estado.getStatus());
+		acumular(movimentos, chave, sinal < 0 ? estado.getValor().negate() : estado.getValor(), sinal);
+	}
+	
+	private static void acumular(Map<ResumoMensalId, Movimento> movimentos, ResumoMensalId chave, BigDecimal valor, long quantidade) {
+		Movimento movimento = movimentos.computeIfAbsent(chave, (c) -> new Movimento());
+		movimento.valor = movimento.valor.add(valor);
+		movimento.quantidade += quantidade;
+	}
+	
+	private static class Movimento {
+		
+		private BigDecimal valor = BigDecimal.ZERO;
+		
+		private long quantidade;
+	}
+}
@@ -0,0 +1,167 @@
+package com.marcio.financas.service.impl;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.model.entity.SaldoUsuario;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.model.repository.SaldoUsuarioRepository;
+import com.marcio.financas.service.DivergenciaSaldo;
+import com.marcio.financas.service.SaldoUsuarioService;
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+	
+	private SaldoUsuarioRepository repository;
+	
+	private LancamentoRepository lancamentoRepository;
+	
+	private ArquivoLancamentos arquivo;
+	
+	public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository, ArquivoLancamentos arquivo) {
+		this.repository = repository;
+		this.lancamentoRepository = lancamentoRepository;
+		this.arquivo = arquivo;
+	}
+
+	@Override
+	@Transactional
+	public void registrar(LancamentoEstado anterior, LancamentoEstado atual) {
+		Long usuarioAnterior = anterior != null ? anterior.getUsuarioId() : null;
+		Long usuarioAtual = atual != null ? atual.getUsuarioId() : null;
+		
+		if (usuarioAnterior != null && !usuarioAnterior.equals(usuarioAtual)) {
+			this.movimentar(usuarioAnterior, anterior, null);
+		}
+		
+		if (usuarioAtual != null) {
+			this.movimentar(usuarioAtual, Objects.equals(usuarioAnterior, usuarioAtual) ? anterior : null, atual);
+		}
+	}
+
+	@Override
+	@Transactional
+	public void registrarInclusoes(Collection<LancamentoEstado> incluidos) {
+		Map<Long, BigDecimal[]> totaisPorUsuario = new HashMap<>();
+		for (LancamentoEstado estado : incluidos) {
+			if (estado.getUsuarioId() != null) {
+				BigDecimal[] totais = totaisPorUsuario.computeIfAbsent(estado.getUsuarioId(), (id) -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+				totais[0] = totais[0].add(valorPorTipo(estado, TipoLancamento.RECEITA));
+				totais[1] = totais[1].add(valorPorTipo(estado, TipoLancamento.DESPESA));
+			}
+		}
+		
+		totaisPorUsuario.forEach((usuarioId, totais) -> this.movimentar(usuarioId, totais[0], totais[1]));
+	}
+
+	@Override
+	@Transactional
+	public void registrarAlteracao(Long usuarioId) {
+		this.movimentar(usuarioId, BigDecimal.ZERO, BigDecimal.ZERO);
+	}
+
+	@Override
+	@Transactional(propagation = Propagation.REQUIRES_NEW)
+	public void publicarAlteracao(Long usuarioId) {
+		this.movimentar(usuarioId, BigDecimal.ZERO, BigDecimal.ZERO);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Optional<BigDecimal> obterSaldo(Long usuarioId) {
+		return this.repository.findById(usuarioId).map(SaldoUsuario::getSaldo);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long obterVersao(Long usuarioId) {
+		return this.repository.findById(usuarioId).map(SaldoUsuario::getVersao).orElse(0l);
+	}
+
+	@Override
+	@Transactional
+	public List<DivergenciaSaldo> reconciliar() {
+		// o livro é lido antes das somas: uma escrita concorrente entre as duas leituras
+		// muda a versão e a correção condicional abaixo é descartada
+		List<SaldoUsuario> saldos = this.repository.findAll();
+		
+		Map<Long, BigDecimal[]> calculados = new HashMap<>();
+		for (Object[] linha : this.lancamentoRepository.saldosPorUsuarioETipoLancamento()) {
+			BigDecimal[] totais = calculados.computeIfAbsent((Long) linha[0], (id) -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+			totais[linha[1] == TipoLancamento.RECEITA ? 0 : 1] = (BigDecimal) linha[2];
+		}
+		
+		if (this.arquivo.isHabilitado()) {
+			this.arquivo.totaisDoShard().forEach((usuarioId, arquivados) -> {
+				BigDecimal[] totais = calculados.computeIfAbsent(usuarioId, (id) -> new BigDecimal[] { BigDecimal.ZERO, BigDecimal.ZERO });
+				totais[0] = totais[0].add(arquivados[0]);
+				totais[1] = totais[1].add(arquivados[1]);
+			});
+		}
+		
+		List<DivergenciaSaldo> divergencias = new ArrayList<>();
+		for (SaldoUsuario saldo : saldos) {
+			BigDecimal[] totais = calculados.remove(saldo.getUsuarioId());
+			BigDecimal receita = totais != null ? totais[0] : BigDecimal.ZERO;
+			BigDecimal despesa = totais != null ? totais[1] : BigDecimal.ZERO;
+			
+			if (saldo.getReceita().compareTo(receita) != 0 || saldo.getDespesa().compareTo(despesa) != 0) {
+				if (this.repository.corrigir(saldo.getUsuarioId(), receita, despesa, saldo.getVersao()) == 1) {
+					divergencias.add(new DivergenciaSaldo(saldo.getUsuarioId(), saldo.getReceita(), saldo.getDespesa(), receita, despesa));
+				}
+			}
+		}
+		
+		// uma primeira movimentação concorrente cria a linha já a partir dos lançamentos
+		calculados.forEach((usuarioId, totais) -> this.repository.inserirSeAusente(usuarioId, totais[0], totais[1]));
+		
+		return divergencias;
+	}
+	
+	private void movimentar(Long usuarioId, LancamentoEstado anterior, LancamentoEstado atual) {
+		BigDecimal receita = valorPorTipo(atual, TipoLancamento.RECEITA).subtract(valorPorTipo(anterior, TipoLancamento.RECEITA));
+		BigDecimal despesa = valorPorTipo(atual, TipoLancamento.DESPESA).subtract(valorPorTipo(anterior, TipoLancamento.DESPESA));
+		this.movimentar(usuarioId, receita, despesa);
+	}
+	
+	private void movimentar(Long usuarioId, BigDecimal receita, BigDecimal despesa) {
+		// primeira movimentação do usuário: o livro nasce a partir das linhas já gravadas
+		if (this.repository.movimentar(usuarioId, receita, despesa) == 0
+				&& this.repository.inserirSeAusente(usuarioId, somar(usuarioId, TipoLancamento.RECEITA), somar(usuarioId, TipoLancamento.DESPESA)) == 0) {
+			// outra transação criou a linha sem enxergar esta movimentação, ainda não confirmada
+			this.repository.movimentar(usuarioId, receita, despesa);
+		}
+	}
+	
+	private BigDecimal somar(Long usuarioId, TipoLancamento tipo) {
+		BigDecimal total = this.lancamentoRepository.saldoPorUsuarioETipoLancamento(usuarioId, tipo);
+		if (total == null) {
+			total = BigDecimal.ZERO;
+		}
+		
+		if (this.arquivo.isHabilitado()) {
+			total = total.add(this.arquivo.totais(usuarioId)[tipo == TipoLancamento.RECEITA ? 0 : 1]);
+		}
+		return total;
+	}
+	
+	private static BigDecimal valorPorTipo(LancamentoEstado estado, TipoLancamento tipo) {
+		if (estado == null || estado.getTipo() != tipo || estado.getValor() == null) {
+			return BigDecimal.ZERO;
+		}
+		return estado.getValor();
+	}
+}
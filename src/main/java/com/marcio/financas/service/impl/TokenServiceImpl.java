@@ -0,0 +1,147 @@
+package com.marcio.financas.service.impl;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.service.TokenService;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token no formato {@code base64url(usuarioId:expiraEm).base64url(hmacSha256)}.
+ * O de notificações acrescenta {@code :notificacoes} ao conteúdo, então um
+ * não é aceito no lugar do outro. A validação só confere a assinatura e a
+ * expiração, sem consultar o banco.
+ */
+@Slf4j
+@Service
+public class TokenServiceImpl implements TokenService {
+	
+	private static final String ALGORITMO = "HmacSHA256";
+	
+	private static final String ESCOPO_NOTIFICACOES = "notificacoes";
+	
+	// vai na URL e nos logs de acesso: só precisa durar até a conexão abrir
+	private static final Duration VALIDADE_NOTIFICACOES = Duration.ofMinutes(1);
+	
+	private static final Base64.Encoder CODIFICADOR = Base64.getUrlEncoder().withoutPadding();
+	
+	private static final Base64.Decoder DECODIFICADOR = Base64.getUrlDecoder();
+	
+	private final SecretKeySpec chave;
+	
+	private final Duration validade;
+	
+	private final Clock relogio;
+	
+	private final ThreadLocal<Mac> macs;
+	
+	@Autowired
+	public TokenServiceImpl(@Value("${financas.token.segredo:}") String segredo,
+			@Value("${financas.token.validade:PT12H}") Duration validade) {
+		this(segredo, validade, Clock.systemUTC());
+	}
+	
+	public TokenServiceImpl(String segredo, Duration validade, Clock relogio) {
+		byte[] bytesChave;
+		if (segredo == null || segredo.isEmpty()) {
+			log.warn("financas.token.segredo não configurado: usando uma chave aleatória, os tokens não valem entre reinícios nem entre nós");
+			bytesChave = new byte[32];
+			new SecureRandom().nextBytes(bytesChave);
+		} else {
+			bytesChave = segredo.getBytes(StandardCharsets.UTF_8);
+		}
+		
+		this.chave = new SecretKeySpec(bytesChave, ALGORITMO);
+		this.validade = validade;
+		this.relogio = relogio;
+		this.macs = ThreadLocal.withInitial(this::criarMac);
+	}
+
+	@Override
+	public String gerarToken(Usuario usuario) {
+		return this.gerar(usuario.getId() + ":" + this.expiraEm(this.validade));
+	}
+
+	@Override
+	public Optional<Long> validarToken(String token) {
+		return this.validar(token, null);
+	}
+
+	@Override
+	public String gerarTokenNotificacoes(Long usuarioId) {
+		return this.gerar(usuarioId + ":" + this.expiraEm(VALIDADE_NOTIFICACOES) + ":" + ESCOPO_NOTIFICACOES);
+	}
+
+	@Override
+	public Optional<Long> validarTokenNotificacoes(String token) {
+		return this.validar(token, ESCOPO_NOTIFICACOES);
+	}
+	
+	private long expiraEm(Duration validade) {
+		return this.relogio.instant().plus(validade).getEpochSecond();
+	}
+	
+	private String gerar(String texto) {
+		byte[] conteudo = texto.getBytes(StandardCharsets.UTF_8);
+		return CODIFICADOR.encodeToString(conteudo) + "." + CODIFICADOR.encodeToString(this.assinar(conteudo));
+	}
+	
+	private Optional<Long> validar(String token, String escopo) {
+		if (token == null) {
+			return Optional.empty();
+		}
+		
+		int separador = token.indexOf('.');
+		if (separador < 0) {
+			return Optional.empty();
+		}
+		
+		try {
+			byte[] conteudo = DECODIFICADOR.decode(token.substring(0, separador));
+			byte[] assinatura = DECODIFICADOR.decode(token.substring(separador + 1));
+			
+			if (!MessageDigest.isEqual(assinatura, this.assinar(conteudo))) {
+				return Optional.empty();
+			}
+			
+			String[] partes = new String(conteudo, StandardCharsets.UTF_8).split(":");
+			boolean mesmoEscopo = escopo == null ? partes.length == 2 : partes.length == 3 && partes[2].equals(escopo);
+			if (!mesmoEscopo || Long.parseLong(partes[1]) <= this.relogio.instant().getEpochSecond()) {
+				return Optional.empty();
+			}
+			
+			return Optional.of(Long.valueOf(partes[0]));
+		} catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+			return Optional.empty();
+		}
+	}
+	
+	private byte[] assinar(byte[] conteudo) {
+		return this.macs.get().doFinal(conteudo);
+	}
+	
+	private Mac criarMac() {
+		try {
+			Mac mac = Mac.getInstance(ALGORITMO);
+			mac.init(this.chave);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.marcio.financas.service.impl;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+final class Transacoes {
+	
+	private Transacoes() {
+	}
+	
+	/*
+	 * Estruturas mantidas fora do banco só podem refletir o que foi de fato
+	 * confirmado; sem transação ativa a ação roda imediatamente.
+	 */
+	static void aposCommit(Runnable acao) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			acao.run();
+			return;
+		}
+		
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCommit() {
+				acao.run();
+			}
+		});
+	}
+	
+	/*
+	 * Executa a ação por último antes do commit; depois dele roda a
+	 * confirmação, ou o desfazer se o commit não se confirmou.
+	 */
+	static void antesDoCommit(Runnable acao, Runnable confirmacao, Runnable desfazer) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			acao.run();
+			confirmacao.run();
+			return;
+		}
+		
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			private boolean executada;
+			
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				acao.run();
+				this.executada = true;
+			}
+			
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_COMMITTED) {
+					confirmacao.run();
+				} else if (this.executada) {
+					desfazer.run();
+				}
+			}
+		});
+	}
+}
@@ -3,6 +3,10 @@ package com.marcio.financas.service.impl;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.CachePut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.stereotype.Service;
 
 import com.marcio.financas.exceptions.ErroAutenticacaoException;
@@ -37,6 +41,10 @@ public class UsuarioServiceImpl implements UsuarioService {
 	}
 
 	@Override
+	@Caching(
+		put = @CachePut(cacheNames = "usuarios", key = "#result.id"),
+		evict = @CacheEvict(cacheNames = "usuariosPorEmail", key = "#usuario.email", condition = "#usuario.email != null")
+	)
 	public Usuario salvar(Usuario usuario) {
 		validarEmail(usuario.getEmail());
 		return repository.save(usuario);
@@ -52,6 +60,7 @@ public class UsuarioServiceImpl implements UsuarioService {
 	}
 
 	@Override
+	@Cacheable(cacheNames = "usuarios", key = "#id", unless = "#result == null")
 	public Optional<Usuario> obterUsuario(Long id) {
 		return this.repository.findById(id);
 	}
@@ -0,0 +1,25 @@
+package com.marcio.financas.shard;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Entrega conexões do shard definido em {@link ShardContexto}.
+ */
+public class DataSourceShards extends AbstractRoutingDataSource {
+	
+	public DataSourceShards(Shards shards) {
+		Map<Object, Object> destinos = new HashMap<>();
+		shards.getIds().forEach((shard) -> destinos.put(shard, shards.obter(shard)));
+		this.setTargetDataSources(destinos);
+		this.setDefaultTargetDataSource(shards.obter(ShardContexto.DIRETORIO));
+		this.afterPropertiesSet();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return ShardContexto.atual();
+	}
+}
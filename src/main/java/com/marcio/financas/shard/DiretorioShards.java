@@ -0,0 +1,52 @@
+package com.marcio.financas.shard;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Resolve o shard dono de cada usuário: o anel decide, salvo quando o usuário
+ * foi realocado pelo {@link RebalanceadorShards}. As realocações ficam na
+ * tabela shard_usuario do diretório e em cache local; outros nós as enxergam
+ * depois de {@code financas.shards.cache-diretorio}.
+ */
+public class DiretorioShards {
+	
+	private final MapaShards mapa;
+	
+	private final JdbcTemplate diretorio;
+	
+	private final Cache<Long, Optional<Integer>> realocacoes;
+	
+	public DiretorioShards(MapaShards mapa, Shards shards, Duration validadeCache) {
+		this.mapa = mapa;
+		this.diretorio = new JdbcTemplate(shards.obter(ShardContexto.DIRETORIO));
+		this.realocacoes = Caffeine.newBuilder()
+				.maximumSize(100_000)
+				.expireAfterWrite(validadeCache)
+				.build();
+	}
+	
+	public int shardDe(Long usuarioId) {
+		Optional<Integer> realocado = this.realocacoes.get(usuarioId, this::buscarRealocacao);
+		return realocado.orElseGet(() -> this.mapa.shardDe(usuarioId));
+	}
+	
+	void realocar(Long usuarioId, int shard) {
+		int atualizados = this.diretorio.update("UPDATE financas.shard_usuario SET shard = ? WHERE id_usuario = ?", shard, usuarioId);
+		if (atualizados == 0) {
+			this.diretorio.update("INSERT INTO financas.shard_usuario (id_usuario, shard) VALUES (?, ?)", usuarioId, shard);
+		}
+		this.realocacoes.invalidate(usuarioId);
+	}
+	
+	private Optional<Integer> buscarRealocacao(Long usuarioId) {
+		List<Integer> shards = this.diretorio.queryForList("SELECT shard FROM financas.shard_usuario WHERE id_usuario = ?", Integer.class, usuarioId);
+		return shards.isEmpty() ? Optional.empty() : Optional.of(shards.get(0));
+	}
+}
@@ -0,0 +1,85 @@
+package com.marcio.financas.shard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Executa operações administrativas, que atravessam usuários, em todos os
+ * shards em paralelo e junta os resultados (scatter-gather). Sem shards
+ * configurados executa uma única vez, na thread corrente.
+ */
+@Component
+public class ExecutorShards {
+	
+	private final List<Integer> shards;
+	
+	private final ExecutorService executor;
+	
+	public ExecutorShards(ObjectProvider<Shards> shards) {
+		Shards configurados = shards.getIfAvailable();
+		if (configurados == null) {
+			this.shards = Collections.singletonList(ShardContexto.DIRETORIO);
+			this.executor = null;
+		} else {
+			this.shards = configurados.getIds();
+			this.executor = Executors.newFixedThreadPool(this.shards.size(), (tarefa) -> {
+				Thread thread = new Thread(tarefa, "shards-scatter");
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+	}
+	
+	/**
+	 * Shards em que {@link #emTodos} executa, para quem precisa de threads
+	 * próprias em cada um.
+	 */
+	public List<Integer> getShards() {
+		return this.shards;
+	}
+	
+	public <T> List<T> emTodos(Supplier<T> acao) {
+		if (this.executor == null) {
+			return Collections.singletonList(acao.get());
+		}
+		
+		List<Future<T>> pendentes = new ArrayList<>(this.shards.size());
+		for (Integer shard : this.shards) {
+			pendentes.add(this.executor.submit(() -> ShardContexto.executar(shard, acao)));
+		}
+		
+		List<T> resultados = new ArrayList<>(pendentes.size());
+		for (Future<T> pendente : pendentes) {
+			try {
+				resultados.add(pendente.get());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IllegalStateException(e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof RuntimeException) {
+					throw (RuntimeException) e.getCause();
+				}
+				throw new IllegalStateException(e.getCause());
+			}
+		}
+		return resultados;
+	}
+	
+	@PreDestroy
+	public void encerrar() {
+		if (this.executor != null) {
+			this.executor.shutdownNow();
+		}
+	}
+}
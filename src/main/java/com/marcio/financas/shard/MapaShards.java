@@ -0,0 +1,41 @@
+package com.marcio.financas.shard;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Anel de hash consistente. Cada shard ocupa vários pontos virtuais, então
+ * incluir um shard novo só desloca a fração de usuários que passa a cair nele.
+ */
+public class MapaShards {
+	
+	private final TreeMap<Long, Integer> anel = new TreeMap<>();
+	
+	public MapaShards(Collection<Integer> shards, int nosVirtuais) {
+		if (shards.isEmpty()) {
+			throw new IllegalArgumentException("Informe ao menos um shard");
+		}
+		
+		for (Integer shard : shards) {
+			for (int no = 0; no < nosVirtuais; no++) {
+				this.anel.put(misturar(((long) shard << 32) | no), shard);
+			}
+		}
+	}
+	
+	public int shardDe(Long usuarioId) {
+		Map.Entry<Long, Integer> ponto = this.anel.ceilingEntry(misturar(usuarioId));
+		return ponto != null ? ponto.getValue() : this.anel.firstEntry().getValue();
+	}
+	
+	// finalizador de 64 bits do MurmurHash3: ids sequenciais se espalham pelo anel
+	private static long misturar(long valor) {
+		valor ^= valor >>> 33;
+		valor *= 0xff51afd7ed558ccdL;
+		valor ^= valor >>> 33;
+		valor *= 0xc4ceb9fe1a85ec53L;
+		valor ^= valor >>> 33;
+		return valor;
+	}
+}
@@ -0,0 +1,77 @@
+package com.marcio.financas.shard;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.marcio.financas.exceptions.RegraNegocioException;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Move os dados de um usuário para outro shard: copia as linhas numa única
+ * transação no destino, registra a realocação no diretório e só então apaga a
+ * origem. Deve rodar com as escritas do usuário paradas, já que os demais nós
+ * só enxergam a realocação quando o cache do diretório expira.
+ */
+@Slf4j
+public class RebalanceadorShards {
+	
+	// tabelas com dados de um único usuário, chaveadas por id_usuario
+	private static final List<String> TABELAS = Arrays.asList("lancamento", "saldo_usuario", "resumo_mensal", "chave_idempotencia", "evento_lancamento");
+	
+	private final Shards shards;
+	
+	private final DiretorioShards diretorio;
+	
+	public RebalanceadorShards(Shards shards, DiretorioShards diretorio) {
+		this.shards = shards;
+		this.diretorio = diretorio;
+	}
+	
+	public void mover(Long usuarioId, int destino) {
+		int origem = this.diretorio.shardDe(usuarioId);
+		if (origem == destino) {
+			return;
+		}
+		
+		JdbcTemplate jdbcOrigem = new JdbcTemplate(this.shards.obter(origem));
+		JdbcTemplate jdbcDestino = new JdbcTemplate(this.shards.obter(destino));
+		
+		List<Map<String, Object>> usuario = Tabelas.ler(jdbcOrigem, "usuario", "id", usuarioId);
+		if (usuario.isEmpty()) {
+			throw new RegraNegocioException("Usuário não encontrado no shard " + origem);
+		}
+		
+		try {
+			this.emTransacao(destino, () -> {
+				Tabelas.gravar(jdbcDestino, "usuario", "id", usuario.get(0));
+				for (String tabela : TABELAS) {
+					Tabelas.inserir(jdbcDestino, tabela, Tabelas.ler(jdbcOrigem, tabela, "id_usuario", usuarioId));
+				}
+			});
+		} catch (DuplicateKeyException e) {
+			// ids de lançamento só são únicos entre shards se as sequências usarem faixas disjuntas
+			throw new RegraNegocioException("O shard " + destino + " já possui registros com os ids do usuário " + usuarioId);
+		}
+		
+		this.diretorio.realocar(usuarioId, destino);
+		
+		this.emTransacao(origem, () -> {
+			for (String tabela : TABELAS) {
+				jdbcOrigem.update("DELETE FROM financas." + tabela + " WHERE id_usuario = ?", usuarioId);
+			}
+		});
+		
+		log.info("Usuário {} movido do shard {} para o shard {}", usuarioId, origem, destino);
+	}
+	
+	private void emTransacao(int shard, Runnable acao) {
+		new TransactionTemplate(new DataSourceTransactionManager(this.shards.obter(shard))).executeWithoutResult((status) -> acao.run());
+	}
+}
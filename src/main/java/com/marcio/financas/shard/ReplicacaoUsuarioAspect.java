@@ -0,0 +1,42 @@
+package com.marcio.financas.shard;
+
+import java.util.List;
+import java.util.Map;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.marcio.financas.model.entity.Usuario;
+
+/**
+ * Os usuários são gravados no diretório e copiados para todos os shards, onde
+ * os lançamentos os referenciam. Roda por fora da transação do serviço, depois
+ * do commit no diretório: a ordem 0 o mantém por fora do advisor
+ * transacional, que usa a menor precedência.
+ */
+@Aspect
+@Order(0)
+public class ReplicacaoUsuarioAspect {
+	
+	private final Shards shards;
+	
+	public ReplicacaoUsuarioAspect(Shards shards) {
+		this.shards = shards;
+	}
+	
+	@AfterReturning(pointcut = "execution(* com.marcio.financas.service.UsuarioService.salvar(..))", returning = "usuario")
+	public void replicar(Usuario usuario) {
+		List<Map<String, Object>> linhas = Tabelas.ler(new JdbcTemplate(this.shards.obter(ShardContexto.DIRETORIO)), "usuario", "id", usuario.getId());
+		if (linhas.isEmpty()) {
+			return;
+		}
+		
+		for (Integer shard : this.shards.getIds()) {
+			if (shard != ShardContexto.DIRETORIO) {
+				Tabelas.gravar(new JdbcTemplate(this.shards.obter(shard)), "usuario", "id", linhas.get(0));
+			}
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.marcio.financas.shard;
+
+import java.util.function.Supplier;
+
+/**
+ * Shard da thread corrente. Sem shard definido as operações vão para o
+ * {@link #DIRETORIO}, que guarda os usuários e o mapa de realocações.
+ */
+public final class ShardContexto {
+	
+	public static final int DIRETORIO = 0;
+	
+	private static final ThreadLocal<Integer> ATUAL = new ThreadLocal<>();
+	
+	private ShardContexto() {
+	}
+	
+	public static int atual() {
+		Integer shard = ATUAL.get();
+		return shard != null ? shard : DIRETORIO;
+	}
+	
+	public static void definir(int shard) {
+		ATUAL.set(shard);
+	}
+	
+	public static void limpar() {
+		ATUAL.remove();
+	}
+	
+	public static <T> T executar(int shard, Supplier<T> acao) {
+		Integer anterior = ATUAL.get();
+		ATUAL.set(shard);
+		try {
+			return acao.get();
+		} finally {
+			restaurar(anterior);
+		}
+	}
+	
+	/**
+	 * Leva o shard da thread que agenda para a thread que executa a tarefa.
+	 */
+	public static Runnable propagar(Runnable tarefa) {
+		Integer shard = ATUAL.get();
+		return () -> {
+			Integer anterior = ATUAL.get();
+			if (shard != null) {
+				ATUAL.set(shard);
+			}
+			try {
+				tarefa.run();
+			} finally {
+				restaurar(anterior);
+			}
+		};
+	}
+	
+	private static void restaurar(Integer anterior) {
+		if (anterior != null) {
+			ATUAL.set(anterior);
+		} else {
+			ATUAL.remove();
+		}
+	}
+}
@@ -0,0 +1,66 @@
+package com.marcio.financas.shard;
+
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.marcio.financas.api.resource.UsuarioResource;
+import com.marcio.financas.api.seguranca.TokenFiltro;
+
+/**
+ * Direciona a requisição ao shard do usuário autenticado ou, nos recursos de
+ * /api/usuarios/{id}, do usuário do caminho. As demais ficam no diretório.
+ */
+public class ShardInterceptor implements AsyncHandlerInterceptor {
+	
+	private final DiretorioShards diretorio;
+	
+	public ShardInterceptor(DiretorioShards diretorio) {
+		this.diretorio = diretorio;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		Long usuarioId = usuarioDaRequisicao(request, handler);
+		if (usuarioId != null) {
+			ShardContexto.definir(this.diretorio.shardDe(usuarioId));
+		}
+		return true;
+	}
+
+	@Override
+	public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		ShardContexto.limpar();
+	}
+
+	@Override
+	public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+		ShardContexto.limpar();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static Long usuarioDaRequisicao(HttpServletRequest request, Object handler) {
+		Object autenticado = request.getAttribute(TokenFiltro.USUARIO);
+		if (autenticado != null) {
+			return (Long) autenticado;
+		}
+		
+		if (handler instanceof HandlerMethod && ((HandlerMethod) handler).getBeanType() == UsuarioResource.class) {
+			Map<String, String> variaveis = (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+			if (variaveis != null && variaveis.containsKey("id")) {
+				try {
+					return Long.valueOf(variaveis.get("id"));
+				} catch (NumberFormatException e) {
+					return null;
+				}
+			}
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,44 @@
+package com.marcio.financas.shard;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Pools de conexão de cada shard, na ordem da configuração. O shard 0 é o
+ * spring.datasource.
+ */
+public class Shards implements Closeable {
+	
+	private final List<HikariDataSource> pools;
+	
+	public Shards(List<HikariDataSource> pools) {
+		this.pools = Collections.unmodifiableList(new ArrayList<>(pools));
+	}
+	
+	public DataSource obter(int shard) {
+		if (shard < 0 || shard >= this.pools.size()) {
+			throw new RegraNegocioException("Shard inexistente: " + shard);
+		}
+		return this.pools.get(shard);
+	}
+	
+	public List<Integer> getIds() {
+		List<Integer> ids = new ArrayList<>(this.pools.size());
+		for (int shard = 0; shard < this.pools.size(); shard++) {
+			ids.add(shard);
+		}
+		return ids;
+	}
+
+	@Override
+	public void close() {
+		this.pools.forEach(HikariDataSource::close);
+	}
+}
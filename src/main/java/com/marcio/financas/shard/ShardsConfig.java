@@ -0,0 +1,124 @@
+package com.marcio.financas.shard;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Ativado por financas.shards.urls, a lista dos shards além do
+ * spring.datasource, que passa a ser o shard 0 e o diretório de usuários.
+ * Lançamentos, saldos e resumos ficam no shard do dono; usuários são
+ * replicados em todos.
+ */
+@Configuration
+@ConditionalOnProperty(name = "financas.shards.urls")
+public class ShardsConfig {
+	
+	@Bean(destroyMethod = "close")
+	public Shards shards(DataSourceProperties propriedades, Environment ambiente, @Value("${financas.shards.urls}") List<String> urls) {
+		Binder binder = Binder.get(ambiente);
+		
+		List<String> todas = new ArrayList<>(urls.size() + 1);
+		todas.add(propriedades.determineUrl());
+		todas.addAll(urls);
+		
+		List<HikariDataSource> pools = new ArrayList<>(todas.size());
+		for (int shard = 0; shard < todas.size(); shard++) {
+			HikariDataSource pool = propriedades.initializeDataSourceBuilder().type(HikariDataSource.class).url(todas.get(shard)).build();
+			pool.setPoolName("shard-" + shard);
+			binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+			pools.add(pool);
+		}
+		
+		return new Shards(pools);
+	}
+	
+	/*
+	 * O proxy adia a escolha do shard até o primeiro comando, quando o
+	 * ShardContexto da thread já está definido.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(Shards shards) {
+		return new LazyConnectionDataSourceProxy(new DataSourceShards(shards));
+	}
+	
+	/*
+	 * O Flyway do Spring Boot enxerga só o roteador, que sem contexto cai no
+	 * diretório; cada shard recebe as mesmas migrações.
+	 */
+	@Bean
+	public FlywayMigrationStrategy migrarTodosOsShards(Shards shards) {
+		return (flyway) -> shards.getIds().forEach((shard) ->
+				Flyway.configure().configuration(flyway.getConfiguration()).dataSource(shards.obter(shard)).load().migrate());
+	}
+	
+	@Bean
+	public DiretorioShards diretorioShards(Shards shards,
+			@Value("${financas.shards.nos-virtuais:160}") int nosVirtuais,
+			@Value("${financas.shards.cache-diretorio:PT30S}") Duration validadeCache) {
+		return new DiretorioShards(new MapaShards(shards.getIds(), nosVirtuais), shards, validadeCache);
+	}
+	
+	@Bean
+	public RebalanceadorShards rebalanceadorShards(Shards shards, DiretorioShards diretorio) {
+		return new RebalanceadorShards(shards, diretorio);
+	}
+	
+	@Bean
+	public ReplicacaoUsuarioAspect replicacaoUsuarioAspect(Shards shards) {
+		return new ReplicacaoUsuarioAspect(shards);
+	}
+	
+	@Bean
+	public HibernatePropertiesCustomizer liberarConexaoAposTransacao() {
+		return (propriedades) -> propriedades.put("hibernate.connection.handling_mode", "DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION");
+	}
+	
+	@Bean
+	public ThreadPoolTaskExecutor executorAssincronoShards() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("mvc-async-");
+		executor.setTaskDecorator(ShardContexto::propagar);
+		return executor;
+	}
+	
+	@Bean
+	public WebMvcConfigurer shardsWebMvc(DiretorioShards diretorio, ThreadPoolTaskExecutor executorAssincronoShards) {
+		return new WebMvcConfigurer() {
+			
+			@Override
+			public void addInterceptors(InterceptorRegistry registry) {
+				registry.addInterceptor(new ShardInterceptor(diretorio));
+			}
+			
+			@Override
+			public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+				// exportações em streaming rodam fora da thread da requisição
+				configurer.setTaskExecutor(executorAssincronoShards);
+			}
+		};
+	}
+}
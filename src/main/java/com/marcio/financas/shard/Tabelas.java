@@ -0,0 +1,61 @@
+package com.marcio.financas.shard;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Cópia de linhas entre shards sem depender das colunas de cada tabela.
+ */
+final class Tabelas {
+	
+	private Tabelas() {
+	}
+	
+	static List<Map<String, Object>> ler(JdbcTemplate jdbc, String tabela, String coluna, Object valor) {
+		return jdbc.queryForList("SELECT * FROM financas." + tabela + " WHERE " + coluna + " = ?", valor);
+	}
+	
+	static void inserir(JdbcTemplate jdbc, String tabela, List<Map<String, Object>> linhas) {
+		if (linhas.isEmpty()) {
+			return;
+		}
+		
+		List<String> colunas = new ArrayList<>(linhas.get(0).keySet());
+		String sql = "INSERT INTO financas." + tabela + " (" + String.join(", ", colunas) + ") VALUES ("
+				+ String.join(", ", Collections.nCopies(colunas.size(), "?")) + ")";
+		
+		List<Object[]> valores = new ArrayList<>(linhas.size());
+		for (Map<String, Object> linha : linhas) {
+			Object[] registro = new Object[colunas.size()];
+			for (int i = 0; i < colunas.size(); i++) {
+				registro[i] = linha.get(colunas.get(i));
+			}
+			valores.add(registro);
+		}
+		jdbc.batchUpdate(sql, valores);
+	}
+	
+	static void gravar(JdbcTemplate jdbc, String tabela, String chave, Map<String, Object> linha) {
+		List<String> colunas = new ArrayList<>(linha.keySet());
+		colunas.removeIf(chave::equalsIgnoreCase);
+		
+		List<Object> valores = new ArrayList<>(colunas.size() + 1);
+		List<String> atribuicoes = new ArrayList<>(colunas.size());
+		for (String coluna : colunas) {
+			atribuicoes.add(coluna + " = ?");
+			valores.add(linha.get(coluna));
+		}
+		valores.add(linha.get(chave));
+		
+		int atualizados = jdbc.update("UPDATE financas." + tabela + " SET " + String.join(", ", atribuicoes) + " WHERE " + chave + " = ?", valores.toArray());
+		if (atualizados == 0) {
+			List<Map<String, Object>> linhas = new ArrayList<>(1);
+			linhas.add(linha);
+			inserir(jdbc, tabela, linhas);
+		}
+	}
+}
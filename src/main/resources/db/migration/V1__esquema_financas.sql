@@ -0,0 +1,83 @@
+-- Esquema existente antes das migrações. Tudo é condicional: bancos criados
+-- antes delas passam por este script sem alteração, além das colunas novas.
+
+CREATE TABLE IF NOT EXISTS financas.usuario (
+	id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+	nome VARCHAR(255),
+	email VARCHAR(255),
+	senha VARCHAR(255)
+);
+
+CREATE SEQUENCE IF NOT EXISTS financas.lancamento_id_seq START WITH 1 INCREMENT BY 50;
+-- Bancos anteriores criaram a sequência com incremento 1, mas o gerador
+-- reserva 50 ids por chamada e o Hibernate recusa subir com a diferença.
+ALTER SEQUENCE financas.lancamento_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS financas.lancamento (
+	id BIGINT PRIMARY KEY,
+	descricao VARCHAR(255),
+	mes INTEGER,
+	ano INTEGER,
+	id_usuario BIGINT REFERENCES financas.usuario (id),
+	valor NUMERIC(19, 2),
+	data_cadastro TIMESTAMP,
+	tipo VARCHAR(20),
+	status VARCHAR(20),
+	versao BIGINT NOT NULL DEFAULT 0
+);
+
+ALTER TABLE financas.lancamento ADD COLUMN IF NOT EXISTS versao BIGINT NOT NULL DEFAULT 0;
+
+CREATE TABLE IF NOT EXISTS financas.saldo_usuario (
+	id_usuario BIGINT PRIMARY KEY,
+	receita NUMERIC(19, 2),
+	despesa NUMERIC(19, 2),
+	versao BIGINT
+);
+
+CREATE TABLE IF NOT EXISTS financas.resumo_mensal (
+	id_usuario BIGINT NOT NULL,
+	ano INTEGER NOT NULL,
+	mes INTEGER NOT NULL,
+	tipo VARCHAR(20) NOT NULL,
+	status VARCHAR(20) NOT NULL,
+	total NUMERIC(19, 2),
+	quantidade BIGINT,
+	PRIMARY KEY (id_usuario, ano, mes, tipo, status)
+);
+
+CREATE TABLE IF NOT EXISTS financas.chave_idempotencia (
+	id_usuario BIGINT NOT NULL,
+	chave VARCHAR(255) NOT NULL,
+	impressao VARCHAR(255),
+	status INTEGER,
+	resposta VARCHAR(1048576),
+	data_criacao TIMESTAMP,
+	PRIMARY KEY (id_usuario, chave)
+);
+
+CREATE SEQUENCE IF NOT EXISTS financas.evento_lancamento_id_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE IF NOT EXISTS financas.evento_lancamento (
+	id BIGINT PRIMARY KEY,
+	id_usuario BIGINT,
+	versao_usuario BIGINT,
+	tipo VARCHAR(30),
+	id_lancamento BIGINT,
+	descricao VARCHAR(255),
+	ano INTEGER,
+	mes INTEGER,
+	tipo_lancamento VARCHAR(20),
+	status VARCHAR(20),
+	valor NUMERIC(19, 2),
+	versao BIGINT,
+	data_criacao TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_evento_lancamento_usuario_versao ON financas.evento_lancamento (id_usuario, versao_usuario);
+
+-- diretório de shards; só é lida no shard 0, mas o esquema é o mesmo em todos
+CREATE TABLE IF NOT EXISTS financas.shard_usuario (
+	id_usuario BIGINT PRIMARY KEY,
+	shard INTEGER NOT NULL
+);
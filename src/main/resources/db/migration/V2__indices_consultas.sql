@@ -0,0 +1,9 @@
+-- Listagem e busca do usuário: igualdade em id_usuario, ano e mes, ordem
+-- (ano, mes, id) decrescente da paginação por cursor.
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_ano_mes ON financas.lancamento (id_usuario, ano, mes, id);
+
+-- Saldo por tipo: com o valor no índice a soma não precisa ler a tabela.
+CREATE INDEX IF NOT EXISTS idx_lancamento_usuario_tipo ON financas.lancamento (id_usuario, tipo, valor);
+
+-- Login e cadastro procuram por e-mail; a unicidade já era regra do cadastro.
+CREATE UNIQUE INDEX IF NOT EXISTS uk_usuario_email ON financas.usuario (email);
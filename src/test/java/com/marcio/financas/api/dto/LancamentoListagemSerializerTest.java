@@ -0,0 +1,62 @@
+package com.marcio.financas.api.dto;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+public class LancamentoListagemSerializerTest {
+	
+	ObjectMapper mapper = new ObjectMapper()
+			.registerModule(new SimpleModule().addSerializer(LancamentoListagem.class, new LancamentoListagemSerializer()));
+	
+	@Test
+	public void deveSerializarSomenteOsCamposDaListagem() throws Exception {
+		//cenário
+		LancamentoListagem listagem = new LancamentoListagem(1l, "aluguel", 2, 2020, BigDecimal.valueOf(1500), TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 3l);
+		
+		//ação
+		String json = mapper.writeValueAsString(listagem);
+		
+		//verificação
+		Assertions.assertThat(json).isEqualTo("{\"id\":1,\"descricao\":\"aluguel\",\"mes\":2,\"ano\":2020,\"valor\":1500,\"tipo\":\"DESPESA\",\"status\":\"PENDENTE\",\"versao\":3}");
+	}
+	
+	@Test
+	public void deveOmitirOsCamposNulos() throws Exception {
+		//cenário
+		LancamentoListagem listagem = new LancamentoListagem(1l, null, null, null, null, null, null, null);
+		
+		//ação
+		String json = mapper.writeValueAsString(listagem);
+		
+		//verificação
+		Assertions.assertThat(json).isEqualTo("{\"id\":1}");
+	}
+	
+	@Test
+	public void deveSerMenorQueAEntidadeComUsuario() throws Exception {
+		//cenário
+		Usuario usuario = Usuario.builder().id(1l).nome("marcio").email("marcio@teste.com.br").senha("123").build();
+		Lancamento lancamento = Lancamento.builder().id(1l).descricao("aluguel").mes(2).ano(2020).valor(BigDecimal.valueOf(1500))
+				.tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).usuario(usuario).build();
+		LancamentoListagem listagem = new LancamentoListagem(1l, "aluguel", 2, 2020, BigDecimal.valueOf(1500), TipoLancamento.DESPESA, StatusLancamento.PENDENTE, 3l);
+		
+		//ação
+		String entidade = mapper.writeValueAsString(lancamento);
+		String enxuto = mapper.writeValueAsString(listagem);
+		
+		//verificação
+		Assertions.assertThat(enxuto.length()).isLessThan(entidade.length());
+		Assertions.assertThat(entidade).doesNotContain("senha");
+		Assertions.assertThat(enxuto).doesNotContain("usuario");
+	}
+}
@@ -0,0 +1,147 @@
+package com.marcio.financas.api.idempotencia;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marcio.financas.model.entity.ChaveIdempotencia;
+import com.marcio.financas.model.entity.ChaveIdempotenciaId;
+import com.marcio.financas.model.repository.ChaveIdempotenciaRepository;
+
+public class RespostasIdempotentesTest {
+	
+	ChaveIdempotenciaRepository repository = Mockito.mock(ChaveIdempotenciaRepository.class);
+	
+	RespostasIdempotentes respostas = this.criarRespostas();
+	
+	AtomicInteger criacoes = new AtomicInteger();
+	
+	@Test
+	public void deveCriarUmaUnicaVezERepetirARespostaGuardada() {
+		//cenário
+		Mockito.when(this.repository.findById(Mockito.any())).thenReturn(Optional.empty());
+		
+		//ação
+		ResponseEntity original = this.respostas.executar(1l, "chave", "requisicao", this::criar);
+		ResponseEntity repetida = this.respostas.executar(1l, "chave", "requisicao", this::criar);
+		
+		//verificação
+		Assertions.assertThat(this.criacoes).hasValue(1);
+		Assertions.assertThat(original.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		Assertions.assertThat(repetida.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+		Assertions.assertThat(repetida.getBody()).isEqualTo("{\"id\":1}");
+		Assertions.assertThat(repetida.getHeaders().getFirst(RespostasIdempotentes.CABECALHO_REPETICAO)).isEqualTo("true");
+		
+		ArgumentCaptor<ChaveIdempotencia> gravada = ArgumentCaptor.forClass(ChaveIdempotencia.class);
+		Mockito.verify(this.repository).saveAndFlush(gravada.capture());
+		Assertions.assertThat(gravada.getValue().getUsuarioId()).isEqualTo(1l);
+		Assertions.assertThat(gravada.getValue().getResposta()).isEqualTo("{\"id\":1}");
+	}
+	
+	@Test
+	public void deveRecusarChaveReutilizadaEmOutraRequisicao() {
+		//cenário
+		Mockito.when(this.repository.findById(Mockito.any())).thenReturn(Optional.empty());
+		this.respostas.executar(1l, "chave", "requisicao", this::criar);
+		
+		//ação
+		ResponseEntity resposta = this.respostas.executar(1l, "chave", "outra requisicao", this::criar);
+		
+		//verificação
+		Assertions.assertThat(resposta.getStatusCode()).isEqualTo(HttpStatus.UNPROCESSABLE_ENTITY);
+		Assertions.assertThat(this.criacoes).hasValue(1);
+	}
+	
+	@Test
+	public void naoDeveGuardarRespostaDeErro() {
+		//cenário
+		Mockito.when(this.repository.findById(Mockito.any())).thenReturn(Optional.empty());
+		
+		//ação
+		this.respostas.executar(1l, "chave", "requisicao", this::recusar);
+		this.respostas.executar(1l, "chave", "requisicao", this::recusar);
+		
+		//verificação
+		Assertions.assertThat(this.criacoes).hasValue(2);
+		Mockito.verify(this.repository, Mockito.never()).saveAndFlush(Mockito.any());
+	}
+	
+	@Test
+	public void deveRepetirARespostaDaTentativaConcorrenteQueGravouPrimeiro() {
+		//cenário
+		ChaveIdempotencia vencedora = this.respostaGuardada("{\"id\":7}");
+		Mockito.when(this.repository.findById(new ChaveIdempotenciaId(1l, "chave"))).thenReturn(Optional.empty(), Optional.of(vencedora));
+		Mockito.when(this.repository.saveAndFlush(Mockito.any())).thenThrow(new DataIntegrityViolationException("chave duplicada"));
+		
+		//ação
+		ResponseEntity resposta = this.respostas.executar(1l, "chave", "requisicao", this::criar);
+		
+		//verificação
+		Assertions.assertThat(resposta.getBody()).isEqualTo("{\"id\":7}");
+	}
+	
+	@Test
+	public void deveSepararChavesPorUsuario() {
+		//cenário
+		Mockito.when(this.repository.findById(Mockito.any())).thenReturn(Optional.empty());
+		
+		//ação
+		this.respostas.executar(1l, "chave", "requisicao", this::criar);
+		this.respostas.executar(2l, "chave", "requisicao", this::criar);
+		
+		//verificação
+		Assertions.assertThat(this.criacoes).hasValue(2);
+	}
+	
+	@Test
+	public void deveApenasCriarQuandoNaoHaChave() {
+		//ação
+		this.respostas.executar(1l, null, "requisicao", this::criar);
+		
+		//verificação
+		Assertions.assertThat(this.criacoes).hasValue(1);
+		Mockito.verifyNoInteractions(this.repository);
+	}
+	
+	private ResponseEntity criar() {
+		this.criacoes.incrementAndGet();
+		return new ResponseEntity(Collections.singletonMap("id", 1), HttpStatus.CREATED);
+	}
+	
+	private ResponseEntity recusar() {
+		this.criacoes.incrementAndGet();
+		return ResponseEntity.badRequest().body("Informe um valor válido");
+	}
+	
+	@SuppressWarnings("unchecked")
+	private RespostasIdempotentes criarRespostas() {
+		ObjectProvider<ObjectMapper> mapper = Mockito.mock(ObjectProvider.class);
+		Mockito.when(mapper.getIfAvailable(Mockito.any())).thenReturn(new ObjectMapper());
+		PlatformTransactionManager transactionManager = Mockito.mock(PlatformTransactionManager.class);
+		Mockito.when(transactionManager.getTransaction(Mockito.any())).thenReturn(new SimpleTransactionStatus());
+		return new RespostasIdempotentes(this.repository, transactionManager, mapper, Duration.ofHours(1), 100);
+	}
+	
+	private ChaveIdempotencia respostaGuardada(String corpo) {
+		return ChaveIdempotencia.builder()
+				.usuarioId(1l)
+				.chave("chave")
+				.impressao(this.respostas.impressao("requisicao"))
+				.status(HttpStatus.CREATED.value())
+				.resposta(corpo)
+				.build();
+	}
+}
@@ -0,0 +1,138 @@
+package com.marcio.financas.api.importacao;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResultadoItemLote;
+
+public class ImportadorLancamentosTest {
+	
+	LancamentoService service = Mockito.mock(LancamentoService.class);
+	
+	ImportadorLancamentos importador = new ImportadorLancamentos(this.service);
+	
+	List<Lancamento> gravados = new ArrayList<>();
+	
+	List<Integer> lotes = new ArrayList<>();
+	
+	@BeforeEach
+	public void gravarRecusandoDescricao() {
+		// o serviço recusa, como o validar, o que vier com a descrição "recusar"
+		Mockito.when(this.service.salvarLote(ArgumentMatchers.anyList())).thenAnswer((chamada) -> {
+			List<Lancamento> lote = chamada.getArgument(0);
+			this.lotes.add(lote.size());
+			return IntStream.range(0, lote.size()).mapToObj((i) -> {
+				if ("recusar".equals(lote.get(i).getDescricao())) {
+					return ResultadoItemLote.falha(i, "Informe uma descrição válida");
+				}
+				this.gravados.add(lote.get(i));
+				return ResultadoItemLote.sucesso(i, (long) this.gravados.size());
+			}).collect(Collectors.toList());
+		});
+	}
+	
+	@Test
+	public void deveImportarCsvComCabecalhoEValoresNoFormatoBrasileiro() throws Exception {
+		//cenário
+		String csv = "Data;Histórico;Documento;Valor\n"
+				+ "15/01/2020;\"Salário; empresa\";1;1.500,00\n"
+				+ "\n"
+				+ "16/01/2020;Mercado;2;-230,45\n"
+				+ "32/01/2020;Data errada;3;-1,00\n"
+				+ "17/01/2020;Valor errado;4;abc\n"
+				+ "18/01/2020;Milhar ou decimal;5;1.234\n"
+				+ "19/01/2020;Milhar ou decimal;6;-1,234\n";
+		
+		//ação
+		ResultadoImportacao resultado = this.importar(FormatoImportacao.CSV, csv);
+		
+		//verificação
+		Assertions.assertThat(resultado.getLinhas()).isEqualTo(6);
+		Assertions.assertThat(resultado.getImportados()).isEqualTo(2);
+		Assertions.assertThat(resultado.getRejeitados()).isEqualTo(4);
+		Assertions.assertThat(resultado.getErros()).extracting(ResultadoImportacao.ErroLinha::getLinha).containsExactly(5, 6, 7, 8);
+		
+		Assertions.assertThat(this.gravados).extracting(Lancamento::getDescricao).containsExactly("Salário; empresa", "Mercado");
+		Assertions.assertThat(this.gravados.get(0).getTipo()).isEqualTo(TipoLancamento.RECEITA);
+		Assertions.assertThat(this.gravados.get(0).getValor()).isEqualByComparingTo("1500");
+		Assertions.assertThat(this.gravados.get(1).getTipo()).isEqualTo(TipoLancamento.DESPESA);
+		Assertions.assertThat(this.gravados.get(1).getValor()).isEqualByComparingTo("230.45");
+		Assertions.assertThat(this.gravados.get(1).getMes()).isEqualTo(1);
+		Assertions.assertThat(this.gravados.get(1).getAno()).isEqualTo(2020);
+		Assertions.assertThat(this.gravados.get(1).getUsuario().getId()).isEqualTo(1l);
+	}
+	
+	@Test
+	public void deveRejeitarLinhaMaiorQueOLimiteEContinuarNasSeguintes() throws Exception {
+		//cenário
+		StringBuilder csv = new StringBuilder("2020-03-01,");
+		for (int i = 0; i < LeitorCsv.TAMANHO_MAXIMO; i++) {
+			csv.append('x');
+		}
+		csv.append(",-1.00\r\n2020-03-02,mercado,-2.00\r\n");
+		
+		//ação
+		ResultadoImportacao resultado = this.importar(FormatoImportacao.CSV, csv.toString());
+		
+		//verificação
+		Assertions.assertThat(resultado.getLinhas()).isEqualTo(2);
+		Assertions.assertThat(resultado.getErros()).extracting(ResultadoImportacao.ErroLinha::getLinha).containsExactly(1);
+		Assertions.assertThat(this.gravados).extracting(Lancamento::getDescricao).containsExactly("mercado");
+	}
+	
+	@Test
+	public void deveImportarOfxSgmlEXml() throws Exception {
+		//cenário
+		String ofx = "OFXHEADER:100\r\nDATA:OFXSGML\r\n\r\n<OFX>\r\n<BANKMSGSRSV1><STMTTRNRS><STMTRS><BANKTRANLIST>\r\n"
+				+ "<STMTTRN>\r\n<TRNTYPE>DEBIT\r\n<DTPOSTED>20200205120000[-3:BRT]\r\n<TRNAMT>-45.90\r\n<MEMO>Farmácia &amp; cia\r\n</STMTTRN>\r\n"
+				+ "<STMTTRN><TRNTYPE>CREDIT</TRNTYPE><DTPOSTED>20200210</DTPOSTED><TRNAMT>1000.00</TRNAMT><NAME>Pix recebido</NAME></STMTTRN>\r\n"
+				+ "<STMTTRN>\r\n<DTPOSTED>2020\r\n<TRNAMT>1\r\n</STMTTRN>\r\n"
+				+ "</BANKTRANLIST></STMTRS></STMTTRNRS></BANKMSGSRSV1></OFX>\r\n";
+		
+		//ação
+		ResultadoImportacao resultado = this.importar(FormatoImportacao.OFX, ofx);
+		
+		//verificação
+		Assertions.assertThat(resultado.getLinhas()).isEqualTo(3);
+		Assertions.assertThat(resultado.getImportados()).isEqualTo(2);
+		Assertions.assertThat(resultado.getErros()).extracting(ResultadoImportacao.ErroLinha::getLinha).containsExactly(13);
+		Assertions.assertThat(this.gravados).extracting(Lancamento::getDescricao).containsExactly("Farmácia & cia", "Pix recebido");
+		Assertions.assertThat(this.gravados).extracting(Lancamento::getTipo).containsExactly(TipoLancamento.DESPESA, TipoLancamento.RECEITA);
+		Assertions.assertThat(this.gravados).extracting(Lancamento::getMes).containsExactly(2, 2);
+	}
+	
+	@Test
+	public void deveGravarEmLotesEApontarALinhaDosErrosDoServico() throws Exception {
+		//cenário
+		StringBuilder csv = new StringBuilder();
+		for (int linha = 1; linha <= 2500; linha++) {
+			csv.append("2020-03-01,").append(linha == 1500 ? "recusar" : "item " + linha).append(",-1.00\n");
+		}
+		
+		//ação
+		ResultadoImportacao resultado = this.importar(FormatoImportacao.CSV, csv.toString());
+		
+		//verificação
+		Assertions.assertThat(this.lotes).containsExactly(LancamentoService.TAMANHO_LOTE_MAXIMO, LancamentoService.TAMANHO_LOTE_MAXIMO, 500);
+		Assertions.assertThat(resultado.getLinhas()).isEqualTo(2500);
+		Assertions.assertThat(resultado.getImportados()).isEqualTo(2499);
+		Assertions.assertThat(resultado.getErros()).extracting(ResultadoImportacao.ErroLinha::getLinha).containsExactly(1500);
+	}
+	
+	private ResultadoImportacao importar(FormatoImportacao formato, String conteudo) throws Exception {
+		return this.importador.importar(1l, formato, new BufferedReader(new StringReader(conteudo)));
+	}
+}
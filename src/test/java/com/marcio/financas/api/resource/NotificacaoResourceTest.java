@@ -0,0 +1,128 @@
+package com.marcio.financas.api.resource;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import com.marcio.financas.api.seguranca.TokenFiltro;
+import com.marcio.financas.eventos.NotificacoesAoVivo;
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.enums.TipoEvento;
+import com.marcio.financas.service.EventoLancamentoService;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.TokenService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = NotificacaoResource.class)
+@AutoConfigureMockMvc
+@Import(NotificacoesAoVivo.class)
+@TestPropertySource(properties = "financas.notificacoes.maximo-conexoes=1")
+// cada teste ocupa a única conexão do nó
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class NotificacaoResourceTest {
+	
+	static final String API = "/api/lancamentos/notificacoes";
+	
+	@Autowired
+	MockMvc mvc;
+	
+	@Autowired
+	NotificacoesAoVivo notificacoes;
+	
+	@MockBean
+	LancamentoService lancamentoService;
+	
+	@MockBean
+	EventoLancamentoService eventoService;
+	
+	@MockBean
+	TokenService tokenService;
+	
+	@Test
+	public void deveGerarTokenDeNotificacoesParaOUsuarioAutenticado() throws Exception {
+		//cenário
+		Mockito.when(this.tokenService.gerarTokenNotificacoes(1l)).thenReturn("token-curto");
+		
+		//ação e verificação
+		this.mvc.perform(MockMvcRequestBuilders.post(API + "/token").requestAttr(TokenFiltro.USUARIO, 1l))
+				.andExpect(MockMvcResultMatchers.status().isOk())
+				.andExpect(MockMvcResultMatchers.content().string("token-curto"));
+	}
+	
+	@Test
+	public void deveEnviarOSaldoAoConectarEOsLancamentosDepois() throws Exception {
+		//cenário
+		Mockito.when(this.lancamentoService.obterVersao(1l)).thenReturn(4l, 5l);
+		Mockito.when(this.lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN, BigDecimal.valueOf(20));
+		
+		//ação
+		MockHttpServletResponse resposta = this.mvc.perform(MockMvcRequestBuilders.get(API).requestAttr(TokenFiltro.USUARIO, 1l))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn().getResponse();
+		this.aguardar(resposta, "\"saldo\":10");
+		this.notificacoes.receber(EventoLancamento.builder().id(1l).usuarioId(1l).versaoUsuario(5l).tipo(TipoEvento.INCLUSAO).lancamentoId(7l).build());
+		
+		//verificação
+		this.aguardar(resposta, "\"saldo\":20");
+		Assertions.assertThat(resposta.getContentAsString())
+				.contains("event:lancamento\nid:5\ndata:{\"id\":1")
+				.contains("\"lancamentoId\":7")
+				.doesNotContain("\"descricao\"");
+		
+		//segunda conexão acima do limite do nó
+		this.mvc.perform(MockMvcRequestBuilders.get(API).requestAttr(TokenFiltro.USUARIO, 1l))
+				.andExpect(MockMvcResultMatchers.status().isServiceUnavailable())
+				.andExpect(MockMvcResultMatchers.header().exists(HttpHeaders.RETRY_AFTER));
+	}
+	
+	@Test
+	public void naoDeveDescartarEventoAtrasadoEmRelacaoAoSaldo() throws Exception {
+		//cenário: o saldo já está na versão 6 quando os eventos 5 e 6 chegam do despachante
+		Mockito.when(this.lancamentoService.obterVersao(1l)).thenReturn(4l, 6l);
+		Mockito.when(this.lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN, BigDecimal.valueOf(30));
+		
+		//ação
+		MockHttpServletResponse resposta = this.mvc.perform(MockMvcRequestBuilders.get(API).requestAttr(TokenFiltro.USUARIO, 1l))
+				.andExpect(MockMvcResultMatchers.request().asyncStarted())
+				.andReturn().getResponse();
+		this.aguardar(resposta, "\"saldo\":10");
+		this.notificacoes.receber(EventoLancamento.builder().id(1l).usuarioId(1l).versaoUsuario(5l).tipo(TipoEvento.INCLUSAO).lancamentoId(7l).build());
+		this.aguardar(resposta, "\"saldo\":30");
+		this.notificacoes.receber(EventoLancamento.builder().id(2l).usuarioId(1l).versaoUsuario(6l).tipo(TipoEvento.INCLUSAO).lancamentoId(8l).build());
+		
+		//verificação
+		this.aguardar(resposta, "\"lancamentoId\":8");
+		Assertions.assertThat(resposta.getContentAsString())
+				.contains("event:saldo\nid:4\n")
+				.contains("event:lancamento\nid:5\n")
+				.contains("event:saldo\nid:5\n")
+				.contains("event:lancamento\nid:6\n");
+	}
+	
+	private void aguardar(MockHttpServletResponse resposta, String trecho) throws Exception {
+		long limite = System.currentTimeMillis() + 5000;
+		while (!resposta.getContentAsString().contains(trecho) && System.currentTimeMillis() < limite) {
+			Thread.sleep(10);
+		}
+		Assertions.assertThat(resposta.getContentAsString()).contains(trecho);
+	}
+}
@@ -1,5 +1,8 @@
 package com.marcio.financas.api.resource;
 
+import java.math.BigDecimal;
+import java.util.Optional;
+
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -7,6 +10,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.context.ActiveProfiles;
@@ -18,10 +22,13 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.marcio.financas.api.dto.UsuarioDTO;
+import com.marcio.financas.api.seguranca.TokenFiltro;
 import com.marcio.financas.exceptions.ErroAutenticacaoException;
 import com.marcio.financas.exceptions.RegraNegocioException;
 import com.marcio.financas.model.entity.Usuario;
 import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResumoMensalService;
+import com.marcio.financas.service.TokenService;
 import com.marcio.financas.service.UsuarioService;
 
 @ExtendWith(SpringExtension.class)
@@ -43,6 +50,12 @@ public class UsuarioResourceTest {
 	@MockBean
 	LancamentoService lancamentoService;
 	
+	@MockBean
+	TokenService tokenService;
+	
+	@MockBean
+	ResumoMensalService resumoService;
+	
 	@Test
 	public void deveAutenticarUmUsuario() throws Exception {
 		//cenário
@@ -53,6 +66,7 @@ public class UsuarioResourceTest {
 		Usuario usuario = Usuario.builder().id(1l).email(email).senha(senha).build();
 		
 		Mockito.when(this.service.autenticar(email, senha)).thenReturn(usuario);
+		Mockito.when(this.tokenService.gerarToken(usuario)).thenReturn("token");
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -68,7 +82,8 @@ public class UsuarioResourceTest {
 			.andExpect(MockMvcResultMatchers.status().isOk())
 			.andExpect(MockMvcResultMatchers.jsonPath("id").value(usuario.getId()))
 			.andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuario.getNome()))
-			.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()));
+			.andExpect(MockMvcResultMatchers.jsonPath("email").value(usuario.getEmail()))
+			.andExpect(MockMvcResultMatchers.jsonPath("token").value("token"));
 
 	}
 	
@@ -151,4 +166,63 @@ public class UsuarioResourceTest {
 			.andExpect(MockMvcResultMatchers.status().isBadRequest());
 
 	}
+	
+	@Test
+	public void deveInformarETagDoSaldo() throws Exception {
+		//cenário
+		Mockito.when(this.service.obterUsuario(1l)).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+		Mockito.when(this.lancamentoService.obterVersao(1l)).thenReturn(3l);
+		Mockito.when(this.lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+		
+		// execução e veificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).requestAttr(TokenFiltro.USUARIO, 1l).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, ETags.fraca(3l, 1l)))
+			.andExpect(MockMvcResultMatchers.content().string("10"));
+	}
+	
+	@Test
+	public void deveResponderNaoModificadoSemCalcularOSaldo() throws Exception {
+		//cenário
+		Mockito.when(this.service.obterUsuario(1l)).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+		Mockito.when(this.lancamentoService.obterVersao(1l)).thenReturn(3l);
+		
+		// execução e veificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).requestAttr(TokenFiltro.USUARIO, 1l).accept(JSON).header(HttpHeaders.IF_NONE_MATCH, ETags.fraca(3l, 1l)))
+			.andExpect(MockMvcResultMatchers.status().isNotModified())
+			.andExpect(MockMvcResultMatchers.content().string(""));
+		
+		Mockito.verify(this.lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+	}
+	
+	@Test
+	public void deveResponderSaldoQuandoAVersaoMudou() throws Exception {
+		//cenário
+		Mockito.when(this.service.obterUsuario(1l)).thenReturn(Optional.of(Usuario.builder().id(1l).build()));
+		Mockito.when(this.lancamentoService.obterVersao(1l)).thenReturn(4l);
+		Mockito.when(this.lancamentoService.obterSaldoPorUsuario(1l)).thenReturn(BigDecimal.TEN);
+		
+		// execução e veificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/1/saldo")).requestAttr(TokenFiltro.USUARIO, 1l).accept(JSON).header(HttpHeaders.IF_NONE_MATCH, ETags.fraca(3l, 1l)))
+			.andExpect(MockMvcResultMatchers.status().isOk())
+			.andExpect(MockMvcResultMatchers.header().string(HttpHeaders.ETAG, ETags.fraca(4l, 1l)));
+	}
+	
+	@Test
+	public void naoDeveInformarOSaldoDeOutroUsuario() throws Exception {
+		// execução e veificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/2/saldo")).requestAttr(TokenFiltro.USUARIO, 1l).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isForbidden());
+		
+		Mockito.verify(this.lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.anyLong());
+	}
+	
+	@Test
+	public void naoDeveInformarOResumoDeOutroUsuario() throws Exception {
+		// execução e veificação
+		mvc.perform(MockMvcRequestBuilders.get(API.concat("/2/resumo")).param("ano", "2020").requestAttr(TokenFiltro.USUARIO, 1l).accept(JSON))
+			.andExpect(MockMvcResultMatchers.status().isForbidden());
+		
+		Mockito.verifyNoInteractions(this.resumoService);
+	}
 }
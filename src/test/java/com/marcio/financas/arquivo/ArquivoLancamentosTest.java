@@ -0,0 +1,185 @@
+package com.marcio.financas.arquivo;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.CursorLancamento;
+import com.marcio.financas.shard.DiretorioShards;
+
+public class ArquivoLancamentosTest {
+	
+	@TempDir
+	Path diretorio;
+	
+	@Test
+	public void deveLerOsLancamentosArquivadosComoForamGravados() {
+		//cenário
+		ArquivoLancamentos arquivo = this.criarArquivo();
+		Lancamento aluguel = criarLancamento(2l, 2018, 3, "Aluguel", "1500.00", TipoLancamento.DESPESA);
+		aluguel.setStatus(StatusLancamento.EFETIVADO);
+		aluguel.setVersao(4l);
+		this.arquivar(arquivo, 2018, criarLancamento(1l, 2018, 5, "Salário", "3000.50", TipoLancamento.RECEITA), aluguel);
+		
+		//ação
+		List<Lancamento> lancamentos = arquivo.lancamentos(1l, 2018);
+		
+		//verificação
+		Assertions.assertThat(lancamentos).extracting(Lancamento::getId).containsExactly(2l, 1l);
+		Lancamento lido = lancamentos.get(0);
+		Assertions.assertThat(lido.getDescricao()).isEqualTo("Aluguel");
+		Assertions.assertThat(lido.getValor()).isEqualByComparingTo("1500.00");
+		Assertions.assertThat(lido.getTipo()).isEqualTo(TipoLancamento.DESPESA);
+		Assertions.assertThat(lido.getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		Assertions.assertThat(lido.getUsuario().getId()).isEqualTo(1l);
+		Assertions.assertThat(lido.getVersao()).isEqualTo(4l);
+		Assertions.assertThat(lancamentos.get(1).getVersao()).isEqualTo(0l);
+		
+		BigDecimal[] totais = arquivo.totais(1l);
+		Assertions.assertThat(totais[0]).isEqualByComparingTo("3000.50");
+		Assertions.assertThat(totais[1]).isEqualByComparingTo("1500.00");
+	}
+	
+	@Test
+	public void deveFiltrarPorDescricaoSemDiferenciarCaixa() {
+		//cenário
+		ArquivoLancamentos arquivo = this.criarArquivo();
+		this.arquivar(arquivo, 2018,
+				criarLancamento(1l, 2018, 1, "Conta de luz", "120", TipoLancamento.DESPESA),
+				criarLancamento(2l, 2018, 2, "Mercado", "300", TipoLancamento.DESPESA),
+				criarLancamento(3l, 2018, 2, "Conta de água", "80", TipoLancamento.DESPESA));
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(1l).build());
+		filtro.setDescricao("CONTA");
+		filtro.setMes(2);
+		
+		//ação
+		List<Lancamento> encontrados = arquivo.buscar(filtro);
+		
+		//verificação
+		Assertions.assertThat(encontrados).extracting(Lancamento::getId).containsExactly(3l);
+	}
+	
+	@Test
+	public void devePaginarDoMaisRecenteAoMaisAntigoEntreOsAnos() {
+		//cenário
+		ArquivoLancamentos arquivo = this.criarArquivo();
+		this.arquivar(arquivo, 2017, criarLancamento(1l, 2017, 12, "a", "10", TipoLancamento.RECEITA));
+		this.arquivar(arquivo, 2018,
+				criarLancamento(2l, 2018, 1, "b", "10", TipoLancamento.RECEITA),
+				criarLancamento(3l, 2018, 6, "c", "10", TipoLancamento.RECEITA));
+		
+		Lancamento filtro = new Lancamento();
+		filtro.setUsuario(Usuario.builder().id(1l).build());
+		
+		//ação
+		List<LancamentoListagem> primeira = arquivo.buscarPagina(filtro, null, 2);
+		List<LancamentoListagem> segunda = arquivo.buscarPagina(filtro, CursorLancamento.de(primeira.get(1)), 2);
+		
+		//verificação
+		Assertions.assertThat(primeira).extracting(LancamentoListagem::getId).containsExactly(3l, 2l);
+		Assertions.assertThat(segunda).extracting(LancamentoListagem::getId).containsExactly(1l);
+		
+		List<LancamentoListagem> tabela = Collections.singletonList(new LancamentoListagem(9l, "d", 1, 2020, BigDecimal.TEN, TipoLancamento.RECEITA, null, 0l));
+		Assertions.assertThat(ArquivoLancamentos.mesclar(tabela, primeira, 2)).extracting(LancamentoListagem::getId).containsExactly(9l, 3l);
+	}
+	
+	@Test
+	public void deveTotalizarPorMesTipoEStatus() {
+		//cenário
+		ArquivoLancamentos arquivo = this.criarArquivo();
+		this.arquivar(arquivo, 2018,
+				criarLancamento(1l, 2018, 4, "a", "10.25", TipoLancamento.DESPESA),
+				criarLancamento(2l, 2018, 4, "b", "4.75", TipoLancamento.DESPESA),
+				criarLancamento(3l, 2018, 4, "c", "100", TipoLancamento.RECEITA));
+		
+		//ação
+		TotalMensal total = arquivo.totalMensal(1l, 2018, 4, TipoLancamento.DESPESA, StatusLancamento.PENDENTE).get();
+		
+		//verificação
+		Assertions.assertThat(total.getTotal()).isEqualByComparingTo("15.00");
+		Assertions.assertThat(total.getQuantidade()).isEqualTo(2l);
+		Assertions.assertThat(arquivo.totaisMensaisDoShard()).hasSize(2);
+	}
+	
+	@Test
+	public void deveResolverSegmentosPendentesPeloEstadoDaTabela() {
+		//cenário
+		ArquivoLancamentos arquivo = this.criarArquivo();
+		arquivo.preparar(1l, 2017, Arrays.asList(criarLancamento(1l, 2017, 1, "removido", "10", TipoLancamento.RECEITA)));
+		arquivo.preparar(1l, 2018, Arrays.asList(criarLancamento(2l, 2018, 1, "ainda na tabela", "10", TipoLancamento.RECEITA)));
+		List<Long> naTabela = Arrays.asList(2l);
+		
+		//ação
+		Map<Long, List<Integer>> pendentes = arquivo.pendentes();
+		boolean removidoConfirmado = arquivo.resolver(1l, 2017, (ids) -> ids.stream().anyMatch(naTabela::contains));
+		boolean naTabelaConfirmado = arquivo.resolver(1l, 2018, (ids) -> ids.stream().anyMatch(naTabela::contains));
+		
+		//verificação
+		Assertions.assertThat(pendentes.get(1l)).containsExactlyInAnyOrder(2017, 2018);
+		Assertions.assertThat(removidoConfirmado).isTrue();
+		Assertions.assertThat(naTabelaConfirmado).isFalse();
+		Assertions.assertThat(arquivo.pendentes()).isEmpty();
+		Assertions.assertThat(arquivo.lancamentos(1l, 2017)).hasSize(1);
+		Assertions.assertThat(arquivo.lancamentos(1l, 2018)).isEmpty();
+		Assertions.assertThat(Files.exists(this.diretorio.resolve("1").resolve("2018.seg.pendente"))).isFalse();
+	}
+	
+	@Test
+	public void devePercorrerNaOrdemDeExportacao() {
+		//cenário
+		ArquivoLancamentos arquivo = this.criarArquivo();
+		this.arquivar(arquivo, 2018, criarLancamento(5l, 2018, 2, "b", "10", TipoLancamento.RECEITA));
+		this.arquivar(arquivo, 2017, criarLancamento(7l, 2017, 3, "a", "10", TipoLancamento.RECEITA));
+		
+		//ação
+		List<Long> ids = new ArrayList<>();
+		arquivo.percorrer(1l).forEachRemaining((lancamento) -> ids.add(lancamento.getId()));
+		
+		//verificação
+		Assertions.assertThat(ids).containsExactly(7l, 5l);
+	}
+	
+	private void arquivar(ArquivoLancamentos arquivo, int ano, Lancamento... lancamentos) {
+		arquivo.preparar(1l, ano, Arrays.stream(lancamentos).collect(Collectors.toList()));
+		arquivo.confirmar(1l, ano);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private ArquivoLancamentos criarArquivo() {
+		ObjectProvider<DiretorioShards> semShards = Mockito.mock(ObjectProvider.class);
+		return new ArquivoLancamentos(this.diretorio.toString(), semShards, 100);
+	}
+	
+	private static Lancamento criarLancamento(Long id, int ano, int mes, String descricao, String valor, TipoLancamento tipo) {
+		return Lancamento.builder()
+				.id(id)
+				.descricao(descricao)
+				.ano(ano)
+				.mes(mes)
+				.valor(new BigDecimal(valor))
+				.tipo(tipo)
+				.status(StatusLancamento.PENDENTE)
+				.usuario(Usuario.builder().id(1l).build())
+				.build();
+	}
+}
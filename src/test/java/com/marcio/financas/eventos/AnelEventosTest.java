@@ -0,0 +1,52 @@
+package com.marcio.financas.eventos;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+
+public class AnelEventosTest {
+	
+	@Test
+	public void deveEntregarOsEventosNaOrdemACadaConsumidor() {
+		//cenário
+		AnelEventos anel = new AnelEventos(4, 2);
+		anel.publicar(criarEvento(1l));
+		anel.publicar(criarEvento(2l));
+		
+		//ação
+		List<Long> primeiro = new ArrayList<>();
+		List<Long> segundo = new ArrayList<>();
+		anel.consumir(0, (evento) -> primeiro.add(evento.getId()));
+		anel.publicar(criarEvento(3l));
+		anel.consumir(0, (evento) -> primeiro.add(evento.getId()));
+		anel.consumir(1, (evento) -> segundo.add(evento.getId()));
+		
+		//verificação
+		Assertions.assertThat(primeiro).containsExactly(1l, 2l, 3l);
+		Assertions.assertThat(segundo).containsExactly(1l, 2l, 3l);
+	}
+	
+	@Test
+	public void naoDeveSobrescreverEventoAindaNaoLidoPeloConsumidorMaisLento() {
+		//cenário
+		AnelEventos anel = new AnelEventos(2, 2);
+		anel.publicar(criarEvento(1l));
+		anel.publicar(criarEvento(2l));
+		anel.consumir(0, (evento) -> { });
+		
+		//ação e verificação
+		Assertions.assertThat(anel.publicar(criarEvento(3l))).isFalse();
+		
+		anel.consumir(1, (evento) -> { });
+		Assertions.assertThat(anel.publicar(criarEvento(3l))).isTrue();
+		Assertions.assertThat(anel.ocupacao()).isEqualTo(1);
+	}
+	
+	private static EventoLancamento criarEvento(Long id) {
+		return EventoLancamento.builder().id(id).build();
+	}
+}
@@ -0,0 +1,71 @@
+package com.marcio.financas.eventos;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.repository.EventoLancamentoRepository;
+import com.marcio.financas.shard.ExecutorShards;
+import com.marcio.financas.shard.Shards;
+
+public class DespachanteEventosTest {
+	
+	EventoLancamentoRepository repository = Mockito.mock(EventoLancamentoRepository.class);
+	
+	@Test
+	public void deveEntregarOEventoDaLacunaQuandoATransacaoFizerCommit() {
+		//cenário
+		DespachanteEventos despachante = this.criarDespachante(Duration.ofMinutes(2));
+		Mockito.when(this.repository.maiorId()).thenReturn(Optional.of(5l));
+		Mockito.when(this.repository.findTop500ByIdGreaterThanOrderById(5l)).thenReturn(Arrays.asList(criarEvento(6l), criarEvento(8l)));
+		Mockito.when(this.repository.findTop500ByIdGreaterThanOrderById(8l)).thenReturn(Collections.emptyList());
+		
+		//ação
+		List<EventoLancamento> primeira = despachante.lerShard();
+		Mockito.when(this.repository.findAllById(Collections.singleton(7l))).thenReturn(Collections.singletonList(criarEvento(7l)));
+		List<EventoLancamento> segunda = despachante.lerShard();
+		List<EventoLancamento> terceira = despachante.lerShard();
+		
+		//verificação
+		Assertions.assertThat(primeira).extracting(EventoLancamento::getId).containsExactly(6l, 8l);
+		Assertions.assertThat(segunda).extracting(EventoLancamento::getId).containsExactly(7l);
+		Assertions.assertThat(terceira).isEmpty();
+	}
+	
+	@Test
+	public void deveDeixarDeConsultarALacunaAposAEspera() {
+		//cenário
+		DespachanteEventos despachante = this.criarDespachante(Duration.ZERO);
+		Mockito.when(this.repository.maiorId()).thenReturn(Optional.of(5l));
+		Mockito.when(this.repository.findTop500ByIdGreaterThanOrderById(5l)).thenReturn(Collections.singletonList(criarEvento(7l)));
+		Mockito.when(this.repository.findTop500ByIdGreaterThanOrderById(7l)).thenReturn(Collections.emptyList());
+		
+		//ação
+		despachante.lerShard();
+		despachante.lerShard();
+		despachante.lerShard();
+		
+		//verificação
+		Mockito.verify(this.repository, Mockito.times(1)).findAllById(ArgumentMatchers.any());
+	}
+	
+	@SuppressWarnings("unchecked")
+	private DespachanteEventos criarDespachante(Duration esperaLacuna) {
+		ObjectProvider<Shards> semShards = Mockito.mock(ObjectProvider.class);
+		return new DespachanteEventos(this.repository, new ExecutorShards(semShards), Collections.emptyList(), 4,
+				Duration.ofMillis(200), esperaLacuna);
+	}
+	
+	private static EventoLancamento criarEvento(Long id) {
+		return EventoLancamento.builder().id(id).usuarioId(1l).versaoUsuario(id).build();
+	}
+}
@@ -0,0 +1,62 @@
+package com.marcio.financas.ingestao;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+public class DiarioIngestaoTest {
+	
+	@TempDir
+	Path diretorio;
+	
+	@Test
+	public void deveManterNaCompactacaoSoOsPedidosSemEncerramento() {
+		//cenário
+		DiarioIngestao diario = new DiarioIngestao(this.diretorio.resolve("diario.jsonl"), 0);
+		diario.iniciar();
+		RegistroDiario encerrado = RegistroDiario.pedido("encerrado", criarLancamento());
+		RegistroDiario aberto = RegistroDiario.pedido("aberto", criarLancamento());
+		
+		//ação
+		diario.registrar(Arrays.asList(encerrado, aberto));
+		diario.registrar(Collections.singletonList(encerrado.gravado(1l)));
+		diario.close();
+		
+		//verificação
+		List<RegistroDiario> registros = new DiarioIngestao(this.diretorio.resolve("diario.jsonl"), 0).ler();
+		Assertions.assertThat(registros).containsExactly(aberto);
+	}
+	
+	@Test
+	public void deveRecusarRegistroDepoisDoEncerramento() {
+		//cenário
+		DiarioIngestao diario = new DiarioIngestao(this.diretorio.resolve("diario.jsonl"), Long.MAX_VALUE);
+		diario.iniciar();
+		diario.close();
+		
+		//ação e verificação
+		Assertions.assertThatThrownBy(() -> diario.registrar(Collections.singletonList(RegistroDiario.pedido("tarde", criarLancamento()))))
+				.isInstanceOf(IllegalStateException.class);
+	}
+	
+	private static Lancamento criarLancamento() {
+		return Lancamento.builder()
+				.descricao("lancamento")
+				.ano(2020)
+				.mes(1)
+				.valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.RECEITA)
+				.usuario(Usuario.builder().id(1l).build())
+				.build();
+	}
+}
@@ -0,0 +1,180 @@
+package com.marcio.financas.ingestao;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.marcio.financas.exceptions.FilaCheiaException;
+import com.marcio.financas.exceptions.RegraNegocioException;
+import com.marcio.financas.ingestao.SituacaoIngestao.Estado;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResultadoItemLote;
+import com.marcio.financas.shard.DiretorioShards;
+
+public class FilaIngestaoTest {
+	
+	@TempDir
+	Path diretorio;
+	
+	LancamentoService service = Mockito.mock(LancamentoService.class);
+	
+	List<FilaIngestao> filas = new ArrayList<>();
+	
+	@AfterEach
+	public void encerrar() throws InterruptedException {
+		for (FilaIngestao fila : this.filas) {
+			fila.encerrar();
+		}
+	}
+	
+	@Test
+	public void deveGravarPedidosEnfileiradosNumUnicoLote() throws Exception {
+		//cenário
+		this.gravarComIdsSequenciais();
+		FilaIngestao fila = this.criarFila(10);
+		SituacaoIngestao primeiro = fila.enfileirar(criarLancamento());
+		SituacaoIngestao segundo = fila.enfileirar(criarLancamento());
+		
+		//ação
+		fila.iniciar();
+		
+		//verificação
+		SituacaoIngestao gravado = this.aguardarEncerramento(fila, segundo.getProtocolo());
+		Assertions.assertThat(gravado.getEstado()).isEqualTo(Estado.GRAVADO);
+		Assertions.assertThat(gravado.getLancamento()).isEqualTo(2l);
+		Assertions.assertThat(fila.obterSituacao(primeiro.getProtocolo(), 1l).get().getLancamento()).isEqualTo(1l);
+		
+		ArgumentCaptor<List> lote = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(this.service).salvarLote(lote.capture());
+		Assertions.assertThat(lote.getValue()).hasSize(2);
+	}
+	
+	@Test
+	public void deveRecusarPedidoQuandoAFilaEstaCheia() {
+		//cenário
+		FilaIngestao fila = this.criarFila(1);
+		fila.enfileirar(criarLancamento());
+		
+		//ação e verificação
+		Assertions.assertThatThrownBy(() -> fila.enfileirar(criarLancamento())).isInstanceOf(FilaCheiaException.class);
+	}
+	
+	@Test
+	public void naoDeveEnfileirarLancamentoInvalido() {
+		//cenário
+		FilaIngestao fila = this.criarFila(1);
+		Lancamento lancamento = criarLancamento();
+		lancamento.setValor(BigDecimal.ZERO);
+		Mockito.doThrow(new RegraNegocioException("Informe um valor válido")).when(this.service).validar(lancamento);
+		
+		//ação e verificação
+		Assertions.assertThatThrownBy(() -> fila.enfileirar(lancamento)).isInstanceOf(RegraNegocioException.class);
+		fila.enfileirar(criarLancamento());
+	}
+	
+	@Test
+	public void deveRegravarNaSubidaOsPedidosPendentesDoDiario() throws Exception {
+		//cenário
+		FilaIngestao anterior = this.criarFila(10);
+		SituacaoIngestao pendente = anterior.enfileirar(criarLancamento());
+		anterior.encerrar();
+		this.filas.remove(anterior);
+		this.gravarComIdsSequenciais();
+		
+		//ação
+		FilaIngestao fila = this.criarFila(10);
+		fila.iniciar();
+		
+		//verificação
+		Assertions.assertThat(this.aguardarEncerramento(fila, pendente.getProtocolo()).getEstado()).isEqualTo(Estado.GRAVADO);
+		Mockito.verify(this.service).salvarLote(Mockito.anyList());
+	}
+	
+	@Test
+	@SuppressWarnings("unchecked")
+	public void deveRepetirOLoteQuandoAGravacaoFalhaForaDoBanco() throws Exception {
+		//cenário
+		this.gravarComIdsSequenciais();
+		DiretorioShards shards = Mockito.mock(DiretorioShards.class);
+		Mockito.when(shards.shardDe(1l)).thenThrow(new IllegalStateException("diretório indisponível")).thenReturn(0);
+		ObjectProvider<DiretorioShards> diretorio = Mockito.mock(ObjectProvider.class);
+		Mockito.when(diretorio.getIfAvailable()).thenReturn(shards);
+		FilaIngestao fila = this.criarFila(diretorio, 10);
+		SituacaoIngestao pedido = fila.enfileirar(criarLancamento());
+		
+		//ação
+		fila.iniciar();
+		
+		//verificação
+		Assertions.assertThat(this.aguardarEncerramento(fila, pedido.getProtocolo()).getEstado()).isEqualTo(Estado.GRAVADO);
+		Mockito.verify(shards, Mockito.times(2)).shardDe(1l);
+		Mockito.verify(this.service).salvarLote(Mockito.anyList());
+	}
+	
+	@Test
+	public void naoDeveInformarSituacaoDePedidoDeOutroUsuario() {
+		//cenário
+		FilaIngestao fila = this.criarFila(10);
+		SituacaoIngestao situacao = fila.enfileirar(criarLancamento());
+		
+		//verificação
+		Assertions.assertThat(fila.obterSituacao(situacao.getProtocolo(), 2l)).isEmpty();
+		Assertions.assertThat(fila.obterSituacao(situacao.getProtocolo(), 1l)).isPresent();
+	}
+	
+	private void gravarComIdsSequenciais() {
+		Mockito.when(this.service.salvarLote(Mockito.anyList())).thenAnswer((invocacao) -> {
+			List<ResultadoItemLote> resultados = new ArrayList<>();
+			for (int i = 0; i < ((List<?>) invocacao.getArgument(0)).size(); i++) {
+				resultados.add(ResultadoItemLote.sucesso(i, i + 1l));
+			}
+			return resultados;
+		});
+	}
+	
+	@SuppressWarnings("unchecked")
+	private FilaIngestao criarFila(int capacidade) {
+		return this.criarFila(Mockito.mock(ObjectProvider.class), capacidade);
+	}
+	
+	private FilaIngestao criarFila(ObjectProvider<DiretorioShards> shards, int capacidade) {
+		FilaIngestao fila = new FilaIngestao(this.service, shards, this.diretorio.resolve("diario.jsonl").toString(),
+				capacidade, 100, Duration.ofMillis(50));
+		this.filas.add(fila);
+		return fila;
+	}
+	
+	private SituacaoIngestao aguardarEncerramento(FilaIngestao fila, String protocolo) throws InterruptedException {
+		long limite = System.currentTimeMillis() + 5000;
+		SituacaoIngestao situacao = fila.obterSituacao(protocolo, 1l).get();
+		while (situacao.getEstado() == Estado.PENDENTE && System.currentTimeMillis() < limite) {
+			Thread.sleep(10);
+			situacao = fila.obterSituacao(protocolo, 1l).get();
+		}
+		return situacao;
+	}
+	
+	private static Lancamento criarLancamento() {
+		return Lancamento.builder()
+				.descricao("lancamento")
+				.ano(2020)
+				.mes(1)
+				.valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.RECEITA)
+				.usuario(Usuario.builder().id(1l).build())
+				.build();
+	}
+}
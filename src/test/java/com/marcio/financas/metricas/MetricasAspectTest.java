@@ -0,0 +1,69 @@
+package com.marcio.financas.metricas;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.marcio.financas.api.dto.UsuarioDTO;
+import com.marcio.financas.api.resource.UsuarioResource;
+import com.marcio.financas.exceptions.ErroAutenticacaoException;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.ResumoMensalService;
+import com.marcio.financas.service.TokenService;
+import com.marcio.financas.service.UsuarioService;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MetricasAspectTest {
+	
+	SimpleMeterRegistry registry = new SimpleMeterRegistry();
+	
+	MetricasAspect aspect = new MetricasAspect(registry);
+	
+	@BeforeEach
+	public void iniciarRequisicao() {
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+	}
+	
+	@AfterEach
+	public void encerrarRequisicao() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+	
+	@Test
+	public void deveMarcarEndpointComAExcecaoTratadaNoResource() {
+		//cenário
+		UsuarioService service = Mockito.mock(UsuarioService.class);
+		Mockito.when(service.autenticar("email", "senha")).thenThrow(new ErroAutenticacaoException("Senha inválida"));
+		
+		UsuarioResource resource = proxy(new UsuarioResource(proxy(service), Mockito.mock(LancamentoService.class),
+				Mockito.mock(TokenService.class), Mockito.mock(ResumoMensalService.class)));
+		
+		//ação
+		ResponseEntity resposta = resource.autenticar(UsuarioDTO.builder().email("email").senha("senha").build());
+		
+		//verificação
+		Assertions.assertThat(resposta.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+		Timer timer = registry.find(MetricasAspect.TIMER_ENDPOINT)
+				.tags("endpoint", "UsuarioResource.autenticar", "resultado", "ErroAutenticacaoException").timer();
+		Assertions.assertThat(timer).isNotNull();
+		Assertions.assertThat(timer.count()).isEqualTo(1);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T> T proxy(T alvo) {
+		AspectJProxyFactory fabrica = new AspectJProxyFactory(alvo);
+		fabrica.setProxyTargetClass(!(alvo instanceof UsuarioService));
+		fabrica.addAspect(this.aspect);
+		return (T) fabrica.getProxy();
+	}
+}
@@ -0,0 +1,70 @@
+package com.marcio.financas.model.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoEvento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ComponentScan(basePackageClasses = FinancasApplication.class)
+public class EventoLancamentoRepositoryTest {
+	
+	@Autowired
+	EventoLancamentoRepository repository;
+	
+	@Test
+	public void deveInserirLoteComIdsCrescentesNaOrdemDosEventos() {
+		//cenário
+		List<EventoLancamento> eventos = Arrays.asList(criarEvento(10l), criarEvento(11l), criarEvento(12l));
+		
+		//ação
+		repository.inserirLote(eventos);
+		
+		//verificação
+		Assertions.assertThat(eventos.get(0).getId()).isLessThan(eventos.get(1).getId());
+		Assertions.assertThat(eventos.get(1).getId()).isLessThan(eventos.get(2).getId());
+		
+		List<EventoLancamento> gravados = repository.buscarApos(1l, 0l, PageRequest.of(0, 10));
+		Assertions.assertThat(gravados).extracting(EventoLancamento::getLancamentoId).containsExactly(10l, 11l, 12l);
+		Assertions.assertThat(gravados.get(0).getTipoLancamento()).isEqualTo(TipoLancamento.RECEITA);
+		Assertions.assertThat(gravados.get(0).getValor()).isEqualByComparingTo("10");
+	}
+	
+	private static EventoLancamento criarEvento(Long lancamentoId) {
+		return EventoLancamento.builder()
+				.usuarioId(1l)
+				.versaoUsuario(1l)
+				.tipo(TipoEvento.INCLUSAO)
+				.lancamentoId(lancamentoId)
+				.descricao("lancamento")
+				.ano(2020)
+				.mes(1)
+				.tipoLancamento(TipoLancamento.RECEITA)
+				.status(StatusLancamento.PENDENTE)
+				.valor(BigDecimal.TEN)
+				.versao(0l)
+				.dataCriacao(LocalDateTime.now())
+				.build();
+	}
+}
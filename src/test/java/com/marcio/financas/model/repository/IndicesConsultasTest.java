@@ -0,0 +1,61 @@
+package com.marcio.financas.model.repository;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.FinancasApplication;
+
+/*
+ * Planos do H2 para as consultas que os índices das migrações atendem.
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ComponentScan(basePackageClasses = FinancasApplication.class)
+public class IndicesConsultasTest {
+	
+	@Autowired
+	JdbcTemplate jdbc;
+	
+	@Test
+	public void deveListarLancamentosPeloIndiceDeUsuarioAnoEMes() {
+		//ação
+		String plano = this.explicar("SELECT l.id FROM financas.lancamento l WHERE l.id_usuario = 1 AND l.ano = 2020 AND l.mes = 1 "
+				+ " ORDER BY l.ano DESC, l.mes DESC, l.id DESC");
+		
+		//verificação
+		Assertions.assertThat(plano).containsIgnoringCase("idx_lancamento_usuario_ano_mes");
+	}
+	
+	@Test
+	public void deveSomarOSaldoPeloIndiceDeUsuarioETipo() {
+		//ação
+		String plano = this.explicar("SELECT SUM(l.valor) FROM financas.lancamento l WHERE l.id_usuario = 1 AND l.tipo = 'RECEITA'");
+		
+		//verificação
+		Assertions.assertThat(plano).containsIgnoringCase("idx_lancamento_usuario_tipo");
+	}
+	
+	@Test
+	public void deveBuscarUsuarioPeloIndiceDeEmail() {
+		//ação
+		String plano = this.explicar("SELECT u.id FROM financas.usuario u WHERE u.email = 'usuario@email.com'");
+		
+		//verificação
+		Assertions.assertThat(plano).containsIgnoringCase("uk_usuario_email");
+	}
+	
+	private String explicar(String consulta) {
+		return this.jdbc.queryForObject("EXPLAIN " + consulta, String.class);
+	}
+}
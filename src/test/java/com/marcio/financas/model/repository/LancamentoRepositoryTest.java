@@ -0,0 +1,120 @@
+package com.marcio.financas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoListagem;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ComponentScan(basePackageClasses = FinancasApplication.class)
+public class LancamentoRepositoryTest {
+	
+	@Autowired
+	LancamentoRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void devePaginarPorAnoMesEIdDecrescentes() {
+		//cenário
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("marcio").email("marcio@teste.com.br").build());
+		Lancamento antigo = entityManager.persist(criarLancamento(usuario, 2019, 12, "aluguel"));
+		Lancamento recente = entityManager.persist(criarLancamento(usuario, 2020, 2, "Aluguel"));
+		Lancamento meio = entityManager.persist(criarLancamento(usuario, 2020, 1, "mercado"));
+		Lancamento filtro = Lancamento.builder().usuario(usuario).build();
+		
+		//ação
+		List<LancamentoListagem> primeira = repository.buscarPagina(filtro, null, 2);
+		List<LancamentoListagem> segunda = repository.buscarPagina(filtro, CursorLancamento.de(primeira.get(1)), 2);
+		
+		//verificação
+		Assertions.assertThat(primeira).extracting(LancamentoListagem::getId).containsExactly(recente.getId(), meio.getId());
+		Assertions.assertThat(segunda).extracting(LancamentoListagem::getId).containsExactly(antigo.getId());
+		Assertions.assertThat(primeira).extracting(LancamentoListagem::getVersao).containsExactly(recente.getVersao(), meio.getVersao());
+	}
+	
+	@Test
+	public void deveFiltrarPorDescricaoIgnorandoCaixa() {
+		//cenário
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("marcio").email("marcio@teste.com.br").build());
+		entityManager.persist(criarLancamento(usuario, 2020, 1, "Conta de LUZ"));
+		entityManager.persist(criarLancamento(usuario, 2020, 1, "mercado"));
+		Lancamento filtro = Lancamento.builder().usuario(usuario).descricao("luz").build();
+		
+		//ação
+		List<LancamentoListagem> resultado = repository.buscarPagina(filtro, null, 10);
+		
+		//verificação
+		Assertions.assertThat(resultado).extracting(LancamentoListagem::getDescricao).containsExactly("Conta de LUZ");
+	}
+	
+	@Test
+	public void deveEfetivarSomenteOsPendentesDoPeriodoEmUmaUnicaInstrucao() {
+		//cenário
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("marcio").email("marcio@teste.com.br").build());
+		Lancamento pendente = entityManager.persist(criarLancamento(usuario, 2020, 1, "aluguel"));
+		Lancamento cancelado = criarLancamento(usuario, 2020, 1, "mercado");
+		cancelado.setStatus(StatusLancamento.CANCELADO);
+		entityManager.persist(cancelado);
+		Lancamento outroMes = entityManager.persist(criarLancamento(usuario, 2020, 2, "luz"));
+		
+		//ação
+		int atualizados = repository.atualizarStatusPorPeriodo(usuario.getId(), 2020, 1, StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO);
+		
+		//verificação
+		Assertions.assertThat(atualizados).isEqualTo(1);
+		Assertions.assertThat(repository.findById(pendente.getId()).get().getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+		Assertions.assertThat(repository.findById(cancelado.getId()).get().getStatus()).isEqualTo(StatusLancamento.CANCELADO);
+		Assertions.assertThat(repository.findById(outroMes.getId()).get().getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+	}
+	
+	@Test
+	public void deveAtualizarSomenteOsCamposInformadosNaVersaoEsperada() {
+		//cenário
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("marcio").email("marcio@teste.com.br").build());
+		Lancamento lancamento = entityManager.persist(criarLancamento(usuario, 2020, 1, "aluguel"));
+		entityManager.flush();
+		Long versao = lancamento.getVersao();
+		
+		//ação
+		int atualizados = repository.atualizarParcial(lancamento.getId(), usuario.getId(), versao, Lancamento.builder().valor(BigDecimal.ONE).build());
+		int conflitantes = repository.atualizarParcial(lancamento.getId(), usuario.getId(), versao, Lancamento.builder().descricao("luz").build());
+		int deOutroUsuario = repository.atualizarParcial(lancamento.getId(), usuario.getId() + 1, versao + 1, Lancamento.builder().descricao("luz").build());
+		entityManager.clear();
+		
+		//verificação
+		Assertions.assertThat(atualizados).isEqualTo(1);
+		Assertions.assertThat(conflitantes).isZero();
+		Assertions.assertThat(deOutroUsuario).isZero();
+		Lancamento gravado = repository.findById(lancamento.getId()).get();
+		Assertions.assertThat(gravado.getValor()).isEqualByComparingTo("1");
+		Assertions.assertThat(gravado.getDescricao()).isEqualTo("aluguel");
+		Assertions.assertThat(gravado.getVersao()).isEqualTo(versao + 1);
+	}
+	
+	private Lancamento criarLancamento(Usuario usuario, int ano, int mes, String descricao) {
+		return Lancamento.builder().usuario(usuario).ano(ano).mes(mes).descricao(descricao)
+				.valor(BigDecimal.TEN).tipo(TipoLancamento.DESPESA).status(StatusLancamento.PENDENTE).build();
+	}
+}
@@ -0,0 +1,64 @@
+package com.marcio.financas.model.repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase.Replace;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.ResumoMensal;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = Replace.NONE)
+@ComponentScan(basePackageClasses = FinancasApplication.class)
+public class ResumoMensalRepositoryTest {
+	
+	@Autowired
+	ResumoMensalRepository repository;
+	
+	@Autowired
+	TestEntityManager entityManager;
+	
+	@Test
+	public void deveReconstruirResumoAgrupandoOsLancamentos() {
+		//cenário
+		Usuario usuario = entityManager.persist(Usuario.builder().nome("marcio").email("marcio@teste.com.br").build());
+		entityManager.persist(criarLancamento(usuario, 1, StatusLancamento.PENDENTE, 10));
+		entityManager.persist(criarLancamento(usuario, 1, StatusLancamento.PENDENTE, 5));
+		entityManager.persist(criarLancamento(usuario, 2, StatusLancamento.EFETIVADO, 7));
+		entityManager.flush();
+		
+		//ação
+		repository.apagarTodos();
+		int linhas = repository.inserirAPartirDosLancamentos();
+		entityManager.clear();
+		
+		//verificação
+		List<ResumoMensal> resumo = repository.findByUsuarioIdAndAnoOrderByMes(usuario.getId(), 2020);
+		Assertions.assertThat(linhas).isEqualTo(2);
+		Assertions.assertThat(resumo).extracting(ResumoMensal::getMes).containsExactly(1, 2);
+		Assertions.assertThat(resumo.get(0).getTotal()).isEqualByComparingTo("15");
+		Assertions.assertThat(resumo.get(0).getQuantidade()).isEqualTo(2l);
+	}
+	
+	private Lancamento criarLancamento(Usuario usuario, int mes, StatusLancamento status, long valor) {
+		return Lancamento.builder().usuario(usuario).ano(2020).mes(mes).descricao("aluguel")
+				.valor(BigDecimal.valueOf(valor)).tipo(TipoLancamento.DESPESA).status(status).build();
+	}
+}
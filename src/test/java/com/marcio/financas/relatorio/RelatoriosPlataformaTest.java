@@ -0,0 +1,140 @@
+package com.marcio.financas.relatorio;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.relatorio.RelatorioPlataforma.ValorUsuario;
+import com.marcio.financas.relatorio.SituacaoRelatorio.Estado;
+import com.marcio.financas.shard.ExecutorShards;
+import com.marcio.financas.shard.Shards;
+
+public class RelatoriosPlataformaTest {
+	
+	LancamentoRepository repository = Mockito.mock(LancamentoRepository.class);
+	
+	ArquivoLancamentos arquivo = Mockito.mock(ArquivoLancamentos.class);
+	
+	List<Object[]> linhas = new ArrayList<>();
+	
+	RelatoriosPlataforma relatorios;
+	
+	@AfterEach
+	public void encerrar() {
+		this.relatorios.encerrar();
+	}
+	
+	@Test
+	public void deveAgregarTodasAsFaixasDeIdsEmParalelo() throws Exception {
+		//cenário
+		this.incluir(1l, 1l, 2020, 1, TipoLancamento.RECEITA, "100");
+		this.incluir(2l, 1l, 2020, 1, TipoLancamento.DESPESA, "30.50");
+		this.incluir(3l, 2l, 2020, 1, TipoLancamento.DESPESA, "80");
+		this.incluir(5l, 2l, 2020, 2, TipoLancamento.RECEITA, "10");
+		this.incluir(7l, 3l, 2020, 2, TipoLancamento.DESPESA, "5");
+		this.relatorios = this.criarRelatorios(2);
+		
+		//ação
+		SituacaoRelatorio iniciado = this.relatorios.iniciar();
+		SituacaoRelatorio situacao = this.aguardarConclusao(iniciado.getProtocolo());
+		
+		//verificação
+		Assertions.assertThat(situacao.getEstado()).isEqualTo(Estado.CONCLUIDO);
+		Assertions.assertThat(situacao.getFaixas()).isEqualTo(4);
+		Assertions.assertThat(situacao.getFaixasProcessadas()).isEqualTo(4);
+		Assertions.assertThat(situacao.getLancamentosProcessados()).isEqualTo(5);
+		
+		RelatorioPlataforma resultado = situacao.getResultado();
+		Assertions.assertThat(resultado.getLancamentos()).isEqualTo(5);
+		Assertions.assertThat(resultado.getMeses()).extracting(RelatorioPlataforma.Mes::getMes).containsExactly(1, 2);
+		Assertions.assertThat(resultado.getMeses().get(0).getReceita()).isEqualByComparingTo("100");
+		Assertions.assertThat(resultado.getMeses().get(0).getDespesa()).isEqualByComparingTo("110.50");
+		Assertions.assertThat(resultado.getMaioresDespesas()).extracting(ValorUsuario::getUsuarioId).containsExactly(2l, 1l, 3l);
+		Assertions.assertThat(resultado.getUsuariosComSaldoNegativo()).isEqualTo(2);
+		Assertions.assertThat(resultado.getSaldosNegativos()).extracting(ValorUsuario::getUsuarioId).containsExactly(2l, 3l);
+		Assertions.assertThat(resultado.getSaldosNegativos().get(0).getValor()).isEqualByComparingTo("-70");
+	}
+	
+	@Test
+	public void deveSomarOsAnosArquivados() throws Exception {
+		//cenário
+		this.incluir(1l, 1l, 2020, 1, TipoLancamento.RECEITA, "10");
+		Mockito.when(this.arquivo.isHabilitado()).thenReturn(true);
+		Mockito.when(this.arquivo.totaisMensaisDoShard()).thenReturn(Collections.singletonList(
+				new TotalMensal(1l, 2015, 3, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, new BigDecimal("25"), 2l)));
+		Mockito.when(this.arquivo.totaisDoShard()).thenReturn(Collections.singletonMap(1l, new BigDecimal[] { BigDecimal.ZERO, new BigDecimal("25") }));
+		this.relatorios = this.criarRelatorios(10);
+		
+		//ação
+		SituacaoRelatorio situacao = this.aguardarConclusao(this.relatorios.iniciar().getProtocolo());
+		
+		//verificação
+		RelatorioPlataforma resultado = situacao.getResultado();
+		Assertions.assertThat(resultado.getLancamentos()).isEqualTo(3);
+		Assertions.assertThat(resultado.getMeses()).extracting(RelatorioPlataforma.Mes::getAno).containsExactly(2015, 2020);
+		Assertions.assertThat(resultado.getSaldosNegativos()).hasSize(1);
+		Assertions.assertThat(resultado.getSaldosNegativos().get(0).getValor()).isEqualByComparingTo("-15");
+	}
+	
+	@Test
+	public void deveConcluirSemLancamentos() throws Exception {
+		//cenário
+		this.relatorios = this.criarRelatorios(10);
+		
+		//ação
+		SituacaoRelatorio situacao = this.aguardarConclusao(this.relatorios.iniciar().getProtocolo());
+		
+		//verificação
+		Assertions.assertThat(situacao.getEstado()).isEqualTo(Estado.CONCLUIDO);
+		Assertions.assertThat(situacao.getFaixas()).isZero();
+		Assertions.assertThat(situacao.getResultado().getMeses()).isEmpty();
+	}
+	
+	private RelatoriosPlataforma criarRelatorios(long tamanhoFaixa) {
+		Mockito.when(this.repository.menorId()).thenAnswer((chamada) -> this.linhas.isEmpty() ? null
+				: this.linhas.stream().mapToLong((linha) -> (Long) linha[5]).min().getAsLong());
+		Mockito.when(this.repository.maiorId()).thenAnswer((chamada) -> this.linhas.isEmpty() ? null
+				: this.linhas.stream().mapToLong((linha) -> (Long) linha[5]).max().getAsLong());
+		Mockito.when(this.repository.valoresPorFaixaDeIds(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong())).thenAnswer((chamada) -> {
+			long inicio = chamada.getArgument(0);
+			long fim = chamada.getArgument(1);
+			return this.linhas.stream()
+					.filter((linha) -> (Long) linha[5] >= inicio && (Long) linha[5] < fim)
+					.map((linha) -> Arrays.copyOf(linha, 5))
+					.collect(Collectors.toList());
+		});
+		
+		ObjectProvider<Shards> semShards = Mockito.mock(ObjectProvider.class);
+		return new RelatoriosPlataforma(this.repository, this.arquivo, new ExecutorShards(semShards), tamanhoFaixa, 3, 100);
+	}
+	
+	private void incluir(Long id, Long usuarioId, int ano, int mes, TipoLancamento tipo, String valor) {
+		this.linhas.add(new Object[] { usuarioId, ano, mes, tipo, new BigDecimal(valor), id });
+	}
+	
+	private SituacaoRelatorio aguardarConclusao(String protocolo) throws InterruptedException {
+		for (int tentativa = 0; tentativa < 500; tentativa++) {
+			SituacaoRelatorio situacao = this.relatorios.obterSituacao(protocolo).get();
+			if (situacao.getEstado() != Estado.PROCESSANDO) {
+				return situacao;
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Relatório não concluído");
+	}
+}
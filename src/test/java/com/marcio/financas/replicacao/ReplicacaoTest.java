@@ -0,0 +1,52 @@
+package com.marcio.financas.replicacao;
+
+import javax.persistence.EntityManager;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "financas.datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_ON_EXIT=FALSE;DB_CLOSE_DELAY=-1")
+public class ReplicacaoTest {
+	
+	@Autowired
+	EntityManager entityManager;
+	
+	@Autowired
+	PlatformTransactionManager transactionManager;
+	
+	@AfterEach
+	public void limpar() {
+		LeituraPropria.limpar();
+	}
+	
+	@Test
+	public void deveEnviarTransacaoSomenteLeituraParaAReplica() {
+		Assertions.assertThat(this.bancoNaTransacao(true)).isEqualTo("REPLICA");
+		Assertions.assertThat(this.bancoNaTransacao(false)).isEqualTo("DB");
+	}
+	
+	@Test
+	public void deveLerDaPrimariaDepoisDeEscreverNaMesmaRequisicao() {
+		this.bancoNaTransacao(false);
+		Assertions.assertThat(this.bancoNaTransacao(true)).isEqualTo("DB");
+		
+		LeituraPropria.limpar();
+		Assertions.assertThat(this.bancoNaTransacao(true)).isEqualTo("REPLICA");
+	}
+	
+	private String bancoNaTransacao(boolean somenteLeitura) {
+		TransactionTemplate transacao = new TransactionTemplate(this.transactionManager);
+		transacao.setReadOnly(somenteLeitura);
+		return transacao.execute((status) -> (String) this.entityManager.createNativeQuery("SELECT DATABASE()").getSingleResult());
+	}
+}
@@ -0,0 +1,84 @@
+package com.marcio.financas.service;
+
+import java.math.BigDecimal;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.ResultadoAnalise;
+import com.marcio.financas.service.impl.AnaliseLancamentosUsuario;
+
+public class AnaliseLancamentosUsuarioTest {
+	
+	@Test
+	public void deveSomarEMediarApenasOsLancamentosDoFiltro() {
+		//cenário
+		AnaliseLancamentosUsuario analise = new AnaliseLancamentosUsuario(0);
+		analise.incluir(criarEstado(1l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, "10.00"));
+		analise.incluir(criarEstado(2l, 2020, 2, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, "20.02"));
+		analise.incluir(criarEstado(3l, 2020, 3, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, "500"));
+		analise.incluir(criarEstado(4l, 2020, 4, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, "7"));
+		
+		//ação
+		ResultadoAnalise resultado = analise.analisar(AnaliseLancamentosUsuario.periodo(2020, 1), AnaliseLancamentosUsuario.periodo(2020, 3),
+				(byte) TipoLancamento.DESPESA.ordinal(), AnaliseLancamentosUsuario.QUALQUER, 0);
+		
+		//verificação
+		Assertions.assertThat(resultado.getQuantidade()).isEqualTo(2);
+		Assertions.assertThat(resultado.getTotal()).isEqualByComparingTo("30.02");
+		Assertions.assertThat(resultado.getMedia()).isEqualByComparingTo("15.01");
+		Assertions.assertThat(resultado.getMaiores()).isEmpty();
+	}
+	
+	@Test
+	public void deveListarOsMaioresEmOrdemDecrescente() {
+		//cenário
+		AnaliseLancamentosUsuario analise = new AnaliseLancamentosUsuario(0);
+		String[] valores = { "5", "40", "12", "99.90", "1", "40.5" };
+		for (int i = 0; i < valores.length; i++) {
+			analise.incluir(criarEstado(i + 1l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, valores[i]));
+		}
+		
+		//ação
+		ResultadoAnalise resultado = analise.analisar(Integer.MIN_VALUE, Integer.MAX_VALUE,
+				AnaliseLancamentosUsuario.QUALQUER, AnaliseLancamentosUsuario.QUALQUER, 3);
+		
+		//verificação
+		Assertions.assertThat(resultado.getMaiores()).extracting(LancamentoListagem::getId).containsExactly(4l, 6l, 2l);
+		Assertions.assertThat(resultado.getMaiores().get(0).getValor()).isEqualByComparingTo("99.90");
+		Assertions.assertThat(resultado.getMaiores().get(0).getDescricao()).isEqualTo("lançamento");
+		Assertions.assertThat(resultado.getMaiores().get(0).getMes()).isEqualTo(1);
+		Assertions.assertThat(resultado.getMaiores().get(0).getAno()).isEqualTo(2020);
+	}
+	
+	@Test
+	public void deveRefletirAlteracoesERemocoes() {
+		//cenário
+		AnaliseLancamentosUsuario analise = new AnaliseLancamentosUsuario(0);
+		analise.incluir(criarEstado(1l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, "10"));
+		analise.incluir(criarEstado(2l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, "20"));
+		analise.incluir(criarEstado(3l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, "30"));
+		
+		//ação
+		analise.remover(1l);
+		analise.incluir(criarEstado(3l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.CANCELADO, "35"));
+		ResultadoAnalise pendentes = analise.analisar(Integer.MIN_VALUE, Integer.MAX_VALUE,
+				AnaliseLancamentosUsuario.QUALQUER, (byte) StatusLancamento.PENDENTE.ordinal(), 10);
+		ResultadoAnalise todos = analise.analisar(Integer.MIN_VALUE, Integer.MAX_VALUE,
+				AnaliseLancamentosUsuario.QUALQUER, AnaliseLancamentosUsuario.QUALQUER, 10);
+		
+		//verificação
+		Assertions.assertThat(analise.tamanho()).isEqualTo(2);
+		Assertions.assertThat(pendentes.getMaiores()).extracting(LancamentoListagem::getId).containsExactly(2l);
+		Assertions.assertThat(todos.getTotal()).isEqualByComparingTo("55");
+		Assertions.assertThat(todos.getMaiores()).extracting(LancamentoListagem::getId).containsExactly(3l, 2l);
+	}
+	
+	private LancamentoEstado criarEstado(Long id, int ano, int mes, TipoLancamento tipo, StatusLancamento status, String valor) {
+		return new LancamentoEstado(id, 1l, "lançamento", ano, mes, tipo, status, new BigDecimal(valor), null);
+	}
+}
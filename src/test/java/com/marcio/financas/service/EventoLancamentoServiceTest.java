@@ -0,0 +1,117 @@
+package com.marcio.financas.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.model.entity.EventoLancamento;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoEvento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.Pagina;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.EventoLancamentoRepository;
+import com.marcio.financas.model.repository.SaldoUsuarioRepository;
+import com.marcio.financas.service.impl.EventoLancamentoServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@ComponentScan(basePackageClasses = FinancasApplication.class)
+public class EventoLancamentoServiceTest {
+	
+	@SpyBean
+	EventoLancamentoServiceImpl service;
+	
+	@MockBean
+	EventoLancamentoRepository repository;
+	
+	@MockBean
+	SaldoUsuarioRepository saldoRepository;
+	
+	@Test
+	public void deveRegistrarExclusaoApenasComOId() {
+		//cenário
+		Mockito.when(this.saldoRepository.versao(1l)).thenReturn(Optional.of(8l));
+		
+		//ação
+		this.service.registrar(criarEstado(10l), null);
+		
+		//verificação
+		ArgumentCaptor<EventoLancamento> evento = ArgumentCaptor.forClass(EventoLancamento.class);
+		Mockito.verify(this.repository).save(evento.capture());
+		Assertions.assertThat(evento.getValue().getTipo()).isEqualTo(TipoEvento.EXCLUSAO);
+		Assertions.assertThat(evento.getValue().getLancamentoId()).isEqualTo(10l);
+		Assertions.assertThat(evento.getValue().getVersaoUsuario()).isEqualTo(8l);
+		Assertions.assertThat(evento.getValue().getValor()).isNull();
+	}
+	
+	@Test
+	public void deveRegistrarUmEventoPorMesNaTransicaoEmLote() {
+		//cenário
+		Mockito.when(this.saldoRepository.versao(1l)).thenReturn(Optional.of(3l));
+		List<TotalMensal> totais = Arrays.asList(
+				new TotalMensal(1l, 2020, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN, 1l),
+				new TotalMensal(1l, 2020, 1, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.ONE, 1l),
+				new TotalMensal(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN, 1l));
+		
+		//ação
+		this.service.registrarTransicao(totais, StatusLancamento.EFETIVADO);
+		
+		//verificação
+		ArgumentCaptor<List> eventos = ArgumentCaptor.forClass(List.class);
+		Mockito.verify(this.repository).inserirLote(eventos.capture());
+		Assertions.assertThat(eventos.getValue()).hasSize(2);
+		Mockito.verify(this.saldoRepository, Mockito.times(1)).versao(1l);
+	}
+	
+	@Test
+	public void naoDevePartirUmaEscritaEntrePaginas() {
+		//cenário
+		Mockito.when(this.repository.buscarApos(Mockito.eq(1l), Mockito.eq(0l), Mockito.any()))
+				.thenReturn(Arrays.asList(criarEvento(1l, 1l), criarEvento(2l, 2l), criarEvento(3l, 2l)));
+		
+		//ação
+		Pagina<EventoLancamento> pagina = this.service.buscarApos(1l, 0l, 2);
+		
+		//verificação
+		Assertions.assertThat(pagina.getItens()).extracting(EventoLancamento::getId).containsExactly(1l);
+		Assertions.assertThat(pagina.getProximoCursor()).isEqualTo("1");
+	}
+	
+	@Test
+	public void deveDevolverInteiraUmaEscritaMaiorQueAPagina() {
+		//cenário
+		List<EventoLancamento> versao = Arrays.asList(criarEvento(1l, 5l), criarEvento(2l, 5l), criarEvento(3l, 5l));
+		Mockito.when(this.repository.buscarApos(Mockito.eq(1l), Mockito.eq(4l), Mockito.any())).thenReturn(versao.subList(0, 2));
+		Mockito.when(this.repository.buscarDaVersao(1l, 5l)).thenReturn(versao);
+		
+		//ação
+		Pagina<EventoLancamento> pagina = this.service.buscarApos(1l, 4l, 1);
+		
+		//verificação
+		Assertions.assertThat(pagina.getItens()).hasSize(3);
+		Assertions.assertThat(pagina.getProximoCursor()).isEqualTo("5");
+	}
+	
+	private static LancamentoEstado criarEstado(Long id) {
+		return new LancamentoEstado(id, 1l, "lancamento", 2020, 1, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN, 0l);
+	}
+	
+	private static EventoLancamento criarEvento(Long id, Long versaoUsuario) {
+		return EventoLancamento.builder().id(id).usuarioId(1l).versaoUsuario(versaoUsuario).tipo(TipoEvento.INCLUSAO).build();
+	}
+}
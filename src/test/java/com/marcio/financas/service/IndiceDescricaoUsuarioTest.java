@@ -0,0 +1,72 @@
+package com.marcio.financas.service;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.repository.CursorLancamento;
+import com.marcio.financas.service.impl.IndiceDescricaoUsuario;
+
+public class IndiceDescricaoUsuarioTest {
+	
+	@Test
+	public void deveEncontrarTermoEmQualquerPosicaoIgnorandoCaixa() {
+		//cenário
+		IndiceDescricaoUsuario indice = new IndiceDescricaoUsuario(0);
+		indice.incluir(criarEstado(1l, 2020, 1, "Conta de LUZ"));
+		indice.incluir(criarEstado(2l, 2020, 2, "luz da garagem"));
+		indice.incluir(criarEstado(3l, 2020, 3, "mercado"));
+		
+		//ação
+		List<Long> ids = indice.buscar("Luz", null, null, null, 10);
+		
+		//verificação
+		Assertions.assertThat(ids).containsExactly(2l, 1l);
+	}
+	
+	@Test
+	public void deveAplicarFiltrosECursorNaOrdemDaListagem() {
+		//cenário
+		IndiceDescricaoUsuario indice = new IndiceDescricaoUsuario(0);
+		indice.incluir(criarEstado(1l, 2019, 12, "aluguel"));
+		indice.incluir(criarEstado(2l, 2020, 1, "aluguel"));
+		indice.incluir(criarEstado(3l, 2020, 1, "aluguel"));
+		
+		//ação
+		List<Long> primeira = indice.buscar("alu", null, null, null, 2);
+		List<Long> segunda = indice.buscar("alu", null, null, new CursorLancamento(2020, 1, 2l), 2);
+		List<Long> doAno = indice.buscar("al", 2019, null, null, 10);
+		
+		//verificação
+		Assertions.assertThat(primeira).containsExactly(3l, 2l);
+		Assertions.assertThat(segunda).containsExactly(1l);
+		Assertions.assertThat(doAno).containsExactly(1l);
+	}
+	
+	@Test
+	public void deveRefletirAlteracoesERemocoes() {
+		//cenário
+		IndiceDescricaoUsuario indice = new IndiceDescricaoUsuario(0);
+		indice.incluir(criarEstado(1l, 2020, 1, "padaria"));
+		indice.incluir(criarEstado(2l, 2020, 1, "farmácia"));
+		
+		//ação
+		indice.incluir(criarEstado(1l, 2020, 1, "açougue"));
+		indice.remover(2l);
+		
+		//verificação
+		Assertions.assertThat(indice.buscar("padaria", null, null, null, 10)).isEmpty();
+		Assertions.assertThat(indice.buscar("farm", null, null, null, 10)).isEmpty();
+		Assertions.assertThat(indice.buscar("AÇOU", null, null, null, 10)).containsExactly(1l);
+		Assertions.assertThat(indice.tamanho()).isEqualTo(1);
+	}
+	
+	private LancamentoEstado criarEstado(Long id, int ano, int mes, String descricao) {
+		return new LancamentoEstado(id, 1l, descricao, ano, mes, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.TEN, null);
+	}
+}
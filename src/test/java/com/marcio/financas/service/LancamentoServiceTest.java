@@ -3,13 +3,14 @@ package com.marcio.financas.service;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
-import org.junit.Assert;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
@@ -19,10 +20,18 @@ import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.exceptions.ConflitoVersaoException;
 import com.marcio.financas.exceptions.RegraNegocioException;
 import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
 import com.marcio.financas.model.enums.StatusLancamento;
 import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.LancamentoListagem;
+import com.marcio.financas.model.projection.Pagina;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.CursorLancamento;
 import com.marcio.financas.model.repository.LancamentoRepository;
 import com.marcio.financas.service.impl.LancamentoServiceImpl;
 
@@ -37,6 +46,24 @@ public class LancamentoServiceTest {
 	@MockBean
 	private LancamentoRepository repository;
 	
+	@MockBean
+	private SaldoUsuarioService saldoService;
+	
+	@MockBean
+	private IndiceDescricaoService indiceDescricao;
+	
+	@MockBean
+	private ResumoMensalService resumoService;
+	
+	@MockBean
+	private EventoLancamentoService eventoService;
+	
+	@MockBean
+	private ArquivoLancamentos arquivo;
+	
+	@MockBean
+	private AnaliseLancamentoService analiseService;
+	
 	@Test
 	public void devaSalvarLancamento() {
 		//cenário
@@ -56,6 +83,29 @@ public class LancamentoServiceTest {
 		Assertions.assertEquals(lancamento.getStatus(), lancamentoSalvo.getStatus());
 	}
 	
+	@Test
+	public void deveSalvarLoteInformandoResultadoPorItem() {
+		//cenário
+		Lancamento valido = this.criarLancamento();
+		Lancamento invalido = this.criarLancamento();
+		invalido.setMes(13);
+		Mockito.doNothing().when(this.service).validar(valido);
+		Mockito.when(this.repository.saveAll(Mockito.anyList())).thenAnswer((invocacao) -> {
+			valido.setId(10l);
+			return invocacao.getArgument(0);
+		});
+		
+		//Execução
+		List<ResultadoItemLote> resultados = this.service.salvarLote(Arrays.asList(invalido, valido));
+		
+		//Verificação
+		org.assertj.core.api.Assertions.assertThat(resultados).containsExactly(
+				ResultadoItemLote.falha(0, "Informe um mês válido"),
+				ResultadoItemLote.sucesso(1, 10l));
+		org.assertj.core.api.Assertions.assertThat(valido.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+		Mockito.verify(this.repository).saveAll(Arrays.asList(valido));
+	}
+	
 	@Test
 	public void naoDeveSalvarUmLancamentoQuandoHouverErroValidacao() {
 		//cenário
@@ -142,6 +192,44 @@ public class LancamentoServiceTest {
 			.contains(lancamento);
 	}
 	
+	@Test
+	public void deveRetornarCursorQuandoHouverProximaPagina() {
+		//cenário
+		LancamentoListagem primeiro = criarListagem(3l);
+		LancamentoListagem segundo = criarListagem(2l);
+		LancamentoListagem terceiro = criarListagem(1l);
+		
+		Mockito.when(this.repository.buscarPagina(Mockito.any(Lancamento.class), Mockito.isNull(), Mockito.eq(3)))
+			.thenReturn(Arrays.asList(primeiro, segundo, terceiro));
+		
+		//Execução
+		Pagina<LancamentoListagem> pagina = this.service.buscarPagina(new Lancamento(), null, 2);
+		
+		//Verificação
+		org.assertj.core.api.Assertions.assertThat(pagina.getItens()).containsExactly(primeiro, segundo);
+		org.assertj.core.api.Assertions.assertThat(CursorLancamento.decodificar(pagina.getProximoCursor()))
+			.isEqualTo(new CursorLancamento(2020, 2, 2l));
+	}
+	
+	@Test
+	public void naoDeveRetornarCursorNaUltimaPagina() {
+		//cenário
+		Mockito.when(this.repository.buscarPagina(Mockito.any(Lancamento.class), Mockito.any(), Mockito.anyInt()))
+			.thenReturn(Arrays.asList(criarListagem(1l)));
+		
+		//Execução
+		Pagina<LancamentoListagem> pagina = this.service.buscarPagina(new Lancamento(), new CursorLancamento(2020, 3, 9l).codificar(), 2);
+		
+		//Verificação
+		org.assertj.core.api.Assertions.assertThat(pagina.getItens()).hasSize(1);
+		org.assertj.core.api.Assertions.assertThat(pagina.getProximoCursor()).isNull();
+	}
+	
+	@Test
+	public void deveLancarErroParaTamanhoDePaginaInvalido() {
+		Assertions.assertThrows(RegraNegocioException.class, () -> this.service.buscarPagina(new Lancamento(), null, LancamentoService.TAMANHO_PAGINA_MAXIMO + 1));
+	}
+	
 	@Test
 	public void deveAutualizarParaNovoStatus() {
 		//cenário
@@ -160,6 +248,88 @@ public class LancamentoServiceTest {
 		Mockito.verify(this.service).atualizar(lancamento);
 	}
 	
+	@Test
+	public void deveAtualizarParcialmenteRegistrandoOEstadoAnteriorEOAtual() {
+		//cenário
+		LancamentoEstado anterior = new LancamentoEstado(1l, 1l, "aluguel", 2020, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.TEN, 3l);
+		Lancamento alteracoes = Lancamento.builder().valor(BigDecimal.ONE).build();
+		Mockito.when(this.repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+		Mockito.when(this.repository.atualizarParcial(1l, 1l, 3l, alteracoes)).thenReturn(1);
+		
+		//execução
+		LancamentoEstado atual = this.service.atualizarParcial(1l, 1l, 3l, alteracoes);
+		
+		//verificação
+		org.assertj.core.api.Assertions.assertThat(atual.getValor()).isEqualByComparingTo("1");
+		org.assertj.core.api.Assertions.assertThat(atual.getDescricao()).isEqualTo("aluguel");
+		org.assertj.core.api.Assertions.assertThat(atual.getVersao()).isEqualTo(4l);
+		Mockito.verify(this.saldoService).registrar(anterior, atual);
+		Mockito.verify(this.resumoService).registrar(anterior, atual);
+		Mockito.verify(this.repository, Mockito.never()).save(Mockito.any());
+	}
+	
+	@Test
+	public void deveLancarConflitoQuandoAVersaoLidaDifereDaInformada() {
+		//cenário
+		LancamentoEstado anterior = new LancamentoEstado(1l, 1l, "aluguel", 2020, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.TEN, 4l);
+		Mockito.when(this.repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+		
+		//execução e verificação
+		Assertions.assertThrows(ConflitoVersaoException.class,
+				() -> this.service.atualizarParcial(1l, 1l, 3l, Lancamento.builder().valor(BigDecimal.ONE).build()));
+		Mockito.verify(this.repository, Mockito.never()).atualizarParcial(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+		Mockito.verify(this.saldoService, Mockito.never()).registrar(Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveLancarConflitoQuandoOUpdateNaoEncontraAVersao() {
+		//cenário
+		LancamentoEstado anterior = new LancamentoEstado(1l, 1l, "aluguel", 2020, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.TEN, 3l);
+		Mockito.when(this.repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+		Mockito.when(this.repository.atualizarParcial(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(0);
+		
+		//execução e verificação
+		Assertions.assertThrows(ConflitoVersaoException.class,
+				() -> this.service.atualizarParcial(1l, 1l, 3l, Lancamento.builder().valor(BigDecimal.ONE).build()));
+		Mockito.verify(this.saldoService, Mockito.never()).registrar(Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void naoDeveAtualizarParcialmenteLancamentoDeOutroUsuario() {
+		//cenário
+		LancamentoEstado anterior = new LancamentoEstado(1l, 2l, "aluguel", 2020, 2, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.TEN, 3l);
+		Mockito.when(this.repository.obterEstadoPersistido(1l)).thenReturn(Optional.of(anterior));
+		
+		//execução e verificação
+		Assertions.assertThrows(RegraNegocioException.class,
+				() -> this.service.atualizarParcial(1l, 1l, 3l, Lancamento.builder().valor(BigDecimal.ONE).build()));
+		Mockito.verify(this.repository, Mockito.never()).atualizarParcial(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveEfetivarLancamentosDoPeriodoEmLote() {
+		//cenário
+		List<TotalMensal> totais = Arrays.asList(new TotalMensal(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN, 3l));
+		Mockito.when(this.repository.totaisPorPeriodo(1l, 2020, 2, StatusLancamento.PENDENTE)).thenReturn(totais);
+		Mockito.when(this.repository.atualizarStatusPorPeriodo(1l, 2020, 2, StatusLancamento.PENDENTE, StatusLancamento.EFETIVADO)).thenReturn(3);
+		
+		//Execução
+		int atualizados = this.service.atualizarStatusEmLote(1l, null, 2020, 2, StatusLancamento.EFETIVADO);
+		
+		//Verificação
+		org.assertj.core.api.Assertions.assertThat(atualizados).isEqualTo(3);
+		Mockito.verify(this.saldoService).registrarAlteracao(1l);
+		Mockito.verify(this.resumoService).registrarTransicao(totais, StatusLancamento.EFETIVADO);
+	}
+	
+	@Test
+	public void naoDeveVoltarLancamentosParaPendenteEmLote() {
+		Assertions.assertThrows(RegraNegocioException.class,
+				() -> this.service.atualizarStatusEmLote(1l, Arrays.asList(1l), null, null, StatusLancamento.PENDENTE));
+		
+		Mockito.verify(this.repository, Mockito.never()).atualizarStatusPorIds(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+	}
+	
 	@Test
 	public void deveRetornarUmaLancamentoPorId() {
 		//cenário
@@ -194,6 +364,34 @@ public class LancamentoServiceTest {
 		org.assertj.core.api.Assertions.assertThat(resultado.isPresent()).isFalse();
 	}
 	
+	@Test
+	public void deveDevolverAnoArquivadoParaATabelaAntesDeAlterar() {
+		//cenário
+		Lancamento arquivado = criarLancamento();
+		arquivado.setId(1l);
+		arquivado.setUsuario(Usuario.builder().id(1l).build());
+		
+		Mockito.when(this.arquivo.isHabilitado()).thenReturn(true);
+		Mockito.when(this.repository.contarPorIds(Arrays.asList(1l))).thenReturn(0l);
+		Mockito.when(this.arquivo.anosComIds(1l, Arrays.asList(1l))).thenReturn(Collections.singleton(2020));
+		Mockito.when(this.arquivo.lancamentos(1l, 2020)).thenReturn(Arrays.asList(arquivado));
+		Mockito.when(this.repository.findById(1l)).thenReturn(Optional.of(arquivado));
+		
+		//Execução
+		Optional<Lancamento> resultado = this.service.obterParaAlteracao(1l, 1l);
+		Optional<Lancamento> deOutroUsuario = this.service.obterParaAlteracao(1l, 2l);
+		
+		//Verificação
+		org.assertj.core.api.Assertions.assertThat(resultado).contains(arquivado);
+		org.assertj.core.api.Assertions.assertThat(deOutroUsuario).isEmpty();
+		
+		InOrder ordem = Mockito.inOrder(this.saldoService, this.repository, this.arquivo);
+		ordem.verify(this.saldoService).registrarAlteracao(1l);
+		ordem.verify(this.repository).restaurar(Arrays.asList(arquivado));
+		ordem.verify(this.arquivo).ocultar(1l, 2020);
+		Mockito.verify(this.saldoService, Mockito.never()).publicarAlteracao(1l);
+	}
+	
 	@Test
 	public void deveLancarErrosAoValidarLancamento() {
 		//cenário
@@ -236,6 +434,10 @@ public class LancamentoServiceTest {
 	
 
 	
+	public LancamentoListagem criarListagem(Long id) {
+		return new LancamentoListagem(id, "descricao", 2, 2020, BigDecimal.valueOf(1000), TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, 0l);
+	}
+	
 	public Lancamento criarLancamento() {
 		return Lancamento.builder().descricao("descricao")
 					.mes(2)
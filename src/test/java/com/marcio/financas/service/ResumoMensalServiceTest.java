@@ -0,0 +1,118 @@
+package com.marcio.financas.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.model.entity.ResumoMensal;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.projection.ResumoMes;
+import com.marcio.financas.model.projection.TotalMensal;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.model.repository.ResumoMensalRepository;
+import com.marcio.financas.service.impl.ResumoMensalServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@ComponentScan(basePackageClasses = FinancasApplication.class)
+public class ResumoMensalServiceTest {
+	
+	@SpyBean
+	ResumoMensalServiceImpl service;
+	
+	@MockBean
+	ResumoMensalRepository repository;
+	
+	@MockBean
+	LancamentoRepository lancamentoRepository;
+	
+	@MockBean
+	ArquivoLancamentos arquivo;
+	
+	@Test
+	public void deveMoverValorEntreStatusAoAtualizarLancamento() {
+		//cenário
+		Mockito.when(this.repository.movimentar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//ação
+		this.service.registrar(criarEstado(StatusLancamento.PENDENTE, 100), criarEstado(StatusLancamento.EFETIVADO, 100));
+		
+		//verificação
+		Mockito.verify(this.repository).movimentar(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(-100), -1l);
+		Mockito.verify(this.repository).movimentar(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(100), 1l);
+		Mockito.verify(this.repository, Mockito.never()).inserirSeAusente(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void naoDeveEscreverQuandoOResumoNaoMuda() {
+		//ação
+		this.service.registrar(criarEstado(StatusLancamento.PENDENTE, 100), criarEstado(StatusLancamento.PENDENTE, 100));
+		
+		//verificação
+		Mockito.verifyNoInteractions(this.repository);
+	}
+	
+	@Test
+	public void deveCriarLinhaAPartirDosLancamentosNaPrimeiraMovimentacaoDoMes() {
+		//cenário
+		TotalMensal total = new TotalMensal(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(300), 2l);
+		Mockito.when(this.lancamentoRepository.totalMensal(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO)).thenReturn(Optional.of(total));
+		Mockito.when(this.repository.inserirSeAusente(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//ação
+		this.service.registrarTransicao(Collections.singletonList(
+				new TotalMensal(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(100), 1l)), StatusLancamento.EFETIVADO);
+		
+		//verificação
+		Mockito.verify(this.repository).inserirSeAusente(1l, 2020, 2, "RECEITA", "EFETIVADO", BigDecimal.valueOf(300), 2l);
+		Mockito.verify(this.repository).inserirSeAusente(1l, 2020, 2, "RECEITA", "PENDENTE", BigDecimal.ZERO, 0l);
+	}
+	
+	@Test
+	public void deveMovimentarLinhaCriadaPorOutraTransacaoNaPrimeiraMovimentacaoDoMes() {
+		//cenário
+		Mockito.when(this.repository.movimentar(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any())).thenReturn(0, 1);
+		
+		//ação
+		this.service.registrar(null, criarEstado(StatusLancamento.PENDENTE, 100));
+		
+		//verificação
+		Mockito.verify(this.repository, Mockito.times(2)).movimentar(1l, 2020, 2, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(100), 1l);
+	}
+	
+	@Test
+	public void deveRetornarDozeMesesPreenchendoComZero() {
+		//cenário
+		List<ResumoMensal> linhas = Arrays.asList(ResumoMensal.builder().usuarioId(1l).ano(2020).mes(3)
+				.tipo(TipoLancamento.DESPESA).status(StatusLancamento.EFETIVADO).total(BigDecimal.TEN).quantidade(1l).build());
+		Mockito.when(this.repository.findByUsuarioIdAndAnoOrderByMes(1l, 2020)).thenReturn(linhas);
+		
+		//ação
+		List<ResumoMes> resumo = this.service.obterResumo(1l, 2020);
+		
+		//verificação
+		Assertions.assertThat(resumo).hasSize(12);
+		Assertions.assertThat(resumo.get(2).getTotais().get(TipoLancamento.DESPESA).get(StatusLancamento.EFETIVADO)).isEqualByComparingTo("10");
+		Assertions.assertThat(resumo.get(0).getTotais().get(TipoLancamento.RECEITA).get(StatusLancamento.PENDENTE)).isEqualByComparingTo("0");
+	}
+	
+	private LancamentoEstado criarEstado(StatusLancamento status, long valor) {
+		return new LancamentoEstado(1l, 1l, "descricao", 2020, 2, TipoLancamento.RECEITA, status, BigDecimal.valueOf(valor), null);
+	}
+}
@@ -0,0 +1,121 @@
+package com.marcio.financas.service;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.FinancasApplication;
+import com.marcio.financas.arquivo.ArquivoLancamentos;
+import com.marcio.financas.model.entity.SaldoUsuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.model.projection.LancamentoEstado;
+import com.marcio.financas.model.repository.LancamentoRepository;
+import com.marcio.financas.model.repository.SaldoUsuarioRepository;
+import com.marcio.financas.service.impl.SaldoUsuarioServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@ComponentScan(basePackageClasses = FinancasApplication.class)
+public class SaldoUsuarioServiceTest {
+	
+	@SpyBean
+	SaldoUsuarioServiceImpl service;
+	
+	@MockBean
+	SaldoUsuarioRepository repository;
+	
+	@MockBean
+	LancamentoRepository lancamentoRepository;
+	
+	@MockBean
+	ArquivoLancamentos arquivo;
+	
+	@Test
+	public void deveSomarReceitaAoIncluirLancamento() {
+		//cenário
+		Mockito.when(this.repository.movimentar(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//ação
+		this.service.registrar(null, criarEstado(TipoLancamento.RECEITA, 100));
+		
+		//verificação
+		Mockito.verify(this.repository).movimentar(1l, BigDecimal.valueOf(100), BigDecimal.ZERO);
+		Mockito.verify(this.repository, Mockito.never()).inserirSeAusente(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveMoverValorEntreTiposAoAtualizarLancamento() {
+		//cenário
+		Mockito.when(this.repository.movimentar(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//ação
+		this.service.registrar(criarEstado(TipoLancamento.RECEITA, 100), criarEstado(TipoLancamento.DESPESA, 40));
+		
+		//verificação
+		Mockito.verify(this.repository).movimentar(1l, BigDecimal.valueOf(-100), BigDecimal.valueOf(40));
+	}
+	
+	@Test
+	public void deveCriarLivroAPartirDosLancamentosNaPrimeiraMovimentacao() {
+		//cenário
+		Mockito.when(this.repository.movimentar(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(0);
+		Mockito.when(this.lancamentoRepository.saldoPorUsuarioETipoLancamento(1l, TipoLancamento.RECEITA)).thenReturn(BigDecimal.valueOf(300));
+		Mockito.when(this.repository.inserirSeAusente(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(1);
+		
+		//ação
+		this.service.registrar(null, criarEstado(TipoLancamento.RECEITA, 100));
+		
+		//verificação
+		Mockito.verify(this.repository).inserirSeAusente(1l, BigDecimal.valueOf(300), BigDecimal.ZERO);
+		Mockito.verify(this.repository, Mockito.times(1)).movimentar(Mockito.anyLong(), Mockito.any(), Mockito.any());
+	}
+	
+	@Test
+	public void deveMovimentarLivroCriadoPorOutraTransacaoNaPrimeiraMovimentacao() {
+		//cenário
+		Mockito.when(this.repository.movimentar(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(0, 1);
+		Mockito.when(this.repository.inserirSeAusente(Mockito.anyLong(), Mockito.any(), Mockito.any())).thenReturn(0);
+		
+		//ação
+		this.service.registrar(null, criarEstado(TipoLancamento.RECEITA, 100));
+		
+		//verificação
+		Mockito.verify(this.repository, Mockito.times(2)).movimentar(1l, BigDecimal.valueOf(100), BigDecimal.ZERO);
+	}
+	
+	@Test
+	public void deveReportarECorrigirDivergenciaNaReconciliacao() {
+		//cenário
+		SaldoUsuario saldo = SaldoUsuario.builder().usuarioId(1l).receita(BigDecimal.TEN).despesa(BigDecimal.ZERO).versao(3l).build();
+		Mockito.when(this.repository.findAll()).thenReturn(Collections.singletonList(saldo));
+		List<Object[]> linhas = Arrays.asList(
+				new Object[] { 1l, TipoLancamento.RECEITA, BigDecimal.valueOf(15) },
+				new Object[] { 1l, TipoLancamento.DESPESA, BigDecimal.valueOf(5) });
+		Mockito.when(this.lancamentoRepository.saldosPorUsuarioETipoLancamento()).thenReturn(linhas);
+		Mockito.when(this.repository.corrigir(1l, BigDecimal.valueOf(15), BigDecimal.valueOf(5), 3l)).thenReturn(1);
+		
+		//ação
+		List<DivergenciaSaldo> divergencias = this.service.reconciliar();
+		
+		//verificação
+		Assertions.assertThat(divergencias).hasSize(1);
+		Assertions.assertThat(divergencias.get(0).getReceitaCalculada()).isEqualByComparingTo("15");
+		Mockito.verify(this.repository).corrigir(1l, BigDecimal.valueOf(15), BigDecimal.valueOf(5), 3l);
+	}
+	
+	private LancamentoEstado criarEstado(TipoLancamento tipo, long valor) {
+		return new LancamentoEstado(1l, 1l, "descricao", 2020, 2, tipo, StatusLancamento.PENDENTE, BigDecimal.valueOf(valor), null);
+	}
+}
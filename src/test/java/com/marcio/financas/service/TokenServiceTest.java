@@ -0,0 +1,62 @@
+package com.marcio.financas.service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.service.impl.TokenServiceImpl;
+
+public class TokenServiceTest {
+	
+	static final Instant AGORA = Instant.parse("2020-01-01T10:00:00Z");
+	
+	TokenService service = new TokenServiceImpl("segredo", Duration.ofHours(1), Clock.fixed(AGORA, ZoneOffset.UTC));
+	
+	@Test
+	public void deveValidarTokenGerado() {
+		String token = service.gerarToken(Usuario.builder().id(7l).build());
+		
+		Assertions.assertThat(service.validarToken(token)).contains(7l);
+	}
+	
+	@Test
+	public void deveRecusarTokenAdulterado() {
+		String token = service.gerarToken(Usuario.builder().id(7l).build());
+		String outro = service.gerarToken(Usuario.builder().id(8l).build());
+		
+		String adulterado = outro.substring(0, outro.indexOf('.')) + token.substring(token.indexOf('.'));
+		
+		Assertions.assertThat(service.validarToken(adulterado)).isEmpty();
+		Assertions.assertThat(service.validarToken("lixo")).isEmpty();
+		Assertions.assertThat(service.validarToken("a.b")).isEmpty();
+	}
+	
+	@Test
+	public void deveRecusarTokenExpiradoOuDeOutraChave() {
+		String token = service.gerarToken(Usuario.builder().id(7l).build());
+		
+		TokenService depois = new TokenServiceImpl("segredo", Duration.ofHours(1), Clock.fixed(AGORA.plusSeconds(3600), ZoneOffset.UTC));
+		TokenService outraChave = new TokenServiceImpl("outro", Duration.ofHours(1), Clock.fixed(AGORA, ZoneOffset.UTC));
+		
+		Assertions.assertThat(depois.validarToken(token)).isEmpty();
+		Assertions.assertThat(outraChave.validarToken(token)).isEmpty();
+	}
+	
+	@Test
+	public void deveSepararTokenDeNotificacoesDoTokenDeAcesso() {
+		String acesso = service.gerarToken(Usuario.builder().id(7l).build());
+		String notificacoes = service.gerarTokenNotificacoes(7l);
+		
+		TokenService doisMinutosDepois = new TokenServiceImpl("segredo", Duration.ofHours(1), Clock.fixed(AGORA.plusSeconds(120), ZoneOffset.UTC));
+		
+		Assertions.assertThat(service.validarTokenNotificacoes(notificacoes)).contains(7l);
+		Assertions.assertThat(service.validarToken(notificacoes)).isEmpty();
+		Assertions.assertThat(service.validarTokenNotificacoes(acesso)).isEmpty();
+		Assertions.assertThat(doisMinutosDepois.validarTokenNotificacoes(notificacoes)).isEmpty();
+	}
+}
@@ -0,0 +1,69 @@
+package com.marcio.financas.service;
+
+import java.util.Optional;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.repository.UsuarioRepository;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class UsuarioCacheTest {
+	
+	@Autowired
+	UsuarioService service;
+	
+	@MockBean
+	UsuarioRepository repository;
+	
+	@Test
+	public void deveBuscarUsuarioNoBancoUmaUnicaVez() {
+		//cenário
+		Usuario usuario = Usuario.builder().id(10l).nome("marcio").email("marcio@teste.com").build();
+		Mockito.when(this.repository.findById(10l)).thenReturn(Optional.of(usuario));
+		
+		//ação
+		Optional<Usuario> primeira = this.service.obterUsuario(10l);
+		Optional<Usuario> segunda = this.service.obterUsuario(10l);
+		
+		//verificação
+		Assertions.assertThat(primeira).contains(usuario);
+		Assertions.assertThat(segunda).contains(usuario);
+		Mockito.verify(this.repository, Mockito.times(1)).findById(10l);
+	}
+	
+	@Test
+	public void naoDeveGuardarUsuarioInexistente() {
+		//cenário
+		Mockito.when(this.repository.findById(20l)).thenReturn(Optional.empty());
+		
+		//ação
+		this.service.obterUsuario(20l);
+		this.service.obterUsuario(20l);
+		
+		//verificação
+		Mockito.verify(this.repository, Mockito.times(2)).findById(20l);
+	}
+	
+	@Test
+	public void deveGuardarUsuarioRecemCadastrado() {
+		//cenário
+		Usuario usuario = Usuario.builder().id(30l).nome("marcio").email("novo@teste.com").build();
+		Mockito.when(this.repository.save(Mockito.any(Usuario.class))).thenReturn(usuario);
+		
+		//ação
+		this.service.salvar(Usuario.builder().email("novo@teste.com").build());
+		Optional<Usuario> encontrado = this.service.obterUsuario(30l);
+		
+		//verificação
+		Assertions.assertThat(encontrado).contains(usuario);
+		Mockito.verify(this.repository, Mockito.never()).findById(30l);
+	}
+}
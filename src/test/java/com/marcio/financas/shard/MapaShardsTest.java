@@ -0,0 +1,63 @@
+package com.marcio.financas.shard;
+
+import java.util.Arrays;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MapaShardsTest {
+	
+	@Test
+	public void deveResolverSempreOMesmoShardParaOUsuario() {
+		//cenário
+		MapaShards mapa = new MapaShards(Arrays.asList(0, 1, 2), 160);
+		MapaShards outro = new MapaShards(Arrays.asList(2, 1, 0), 160);
+		
+		//verificação
+		for (long usuario = 1; usuario <= 1000; usuario++) {
+			Assertions.assertThat(mapa.shardDe(usuario)).isEqualTo(outro.shardDe(usuario));
+		}
+	}
+	
+	@Test
+	public void deveDistribuirUsuariosSequenciaisEntreOsShards() {
+		//cenário
+		MapaShards mapa = new MapaShards(Arrays.asList(0, 1, 2), 160);
+		int[] usuarios = new int[3];
+		
+		//ação
+		for (long usuario = 1; usuario <= 30_000; usuario++) {
+			usuarios[mapa.shardDe(usuario)]++;
+		}
+		
+		//verificação
+		for (int quantidade : usuarios) {
+			Assertions.assertThat(quantidade).isBetween(8_000, 12_000);
+		}
+	}
+	
+	@Test
+	public void deveMoverApenasAFracaoDoNovoShardAoIncluirShard() {
+		//cenário
+		MapaShards antes = new MapaShards(Arrays.asList(0, 1, 2), 160);
+		MapaShards depois = new MapaShards(Arrays.asList(0, 1, 2, 3), 160);
+		int movidos = 0;
+		
+		//ação
+		for (long usuario = 1; usuario <= 40_000; usuario++) {
+			int novo = depois.shardDe(usuario);
+			if (antes.shardDe(usuario) != novo) {
+				Assertions.assertThat(novo).isEqualTo(3);
+				movidos++;
+			}
+		}
+		
+		//verificação
+		Assertions.assertThat(movidos).isBetween(8_000, 12_000);
+	}
+	
+	@Test
+	public void deveExigirAoMenosUmShard() {
+		Assertions.assertThatThrownBy(() -> new MapaShards(Arrays.asList(), 160)).isInstanceOf(IllegalArgumentException.class);
+	}
+}
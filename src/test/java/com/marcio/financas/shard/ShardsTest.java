@@ -0,0 +1,125 @@
+package com.marcio.financas.shard;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import com.marcio.financas.model.entity.Lancamento;
+import com.marcio.financas.model.entity.Usuario;
+import com.marcio.financas.model.enums.StatusLancamento;
+import com.marcio.financas.model.enums.TipoLancamento;
+import com.marcio.financas.service.LancamentoService;
+import com.marcio.financas.service.UsuarioService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "financas.shards.urls="
+		+ "jdbc:h2:mem:shard1;MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas,"
+		+ "jdbc:h2:mem:shard2;MODE=PostgreSQL;DB_CLOSE_ON_EXIT=FALSE;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas")
+public class ShardsTest {
+	
+	@Autowired
+	Shards shards;
+	
+	@Autowired
+	DiretorioShards diretorio;
+	
+	@Autowired
+	RebalanceadorShards rebalanceador;
+	
+	@Autowired
+	ExecutorShards executor;
+	
+	@Autowired
+	UsuarioService usuarioService;
+	
+	@Autowired
+	LancamentoService lancamentoService;
+	
+	@BeforeEach
+	public void separarIdsPorShard() {
+		// as migrações criam o esquema em todos os shards; os ids de lançamento ficam em faixas disjuntas
+		for (Integer shard : this.shards.getIds()) {
+			JdbcTemplate jdbc = this.jdbc(shard);
+			if (shard != ShardContexto.DIRETORIO && this.valorSequencia(jdbc) < shard * 1_000_000L) {
+				jdbc.execute("ALTER SEQUENCE financas.lancamento_id_seq RESTART WITH " + (shard * 1_000_000L + 1));
+			}
+		}
+	}
+	
+	@Test
+	public void deveGravarLancamentosNoShardDoUsuario() {
+		//cenário
+		Usuario usuario = this.usuarioService.salvar(Usuario.builder().nome("usuario").email("shard@email.com").senha("senha").build());
+		int shard = this.diretorio.shardDe(usuario.getId());
+		
+		//ação
+		ShardContexto.executar(shard, () -> this.lancamentoService.salvar(criarLancamento(usuario)));
+		
+		//verificação
+		for (Integer id : this.shards.getIds()) {
+			Assertions.assertThat(this.contar(id, "usuario", "id", usuario.getId())).isEqualTo(1);
+			Assertions.assertThat(this.contar(id, "lancamento", "id_usuario", usuario.getId())).isEqualTo(id == shard ? 1 : 0);
+		}
+	}
+	
+	@Test
+	public void deveMoverDadosDoUsuarioParaOutroShard() {
+		//cenário
+		Usuario usuario = this.usuarioService.salvar(Usuario.builder().nome("usuario").email("mover@email.com").senha("senha").build());
+		int origem = this.diretorio.shardDe(usuario.getId());
+		int destino = (origem + 1) % this.shards.getIds().size();
+		ShardContexto.executar(origem, () -> this.lancamentoService.salvar(criarLancamento(usuario)));
+		
+		//ação
+		this.rebalanceador.mover(usuario.getId(), destino);
+		
+		//verificação
+		Assertions.assertThat(this.diretorio.shardDe(usuario.getId())).isEqualTo(destino);
+		Assertions.assertThat(this.contar(origem, "lancamento", "id_usuario", usuario.getId())).isZero();
+		Assertions.assertThat(this.contar(destino, "lancamento", "id_usuario", usuario.getId())).isEqualTo(1);
+		Assertions.assertThat(this.contar(destino, "saldo_usuario", "id_usuario", usuario.getId())).isEqualTo(1);
+	}
+	
+	@Test
+	public void deveExecutarEmTodosOsShards() {
+		//ação
+		List<Integer> shards = this.executor.emTodos(ShardContexto::atual);
+		
+		//verificação
+		Assertions.assertThat(shards).containsExactlyElementsOf(this.shards.getIds());
+	}
+	
+	private Lancamento criarLancamento(Usuario usuario) {
+		return Lancamento.builder()
+				.descricao("lancamento")
+				.ano(2020)
+				.mes(1)
+				.valor(BigDecimal.TEN)
+				.tipo(TipoLancamento.RECEITA)
+				.status(StatusLancamento.PENDENTE)
+				.usuario(Usuario.builder().id(usuario.getId()).build())
+				.build();
+	}
+	
+	private long valorSequencia(JdbcTemplate jdbc) {
+		return jdbc.queryForObject("SELECT CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES WHERE SEQUENCE_SCHEMA = 'FINANCAS' AND SEQUENCE_NAME = 'LANCAMENTO_ID_SEQ'", Long.class);
+	}
+	
+	private int contar(int shard, String tabela, String coluna, Long valor) {
+		return this.jdbc(shard).queryForObject("SELECT COUNT(*) FROM financas." + tabela + " WHERE " + coluna + " = ?", Integer.class, valor);
+	}
+	
+	private JdbcTemplate jdbc(int shard) {
+		return new JdbcTemplate(this.shards.obter(shard));
+	}
+}